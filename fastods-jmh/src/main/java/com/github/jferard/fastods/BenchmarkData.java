@@ -0,0 +1,82 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Helpers to fill tables with reproducible data.
+ *
+ * @author Julien Férard
+ */
+final class BenchmarkData {
+    /**
+     * The seed: every benchmark sees the same data
+     */
+    static final long SEED = 20180101L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Fill a row with float, string and date values (one cell in three of each type)
+     *
+     * @param random   the source
+     * @param row      the row to fill
+     * @param colCount the number of cells
+     */
+    static void fillRow(final Random random, final TableRow row, final int colCount) {
+        final TableCellWalker walker = row.getWalker();
+        for (int c = 0; c < colCount; c++) {
+            switch (c % 3) {
+                case 0:
+                    walker.setFloatValue(random.nextFloat() * 1000);
+                    break;
+                case 1:
+                    walker.setStringValue("s<" + random.nextInt(1000) + ">");
+                    break;
+                default:
+                    walker.setDateValue(new Date(random.nextLong() >>> 24));
+                    break;
+            }
+            walker.next();
+        }
+    }
+
+    /**
+     * @param random   the source
+     * @param table    the table
+     * @param colCount the number of cells per row
+     * @return a new filled row
+     * @throws IOException if the table flushes
+     */
+    static TableRow nextFilledRow(final Random random, final Table table, final int colCount)
+            throws IOException {
+        final TableRow row = table.nextRow();
+        BenchmarkData.fillRow(random, row, colCount);
+        return row;
+    }
+}
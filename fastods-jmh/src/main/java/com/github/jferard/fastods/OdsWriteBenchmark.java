@@ -0,0 +1,129 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Benchmark of a full write: 100 000 rows x 20 columns, flushed to a file with
+ * {@code OdsFactory.createWriter(File)}, or saved in one shot with the anonymous writer.
+ *
+ * @author Julien Férard
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OdsWriteBenchmark {
+    @Param({"100000"})
+    private int rowCount;
+
+    @Param({"20"})
+    private int colCount;
+
+    @Param({"false", "true"})
+    private boolean compactRows;
+
+    private OdsFactory odsFactory;
+    private File file;
+
+    /**
+     * Create the factory and the destination file
+     *
+     * @throws IOException if the temp file can't be created
+     */
+    @Setup
+    public void setUp() throws IOException {
+        this.odsFactory = OdsFactory.create(Logger.getLogger("bench"), Locale.US);
+        if (this.compactRows)
+            this.odsFactory.tableConfig(TableConfig.builder().compactRows().build());
+        this.file = File.createTempFile("fastods-bench", ".ods");
+    }
+
+    /**
+     * Delete the destination file
+     */
+    @TearDown
+    public void tearDown() {
+        if (!this.file.delete()) this.file.deleteOnExit();
+    }
+
+    /**
+     * Write the rows with a flushing writer
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Benchmark
+    public void namedWriter() throws IOException {
+        final NamedOdsFileWriter writer = this.odsFactory.createWriter(this.file);
+        try {
+            final NamedOdsDocument document = writer.document();
+            this.fill(document);
+            document.save();
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Write the rows with an anonymous writer
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Benchmark
+    public void anonymousWriter() throws IOException {
+        final AnonymousOdsFileWriter writer = this.odsFactory.createWriter();
+        final OdsDocument document = writer.document();
+        this.fill(document);
+        writer.save(new NullOutputStream());
+    }
+
+    private void fill(final OdsDocument document) throws IOException {
+        final Table table = document.addTable("bench", this.rowCount, this.colCount);
+        final Random random = new Random(BenchmarkData.SEED);
+        for (int r = 0; r < this.rowCount; r++) {
+            BenchmarkData.nextFilledRow(random, table, this.colCount);
+        }
+    }
+}
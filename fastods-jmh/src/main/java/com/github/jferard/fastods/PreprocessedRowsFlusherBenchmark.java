@@ -0,0 +1,137 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.ByteChunkPool;
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+import com.github.jferard.fastods.util.ZipUTF8WriterImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+
+/**
+ * Benchmark of {@code PreprocessedRowsFlusher}: serialization of a block of rows and
+ * compression of the result.
+ *
+ * @author Julien Férard
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreprocessedRowsFlusherBenchmark {
+    private static final int COL_COUNT = 20;
+
+    @Param({"1024"})
+    private int rowCount;
+
+    private List<TableRow> rows;
+    private XMLUtil xmlUtil;
+    private ByteChunkPool chunkPool;
+    private ZipUTF8Writer writer;
+    private ZipUTF8Writer flatWriter;
+
+    /**
+     * Create the rows and the writer
+     *
+     * @throws IOException never
+     */
+    @Setup
+    public void setUp() throws IOException {
+        final OdsFactory odsFactory = OdsFactory.create(Logger.getLogger("bench"), Locale.US);
+        final OdsDocument document = odsFactory.createWriter().document();
+        final Table table = document.addTable("bench", this.rowCount, COL_COUNT);
+        final Random random = new Random(BenchmarkData.SEED);
+        this.rows = new ArrayList<TableRow>(this.rowCount);
+        for (int r = 0; r < this.rowCount; r++) {
+            this.rows.add(BenchmarkData.nextFilledRow(random, table, COL_COUNT));
+        }
+        this.xmlUtil = XMLUtil.create();
+        this.chunkPool = ByteChunkPool.create();
+        this.writer = ZipUTF8WriterImpl.builder().build(new NullOutputStream());
+        this.writer.putNextEntry(new ZipEntry("content.xml"));
+        this.flatWriter = ZipUTF8WriterImpl.builder().flatXML().build(new NullOutputStream());
+    }
+
+    /**
+     * Close the writer
+     *
+     * @throws IOException never
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        this.writer.closeEntry();
+        this.writer.close();
+        this.flatWriter.close();
+    }
+
+    /**
+     * Create the flusher, and write it without compression: the chunks go back to the pool, as
+     * in a document.
+     *
+     * @return the flusher
+     * @throws IOException never
+     */
+    @Benchmark
+    public OdsFlusher create() throws IOException {
+        // the flusher frees the rows of the list: give it a copy
+        final OdsFlusher flusher = PreprocessedRowsFlusher
+                .create(this.xmlUtil, new ArrayList<TableRow>(this.rows), this.chunkPool);
+        flusher.flushInto(this.xmlUtil, this.flatWriter);
+        return flusher;
+    }
+
+    /**
+     * @return the flusher
+     * @throws IOException never
+     */
+    @Benchmark
+    public OdsFlusher createAndFlush() throws IOException {
+        final OdsFlusher flusher = PreprocessedRowsFlusher
+                .create(this.xmlUtil, new ArrayList<TableRow>(this.rows), this.chunkPool);
+        flusher.flushInto(this.xmlUtil, this.writer);
+        return flusher;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Benchmarks of the setters of {@code TableCellImpl}: those are called once per cell.
+ *
+ * @author Julien Férard
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableCellBenchmark {
+    private static final int COL_COUNT = 20;
+    private static final int VALUE_COUNT = 1024;
+    private static final int MASK = VALUE_COUNT - 1;
+
+    private TableCell[] cells;
+    private float[] floats;
+    private String[] strings;
+    private Date[] dates;
+    private int i;
+
+    /**
+     * Create a row and its cells
+     *
+     * @throws IOException never
+     */
+    @Setup
+    public void setUp() throws IOException {
+        final OdsFactory odsFactory = OdsFactory.create(Logger.getLogger("bench"), Locale.US);
+        final OdsDocument document = odsFactory.createWriter().document();
+        final TableRow row = document.addTable("bench").nextRow();
+        this.cells = new TableCell[COL_COUNT];
+        for (int c = 0; c < COL_COUNT; c++) {
+            this.cells[c] = row.getOrCreateCell(c);
+        }
+
+        final Random random = new Random(BenchmarkData.SEED);
+        this.floats = new float[VALUE_COUNT];
+        this.strings = new String[VALUE_COUNT];
+        this.dates = new Date[VALUE_COUNT];
+        for (int j = 0; j < VALUE_COUNT; j++) {
+            this.floats[j] = random.nextFloat() * 1000;
+            this.strings[j] = "value " + random.nextInt();
+            this.dates[j] = new Date(random.nextLong() >>> 24);
+        }
+    }
+
+    private TableCell nextCell() {
+        this.i++;
+        return this.cells[this.i % COL_COUNT];
+    }
+
+    /**
+     * A float value
+     */
+    @Benchmark
+    public void setFloatValue() {
+        this.nextCell().setFloatValue(this.floats[this.i & MASK]);
+    }
+
+    /**
+     * A small int value (cached by WriteUtil)
+     */
+    @Benchmark
+    public void setFloatValueInt() {
+        this.nextCell().setFloatValue(this.i & MASK);
+    }
+
+    /**
+     * A string value
+     */
+    @Benchmark
+    public void setStringValue() {
+        this.nextCell().setStringValue(this.strings[this.i & MASK]);
+    }
+
+    /**
+     * A date value
+     */
+    @Benchmark
+    public void setDateValue() {
+        this.nextCell().setDateValue(this.dates[this.i & MASK]);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.XMLUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Benchmark of {@code TableRow.appendXMLToTable}: the serialization of a row.
+ *
+ * @author Julien Férard
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableRowBenchmark {
+    @Param({"20", "300"})
+    private int colCount;
+
+    private TableRow row;
+    private XMLUtil xmlUtil;
+    private StringBuilder sb;
+
+    /**
+     * Create and fill the row
+     *
+     * @throws IOException never
+     */
+    @Setup
+    public void setUp() throws IOException {
+        final OdsFactory odsFactory = OdsFactory.create(Logger.getLogger("bench"), Locale.US);
+        final OdsDocument document = odsFactory.createWriter().document();
+        final Table table = document.addTable("bench");
+        this.row = BenchmarkData
+                .nextFilledRow(new Random(BenchmarkData.SEED), table, this.colCount);
+        this.xmlUtil = XMLUtil.create();
+        this.sb = new StringBuilder(1024 * 32);
+    }
+
+    /**
+     * @return the builder, to avoid dead code elimination
+     * @throws IOException never
+     */
+    @Benchmark
+    public StringBuilder appendXMLToTable() throws IOException {
+        this.sb.setLength(0);
+        this.row.appendXMLToTable(this.xmlUtil, this.sb);
+        return this.sb;
+    }
+}
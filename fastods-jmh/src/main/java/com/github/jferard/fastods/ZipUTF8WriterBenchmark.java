@@ -0,0 +1,105 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+import com.github.jferard.fastods.util.ZipUTF8WriterBuilder;
+import com.github.jferard.fastods.util.ZipUTF8WriterImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+
+/**
+ * Benchmark of the ZipUTF8Writers: 10 MB of cell XML, with the charset encoder (OutputStreamWriter),
+ * with the direct encoder or with the parallel deflate.
+ *
+ * @author Julien Férard
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ZipUTF8WriterBenchmark {
+    private static final int CHUNK_COUNT = 1024;
+    private static final int TOTAL_CHARS = 10 * 1024 * 1024;
+
+    /**
+     * charset: OutputStreamWriter, direct: the direct encoder, parallel: the parallel deflate
+     */
+    @Param({"charset", "direct", "parallel"})
+    private String writer;
+
+    private String[] chunks;
+
+    /**
+     * Create the XML chunks
+     */
+    @Setup
+    public void setUp() {
+        final Random random = new Random(BenchmarkData.SEED);
+        this.chunks = new String[CHUNK_COUNT];
+        for (int i = 0; i < CHUNK_COUNT; i++) {
+            this.chunks[i] = "<table:table-cell table:style-name=\"cc-float-data\" office:value-type=\"float\" " +
+                    "office:value=\"" + random.nextFloat() + "\"/>";
+        }
+    }
+
+    /**
+     * Write and zip the chunks
+     *
+     * @throws IOException never
+     */
+    @Benchmark
+    public void write() throws IOException {
+        final ZipUTF8WriterBuilder builder = ZipUTF8WriterImpl.builder();
+        if ("direct".equals(this.writer)) builder.directEncoder();
+        else if ("parallel".equals(this.writer)) builder.parallelDeflate();
+        final ZipUTF8Writer writer = builder.build(new NullOutputStream());
+        writer.putNextEntry(new ZipEntry("content.xml"));
+        int written = 0;
+        int i = 0;
+        while (written < TOTAL_CHARS) {
+            final String chunk = this.chunks[i++ % CHUNK_COUNT];
+            writer.write(chunk);
+            written += chunk.length();
+        }
+        writer.closeEntry();
+        writer.close();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@code FastOdsXMLEscaper.escapeXMLAttribute}. The escaper is recreated at every
+ * iteration, hence the first pass over the strings measures the misses, and the following
+ * passes measure the hits. The {@code append...} benchmarks compare the escaped string appended
+ * to a StringBuilder and the escape-on-write.
+ *
+ * @author Julien Férard
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastOdsXMLEscaperBenchmark {
+    private static final int STRING_COUNT = 64 * 1024;
+    private static final int MASK = STRING_COUNT - 1;
+
+    /**
+     * plain: nothing to escape, special: one char out of ten has to be escaped
+     */
+    @Param({"plain", "special"})
+    private String kind;
+
+    private String[] strings;
+    private XMLEscaper escaper;
+    private StringBuilder sb;
+    private int i;
+
+    /**
+     * Create the strings
+     */
+    @Setup
+    public void setUp() {
+        final Random random = new Random(20180101L);
+        final String chars;
+        if ("plain".equals(this.kind)) {
+            chars = "abcdefghijklmnopqrstuvwxyz0123456789 ";
+        } else {
+            chars = "abcdefgh<>&\"'";
+        }
+        this.strings = new String[STRING_COUNT];
+        for (int j = 0; j < STRING_COUNT; j++) {
+            final int len = 5 + random.nextInt(30);
+            final StringBuilder sb = new StringBuilder(len);
+            for (int k = 0; k < len; k++) {
+                sb.append(chars.charAt(random.nextInt(chars.length())));
+            }
+            this.strings[j] = sb.toString();
+        }
+        this.sb = new StringBuilder(1024);
+    }
+
+    /**
+     * Create a new escaper
+     */
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        this.escaper = FastOdsXMLEscaper.create();
+    }
+
+    /**
+     * @return the escaped string
+     */
+    @Benchmark
+    public String escapeXMLAttribute() {
+        this.i++;
+        return this.escaper.escapeXMLAttribute(this.strings[this.i & MASK]);
+    }
+
+    /**
+     * @return the destination
+     */
+    @Benchmark
+    public StringBuilder appendEscapedString() {
+        this.i++;
+        this.sb.setLength(0);
+        return this.sb.append(this.escaper.escapeXMLAttribute(this.strings[this.i & MASK]));
+    }
+
+    /**
+     * @return the destination
+     * @throws IOException never
+     */
+    @Benchmark
+    public StringBuilder appendEscapedXMLAttribute() throws IOException {
+        this.i++;
+        this.sb.setLength(0);
+        this.escaper.appendEscapedXMLAttribute(this.sb, this.strings[this.i & MASK]);
+        return this.sb;
+    }
+}
@@ -29,6 +29,7 @@ import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.style.TableColumnStyle;
 import com.github.jferard.fastods.style.TableRowStyle;
 import com.github.jferard.fastods.style.TableStyle;
+import com.github.jferard.fastods.util.StringPool;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 
@@ -144,6 +145,11 @@ public class AnonymousOdsDocument implements OdsDocument {
         this.commonOdsDocument.addAutofilter(table, r1, c1, r2, c2);
     }
 
+    @Override
+    public StringPool getStringPool() {
+        return this.commonOdsDocument.getStringPool();
+    }
+
     /**
      * Saves a file
      *
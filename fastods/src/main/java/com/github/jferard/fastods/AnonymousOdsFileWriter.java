@@ -23,6 +23,7 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.util.WriterResourcePool;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 import com.github.jferard.fastods.util.ZipUTF8WriterBuilder;
 import com.github.jferard.fastods.util.ZipUTF8WriterImpl;
@@ -47,6 +48,7 @@ import java.util.logging.Logger;
 public class AnonymousOdsFileWriter {
     private final AnonymousOdsDocument document;
     private final Logger logger;
+    private final WriterResourcePool resourcePool;
 
     /**
      * Create a new ODS file.
@@ -55,8 +57,21 @@ public class AnonymousOdsFileWriter {
      * @param document the document to write
      */
     AnonymousOdsFileWriter(final Logger logger, final AnonymousOdsDocument document) {
+        this(logger, document, null);
+    }
+
+    /**
+     * Create a new ODS file.
+     *
+     * @param logger       the logger
+     * @param document     the document to write
+     * @param resourcePool the pool of Deflaters and buffers for save(OutputStream), or null
+     */
+    AnonymousOdsFileWriter(final Logger logger, final AnonymousOdsDocument document,
+                           final WriterResourcePool resourcePool) {
         this.logger = logger;
         this.document = document;
+        this.resourcePool = resourcePool;
     }
 
     /**
@@ -74,6 +89,7 @@ public class AnonymousOdsFileWriter {
      */
     public void save(final OutputStream out) throws IOException {
         final ZipUTF8WriterBuilder builder = ZipUTF8WriterImpl.builder();
+        if (this.resourcePool != null) builder.resourcePool(this.resourcePool);
         this.save(builder.build(out));
     }
 
@@ -131,4 +147,4 @@ public class AnonymousOdsFileWriter {
         }
     }
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.XMLUtil;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The pre-rendered beginnings of the cells of a table, keyed by the covered flag, the identity of
+ * the style and the type. A fragment contains the tag name, the escaped style name, the value type
+ * and the name of the value attribute, e.g.
+ * {@code <table:table-cell table:style-name="s" office:value-type="float" office:value="}.
+ * The cell appends its value and the closing quote.
+ *
+ * The rows may be serialized by several threads: the fragments are stored in a concurrent map
+ * of arrays, and a fragment that is rendered twice is identical.
+ *
+ * @author Julien Férard
+ */
+class CellOpenFragments {
+    /**
+     * The index 0 is for the cells without type
+     */
+    private static final int TYPE_COUNT = TableCell.Type.values().length + 1;
+    private static final String CELL_TAG = "<table:table-cell";
+    private static final String COVERED_CELL_TAG = "<table:covered-table-cell";
+
+    private final ConcurrentMap<TableCellStyle, String[]> fragmentsByStyle;
+    private final String[] noStyleFragments;
+
+    /**
+     * Create a new, empty, cache
+     */
+    CellOpenFragments() {
+        this.fragmentsByStyle = new ConcurrentHashMap<TableCellStyle, String[]>();
+        this.noStyleFragments = new String[2 * TYPE_COUNT];
+    }
+
+    /**
+     * @param util    an util to render the fragment on the first call
+     * @param covered true if the cell is covered
+     * @param style   the style of the cell, or null
+     * @param type    the type of the cell, or null
+     * @return the beginning of the cell
+     * @throws IOException never
+     */
+    public String get(final XMLUtil util, final boolean covered, final TableCellStyle style,
+                      final TableCell.Type type) throws IOException {
+        final String[] fragments = this.getFragments(style);
+        final int index = (covered ? TYPE_COUNT : 0) + (type == null ? 0 : type.ordinal() + 1);
+        String fragment = fragments[index];
+        if (fragment == null) {
+            fragment = CellOpenFragments.render(util, covered, style, type);
+            fragments[index] = fragment;
+        }
+        return fragment;
+    }
+
+    /**
+     * Append the beginning of a cell. A run of identical cells is written once, with a
+     * table:number-columns-repeated attribute just after the tag name.
+     *
+     * @param util       an util
+     * @param appendable the destination
+     * @param covered    true if the cell is covered
+     * @param style      the style of the cell, or null
+     * @param type       the type of the cell, or null
+     * @param repeat     the number of identical cells
+     * @throws IOException if an I/O error occurs
+     */
+    public void append(final XMLUtil util, final Appendable appendable, final boolean covered,
+                       final TableCellStyle style, final TableCell.Type type, final int repeat)
+            throws IOException {
+        final String fragment = this.get(util, covered, style, type);
+        if (repeat <= 1) {
+            appendable.append(fragment);
+        } else {
+            final int tagLength = covered ? COVERED_CELL_TAG.length() : CELL_TAG.length();
+            appendable.append(fragment, 0, tagLength);
+            util.appendAttribute(appendable, "table:number-columns-repeated", repeat);
+            appendable.append(fragment, tagLength, fragment.length());
+        }
+    }
+
+    private String[] getFragments(final TableCellStyle style) {
+        if (style == null) return this.noStyleFragments;
+
+        String[] fragments = this.fragmentsByStyle.get(style);
+        if (fragments == null) {
+            fragments = new String[2 * TYPE_COUNT];
+            final String[] previous = this.fragmentsByStyle.putIfAbsent(style, fragments);
+            if (previous != null) fragments = previous;
+        }
+        return fragments;
+    }
+
+    private static String render(final XMLUtil util, final boolean covered,
+                                 final TableCellStyle style, final TableCell.Type type)
+            throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        if (covered) sb.append(COVERED_CELL_TAG);
+        else sb.append(CELL_TAG);
+        if (style != null) util.appendEAttribute(sb, "table:style-name", style.getName());
+        if (type != null) {
+            util.appendAttribute(sb, "office:value-type", type.getValueAttribute());
+            sb.append(' ').append(type.getValueType()).append("=\"");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.datastyle.DataStyle;
+import com.github.jferard.fastods.odselement.StylesContainer;
+import com.github.jferard.fastods.style.TableCellStyle;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The memoized resolution of the styles of the cells of a table. When a cell gets a data style,
+ * the current cell style and the data style are mixed into an anonymous style that is registered
+ * in the styles container. The resolution depends only on the identity of the two styles, hence
+ * it is computed on the first use and then looked up:
+ * <ul>
+ * <li>by column, for the cells that have no style (the default cell style of the column is
+ * used);</li>
+ * <li>by cell style, for the other cells.</li>
+ * </ul>
+ *
+ * A table is filled by one thread: this class is not thread safe.
+ *
+ * @author Julien Férard
+ */
+class CellStyleResolver {
+    private static final int INITIAL_COLUMN_CAPACITY = 16;
+
+    private final StylesContainer stylesContainer;
+    private final Map<TableCellStyle, Resolutions> resolutionsByStyle;
+    private Resolutions[] resolutionsByColumn;
+
+    /**
+     * @param stylesContainer the container that holds the anonymous styles
+     */
+    CellStyleResolver(final StylesContainer stylesContainer) {
+        this.stylesContainer = stylesContainer;
+        this.resolutionsByStyle = new IdentityHashMap<TableCellStyle, Resolutions>();
+        this.resolutionsByColumn = new Resolutions[INITIAL_COLUMN_CAPACITY];
+    }
+
+    /**
+     * @param curStyle  the current style of the cell
+     * @param dataStyle the data style
+     * @return the style of the cell
+     */
+    public TableCellStyle resolve(final TableCellStyle curStyle, final DataStyle dataStyle) {
+        Resolutions resolutions = this.resolutionsByStyle.get(curStyle);
+        if (resolutions == null) {
+            resolutions = new Resolutions();
+            this.resolutionsByStyle.put(curStyle, resolutions);
+        }
+        TableCellStyle style = resolutions.get(dataStyle);
+        if (style == null) {
+            style = this.register(curStyle, dataStyle);
+            resolutions.put(dataStyle, style);
+        }
+        return style;
+    }
+
+    /**
+     * @param table       the table
+     * @param columnIndex the index of the column of a cell that has no style
+     * @param dataStyle   the data style
+     * @return the style of the cell
+     */
+    public TableCellStyle resolveForColumn(final Table table, final int columnIndex,
+                                           final DataStyle dataStyle) {
+        this.ensureColumnCapacity(columnIndex);
+        Resolutions resolutions = this.resolutionsByColumn[columnIndex];
+        if (resolutions == null) {
+            resolutions = new Resolutions();
+            this.resolutionsByColumn[columnIndex] = resolutions;
+        }
+        TableCellStyle style = resolutions.get(dataStyle);
+        if (style == null) {
+            style = this.resolve(table.findDefaultCellStyle(columnIndex), dataStyle);
+            resolutions.put(dataStyle, style);
+        }
+        return style;
+    }
+
+    /**
+     * Forget the resolutions of a column, because the default cell style of the column changed.
+     *
+     * @param columnIndex the index of the column
+     */
+    public void clearColumn(final int columnIndex) {
+        if (columnIndex < this.resolutionsByColumn.length)
+            this.resolutionsByColumn[columnIndex] = null;
+    }
+
+    private void ensureColumnCapacity(final int columnIndex) {
+        if (columnIndex < this.resolutionsByColumn.length) return;
+
+        int capacity = this.resolutionsByColumn.length * 2;
+        while (capacity <= columnIndex) capacity *= 2;
+        final Resolutions[] newResolutions = new Resolutions[capacity];
+        System.arraycopy(this.resolutionsByColumn, 0, newResolutions, 0,
+                this.resolutionsByColumn.length);
+        this.resolutionsByColumn = newResolutions;
+    }
+
+    private TableCellStyle register(final TableCellStyle curStyle, final DataStyle dataStyle) {
+        this.stylesContainer.addDataStyle(dataStyle);
+        final DataStyle curDataStyle = curStyle.getDataStyle();
+        if (curDataStyle == null) { // no data style yet: create a custom child style
+            return this.stylesContainer.addChildCellStyle(curStyle, dataStyle);
+        } else { // a style and a datastyle => create a custom sibling cell style
+            return this.stylesContainer
+                    .addChildCellStyle(curStyle.getParentCellStyle(), dataStyle);
+        }
+    }
+
+    /**
+     * The resolved styles for one cell style or one column. There are only a few data styles
+     * (boolean, currency, date, float, percentage, time) per table: a linear scan on the
+     * identities is faster than a hash.
+     */
+    private static class Resolutions {
+        private DataStyle[] dataStyles;
+        private TableCellStyle[] styles;
+        private int size;
+
+        Resolutions() {
+            this.dataStyles = new DataStyle[4];
+            this.styles = new TableCellStyle[4];
+            this.size = 0;
+        }
+
+        TableCellStyle get(final DataStyle dataStyle) {
+            for (int i = 0; i < this.size; i++) {
+                if (this.dataStyles[i] == dataStyle) return this.styles[i];
+            }
+            return null;
+        }
+
+        void put(final DataStyle dataStyle, final TableCellStyle style) {
+            if (this.size == this.dataStyles.length) {
+                final int capacity = 2 * this.size;
+                final DataStyle[] newDataStyles = new DataStyle[capacity];
+                System.arraycopy(this.dataStyles, 0, newDataStyles, 0, this.size);
+                this.dataStyles = newDataStyles;
+                final TableCellStyle[] newStyles = new TableCellStyle[capacity];
+                System.arraycopy(this.styles, 0, newStyles, 0, this.size);
+                this.styles = newStyles;
+            }
+            this.dataStyles[this.size] = dataStyle;
+            this.styles[this.size] = style;
+            this.size++;
+        }
+    }
+}
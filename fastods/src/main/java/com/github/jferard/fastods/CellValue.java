@@ -51,8 +51,14 @@ public abstract class CellValue {
 			return new DateValue((Date) o);
 		else if (o instanceof Calendar)
 			return new DateValue(((Calendar) o).getTime());
-		else // Byte[], ...
-			return new StringValue(o.toString());
+		else {
+			// java.time.Instant, LocalDate, LocalDateTime, Duration
+			final CellValue javaTimeValue = JavaTimeValues.fromObject(o);
+			if (javaTimeValue != null)
+				return javaTimeValue;
+			else // Byte[], ...
+				return new StringValue(o.toString());
+		}
 	}
 
 	/**
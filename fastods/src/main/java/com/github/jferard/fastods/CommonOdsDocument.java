@@ -29,6 +29,7 @@ import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.style.TableColumnStyle;
 import com.github.jferard.fastods.style.TableRowStyle;
 import com.github.jferard.fastods.style.TableStyle;
+import com.github.jferard.fastods.util.StringPool;
 
 import java.io.IOException;
 import java.util.List;
@@ -159,4 +160,9 @@ class CommonOdsDocument implements OdsDocument {
                               final int c2) {
         this.odsElements.addAutofilter(table, r1, c1, r2, c2);
     }
+
+    @Override
+    public StringPool getStringPool() {
+        return this.odsElements.getStringPool();
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.style.TableCellStyle;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The cell styles of a table, indexed by an int. Used by the compact rows: a cell stores the index
+ * of the style, not the style. The index 0 is reserved for "no style".
+ *
+ * Only one thread registers the styles, but the rows may be serialized by other threads: the array
+ * of styles is replaced, never resized in place, and an index is always obtained before the row
+ * that uses it is handed to another thread.
+ *
+ * @author Julien Férard
+ */
+class CompactCellStyles {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<TableCellStyle, Integer> idByStyle;
+    private volatile TableCellStyle[] styles;
+    private int size;
+
+    /**
+     * Create a new, empty, index of styles
+     */
+    CompactCellStyles() {
+        this.styles = new TableCellStyle[INITIAL_CAPACITY];
+        this.size = 1;
+        this.idByStyle = new IdentityHashMap<TableCellStyle, Integer>();
+    }
+
+    /**
+     * @param style the style
+     * @return the index of the style. The style is registered if necessary.
+     */
+    public int getId(final TableCellStyle style) {
+        if (style == null) return 0;
+
+        Integer id = this.idByStyle.get(style);
+        if (id == null) {
+            id = this.size;
+            TableCellStyle[] curStyles = this.styles;
+            if (this.size == curStyles.length) {
+                curStyles = Arrays.copyOf(curStyles, 2 * this.size);
+                curStyles[this.size] = style;
+                this.styles = curStyles; // publish the new array
+            } else {
+                curStyles[this.size] = style;
+            }
+            this.size++;
+            this.idByStyle.put(style, id);
+        }
+        return id;
+    }
+
+    /**
+     * @param id the index of the style
+     * @return the style, or null if id is 0
+     */
+    public TableCellStyle get(final int id) {
+        return this.styles[id];
+    }
+}
@@ -0,0 +1,449 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.StringPool;
+import com.github.jferard.fastods.util.UTF8ChunkAppender;
+import com.github.jferard.fastods.util.WriteUtil;
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.ZipUTF8DirectWriter;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The cells of a row, stored in parallel primitive arrays: one code for the type and the
+ * representation of the value, one long for the value (an int, a long, the bits of a float or a double,
+ * a date or a time in millis or the index of a string) and one int for the index of the style. A cell that needs more (a text, a
+ * tooltip, a currency, a span...) is stored as a TableCell by the row, and the code is OBJECT.
+ *
+ * @author Julien Férard
+ */
+class CompactCells {
+    /**
+     * The cell has no value
+     */
+    static final byte NO_VALUE = 0;
+    /**
+     * The cell is a TableCell object stored by the row
+     */
+    static final byte OBJECT = 1;
+    static final byte BOOLEAN = 2;
+    static final byte FLOAT_INT = 3;
+    static final byte FLOAT_FLOAT = 4;
+    static final byte FLOAT_STRING = 5;
+    static final byte PERCENTAGE_INT = 6;
+    static final byte PERCENTAGE_FLOAT = 7;
+    static final byte PERCENTAGE_STRING = 8;
+    static final byte DATE = 9;
+    static final byte TIME = 10;
+    static final byte STRING = 11;
+    static final byte VOID = 12;
+    static final byte FLOAT_LONG = 13;
+    static final byte FLOAT_DOUBLE = 14;
+    static final byte PERCENTAGE_DOUBLE = 15;
+    /**
+     * A string stored in the pool of the document: the value is the id of the string
+     */
+    static final byte POOLED_STRING = 16;
+
+    private static final TableCell.Type[] TYPE_BY_CODE = {null, null, TableCell.Type.BOOLEAN,
+            TableCell.Type.FLOAT, TableCell.Type.FLOAT, TableCell.Type.FLOAT, TableCell.Type.PERCENTAGE,
+            TableCell.Type.PERCENTAGE, TableCell.Type.PERCENTAGE, TableCell.Type.DATE, TableCell.Type.TIME,
+            TableCell.Type.STRING, TableCell.Type.VOID, TableCell.Type.FLOAT, TableCell.Type.FLOAT,
+            TableCell.Type.PERCENTAGE, TableCell.Type.STRING};
+
+    private final WriteUtil writeUtil;
+    private final XMLUtil xmlUtil;
+    private final CompactCellStyles cellStyles;
+    private final StringPool stringPool;
+    private final CellOpenFragments fragments;
+    private byte[] codes;
+    private long[] values;
+    private int[] styleIds;
+    private String[] strings;
+    private int stringCount;
+    private int size;
+    private TableCellStyle lastStyle;
+    private int lastStyleId;
+
+    /**
+     * Create new compact cells
+     *
+     * @param writeUtil      an util
+     * @param xmlUtil        an util
+     * @param cellStyles     the index of the styles of the table
+     * @param stringPool     the pool of the string values of the document, or null
+     * @param fragments      the beginnings of the cells of the table
+     * @param columnCapacity the initial capacity
+     */
+    CompactCells(final WriteUtil writeUtil, final XMLUtil xmlUtil, final CompactCellStyles cellStyles,
+                 final StringPool stringPool, final CellOpenFragments fragments,
+                 final int columnCapacity) {
+        this.writeUtil = writeUtil;
+        this.xmlUtil = xmlUtil;
+        this.cellStyles = cellStyles;
+        this.stringPool = stringPool;
+        this.fragments = fragments;
+        final int capacity = columnCapacity > 0 ? columnCapacity : 1;
+        this.codes = new byte[capacity];
+        this.values = new long[capacity];
+        this.styleIds = new int[capacity];
+        this.size = 0;
+        this.stringCount = 0;
+    }
+
+    /**
+     * @return the number of cells, including the trailing cells without value that were touched.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Ensure that the cell at colIndex exists
+     *
+     * @param colIndex the index of the cell
+     */
+    public void touch(final int colIndex) {
+        if (colIndex >= this.codes.length) {
+            int newCapacity = this.codes.length * 2;
+            if (newCapacity <= colIndex) newCapacity = colIndex + 1;
+
+            final byte[] newCodes = new byte[newCapacity];
+            System.arraycopy(this.codes, 0, newCodes, 0, this.size);
+            this.codes = newCodes;
+            final long[] newValues = new long[newCapacity];
+            System.arraycopy(this.values, 0, newValues, 0, this.size);
+            this.values = newValues;
+            final int[] newStyleIds = new int[newCapacity];
+            System.arraycopy(this.styleIds, 0, newStyleIds, 0, this.size);
+            this.styleIds = newStyleIds;
+        }
+        if (colIndex >= this.size) this.size = colIndex + 1;
+    }
+
+    /**
+     * @param colIndex the index of the cell
+     * @return the code of the cell
+     */
+    public byte getCode(final int colIndex) {
+        if (colIndex >= this.size) return NO_VALUE;
+        return this.codes[colIndex];
+    }
+
+    /**
+     * Mark a cell as stored in an object
+     *
+     * @param colIndex the index of the cell
+     */
+    public void setObject(final int colIndex) {
+        this.touch(colIndex);
+        this.codes[colIndex] = OBJECT;
+    }
+
+    /**
+     * @param colIndex the index of the cell
+     * @param code     the code (BOOLEAN, FLOAT_INT, FLOAT_FLOAT, FLOAT_LONG, FLOAT_DOUBLE, PERCENTAGE_INT,
+     *                 PERCENTAGE_FLOAT, PERCENTAGE_DOUBLE, DATE or TIME)
+     * @param value    the value
+     */
+    public void setValue(final int colIndex, final byte code, final long value) {
+        this.touch(colIndex);
+        this.codes[colIndex] = code;
+        this.values[colIndex] = value;
+    }
+
+    /**
+     * @param colIndex the index of the cell
+     * @param code     the code (FLOAT_STRING, PERCENTAGE_STRING, STRING or VOID). A STRING is
+     *                 stored in the pool of the document, if any.
+     * @param value    the value
+     */
+    public void setString(final int colIndex, final byte code, final String value) {
+        if (code == STRING && this.stringPool != null) {
+            this.setValue(colIndex, POOLED_STRING, this.stringPool.intern(value));
+            return;
+        }
+        if (CompactCells.hasStringSlot(this.getCode(colIndex))) { // the cell is set again
+            final int index = (int) this.values[colIndex];
+            this.strings[index] = value;
+            this.setValue(colIndex, code, index);
+            return;
+        }
+        if (this.strings == null) this.strings = new String[this.codes.length];
+        else if (this.stringCount == this.strings.length) {
+            final String[] newStrings = new String[this.stringCount * 2];
+            System.arraycopy(this.strings, 0, newStrings, 0, this.stringCount);
+            this.strings = newStrings;
+        }
+        this.strings[this.stringCount] = value;
+        this.setValue(colIndex, code, this.stringCount);
+        this.stringCount++;
+    }
+
+    private static boolean hasStringSlot(final byte code) {
+        return code == FLOAT_STRING || code == PERCENTAGE_STRING || code == STRING || code == VOID;
+    }
+
+    /**
+     * @param colIndex the index of the cell
+     * @return the style of the cell, or null
+     */
+    public TableCellStyle getStyle(final int colIndex) {
+        if (colIndex >= this.size) return null;
+        return this.cellStyles.get(this.styleIds[colIndex]);
+    }
+
+    /**
+     * @param colIndex the index of the cell
+     * @param style    the new style
+     */
+    public void setStyle(final int colIndex, final TableCellStyle style) {
+        this.touch(colIndex);
+        if (style != this.lastStyle) {
+            this.lastStyleId = this.cellStyles.getId(style);
+            this.lastStyle = style;
+        }
+        this.styleIds[colIndex] = this.lastStyleId;
+    }
+
+    /**
+     * @param colIndex the index of the cell
+     * @return the type of the cell, or null
+     */
+    public TableCell.Type getType(final int colIndex) {
+        return TYPE_BY_CODE[this.getCode(colIndex)];
+    }
+
+    /**
+     * @param colIndex the index of the cell
+     * @return the value as it will be written in the XML file, or null
+     */
+    public String getValueAsString(final int colIndex) {
+        final byte code = this.getCode(colIndex);
+        if (code == NO_VALUE || code == OBJECT) return null;
+
+        final long value = this.values[colIndex];
+        switch (code) {
+            case BOOLEAN:
+                return value == 0 ? "false" : "true";
+            case FLOAT_INT:
+            case PERCENTAGE_INT:
+                return this.writeUtil.toString((int) value);
+            case FLOAT_FLOAT:
+            case PERCENTAGE_FLOAT:
+                return Float.toString(Float.intBitsToFloat((int) value));
+            case FLOAT_LONG:
+                return Long.toString(value);
+            case FLOAT_DOUBLE:
+            case PERCENTAGE_DOUBLE:
+                return this.xmlUtil.toString(Double.longBitsToDouble(value));
+            case DATE:
+                return this.xmlUtil.formatDateTime(value);
+            case TIME:
+                return this.xmlUtil.formatTimeInterval(value);
+            case FLOAT_STRING:
+            case PERCENTAGE_STRING:
+            case STRING:
+            case VOID:
+                return this.strings[(int) value];
+            case POOLED_STRING:
+                return this.stringPool.get((int) value);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param colIndex      the index of a cell with a value, that is not an OBJECT
+     * @param other         the other cells (may be this)
+     * @param otherColIndex the index of the other cell
+     * @return true if the cells are written exactly the same way: same code, style and value
+     */
+    public boolean isSameCell(final int colIndex, final CompactCells other,
+                              final int otherColIndex) {
+        final byte code = this.getCode(colIndex);
+        if (code != other.getCode(otherColIndex)) return false;
+        if (this.cellStyles == other.cellStyles) { // the rows of a table
+            if (this.styleIds[colIndex] != other.styleIds[otherColIndex]) return false;
+        } else if (this.getStyle(colIndex) != other.getStyle(otherColIndex)) {
+            return false;
+        }
+
+        final long value = this.values[colIndex];
+        final long otherValue = other.values[otherColIndex];
+        if (CompactCells.hasStringSlot(code))
+            return this.strings[(int) value].equals(other.strings[(int) otherValue]);
+        else if (code == POOLED_STRING && this.stringPool != other.stringPool)
+            return this.stringPool.get((int) value).equals(other.stringPool.get((int) otherValue));
+        else return value == otherValue;
+    }
+
+    /**
+     * Write the cells in a binary form: the size, then for each cell the code, the style id and
+     * the value (a long, or a UTF-8 string). A pooled string is written as its id. The cells must
+     * not contain any OBJECT.
+     *
+     * @param out the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(final DataOutput out) throws IOException {
+        out.writeInt(this.size);
+        for (int c = 0; c < this.size; c++) {
+            final byte code = this.codes[c];
+            out.writeByte(code);
+            out.writeInt(this.styleIds[c]);
+            switch (code) {
+                case NO_VALUE:
+                    break;
+                case FLOAT_STRING:
+                case PERCENTAGE_STRING:
+                case STRING:
+                case VOID:
+                    final byte[] bytes = this.strings[(int) this.values[c]].getBytes(ZipUTF8Writer.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                    break;
+                default:
+                    out.writeLong(this.values[c]);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Read the cells written by writeTo. The cells must be empty.
+     *
+     * @param in the source
+     * @throws IOException if an I/O error occurs
+     */
+    public void readFrom(final DataInput in) throws IOException {
+        final int count = in.readInt();
+        if (count > 0) this.touch(count - 1);
+        for (int c = 0; c < count; c++) {
+            final byte code = in.readByte();
+            this.styleIds[c] = in.readInt();
+            switch (code) {
+                case NO_VALUE:
+                    break;
+                case FLOAT_STRING:
+                case PERCENTAGE_STRING:
+                case STRING:
+                case VOID:
+                    final byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    this.setString(c, code, new String(bytes, ZipUTF8Writer.UTF_8));
+                    break;
+                default:
+                    this.setValue(c, code, in.readLong());
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Write the XML of a cell that is not an OBJECT. The output is the same as the output of
+     * TableCellImpl.
+     *
+     * @param util       an util
+     * @param appendable the destination
+     * @param colIndex   the index of the cell
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendXMLToTableRow(final XMLUtil util, final Appendable appendable, final int colIndex)
+            throws IOException {
+        this.appendXMLToTableRow(util, appendable, colIndex, 1);
+    }
+
+    /**
+     * Write the XML of a cell, repeated
+     *
+     * @param util       an util
+     * @param appendable the destination
+     * @param colIndex   the index of the cell
+     * @param repeat     the number of identical cells (see isRepeat)
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendXMLToTableRow(final XMLUtil util, final Appendable appendable,
+                                    final int colIndex, final int repeat) throws IOException {
+        final int styleId = this.styleIds[colIndex];
+        final byte code = this.codes[colIndex];
+        this.fragments.append(util, appendable, false, this.cellStyles.get(styleId),
+                TYPE_BY_CODE[code], repeat);
+        if (code == NO_VALUE) { // no value attribute
+            appendable.append("/>");
+            return;
+        }
+        switch (code) {
+            case BOOLEAN:
+            case FLOAT_INT:
+            case PERCENTAGE_INT:
+            case FLOAT_FLOAT:
+            case PERCENTAGE_FLOAT: // no need to escape
+                appendable.append(this.getValueAsString(colIndex));
+                break;
+            case DATE:
+                util.appendDateTime(appendable, this.values[colIndex]);
+                break;
+            case TIME:
+                util.appendTimeInterval(appendable, this.values[colIndex]);
+                break;
+            case FLOAT_LONG:
+                util.appendLong(appendable, this.values[colIndex]);
+                break;
+            case FLOAT_DOUBLE:
+            case PERCENTAGE_DOUBLE:
+                util.appendDouble(appendable, Double.longBitsToDouble(this.values[colIndex]));
+                break;
+            case POOLED_STRING: // escaped and encoded once
+                this.appendPooledString(util, appendable, (int) this.values[colIndex]);
+                break;
+            default:
+                util.appendEscapedXMLAttributeValue(appendable, this.getValueAsString(colIndex));
+                break;
+        }
+        appendable.append("\"/>");
+    }
+
+    /**
+     * Append the escaped value of the pool. The UTF-8 bytes are copied when the appendable
+     * accepts them.
+     */
+    private void appendPooledString(final XMLUtil util, final Appendable appendable, final int id)
+            throws IOException {
+        if (appendable instanceof UTF8ChunkAppender) {
+            final byte[] bytes = this.stringPool.getEscapedAttributeBytes(util, id);
+            ((UTF8ChunkAppender) appendable).write(bytes, 0, bytes.length);
+        } else if (appendable instanceof ZipUTF8DirectWriter) {
+            final byte[] bytes = this.stringPool.getEscapedAttributeBytes(util, id);
+            ((ZipUTF8DirectWriter) appendable).write(bytes, 0, bytes.length);
+        } else {
+            appendable.append(this.stringPool.getEscapedAttribute(util, id));
+        }
+    }
+}
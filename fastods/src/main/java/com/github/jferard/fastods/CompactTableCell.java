@@ -0,0 +1,394 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.datastyle.DataStyle;
+import com.github.jferard.fastods.odselement.StylesContainer;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.Length;
+import com.github.jferard.fastods.util.XMLUtil;
+
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * A reusable view on a cell of a compact row. The hot setters write into the arrays of the row; the
+ * other setters upgrade the cell to a TableCell object (see TableRow.getOrCreateCell).
+ *
+ * @author Julien Férard
+ */
+class CompactTableCell implements TableCell {
+    private final TableRow row;
+    private final CompactCells cells;
+    private final StylesContainer stylesContainer;
+    private int c;
+
+    /**
+     * Create a new view
+     *
+     * @param row             the row
+     * @param cells           the compact cells of the row
+     * @param stylesContainer the styles container
+     */
+    CompactTableCell(final TableRow row, final CompactCells cells, final StylesContainer stylesContainer) {
+        this.row = row;
+        this.cells = cells;
+        this.stylesContainer = stylesContainer;
+        this.c = 0;
+    }
+
+    /**
+     * Move the view to a cell
+     *
+     * @param c the index of the cell
+     * @return this
+     */
+    public CompactTableCell at(final int c) {
+        this.row.checkWritable();
+        this.cells.touch(c);
+        this.c = c;
+        return this;
+    }
+
+    /**
+     * @return the cell object, or null if the cell is stored in the arrays.
+     */
+    private TableCell getObject() {
+        if (this.cells.getCode(this.c) == CompactCells.OBJECT) return this.row.getOrCreateCell(this.c);
+        else return null;
+    }
+
+    private TableCell getOrCreateObject() {
+        return this.row.getOrCreateCell(this.c);
+    }
+
+    @Override
+    public void appendXMLToTableRow(final XMLUtil util, final Appendable appendable) throws IOException {
+        final TableCell cell = this.getObject();
+        if (cell == null) this.cells.appendXMLToTableRow(util, appendable, this.c);
+        else cell.appendXMLToTableRow(util, appendable);
+    }
+
+    @Override
+    public void markRowsSpanned(final int n) {
+        this.getOrCreateObject().markRowsSpanned(n);
+    }
+
+    @Override
+    public void setBooleanValue(final boolean value) {
+        final TableCell cell = this.getObject();
+        if (cell == null) {
+            this.cells.setValue(this.c, CompactCells.BOOLEAN, value ? 1 : 0);
+            this.setDataStyle(this.row.getDataStyles().getBooleanDataStyle());
+        } else {
+            cell.setBooleanValue(value);
+        }
+    }
+
+    @Override
+    public void setCellValue(final CellValue value) {
+        value.setToCell(this);
+    }
+
+    @Override
+    public void setCurrencyValue(final float value, final String currency) {
+        this.getOrCreateObject().setCurrencyValue(value, currency);
+    }
+
+    @Override
+    public void setCurrencyValue(final int value, final String currency) {
+        this.getOrCreateObject().setCurrencyValue(value, currency);
+    }
+
+    @Override
+    public void setCurrencyValue(final Number value, final String currency) {
+        this.getOrCreateObject().setCurrencyValue(value, currency);
+    }
+
+    @Override
+    public void setCurrencyValue(final double value, final String currency) {
+        this.getOrCreateObject().setCurrencyValue(value, currency);
+    }
+
+    @Override
+    public void setDateValue(final Calendar cal) {
+        this.setDateValue(cal.getTime());
+    }
+
+    @Override
+    public void setDateValue(final Date value) {
+        final TableCell cell = this.getObject();
+        if (cell == null) {
+            this.cells.setValue(this.c, CompactCells.DATE, value.getTime());
+            this.setDataStyle(this.row.getDataStyles().getDateDataStyle());
+        } else {
+            cell.setDateValue(value);
+        }
+    }
+
+    @Override
+    public void setFloatValue(final float value) {
+        final TableCell cell = this.getObject();
+        if (cell == null) {
+            this.cells.setValue(this.c, CompactCells.FLOAT_FLOAT, Float.floatToRawIntBits(value));
+            this.setDataStyle(this.row.getDataStyles().getNumberDataStyle());
+        } else {
+            cell.setFloatValue(value);
+        }
+    }
+
+    @Override
+    public void setFloatValue(final int value) {
+        final TableCell cell = this.getObject();
+        if (cell == null) {
+            this.cells.setValue(this.c, CompactCells.FLOAT_INT, value);
+            this.setDataStyle(this.row.getDataStyles().getNumberDataStyle());
+        } else {
+            cell.setFloatValue(value);
+        }
+    }
+
+    @Override
+    public void setFloatValue(final double value) {
+        final TableCell cell = this.getObject();
+        if (cell == null) {
+            this.cells.setValue(this.c, CompactCells.FLOAT_DOUBLE, Double.doubleToRawLongBits(value));
+            this.setDataStyle(this.row.getDataStyles().getNumberDataStyle());
+        } else {
+            cell.setFloatValue(value);
+        }
+    }
+
+    @Override
+    public void setLongValue(final long value) {
+        final TableCell cell = this.getObject();
+        if (cell == null) {
+            this.cells.setValue(this.c, CompactCells.FLOAT_LONG, value);
+            this.setDataStyle(this.row.getDataStyles().getNumberDataStyle());
+        } else {
+            cell.setLongValue(value);
+        }
+    }
+
+    @Override
+    public void setFloatValue(final Number value) {
+        final TableCell cell = this.getObject();
+        if (cell == null) {
+            this.cells.setString(this.c, CompactCells.FLOAT_STRING, value.toString());
+            this.setDataStyle(this.row.getDataStyles().getNumberDataStyle());
+        } else {
+            cell.setFloatValue(value);
+        }
+    }
+
+    /**
+     * @param object the object to set at this place
+     * @deprecated Shortcut for
+     * {@code setCellValue(c, CellValue.fromObject(object))}
+     */
+    @Override
+    @Deprecated
+    public void setObjectValue(final Object object) {
+        this.setCellValue(CellValue.fromObject(object));
+    }
+
+    @Override
+    public void setPercentageValue(final float value) {
+        final TableCell cell = this.getObject();
+        if (cell == null) {
+            this.cells.setValue(this.c, CompactCells.PERCENTAGE_FLOAT, Float.floatToRawIntBits(value));
+            this.setDataStyle(this.row.getDataStyles().getPercentageDataStyle());
+        } else {
+            cell.setPercentageValue(value);
+        }
+    }
+
+    @Override
+    public void setPercentageValue(final int value) {
+        final TableCell cell = this.getObject();
+        if (cell == null) {
+            this.cells.setValue(this.c, CompactCells.PERCENTAGE_INT, value);
+            this.setDataStyle(this.row.getDataStyles().getPercentageDataStyle());
+        } else {
+            cell.setPercentageValue(value);
+        }
+    }
+
+    @Override
+    public void setPercentageValue(final double value) {
+        final TableCell cell = this.getObject();
+        if (cell == null) {
+            this.cells.setValue(this.c, CompactCells.PERCENTAGE_DOUBLE, Double.doubleToRawLongBits(value));
+            this.setDataStyle(this.row.getDataStyles().getPercentageDataStyle());
+        } else {
+            cell.setPercentageValue(value);
+        }
+    }
+
+    @Override
+    public void setPercentageValue(final Number value) {
+        final TableCell cell = this.getObject();
+        if (cell == null) {
+            this.cells.setString(this.c, CompactCells.PERCENTAGE_STRING, value.toString());
+            this.setDataStyle(this.row.getDataStyles().getPercentageDataStyle());
+        } else {
+            cell.setPercentageValue(value);
+        }
+    }
+
+    @Override
+    public void setStringValue(final String value) {
+        final TableCell cell = this.getObject();
+        if (cell == null) {
+            this.cells.setString(this.c, CompactCells.STRING, value);
+        } else {
+            cell.setStringValue(value);
+        }
+    }
+
+    @Override
+    public void setTimeValue(final long timeInMillis) {
+        final TableCell cell = this.getObject();
+        if (cell == null) {
+            this.cells.setValue(this.c, CompactCells.TIME, timeInMillis);
+            this.setDataStyle(this.row.getDataStyles().getTimeDataStyle());
+        } else {
+            cell.setTimeValue(timeInMillis);
+        }
+    }
+
+    @Override
+    public void setVoidValue() {
+        final TableCell cell = this.getObject();
+        if (cell == null) {
+            this.cells.setString(this.c, CompactCells.VOID, "");
+        } else {
+            cell.setVoidValue();
+        }
+    }
+
+    @Override
+    public void setStyle(final TableCellStyle style) {
+        final TableCell cell = this.getObject();
+        if (cell != null) {
+            cell.setStyle(style);
+            return;
+        }
+        if (style == null) return;
+
+        this.stylesContainer.addContentStyle(style);
+        final TableCellStyle curStyle = this.cells.getStyle(this.c);
+        final TableCellStyle newStyle;
+        if (curStyle == null) { // we know that dataStyle is null
+            newStyle = style;
+        } else {
+            final DataStyle dataStyle = curStyle.getDataStyle();
+            if (dataStyle == null) {
+                newStyle = style;
+            } else { // a style and a datastyle => create a custom child cell style
+                newStyle = this.stylesContainer.addChildCellStyle(style, dataStyle);
+            }
+        }
+        this.cells.setStyle(this.c, newStyle);
+    }
+
+    @Override
+    public void setDataStyle(final DataStyle dataStyle) {
+        final TableCell cell = this.getObject();
+        if (cell != null) {
+            cell.setDataStyle(dataStyle);
+            return;
+        }
+        if (dataStyle == null) return;
+
+        this.cells.setStyle(this.c,
+                this.row.resolveCellStyle(this.cells.getStyle(this.c), this.c, dataStyle));
+    }
+
+    @Override
+    public void setText(final Text text) {
+        this.getOrCreateObject().setText(text);
+    }
+
+    @Override
+    public void setCellMerge(final int rowMerge, final int columnMerge) throws IOException {
+        if (rowMerge <= 0 || columnMerge <= 0) return;
+        if (rowMerge <= 1 && columnMerge <= 1) return;
+
+        this.row.setCellMerge(this.c, rowMerge, columnMerge);
+    }
+
+    @Override
+    public void setColumnsSpanned(final int n) {
+        if (n <= 1) return;
+
+        this.row.setColumnsSpanned(this.c, n);
+    }
+
+    @Override
+    public void markColumnsSpanned(final int n) {
+        this.getOrCreateObject().markColumnsSpanned(n);
+    }
+
+    @Override
+    public void setRowsSpanned(final int n) throws IOException {
+        if (n <= 1) return;
+
+        this.row.setRowsSpanned(this.c, n);
+    }
+
+    @Override
+    public void setTooltip(final String tooltip) {
+        this.getOrCreateObject().setTooltip(tooltip);
+    }
+
+    @Override
+    public void setTooltip(final String tooltip, final Length width, final Length height, final boolean visible) {
+        this.getOrCreateObject().setTooltip(tooltip, width, height, visible);
+    }
+
+    @Override
+    public void setFormula(final String formula) {
+        this.getOrCreateObject().setFormula(formula);
+    }
+
+    @Override
+    public boolean hasValue() {
+        final TableCell cell = this.getObject();
+        if (cell == null) return this.cells.getCode(this.c) != CompactCells.NO_VALUE;
+        else return cell.hasValue();
+    }
+
+    @Override
+    public boolean isCovered() {
+        final TableCell cell = this.getObject();
+        return cell != null && cell.isCovered();
+    }
+
+    @Override
+    public void setCovered() {
+        this.getOrCreateObject().setCovered();
+    }
+}
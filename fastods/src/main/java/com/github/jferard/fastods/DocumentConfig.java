@@ -0,0 +1,93 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.ByteChunkPool;
+
+/**
+ * The configuration of a document and of its writer: how the package is written. See the
+ * setters of OdsFactory.
+ *
+ * @author Julien Férard
+ */
+public class DocumentConfig {
+    /**
+     * The default configuration: a full package, styles.xml before content.xml.
+     */
+    public static final DocumentConfig DEFAULT = new DocumentConfig(false, false, null, false);
+
+    private final boolean lateStyles;
+    private final boolean minimalPackage;
+    private final ByteChunkPool chunkPool;
+    private final boolean flatXML;
+
+    /**
+     * Create a new configuration
+     *
+     * @param lateStyles     true if styles.xml is written after content.xml
+     * @param minimalPackage true if the empty Configurations2 and Thumbnails entries are omitted
+     * @param chunkPool      the pool of the chunks of the flushers, or null for a pool per
+     *                       document
+     * @param flatXML        true if the document is written as a single flat XML document (.fods)
+     *                       instead of the entries of a package
+     */
+    DocumentConfig(final boolean lateStyles, final boolean minimalPackage,
+                   final ByteChunkPool chunkPool, final boolean flatXML) {
+        this.lateStyles = lateStyles;
+        this.minimalPackage = minimalPackage;
+        this.chunkPool = chunkPool;
+        this.flatXML = flatXML;
+    }
+
+    /**
+     * @return true if styles.xml is written after content.xml (see OdsFactory.lateStyles)
+     */
+    public boolean isLateStyles() {
+        return this.lateStyles;
+    }
+
+    /**
+     * @return true if the empty Configurations2 and Thumbnails entries are omitted (see
+     * OdsFactory.minimalPackage)
+     */
+    public boolean isMinimalPackage() {
+        return this.minimalPackage;
+    }
+
+    /**
+     * @return the pool of the chunks of the flushers, or null for a pool per document (see
+     * OdsFactory.chunkPool)
+     */
+    public ByteChunkPool getChunkPool() {
+        return this.chunkPool;
+    }
+
+    /**
+     * @return true if the document is written as a single flat XML document (see
+     * OdsFactory.createFlatWriter)
+     */
+    public boolean isFlatXML() {
+        return this.flatXML;
+    }
+}
@@ -49,8 +49,7 @@ public class EndTableFlusher implements OdsFlusher {
 
     @Override
     public void flushInto(final XMLUtil xmlUtil, final ZipUTF8Writer writer) throws IOException {
-        for (final TableRow row : this.rows)
-            row.appendXMLToTable(xmlUtil, writer);
+        TableRow.appendXMLToTable(this.rows, xmlUtil, writer);
         this.appender.appendPostamble(writer);
     }
 
@@ -25,31 +25,47 @@ package com.github.jferard.fastods;
 
 import com.github.jferard.fastods.odselement.ContentElement;
 import com.github.jferard.fastods.odselement.SettingsElement;
+import com.github.jferard.fastods.odselement.StylesElement;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 
 import java.io.IOException;
 
 /**
- * The flusher to finalize file. Writes postamble for contents, and the settings.
+ * The flusher to finalize file. Writes postamble for contents, the styles if they are written
+ * after the contents, and the settings.
  * @author Julien Férard
  */
 public class FinalizeFlusher implements OdsFlusher {
 	private final ContentElement contentElement;
 	private final SettingsElement settingsElements;
+	private final StylesElement stylesElement;
 
 	/**
 	 * @param contentElement the content to finalize
 	 * @param settingsElements the settings to create (settings.xml file)
 	 */
 	public FinalizeFlusher(final ContentElement contentElement, final SettingsElement settingsElements) {
+		this(contentElement, settingsElements, null);
+	}
+
+	/**
+	 * @param contentElement the content to finalize
+	 * @param settingsElements the settings to create (settings.xml file)
+	 * @param stylesElement the styles to create after the content (styles.xml file), or null
+	 */
+	public FinalizeFlusher(final ContentElement contentElement, final SettingsElement settingsElements,
+						   final StylesElement stylesElement) {
 		this.contentElement = contentElement;
 		this.settingsElements = settingsElements;
+		this.stylesElement = stylesElement;
 	}
 
 	@Override
 	public void flushInto(final XMLUtil xmlUtil, final ZipUTF8Writer writer) throws IOException {
 		this.contentElement.writePostamble(xmlUtil, writer);
+		if (this.stylesElement != null)
+			this.stylesElement.write(xmlUtil, writer);
 		this.settingsElements.write(xmlUtil, writer);
 		writer.close();
 	}
@@ -0,0 +1,63 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+
+import java.io.IOException;
+
+/**
+ * The flusher that writes the beginning of a flat XML document (.fods), up to the first table:
+ * the counterpart of the MetaAndStylesElementsFlusher. The preamble is rendered when the flusher
+ * is created, by the thread that fills the document.
+ *
+ * @author Julien Férard
+ */
+public class FlatPreambleFlusher implements OdsFlusher {
+    private final OdsElements odsElements;
+    private final String preamble;
+
+    /**
+     * Create a new flat preamble flusher
+     *
+     * @param odsElements ods elements (meta, settings, styles, content)
+     * @param preamble    the rendered preamble (see OdsElements.renderFlatPreamble)
+     */
+    public FlatPreambleFlusher(final OdsElements odsElements, final String preamble) {
+        this.odsElements = odsElements;
+        this.preamble = preamble;
+    }
+
+    @Override
+    public void flushInto(final XMLUtil xmlUtil, final ZipUTF8Writer writer) throws IOException {
+        this.odsElements.writeFlatPreamble(writer, this.preamble);
+    }
+
+    @Override
+    public boolean isEnd() {
+        return false;
+    }
+}
@@ -56,6 +56,11 @@ public class FloatValue extends CellValue {
 
 	@Override
 	public void setToCell(final TableCell tableCell) {
-		tableCell.setFloatValue(this.value);
+		if (this.value instanceof Double) // no String representation
+			tableCell.setFloatValue(this.value.doubleValue());
+		else if (this.value instanceof Long)
+			tableCell.setLongValue(this.value.longValue());
+		else
+			tableCell.setFloatValue(this.value);
 	}
 }
@@ -0,0 +1,82 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * A queue that hands the flushers of a table to the writer in order. A block of rows that is
+ * serialized by another thread stays in the queue until its serialization is done, unless there
+ * are too many pending flushers: then the writer waits for the first block.
+ *
+ * @author Julien Férard
+ */
+class FlusherSequencer {
+    private final Queue<OdsFlusher> pendingFlushers;
+    private final int maxPendingFlushers;
+
+    /**
+     * @param maxPendingFlushers the max number of flushers in the queue
+     */
+    FlusherSequencer(final int maxPendingFlushers) {
+        this.maxPendingFlushers = maxPendingFlushers;
+        this.pendingFlushers = new ArrayDeque<OdsFlusher>();
+    }
+
+    /**
+     * Add a flusher and hand the ready flushers to the observer
+     *
+     * @param observer the observer
+     * @param flusher  the flusher
+     * @throws IOException if an I/O error occurs
+     */
+    public void add(final NamedOdsFileWriter observer, final OdsFlusher flusher)
+            throws IOException {
+        this.pendingFlushers.add(flusher);
+        while (!this.pendingFlushers.isEmpty()) {
+            final OdsFlusher first = this.pendingFlushers.peek();
+            if (this.pendingFlushers.size() <= this.maxPendingFlushers && this.isPending(first))
+                break;
+
+            observer.update(this.pendingFlushers.remove());
+        }
+    }
+
+    private boolean isPending(final OdsFlusher flusher) {
+        return flusher instanceof ParallelRowsFlusher && !((ParallelRowsFlusher) flusher).isDone();
+    }
+
+    /**
+     * Hand all the flushers to the observer
+     *
+     * @param observer the observer
+     * @throws IOException if an I/O error occurs
+     */
+    public void drain(final NamedOdsFileWriter observer) throws IOException {
+        while (!this.pendingFlushers.isEmpty())
+            observer.update(this.pendingFlushers.remove());
+    }
+}
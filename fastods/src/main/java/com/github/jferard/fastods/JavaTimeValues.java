@@ -0,0 +1,129 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import java.lang.reflect.Method;
+import java.util.Date;
+
+/**
+ * Converts the java.time objects (Java 8+) to CellValues. The classes are loaded by reflection,
+ * since FastODS runs on Java 6.
+ * <ul>
+ * <li>Instant: the date;</li>
+ * <li>LocalDate and LocalDateTime: the date-time in UTC that has the same fields;</li>
+ * <li>Duration: the time.</li>
+ * </ul>
+ *
+ * @author Julien Férard
+ */
+final class JavaTimeValues {
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final JavaTimeValues INSTANCE = JavaTimeValues.create();
+
+    /**
+     * @param o the object
+     * @return the CellValue, or null if the object is not an Instant, a LocalDate, a
+     * LocalDateTime or a Duration.
+     */
+    static CellValue fromObject(final Object o) {
+        if (INSTANCE == null) return null;
+        return INSTANCE.toCellValue(o);
+    }
+
+    private static JavaTimeValues create() {
+        try {
+            final Class<?> instantClass = Class.forName("java.time.Instant");
+            final Class<?> localDateClass = Class.forName("java.time.LocalDate");
+            final Class<?> localDateTimeClass = Class.forName("java.time.LocalDateTime");
+            final Class<?> durationClass = Class.forName("java.time.Duration");
+            final Class<?> zoneOffsetClass = Class.forName("java.time.ZoneOffset");
+            return new JavaTimeValues(instantClass, instantClass.getMethod("toEpochMilli"),
+                    localDateClass, localDateClass.getMethod("toEpochDay"), localDateTimeClass,
+                    localDateTimeClass.getMethod("toEpochSecond", zoneOffsetClass),
+                    localDateTimeClass.getMethod("getNano"), zoneOffsetClass.getField("UTC").get(null),
+                    durationClass, durationClass.getMethod("toMillis"));
+        } catch (final ClassNotFoundException e) { // Java 6 or 7
+            return null;
+        } catch (final NoSuchMethodException e) {
+            return null;
+        } catch (final NoSuchFieldException e) {
+            return null;
+        } catch (final IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private final Class<?> instantClass;
+    private final Method instantToEpochMilli;
+    private final Class<?> localDateClass;
+    private final Method localDateToEpochDay;
+    private final Class<?> localDateTimeClass;
+    private final Method localDateTimeToEpochSecond;
+    private final Method localDateTimeGetNano;
+    private final Object utc;
+    private final Class<?> durationClass;
+    private final Method durationToMillis;
+
+    private JavaTimeValues(final Class<?> instantClass, final Method instantToEpochMilli,
+                           final Class<?> localDateClass, final Method localDateToEpochDay,
+                           final Class<?> localDateTimeClass,
+                           final Method localDateTimeToEpochSecond,
+                           final Method localDateTimeGetNano, final Object utc,
+                           final Class<?> durationClass, final Method durationToMillis) {
+        this.instantClass = instantClass;
+        this.instantToEpochMilli = instantToEpochMilli;
+        this.localDateClass = localDateClass;
+        this.localDateToEpochDay = localDateToEpochDay;
+        this.localDateTimeClass = localDateTimeClass;
+        this.localDateTimeToEpochSecond = localDateTimeToEpochSecond;
+        this.localDateTimeGetNano = localDateTimeGetNano;
+        this.utc = utc;
+        this.durationClass = durationClass;
+        this.durationToMillis = durationToMillis;
+    }
+
+    private CellValue toCellValue(final Object o) {
+        final Class<?> clazz = o.getClass();
+        try {
+            if (clazz == this.instantClass) {
+                final long millis = (Long) this.instantToEpochMilli.invoke(o);
+                return new DateValue(new Date(millis));
+            } else if (clazz == this.localDateClass) {
+                final long epochDay = (Long) this.localDateToEpochDay.invoke(o);
+                return new DateValue(new Date(epochDay * MILLIS_PER_DAY));
+            } else if (clazz == this.localDateTimeClass) {
+                final long seconds = (Long) this.localDateTimeToEpochSecond.invoke(o, this.utc);
+                final int nanos = (Integer) this.localDateTimeGetNano.invoke(o);
+                return new DateValue(new Date(seconds * 1000 + nanos / 1000000));
+            } else if (clazz == this.durationClass) {
+                final long millis = (Long) this.durationToMillis.invoke(o);
+                return new TimeValue(millis);
+            } else {
+                return null;
+            }
+        } catch (final Exception e) { // IllegalAccessException, InvocationTargetException
+            throw new IllegalArgumentException("Can't convert " + o, e);
+        }
+    }
+}
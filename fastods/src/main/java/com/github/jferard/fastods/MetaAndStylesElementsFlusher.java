@@ -31,27 +31,42 @@ import com.github.jferard.fastods.util.ZipUTF8Writer;
 import java.io.IOException;
 
 /**
+ * The flusher that writes meta.xml, styles.xml and the preamble of content.xml. Those elements
+ * are rendered when the flusher is created, by the thread that fills the document: the writer
+ * thread of an OdsFileAsyncWriter does not walk the styles that are still added.
+ *
  * @author Julien Férard
  */
 public class MetaAndStylesElementsFlusher implements OdsFlusher {
     private final OdsElements odsElements;
     private final ContentElement contentElement;
+    private final String meta;
+    private final String styles;
+    private final String automaticStyles;
 
     /**
      * Create a new meta and styles elements
      * @param odsElements ods elements (content.xml, styles.xml, ...)
      * @param contentElement content.xml element
+     * @param meta the rendered meta.xml
+     * @param styles the rendered styles.xml
+     * @param automaticStyles the rendered automatic styles of content.xml
      */
-    public MetaAndStylesElementsFlusher(final OdsElements odsElements, final ContentElement contentElement) {
+    public MetaAndStylesElementsFlusher(final OdsElements odsElements,
+                                        final ContentElement contentElement, final String meta,
+                                        final String styles, final String automaticStyles) {
         this.odsElements = odsElements;
         this.contentElement = contentElement;
+        this.meta = meta;
+        this.styles = styles;
+        this.automaticStyles = automaticStyles;
     }
 
     @Override
     public void flushInto(final XMLUtil xmlUtil, final ZipUTF8Writer writer) throws IOException {
-        this.odsElements.writeMeta(xmlUtil, writer);
-        this.odsElements.writeStyles(xmlUtil, writer);
-        this.contentElement.writePreamble(xmlUtil, writer);
+        this.odsElements.writeMeta(writer, this.meta);
+        this.odsElements.writeStyles(writer, this.styles);
+        this.contentElement.writePreamble(writer, this.automaticStyles);
     }
 
     @Override
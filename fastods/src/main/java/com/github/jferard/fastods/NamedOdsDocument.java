@@ -30,6 +30,7 @@ import com.github.jferard.fastods.style.ObjectStyle;
 import com.github.jferard.fastods.style.PageLayoutStyle;
 import com.github.jferard.fastods.style.PageStyle;
 import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.StringPool;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 
@@ -144,6 +145,11 @@ public class NamedOdsDocument implements OdsDocument {
         this.commonOdsDocument.addAutofilter(table, r1, c1, r2, c2);
     }
 
+    @Override
+    public StringPool getStringPool() {
+        return this.commonOdsDocument.getStringPool();
+    }
+
     /**
      * Add a cell style for a given data type. Use only if you want to flush data before the end
      * of the document
@@ -23,6 +23,8 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.util.StringPool;
+
 import java.io.IOException;
 import java.util.List;
 
@@ -138,4 +140,10 @@ public interface OdsDocument {
      * @param c2 the right column
      */
     void addAutofilter(Table table, int r1, int c1, int r2, int c2);
+
+    /**
+     * @return the pool of the string values of the cells, or null if the pool is disabled (see
+     * TableConfigBuilder.stringPool)
+     */
+    StringPool getStringPool();
 }
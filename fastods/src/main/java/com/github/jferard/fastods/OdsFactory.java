@@ -26,6 +26,8 @@ package com.github.jferard.fastods;
 import com.github.jferard.fastods.datastyle.DataStyles;
 import com.github.jferard.fastods.datastyle.DataStylesBuilder;
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.ByteChunkPool;
+import com.github.jferard.fastods.util.ChannelOutputStream;
 import com.github.jferard.fastods.util.EqualityUtil;
 import com.github.jferard.fastods.util.FileExists;
 import com.github.jferard.fastods.util.FileOpen;
@@ -33,6 +35,7 @@ import com.github.jferard.fastods.util.FileOpenResult;
 import com.github.jferard.fastods.util.PositionUtil;
 import com.github.jferard.fastods.util.TableNameUtil;
 import com.github.jferard.fastods.util.WriteUtil;
+import com.github.jferard.fastods.util.WriterResourcePool;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8WriterBuilder;
 import com.github.jferard.fastods.util.ZipUTF8WriterImpl;
@@ -41,7 +44,11 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.Locale;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Logger;
 
 /**
@@ -78,7 +85,11 @@ public class OdsFactory {
     private final WriteUtil writeUtil;
     private final XMLUtil xmlUtil;
     private DataStyles format;
-
+    private TableConfig tableConfig;
+    private WriterResourcePool resourcePool;
+    private boolean lateStyles;
+    private boolean minimalPackage;
+    private ByteChunkPool chunkPool;
 
     /**
      * Create a new OdsFactory
@@ -96,6 +107,11 @@ public class OdsFactory {
         this.writeUtil = writeUtil;
         this.xmlUtil = xmlUtil;
         this.format = format;
+        this.tableConfig = TableConfig.DEFAULT;
+        this.resourcePool = null;
+        this.lateStyles = false;
+        this.minimalPackage = false;
+        this.chunkPool = null;
     }
 
     /**
@@ -109,6 +125,99 @@ public class OdsFactory {
         return this;
     }
 
+    /**
+     * Set the config of the tables
+     *
+     * @param config the config
+     * @return this for fluent style
+     */
+    public OdsFactory tableConfig(final TableConfig config) {
+        this.tableConfig = config;
+        return this;
+    }
+
+    /**
+     * Set the policy that decides when the rows of the tables are flushed
+     *
+     * @param rowFlushPolicy the policy
+     * @return this for fluent style
+     */
+    public OdsFactory rowFlushPolicy(final RowFlushPolicy rowFlushPolicy) {
+        this.tableConfig = this.tableConfig.withRowFlushPolicy(rowFlushPolicy);
+        return this;
+    }
+
+
+    /**
+     * Share a pool of resources between the writers of this factory: the XML utils, the
+     * Deflaters, the buffers of the writers and the chunks of the row flushers are taken from the
+     * pool and released when a writer is closed. Useful to generate many small documents. The
+     * entries are then deflated by a ParallelZipOutput, on the calling thread.
+     *
+     * @param pool the pool, or null
+     * @return this for fluent style
+     */
+    public OdsFactory resourcePool(final WriterResourcePool pool) {
+        this.resourcePool = pool;
+        return this;
+    }
+
+    /**
+     * Write styles.xml after content.xml, when a writer observes the document. The preamble of
+     * content.xml is written when the first table is added, with the automatic styles known at
+     * this time. A style that is added later is written to the common styles of the trailing
+     * styles.xml: the styles do not have to be registered before the first table, and the
+     * content is still written in one pass. Not compatible with the concurrent tables (see
+     * TableConfigBuilder.concurrentTables): the creation of a writer fails if both are set.
+     *
+     * @return this for fluent style
+     */
+    public OdsFactory lateStyles() {
+        this.lateStyles = true;
+        return this;
+    }
+
+    /**
+     * Omit the empty Configurations2 and Thumbnails entries of the package, and their lines in
+     * the manifest. They are not required by the OpenDocument format.
+     *
+     * @return this for fluent style
+     */
+    public OdsFactory minimalPackage() {
+        this.minimalPackage = true;
+        return this;
+    }
+
+    /**
+     * Share a pool of chunks between the documents of this factory. The rows are serialized to
+     * UTF-8 chunks taken from this pool. By default, the chunk pool of the resource pool is used,
+     * or every document has its own pool.
+     *
+     * @param pool the pool, or null
+     * @return this for fluent style
+     */
+    public OdsFactory chunkPool(final ByteChunkPool pool) {
+        this.chunkPool = pool;
+        return this;
+    }
+
+    /**
+     * @param flatXML true if the document is written as a flat XML document
+     * @return the config of a new document
+     * @throws IllegalStateException if the late styles and the concurrent tables are both set
+     */
+    private DocumentConfig getDocumentConfig(final boolean flatXML) {
+        if (this.lateStyles && this.tableConfig.isConcurrentTables())
+            throw new IllegalStateException(
+                    "The late styles are not compatible with the concurrent tables");
+
+        final ByteChunkPool documentChunkPool;
+        if (this.chunkPool != null) documentChunkPool = this.chunkPool;
+        else if (this.resourcePool != null) documentChunkPool = this.resourcePool.getChunkPool();
+        else documentChunkPool = null;
+        return new DocumentConfig(this.lateStyles, this.minimalPackage, documentChunkPool,
+                flatXML);
+    }
 
     /**
      * Create a new, empty document for an anonymous writer. Use addTable to add tables.
@@ -117,7 +226,8 @@ public class OdsFactory {
      */
     private AnonymousOdsDocument createAnonymousDocument() {
         final OdsElements odsElements = OdsElements
-                .create(this.positionUtil, this.xmlUtil, this.writeUtil, this.format);
+                .create(this.positionUtil, this.xmlUtil, this.writeUtil, this.format,
+                        this.tableConfig, this.getDocumentConfig(false));
         return AnonymousOdsDocument.create(this.logger, this.xmlUtil, odsElements);
     }
 
@@ -127,8 +237,19 @@ public class OdsFactory {
      * @return a new document
      */
     private NamedOdsDocument createNamedDocument() {
+        return this.createNamedDocument(false);
+    }
+
+    /**
+     * Create a new, empty document for a normal or a flat writer.
+     *
+     * @param flatXML true if the document is written as a flat XML document
+     * @return a new document
+     */
+    private NamedOdsDocument createNamedDocument(final boolean flatXML) {
         final OdsElements odsElements = OdsElements
-                .create(this.positionUtil, this.xmlUtil, this.writeUtil, this.format);
+                .create(this.positionUtil, this.xmlUtil, this.writeUtil, this.format,
+                        this.tableConfig, this.getDocumentConfig(flatXML));
         return NamedOdsDocument.create(this.logger, this.xmlUtil, odsElements);
     }
 
@@ -137,7 +258,7 @@ public class OdsFactory {
      */
     public AnonymousOdsFileWriter createWriter() {
         final AnonymousOdsDocument document = this.createAnonymousDocument();
-        return new AnonymousOdsFileWriter(this.logger, document);
+        return new AnonymousOdsFileWriter(this.logger, document, this.resourcePool);
     }
 
     /**
@@ -151,7 +272,7 @@ public class OdsFactory {
     public NamedOdsFileWriter createWriter(final String filename) throws IOException {
         final NamedOdsDocument document = this.createNamedDocument();
         final NamedOdsFileWriter writer = OdsFileDirectWriter.builder(this.logger, document)
-                .openResult(this.openFile(filename)).build();
+                .openResult(this.openFile(filename)).resourcePool(this.resourcePool).build();
         document.addObserver(writer);
         document.prepareFlush();
         return writer;
@@ -168,7 +289,82 @@ public class OdsFactory {
     public NamedOdsFileWriter createWriter(final File file) throws IOException {
         final NamedOdsDocument document = this.createNamedDocument();
         final NamedOdsFileWriter writer = OdsFileDirectWriter.builder(this.logger, document)
-                .openResult(this.openFile(file)).build();
+                .openResult(this.openFile(file)).resourcePool(this.resourcePool).build();
+        document.addObserver(writer);
+        document.prepareFlush();
+        return writer;
+    }
+
+    /**
+     * Create a new ODS file writer on a channel. The writer writes the zip file through the
+     * direct buffers of a ChannelOutputStream, with gathering writes.
+     *
+     * @param channel the destination, closed when the writer is closed
+     * @return the ods writer
+     * @throws IOException if an I/O error occurs
+     */
+    public NamedOdsFileWriter createWriter(final WritableByteChannel channel) throws IOException {
+        return this.createWriter(ChannelOutputStream.create(channel, this.resourcePool));
+    }
+
+    /**
+     * Create a new ODS file writer on a file channel. See createWriter(WritableByteChannel).
+     *
+     * @param channel          the destination, closed when the writer is closed
+     * @param preallocatedSize the expected size of the file: the file is extended to this size
+     *                         before the write and truncated to the actual size on close. 0 for
+     *                         no preallocation.
+     * @return the ods writer
+     * @throws IOException if an I/O error occurs
+     */
+    public NamedOdsFileWriter createWriter(final FileChannel channel, final long preallocatedSize)
+            throws IOException {
+        return this.createWriter(
+                ChannelOutputStream.create(channel, preallocatedSize, this.resourcePool));
+    }
+
+    private NamedOdsFileWriter createWriter(final ChannelOutputStream out) throws IOException {
+        final NamedOdsDocument document = this.createNamedDocument();
+        final NamedOdsFileWriter writer = OdsFileDirectWriter.builder(this.logger, document)
+                .outputStream(out).resourcePool(this.resourcePool).build();
+        document.addObserver(writer);
+        document.prepareFlush();
+        return writer;
+    }
+
+    /**
+     * Create a new flat ODS (.fods) writer: the document is written as a single XML document,
+     * without compression nor zip container. The rows are flushed like in a normal writer.
+     * Be careful: the settings (active table, view settings, ...) are written when the first
+     * table is added, and those set later are ignored.
+     *
+     * @param out the destination stream, closed when the writer is closed
+     * @return the flat writer
+     * @throws IOException if an I/O error occurs
+     */
+    public NamedOdsFileWriter createFlatWriter(final OutputStream out) throws IOException {
+        final NamedOdsDocument document = this.createNamedDocument(true);
+        final NamedOdsFileWriter writer = OdsFileDirectWriter.builder(this.logger, document)
+                .outputStream(out).zipBuilder(ZipUTF8WriterImpl.builder().flatXML())
+                .resourcePool(this.resourcePool).build();
+        document.addObserver(writer);
+        document.prepareFlush();
+        return writer;
+    }
+
+    /**
+     * Create a new flat ODS (.fods) writer. See createFlatWriter(OutputStream). Be careful: this
+     * method opens immediatly a stream.
+     *
+     * @param file the destination file
+     * @return the flat writer
+     * @throws IOException if an I/O error occurs
+     */
+    public NamedOdsFileWriter createFlatWriter(final File file) throws IOException {
+        final NamedOdsDocument document = this.createNamedDocument(true);
+        final NamedOdsFileWriter writer = OdsFileDirectWriter.builder(this.logger, document)
+                .openResult(this.openFile(file)).zipBuilder(ZipUTF8WriterImpl.builder().flatXML())
+                .resourcePool(this.resourcePool).build();
         document.addObserver(writer);
         document.prepareFlush();
         return writer;
@@ -186,12 +382,48 @@ public class OdsFactory {
         final ZipUTF8WriterBuilder zipUTF8Writer = ZipUTF8WriterImpl.builder().noWriterBuffer();
         final OdsFileWriterAdapter writerAdapter = OdsFileWriterAdapter
                 .create(OdsFileDirectWriter.builder(this.logger, document)
-                        .openResult(this.openFile(file)).zipBuilder(zipUTF8Writer).build());
+                        .openResult(this.openFile(file)).zipBuilder(zipUTF8Writer)
+                        .resourcePool(this.resourcePool).build());
         document.addObserver(writerAdapter);
         document.prepareFlush();
         return writerAdapter;
     }
 
+    /**
+     * Create an asynchronous writer: the document is written by a writer thread.
+     *
+     * @param file the file
+     * @return the writer
+     * @throws IOException if an I/O error occurs
+     */
+    public OdsFileAsyncWriter createAsyncWriter(final File file) throws IOException {
+        return this.createAsyncWriter(file, OdsFileAsyncWriter.DEFAULT_CAPACITY,
+                OdsFileAsyncWriter.defaultThreadFactory());
+    }
+
+    /**
+     * Create an asynchronous writer: the document is written by a writer thread.
+     *
+     * @param file          the file
+     * @param capacity      the max number of pending flushers. When the queue is full, the thread
+     *                      that fills the document waits for the writer thread.
+     * @param threadFactory the factory of the writer thread
+     * @return the writer
+     * @throws IOException if an I/O error occurs
+     */
+    public OdsFileAsyncWriter createAsyncWriter(final File file, final int capacity,
+                                                final ThreadFactory threadFactory)
+            throws IOException {
+        final NamedOdsDocument document = this.createNamedDocument();
+        final OdsFileAsyncWriter writer = OdsFileAsyncWriter
+                .create(OdsFileDirectWriter.builder(this.logger, document)
+                        .openResult(this.openFile(file)).resourcePool(this.resourcePool).build(),
+                        capacity, threadFactory);
+        document.addObserver(writer);
+        document.prepareFlush();
+        return writer;
+    }
+
     /**
      * @param file the file.
      * @return the result of the operation
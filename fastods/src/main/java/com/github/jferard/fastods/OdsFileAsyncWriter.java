@@ -0,0 +1,280 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An asynchronous writer: the flushers produced by the document are passed to a writer thread
+ * through a bounded single producer, single consumer ring buffer. If the writer thread falls
+ * behind, the producer waits for a free slot (backpressure). Usage:
+ * <p>
+ * <pre>
+ * final OdsFileAsyncWriter writer = odsFactory.createAsyncWriter(file);
+ * final NamedOdsDocument document = writer.document();
+ * ... // add tables and rows
+ * document.save();
+ * writer.save(); // wait for the writer thread
+ * </pre>
+ * <p>
+ * The document must be filled by one thread only. The flushers are prepared by this thread: the
+ * writer thread only writes them.
+ *
+ * @author Julien Férard
+ */
+public class OdsFileAsyncWriter implements NamedOdsFileWriter {
+    /**
+     * The default number of flushers in the queue
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Create the writer and start the writer thread.
+     *
+     * @param adaptee       the writer that will write the flushers
+     * @param capacity      the max number of pending flushers
+     * @param threadFactory the factory of the writer thread (e.g. a factory of virtual threads
+     *                      on Java 21+)
+     * @return the writer
+     */
+    public static OdsFileAsyncWriter create(final NamedOdsFileWriter adaptee, final int capacity,
+                                            final ThreadFactory threadFactory) {
+        final OdsFileAsyncWriter writer =
+                new OdsFileAsyncWriter(adaptee, new SPSCRingBuffer<OdsFlusher>(capacity));
+        final Thread thread = threadFactory.newThread(writer.task);
+        thread.start();
+        return writer;
+    }
+
+    /**
+     * @return a factory of daemon threads named "fastods-writer"
+     */
+    public static ThreadFactory defaultThreadFactory() {
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "fastods-writer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    private final NamedOdsFileWriter adaptee;
+    private final SPSCRingBuffer<OdsFlusher> flushers;
+    private final FutureTask<Void> task;
+    private volatile Thread waitingProducer;
+    private volatile Thread waitingConsumer;
+    private volatile boolean closed;
+    private boolean endSent;
+
+    /**
+     * @param adaptee  the writer that will write the flushers
+     * @param flushers the queue
+     */
+    OdsFileAsyncWriter(final NamedOdsFileWriter adaptee,
+                       final SPSCRingBuffer<OdsFlusher> flushers) {
+        this.adaptee = adaptee;
+        this.flushers = flushers;
+        this.task = new FutureTask<Void>(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                OdsFileAsyncWriter.this.consume();
+                return null;
+            }
+        }) {
+            @Override
+            protected void done() {
+                // the task is done (end, failure or cancellation): the producer must see it
+                final Thread producer = OdsFileAsyncWriter.this.waitingProducer;
+                if (producer != null) LockSupport.unpark(producer);
+            }
+        };
+        this.closed = false;
+        this.endSent = false;
+    }
+
+    @Override
+    public NamedOdsDocument document() {
+        return this.adaptee.document();
+    }
+
+    /**
+     * Producer side: add the flusher to the queue. Waits if the queue is full.
+     *
+     * @param flusher the flusher
+     * @throws IOException if the writer thread failed, or if the producer was interrupted.
+     */
+    @Override
+    public void update(final OdsFlusher flusher) throws IOException {
+        if (this.endSent) throw new IOException("The document was already saved");
+        if (this.closed) throw new IOException("The writer is closed");
+        this.checkWriterThread();
+
+        while (!this.flushers.offer(flusher)) {
+            this.waitingProducer = Thread.currentThread();
+            try {
+                this.checkWriterThread();
+                if (this.flushers.offer(flusher)) break;
+
+                LockSupport.park(this);
+                if (Thread.interrupted()) throw new InterruptedIOException();
+            } finally {
+                this.waitingProducer = null;
+            }
+        }
+        if (flusher.isEnd()) this.endSent = true;
+
+        final Thread consumer = this.waitingConsumer;
+        if (consumer != null) LockSupport.unpark(consumer);
+    }
+
+    /**
+     * @return a future that is done when the writer thread has written the last flusher, or
+     * has failed.
+     */
+    public Future<Void> getFuture() {
+        return this.task;
+    }
+
+    /**
+     * Save the document if necessary, then wait for the writer thread.
+     *
+     * @throws IOException if the writer thread failed
+     */
+    @Override
+    public void save() throws IOException {
+        if (!this.endSent) this.document().save();
+        try {
+            this.task.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (final ExecutionException e) {
+            throw OdsFileAsyncWriter.toIOException(e);
+        }
+    }
+
+    /**
+     * Stop the writer thread if the document was not saved: the writer thread writes the pending
+     * flushers and stops, then the adaptee is closed. The adaptee is never closed while a flusher
+     * is written.
+     *
+     * @throws IOException if the adaptee can't be closed, or if the thread was interrupted while
+     *                     waiting for the writer thread (the adaptee is then not closed)
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.task.isDone()) return;
+
+        this.closed = true;
+        final Thread consumer = this.waitingConsumer;
+        if (consumer != null) LockSupport.unpark(consumer);
+
+        boolean endWritten;
+        try {
+            this.task.get();
+            endWritten = this.endSent;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (final ExecutionException e) {
+            endWritten = false;
+        }
+        if (!endWritten) this.adaptee.close();
+    }
+
+    private void checkWriterThread() throws IOException {
+        if (!this.task.isDone()) return;
+
+        try {
+            this.task.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (final ExecutionException e) {
+            throw OdsFileAsyncWriter.toIOException(e);
+        }
+        throw new IOException("The writer thread is stopped");
+    }
+
+    private static IOException toIOException(final ExecutionException e) {
+        final Throwable cause = e.getCause();
+        if (cause instanceof IOException) return (IOException) cause;
+
+        final IOException ioException = new IOException("The writer thread failed");
+        ioException.initCause(cause);
+        return ioException;
+    }
+
+    /**
+     * Consumer side: the loop of the writer thread. Stops after the end flusher, or when the
+     * writer is closed and the queue is empty.
+     *
+     * @throws IOException if a flusher can't be written
+     */
+    private void consume() throws IOException {
+        while (true) {
+            final OdsFlusher flusher = this.take();
+            if (flusher == null) return;
+
+            final Thread producer = this.waitingProducer;
+            if (producer != null) LockSupport.unpark(producer);
+
+            this.adaptee.update(flusher);
+            if (flusher.isEnd()) return;
+        }
+    }
+
+    /**
+     * @return the next flusher, or null if the writer is closed and the queue is empty
+     * @throws InterruptedIOException if the writer thread was interrupted
+     */
+    private OdsFlusher take() throws InterruptedIOException {
+        OdsFlusher flusher = this.flushers.poll();
+        while (flusher == null) {
+            this.waitingConsumer = Thread.currentThread();
+            try {
+                flusher = this.flushers.poll();
+                if (flusher == null) {
+                    if (this.closed) return null;
+
+                    LockSupport.park(this);
+                    if (Thread.interrupted()) throw new InterruptedIOException();
+                    flusher = this.flushers.poll();
+                }
+            } finally {
+                this.waitingConsumer = null;
+            }
+        }
+        return flusher;
+    }
+}
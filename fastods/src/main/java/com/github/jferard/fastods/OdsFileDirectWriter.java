@@ -23,6 +23,7 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.util.WriterResourcePool;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 
@@ -52,6 +53,7 @@ public class OdsFileDirectWriter implements NamedOdsFileWriter {
     private final Logger logger;
     private final ZipUTF8Writer writer;
     private final XMLUtil xmlUtil;
+    private WriterResourcePool resourcePool;
 
     /**
      * Create a new ODS file.
@@ -61,16 +63,37 @@ public class OdsFileDirectWriter implements NamedOdsFileWriter {
      * @param writer   The writer for this file
      */
     OdsFileDirectWriter(final Logger logger, final XMLUtil xmlUtil, final NamedOdsDocument document, final ZipUTF8Writer writer) {
+        this(logger, xmlUtil, document, writer, null);
+    }
+
+    /**
+     * Create a new ODS file.
+     * @param logger   the logger
+     * @param xmlUtil an util, taken from the pool if the pool is not null
+     * @param document the document to write
+     * @param writer   The writer for this file
+     * @param resourcePool the pool that gets the util back on close, or null
+     */
+    OdsFileDirectWriter(final Logger logger, final XMLUtil xmlUtil, final NamedOdsDocument document,
+                        final ZipUTF8Writer writer, final WriterResourcePool resourcePool) {
         this.logger = logger;
         this.document = document;
         this.xmlUtil = xmlUtil;
         this.writer = writer;
+        this.resourcePool = resourcePool;
     }
 
     @Override
     public void close() throws IOException {
-        this.writer.flush();
-        this.writer.close();
+        try {
+            this.writer.flush();
+            this.writer.close();
+        } finally {
+            if (this.resourcePool != null) {
+                this.resourcePool.releaseXMLUtil(this.xmlUtil);
+                this.resourcePool = null;
+            }
+        }
     }
 
     @Override
@@ -85,6 +108,9 @@ public class OdsFileDirectWriter implements NamedOdsFileWriter {
 
     @Override
     public void update(final OdsFlusher flusher) throws IOException {
-        flusher.flushInto(this.xmlUtil, this.writer);
+        if (flusher instanceof OdsByteFlusher)
+            ((OdsByteFlusher) flusher).flushBytesInto(this.writer);
+        else
+            flusher.flushInto(this.xmlUtil, this.writer);
     }
 }
\ No newline at end of file
@@ -24,6 +24,7 @@
 package com.github.jferard.fastods;
 
 import com.github.jferard.fastods.util.FileOpenResult;
+import com.github.jferard.fastods.util.WriterResourcePool;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 import com.github.jferard.fastods.util.ZipUTF8WriterBuilder;
@@ -44,6 +45,7 @@ public class OdsFileWriterBuilder {
 	private OutputStream out;
 	private ZipUTF8WriterBuilder builder;
 	private String filename;
+	private WriterResourcePool resourcePool;
 
 	/**
 	 * Create a new ODS file.
@@ -97,8 +99,24 @@ public class OdsFileWriterBuilder {
 		if (this.out == null)
 			this.out = new FileOutputStream(this.filename);
 
-		final ZipUTF8Writer writer = this.builder.build(this.out);
-		return new OdsFileDirectWriter(this.logger, XMLUtil.create(), this.document, writer);
+		if (this.resourcePool == null) {
+			final ZipUTF8Writer writer = this.builder.build(this.out);
+			return new OdsFileDirectWriter(this.logger, XMLUtil.create(), this.document, writer);
+		}
+
+		final ZipUTF8Writer writer = this.builder.resourcePool(this.resourcePool).build(this.out);
+		return new OdsFileDirectWriter(this.logger, this.resourcePool.takeXMLUtil(), this.document,
+				writer, this.resourcePool);
+	}
+
+	/**
+	 * @param resourcePool the pool of the XML utils, Deflaters and buffers, or null. The
+	 *                     resources are released when the writer is closed.
+	 * @return this for fluent style
+	 */
+	public OdsFileWriterBuilder resourcePool(final WriterResourcePool resourcePool) {
+		this.resourcePool = resourcePool;
+		return this;
 	}
 
 	/**
@@ -0,0 +1,124 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.ByteChunkPool;
+import com.github.jferard.fastods.util.UTF8ChunkAppender;
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.XMLUtilPool;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A flusher for a block of rows that is serialized by an executor, to UTF-8 chunks taken from a
+ * pool. The flusher writes the block when the serialization is done.
+ *
+ * @author Julien Férard
+ */
+class ParallelRowsFlusher implements OdsByteFlusher {
+    /**
+     * Create a new flusher and submit the serialization of the rows
+     *
+     * @param executor     the executor
+     * @param rows         the rows. Won't be modified after this call
+     * @param chunkPool    the pool of chunks
+     * @param xmlUtilPool  the pool of utils: the escaper of XMLUtil has caches and a buffer, one
+     *                     instance per running serialization
+     * @return the flusher
+     */
+    public static ParallelRowsFlusher create(final ExecutorService executor,
+                                             final List<TableRow> rows,
+                                             final ByteChunkPool chunkPool,
+                                             final XMLUtilPool xmlUtilPool) {
+        final Future<UTF8ChunkAppender> future = executor.submit(new Callable<UTF8ChunkAppender>() {
+            @Override
+            public UTF8ChunkAppender call() throws IOException {
+                final XMLUtil xmlUtil = xmlUtilPool.take();
+                final UTF8ChunkAppender appender = UTF8ChunkAppender.create(chunkPool);
+                try {
+                    TableRow.appendXMLToTable(rows, xmlUtil, appender);
+                } catch (final IOException e) {
+                    appender.release();
+                    throw e;
+                } finally {
+                    xmlUtilPool.release(xmlUtil);
+                }
+                return appender;
+            }
+        });
+        return new ParallelRowsFlusher(future);
+    }
+
+    private final Future<UTF8ChunkAppender> future;
+
+    /**
+     * @param future the serialized rows
+     */
+    ParallelRowsFlusher(final Future<UTF8ChunkAppender> future) {
+        this.future = future;
+    }
+
+    /**
+     * @return true if the rows are serialized (or if the serialization failed)
+     */
+    public boolean isDone() {
+        return this.future.isDone();
+    }
+
+    @Override
+    public void flushInto(final XMLUtil xmlUtil, final ZipUTF8Writer writer) throws IOException {
+        this.flushBytesInto(writer);
+    }
+
+    @Override
+    public void flushBytesInto(final ZipUTF8Writer writer) throws IOException {
+        final UTF8ChunkAppender appender;
+        try {
+            appender = this.future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+
+            final IOException ioException = new IOException("Can't serialize the rows");
+            ioException.initCause(cause);
+            throw ioException;
+        }
+        appender.writeTo(writer);
+    }
+
+    @Override
+    public boolean isEnd() {
+        return false;
+    }
+}
@@ -23,6 +23,8 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.util.ByteChunkPool;
+import com.github.jferard.fastods.util.UTF8ChunkAppender;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 
@@ -31,36 +33,36 @@ import java.util.Collections;
 import java.util.List;
 
 /**
- * A flusher for a collection of rows
+ * A flusher for a collection of rows. The rows are encoded to UTF-8 chunks taken from a pool
+ * when the flusher is created.
  *
  * @author Julien Férard
  */
-class PreprocessedRowsFlusher implements OdsFlusher {
-    private static final int STRING_BUILDER_SIZE = 1024 * 32;
-
+class PreprocessedRowsFlusher implements OdsByteFlusher {
     /**
      * Create an new rows flusher
      * @param xmlUtil an util
      * @param tableRows the rows
+     * @param chunkPool the pool of chunks
      * @return the flusher
      * @throws IOException if an I/O error occurs
      */
-    public static PreprocessedRowsFlusher create(final XMLUtil xmlUtil, final List<TableRow> tableRows) throws IOException {
-        return new PreprocessedRowsFlusher(xmlUtil, tableRows, new StringBuilder(STRING_BUILDER_SIZE));
+    public static PreprocessedRowsFlusher create(final XMLUtil xmlUtil, final List<TableRow> tableRows,
+                                                 final ByteChunkPool chunkPool) throws IOException {
+        return new PreprocessedRowsFlusher(xmlUtil, tableRows, UTF8ChunkAppender.create(chunkPool));
     }
-    private final StringBuilder sb;
+    private final UTF8ChunkAppender appender;
 
     /**
      * @param xmlUtil an util
      * @param rows the rows to flush
-     * @param sb the destination
+     * @param appender the destination
      * @throws IOException if an I/O error occurs
      */
-    PreprocessedRowsFlusher(final XMLUtil xmlUtil, final List<TableRow> rows, final StringBuilder sb) throws IOException {
-        // use an appender
-        this.sb = sb;
-        for (final TableRow row : rows)
-            TableRow.appendXMLToTable(row, xmlUtil, this.sb);
+    PreprocessedRowsFlusher(final XMLUtil xmlUtil, final List<TableRow> rows, final UTF8ChunkAppender appender)
+            throws IOException {
+        this.appender = appender;
+        TableRow.appendXMLToTable(rows, xmlUtil, this.appender);
 
         // free rows
         Collections.fill(rows, null);
@@ -68,7 +70,12 @@ class PreprocessedRowsFlusher implements OdsFlusher {
 
     @Override
     public void flushInto(final XMLUtil xmlUtil, final ZipUTF8Writer writer) throws IOException {
-        writer.append(this.sb);
+        this.flushBytesInto(writer);
+    }
+
+    @Override
+    public void flushBytesInto(final ZipUTF8Writer writer) throws IOException {
+        this.appender.writeTo(writer);
     }
 
     @Override
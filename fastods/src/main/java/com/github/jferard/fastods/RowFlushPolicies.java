@@ -0,0 +1,107 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The row flush policies.
+ *
+ * @author Julien Férard
+ */
+public final class RowFlushPolicies {
+    /**
+     * The max number of rows retained by the default policy
+     */
+    public static final int DEFAULT_MAX_ROWS = 8 * 1024;
+
+    /**
+     * The heap budget of the default policy: 16 MB
+     */
+    public static final long DEFAULT_HEAP_BUDGET = 16L * 1024 * 1024;
+
+    /**
+     * The default policy: keep the estimated size of the pending rows under 16 MB, and never
+     * retain more than 8192 rows.
+     */
+    public static final RowFlushPolicy DEFAULT =
+            new HeapBudgetFlushPolicy(DEFAULT_HEAP_BUDGET, DEFAULT_MAX_ROWS);
+
+    private RowFlushPolicies() {
+    }
+
+    /**
+     * @param rowCount the number of rows in a flush
+     * @return a policy that flushes every rowCount rows
+     */
+    public static RowFlushPolicy rows(final int rowCount) {
+        RowFlushPolicies.checkPositive(rowCount);
+        return new RowCountFlushPolicy(rowCount);
+    }
+
+    /**
+     * @param cellCount the min number of cells in a flush
+     * @return a policy that flushes the rows when they hold at least cellCount cells
+     */
+    public static RowFlushPolicy cells(final long cellCount) {
+        RowFlushPolicies.checkPositive(cellCount);
+        return new CellCountFlushPolicy(cellCount);
+    }
+
+    /**
+     * @param budget the budget in bytes
+     * @return a policy that flushes the rows when their estimated size reaches the budget
+     */
+    public static RowFlushPolicy bytes(final long budget) {
+        RowFlushPolicies.checkPositive(budget);
+        return new HeapBudgetFlushPolicy(budget, Integer.MAX_VALUE);
+    }
+
+    /**
+     * An adaptive policy: the number of rows in a flush depends on the width of the rows. Wide
+     * rows are flushed often, narrow rows are flushed at least every 8192 rows.
+     *
+     * @param budget the budget in bytes
+     * @return a policy that flushes the rows when their estimated size reaches the budget
+     */
+    public static RowFlushPolicy adaptive(final long budget) {
+        RowFlushPolicies.checkPositive(budget);
+        return new HeapBudgetFlushPolicy(budget, DEFAULT_MAX_ROWS);
+    }
+
+    /**
+     * @param duration the max time between two flushes
+     * @param unit     the unit of the duration
+     * @return a policy that flushes the rows when the last flush is older than the duration
+     */
+    public static RowFlushPolicy time(final long duration, final TimeUnit unit) {
+        RowFlushPolicies.checkPositive(duration);
+        return new TimeFlushPolicy(unit.toNanos(duration));
+    }
+
+    private static void checkPositive(final long value) {
+        if (value <= 0)
+            throw new IllegalArgumentException("Expected a positive value, was " + value);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+/**
+ * A policy that decides when the rows of a table are flushed to the writer. The policy is
+ * asked each time a new row is created, with the rows that were created since the last flush.
+ * See RowFlushPolicies for the implementations.
+ *
+ * @author Julien Férard
+ */
+public interface RowFlushPolicy {
+    /**
+     * @param pendingRows  the number of rows created since the last flush
+     * @param pendingCells the number of cells of those rows
+     * @param pendingBytes the estimated heap size of those rows
+     * @param elapsedNanos the time since the last flush (or the creation of the table)
+     * @return true if the rows should be flushed now
+     */
+    boolean shouldFlush(int pendingRows, long pendingCells, long pendingBytes,
+                        long elapsedNanos);
+}
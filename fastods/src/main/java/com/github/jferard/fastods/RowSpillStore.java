@@ -0,0 +1,276 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A store for the rows of a table that were moved out of the heap. The rows are written in a
+ * binary form (see TableRow.writeTo) in chunks of memory-mapped temporary files: the OS pages the
+ * chunks to the disk when the memory is low. Every row has a slot: an int capacity, an int length
+ * and the bytes. A row that is removed frees its slot, and the next rows that fit in a free slot
+ * are written there: the store grows only when no free slot fits.
+ *
+ * Every chunk file is deleted as soon as it is mapped (or on exit if the OS does not allow it):
+ * the mapping lives until the store is garbage collected.
+ *
+ * @author Julien Férard
+ */
+class RowSpillStore {
+    /**
+     * The default size of a chunk: 8 MB
+     */
+    static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final long ABSENT = -1L;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int SLOT_HEADER_SIZE = 8;
+    /**
+     * The number of free slots that are looked at to find a slot for a row, the last freed first
+     */
+    private static final int MAX_FREE_SLOT_SCAN = 32;
+
+    /**
+     * @return a new store
+     */
+    static RowSpillStore create() {
+        return new RowSpillStore(DEFAULT_CHUNK_SIZE);
+    }
+
+    private final int chunkSize;
+    private final List<MappedByteBuffer> chunks;
+    private final RowBytes rowBytes;
+    private final DataOutputStream out;
+    private long[] locations;
+    private int count;
+    private long[] freeSlots;
+    private int[] freeSlotCapacities;
+    private int freeSlotCount;
+
+    /**
+     * @param chunkSize the size of a chunk
+     */
+    RowSpillStore(final int chunkSize) {
+        this.chunkSize = chunkSize;
+        this.chunks = new ArrayList<MappedByteBuffer>();
+        this.rowBytes = new RowBytes();
+        this.out = new DataOutputStream(this.rowBytes);
+        this.locations = new long[INITIAL_CAPACITY];
+        Arrays.fill(this.locations, ABSENT);
+        this.count = 0;
+        this.freeSlots = new long[INITIAL_CAPACITY];
+        this.freeSlotCapacities = new int[INITIAL_CAPACITY];
+        this.freeSlotCount = 0;
+    }
+
+    /**
+     * Write a row in the store, in a free slot if one fits.
+     *
+     * @param rowIndex the index of the row
+     * @param row      the row, must be spillable
+     * @throws IOException if the chunk can't be created
+     */
+    public void put(final int rowIndex, final TableRow row) throws IOException {
+        this.rowBytes.reset();
+        row.writeTo(this.out);
+        this.out.flush();
+        final int length = this.rowBytes.size();
+
+        long location = this.takeFreeSlot(length);
+        if (location == ABSENT) location = this.createSlot(length);
+        final ByteBuffer slot = this.getSlot(location);
+        slot.position(slot.position() + 4); // keep the capacity
+        slot.putInt(length);
+        this.rowBytes.writeTo(slot);
+
+        this.ensureCapacity(rowIndex);
+        final long oldLocation = this.locations[rowIndex];
+        if (oldLocation == ABSENT) this.count++;
+        else this.freeSlot(oldLocation);
+        this.locations[rowIndex] = location;
+    }
+
+    /**
+     * @param length the length of the row
+     * @return the location of a free slot that fits, or ABSENT
+     */
+    private long takeFreeSlot(final int length) {
+        final int end = Math.max(0, this.freeSlotCount - MAX_FREE_SLOT_SCAN);
+        for (int i = this.freeSlotCount - 1; i >= end; i--) {
+            if (this.freeSlotCapacities[i] >= length) {
+                final long location = this.freeSlots[i];
+                this.freeSlotCount--;
+                this.freeSlots[i] = this.freeSlots[this.freeSlotCount];
+                this.freeSlotCapacities[i] = this.freeSlotCapacities[this.freeSlotCount];
+                return location;
+            }
+        }
+        return ABSENT;
+    }
+
+    /**
+     * @param length the length of the row
+     * @return the location of a new slot at the end of the last chunk
+     * @throws IOException if the chunk can't be created
+     */
+    private long createSlot(final int length) throws IOException {
+        final int chunkIndex = this.getChunkIndexFor(length + SLOT_HEADER_SIZE);
+        final MappedByteBuffer chunk = this.chunks.get(chunkIndex);
+        final int position = chunk.position();
+        chunk.putInt(length);
+        chunk.position(position + SLOT_HEADER_SIZE + length);
+        return ((long) chunkIndex << 32) | position;
+    }
+
+    /**
+     * @param location the location of a slot
+     * @return a view on the chunk, at the position of the slot
+     */
+    private ByteBuffer getSlot(final long location) {
+        final ByteBuffer chunk = this.chunks.get((int) (location >>> 32)).duplicate();
+        chunk.position((int) location);
+        return chunk;
+    }
+
+    private void freeSlot(final long location) {
+        if (this.freeSlotCount == this.freeSlots.length) {
+            final int newCapacity = this.freeSlots.length * 2;
+            final long[] newFreeSlots = new long[newCapacity];
+            System.arraycopy(this.freeSlots, 0, newFreeSlots, 0, this.freeSlotCount);
+            this.freeSlots = newFreeSlots;
+            final int[] newFreeSlotCapacities = new int[newCapacity];
+            System.arraycopy(this.freeSlotCapacities, 0, newFreeSlotCapacities, 0,
+                    this.freeSlotCount);
+            this.freeSlotCapacities = newFreeSlotCapacities;
+        }
+        this.freeSlots[this.freeSlotCount] = location;
+        this.freeSlotCapacities[this.freeSlotCount] = this.getSlot(location).getInt();
+        this.freeSlotCount++;
+    }
+
+    private int getChunkIndexFor(final int length) throws IOException {
+        final int last = this.chunks.size() - 1;
+        if (last >= 0 && this.chunks.get(last).remaining() >= length) return last;
+
+        final File file = File.createTempFile("fastods", ".rows");
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            this.chunks.add(randomAccessFile.getChannel()
+                    .map(FileChannel.MapMode.READ_WRITE, 0, Math.max(this.chunkSize, length)));
+        } finally {
+            randomAccessFile.close();
+            if (!file.delete()) file.deleteOnExit();
+        }
+        return last + 1;
+    }
+
+    private void ensureCapacity(final int rowIndex) {
+        if (rowIndex < this.locations.length) return;
+
+        int newCapacity = this.locations.length * 2;
+        if (newCapacity <= rowIndex) newCapacity = rowIndex + 1;
+        final long[] newLocations = new long[newCapacity];
+        System.arraycopy(this.locations, 0, newLocations, 0, this.locations.length);
+        Arrays.fill(newLocations, this.locations.length, newCapacity, ABSENT);
+        this.locations = newLocations;
+    }
+
+    /**
+     * @param rowIndex the index of the row
+     * @return true if the row is in the store
+     */
+    public boolean contains(final int rowIndex) {
+        return rowIndex < this.locations.length && this.locations[rowIndex] != ABSENT;
+    }
+
+    /**
+     * @param rowIndex the index of the row, must be in the store
+     * @return the binary form of the row (see TableRow.readFrom)
+     */
+    public DataInput get(final int rowIndex) {
+        final ByteBuffer slot = this.getSlot(this.locations[rowIndex]);
+        slot.position(slot.position() + 4); // skip the capacity
+        final byte[] bytes = new byte[slot.getInt()];
+        slot.get(bytes);
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * Remove a row from the store. Its slot is free for the next rows.
+     *
+     * @param rowIndex the index of the row
+     */
+    public void remove(final int rowIndex) {
+        if (!this.contains(rowIndex)) return;
+
+        this.freeSlot(this.locations[rowIndex]);
+        this.locations[rowIndex] = ABSENT;
+        this.count--;
+    }
+
+    /**
+     * @return the number of rows in the store
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * @return the number of chunks
+     */
+    int getChunkCount() {
+        return this.chunks.size();
+    }
+
+    /**
+     * @return the number of free slots
+     */
+    int getFreeSlotCount() {
+        return this.freeSlotCount;
+    }
+
+    /**
+     * A byte array output stream that writes its content without a copy
+     */
+    private static class RowBytes extends ByteArrayOutputStream {
+        /**
+         * @param buffer the destination
+         */
+        void writeTo(final ByteBuffer buffer) {
+            buffer.put(this.buf, 0, this.count);
+        }
+    }
+}
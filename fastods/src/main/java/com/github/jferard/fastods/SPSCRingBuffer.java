@@ -0,0 +1,120 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded single producer, single consumer queue, without lock. Only one thread may call
+ * offer, and only one thread may call poll.
+ *
+ * @param <E> the type of the elements
+ * @author Julien Férard
+ */
+class SPSCRingBuffer<E> {
+    private final Object[] elements;
+    private final int mask;
+    /**
+     * The index of the next element to poll. Written by the consumer.
+     */
+    private final AtomicLong head;
+    /**
+     * The index of the next element to offer. Written by the producer.
+     */
+    private final AtomicLong tail;
+    /**
+     * A copy of head, for the producer
+     */
+    private long headCache;
+    /**
+     * A copy of tail, for the consumer
+     */
+    private long tailCache;
+
+    /**
+     * @param capacity the min capacity. The actual capacity is the next power of two.
+     */
+    SPSCRingBuffer(final int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+
+        int actualCapacity = 1;
+        while (actualCapacity < capacity)
+            actualCapacity <<= 1;
+        this.elements = new Object[actualCapacity];
+        this.mask = actualCapacity - 1;
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+    }
+
+    /**
+     * @return the capacity
+     */
+    public int capacity() {
+        return this.elements.length;
+    }
+
+    /**
+     * Producer side.
+     *
+     * @param element the element to add, not null
+     * @return true if the element was added, false if the queue is full
+     */
+    public boolean offer(final E element) {
+        final long t = this.tail.get();
+        if (t - this.headCache >= this.elements.length) {
+            this.headCache = this.head.get();
+            if (t - this.headCache >= this.elements.length) return false;
+        }
+        this.elements[(int) t & this.mask] = element;
+        this.tail.set(t + 1); // publish
+        return true;
+    }
+
+    /**
+     * Consumer side.
+     *
+     * @return the first element, or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        final long h = this.head.get();
+        if (h >= this.tailCache) {
+            this.tailCache = this.tail.get();
+            if (h >= this.tailCache) return null;
+        }
+        final int i = (int) h & this.mask;
+        final E element = (E) this.elements[i];
+        this.elements[i] = null;
+        this.head.set(h + 1); // release the slot
+        return element;
+    }
+
+    /**
+     * @return true if the queue is empty. May be called by both threads.
+     */
+    public boolean isEmpty() {
+        return this.head.get() >= this.tail.get();
+    }
+}
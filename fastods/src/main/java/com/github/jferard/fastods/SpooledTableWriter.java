@@ -0,0 +1,120 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.SpooledSegment;
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+
+import java.io.IOException;
+
+/**
+ * The observer of a table that is filled concurrently with the other tables: the flushers of
+ * the table are written to a segment, with an XMLUtil that is owned by this table. On save, the
+ * segments are written to content.xml in the order of the tables.
+ *
+ * @author Julien Férard
+ */
+public class SpooledTableWriter implements NamedOdsFileWriter {
+    /**
+     * @param documentWriter the writer of the document
+     * @param threshold      the max number of chars kept in memory
+     * @return a new writer
+     */
+    public static SpooledTableWriter create(final NamedOdsFileWriter documentWriter,
+                                            final int threshold) {
+        return new SpooledTableWriter(documentWriter, XMLUtil.create(),
+                SpooledSegment.create(threshold));
+    }
+
+    private final NamedOdsFileWriter documentWriter;
+    private final XMLUtil xmlUtil;
+    private final SpooledSegment segment;
+    private boolean ended;
+
+    /**
+     * @param documentWriter the writer of the document
+     * @param xmlUtil        an util, for this table only
+     * @param segment        the destination
+     */
+    SpooledTableWriter(final NamedOdsFileWriter documentWriter, final XMLUtil xmlUtil,
+                       final SpooledSegment segment) {
+        this.documentWriter = documentWriter;
+        this.xmlUtil = xmlUtil;
+        this.segment = segment;
+        this.ended = false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.segment.close();
+    }
+
+    @Override
+    public NamedOdsDocument document() {
+        return this.documentWriter.document();
+    }
+
+    /**
+     * Does nothing: the segment is written when the document is saved.
+     */
+    @Override
+    public void save() {
+    }
+
+    @Override
+    public synchronized void update(final OdsFlusher flusher) throws IOException {
+        if (this.ended) throw new IOException("The table was already flushed");
+
+        flusher.flushInto(this.xmlUtil, this.segment);
+        if (flusher instanceof EndTableFlusher) this.ended = true;
+    }
+
+    /**
+     * @return true if the end of the table was written
+     */
+    public synchronized boolean isEnded() {
+        return this.ended;
+    }
+
+    /**
+     * @return a flusher that writes the segment to content.xml
+     */
+    public OdsFlusher createSegmentFlusher() {
+        return new OdsFlusher() {
+            @Override
+            public void flushInto(final XMLUtil xmlUtil, final ZipUTF8Writer writer)
+                    throws IOException {
+                synchronized (SpooledTableWriter.this) {
+                    SpooledTableWriter.this.segment.transferTo(writer);
+                }
+            }
+
+            @Override
+            public boolean isEnd() {
+                return false;
+            }
+        };
+    }
+}
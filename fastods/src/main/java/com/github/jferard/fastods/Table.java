@@ -29,8 +29,10 @@ import com.github.jferard.fastods.odselement.config.ConfigItemMapEntry;
 import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.style.TableColumnStyle;
 import com.github.jferard.fastods.style.TableStyle;
+import com.github.jferard.fastods.util.ByteChunkPool;
 import com.github.jferard.fastods.util.NamedObject;
 import com.github.jferard.fastods.util.PositionUtil;
+import com.github.jferard.fastods.util.StringPool;
 import com.github.jferard.fastods.util.WriteUtil;
 import com.github.jferard.fastods.util.XMLUtil;
 
@@ -44,7 +46,7 @@ import java.io.IOException;
  */
 public class Table implements NamedObject {
     /**
-     * Create a new Table with a name and a row/column capacity
+     * Create a new Table with a name and a row/column capacity, and the default config
      *
      * @param positionUtil    an util
      * @param writeUtil       an util
@@ -60,10 +62,35 @@ public class Table implements NamedObject {
                                final XMLUtil xmlUtil, final String name, final int rowCapacity,
                                final int columnCapacity, final StylesContainer stylesContainer,
                                final DataStyles format) {
+        return Table.create(positionUtil, writeUtil, xmlUtil, name, rowCapacity, columnCapacity,
+                stylesContainer, format, TableConfig.DEFAULT, null, ByteChunkPool.create());
+    }
+
+    /**
+     * Create a new Table with a name and a row/column capacity
+     *
+     * @param positionUtil    an util
+     * @param writeUtil       an util
+     * @param xmlUtil         an util
+     * @param name            the name of the tables
+     * @param rowCapacity     the row capacity
+     * @param columnCapacity  the column capacity
+     * @param stylesContainer the container for styles
+     * @param format          the data styles
+     * @param config          the table config
+     * @param stringPool      the pool of the string values of the document, or null
+     * @param chunkPool       the pool of the chunks of the flushers
+     * @return the table
+     */
+    public static Table create(final PositionUtil positionUtil, final WriteUtil writeUtil,
+                               final XMLUtil xmlUtil, final String name, final int rowCapacity,
+                               final int columnCapacity, final StylesContainer stylesContainer,
+                               final DataStyles format, final TableConfig config,
+                               final StringPool stringPool, final ByteChunkPool chunkPool) {
         positionUtil.checkTableName(name);
         final TableBuilder builder = TableBuilder
                 .create(positionUtil, writeUtil, xmlUtil, stylesContainer, format, name,
-                        rowCapacity, columnCapacity);
+                        rowCapacity, columnCapacity, config, stringPool, chunkPool);
         return new Table(name, builder);
     }
     private final TableBuilder builder;
@@ -239,6 +266,16 @@ public class Table implements NamedObject {
         return this.builder.nextRow(this, this.appender);
     }
 
+    /**
+     * The row is complete: in a streaming table, write it now
+     *
+     * @param rowIndex the index of the row
+     * @throws IOException if an error occurs
+     */
+    void closeRow(final int rowIndex) throws IOException {
+        this.builder.closeRow(rowIndex);
+    }
+
     /**
      * Set a span over cells
      *
@@ -335,4 +372,4 @@ public class Table implements NamedObject {
     public TableCellStyle findDefaultCellStyle(final int columnIndex) {
         return this.builder.findDefaultCellStyle(columnIndex);
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
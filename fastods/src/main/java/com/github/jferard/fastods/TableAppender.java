@@ -180,17 +180,24 @@ class TableAppender {
         if (firstRowIndex == 0)
             this.nullFieldCounter = 0;
 
+        // a run of identical rows is written once (see TableRow.isRepeatOf)
+        TableRow runRow = null;
+        int runLength = 0;
         final int size = this.builder.getTableRowsUsedSize();
         for (int r = firstRowIndex; r < size; r++) {
             final TableRow tr = this.builder.getTableRow(r);
             if (tr == null) {
                 this.nullFieldCounter++;
+            } else if (this.nullFieldCounter == 0 && runRow != null && tr.isRepeatOf(runRow)) {
+                runLength++;
             } else {
+                if (runRow != null) runRow.appendXMLToTable(util, appendable, runLength);
                 this.appendRepeatedRows(util, appendable);
-                tr.appendXMLToTable(util, appendable);
-                this.nullFieldCounter = 0;
+                runRow = tr;
+                runLength = 1;
             }
         }
+        if (runRow != null) runRow.appendXMLToTable(util, appendable, runLength);
     }
 
     private void appendRepeatedRows(final XMLUtil util, final Appendable appendable) throws IOException {
@@ -31,14 +31,19 @@ import com.github.jferard.fastods.odselement.config.ConfigItemMapEntrySet;
 import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.style.TableColumnStyle;
 import com.github.jferard.fastods.style.TableStyle;
+import com.github.jferard.fastods.util.ByteChunkPool;
 import com.github.jferard.fastods.util.FastFullList;
 import com.github.jferard.fastods.util.PositionUtil;
 import com.github.jferard.fastods.util.PositionUtil.Position;
+import com.github.jferard.fastods.util.StringPool;
 import com.github.jferard.fastods.util.WriteUtil;
 import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.XMLUtilPool;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
  * OpenDocument 9.1.2 table:table
@@ -48,9 +53,19 @@ import java.util.ArrayList;
  */
 class TableBuilder {
     /**
-     * The size of the buffer
+     * The estimated heap size of a row, without the cells
      */
-    public static final int BUFFER_SIZE = 8 * 1024;
+    static final int ESTIMATED_ROW_SIZE = 64;
+
+    /**
+     * The estimated heap size of a TableCellImpl and its value
+     */
+    static final int ESTIMATED_CELL_SIZE = 96;
+
+    /**
+     * The estimated heap size of a cell in a compact row
+     */
+    static final int ESTIMATED_COMPACT_CELL_SIZE = 24;
 
     /**
      * Check if a col index is valid, otherwise throws an exception
@@ -88,12 +103,17 @@ class TableBuilder {
      * @param name            the name of the table
      * @param rowCapacity     the row capacity of the table
      * @param columnCapacity  the column capacity of the table
+     * @param config          the table config
+     * @param stringPool      the pool of the string values of the document, or null
+     * @param chunkPool       the pool of the chunks of the flushers
      * @return the builder
      */
     public static TableBuilder create(final PositionUtil positionUtil, final WriteUtil writeUtil,
                                       final XMLUtil xmlUtil, final StylesContainer stylesContainer,
                                       final DataStyles format, final String name,
-                                      final int rowCapacity, final int columnCapacity) {
+                                      final int rowCapacity, final int columnCapacity,
+                                      final TableConfig config, final StringPool stringPool,
+                                      final ByteChunkPool chunkPool) {
         final ConfigItemMapEntrySet configEntry = ConfigItemMapEntrySet.createSet(name);
         configEntry.add(new ConfigItem("CursorPositionX", "int", "0"));
         configEntry.add(new ConfigItem("CursorPositionY", "int", "0"));
@@ -111,25 +131,51 @@ class TableBuilder {
         configEntry.add(new ConfigItem("PageViewZoomValue", "int", "60"));
 
         return new TableBuilder(positionUtil, writeUtil, xmlUtil, stylesContainer, format, name,
-                rowCapacity, columnCapacity, configEntry, BUFFER_SIZE);
+                rowCapacity, columnCapacity, configEntry, config.getRowFlushPolicy(), config,
+                stringPool, chunkPool);
     }
 
-    private final int bufferSize;
+    private final RowFlushPolicy rowFlushPolicy;
+    private final boolean streaming;
+    private final ExecutorService serializationExecutor;
+    private final FlusherSequencer sequencer;
+    private final XMLUtilPool xmlUtilPool;
+    private final int estimatedCellSize;
+    private final long spillHeapBudget;
     private final int columnCapacity;
+    private final CompactCellStyles compactCellStyles;
     private final FastFullList<TableColumnStyle> columnStyles;
     private final ConfigItemMapEntrySet configEntry;
     private final DataStyles format;
     private final PositionUtil positionUtil;
     private final StylesContainer stylesContainer;
     private final FastFullList<TableRow> tableRows;
+    private final StringPool stringPool;
+    private final CellOpenFragments cellOpenFragments;
+    private final CellStyleResolver cellStyleResolver;
+    private final ByteChunkPool chunkPool;
     private final WriteUtil writeUtil;
     private final XMLUtil xmlUtil;
     private NamedOdsFileWriter observer;
     private int curRowIndex;
     private int lastFlushedRowIndex;
+    /**
+     * The index of the first row stored in tableRows: always 0, unless the rows are streamed
+     */
+    private int rowOffset;
+    private long lastFlushNanos;
+    private long pendingCells;
     private int lastRowIndex;
     private String name;
     private TableStyle style;
+    private RowSpillStore spillStore;
+    private Table spillParent;
+    /**
+     * The index of the first row that may be spilled
+     */
+    private int spillCursor;
+    private int residentRows;
+    private long residentCells;
 
     /**
      * Create a new table builder
@@ -143,13 +189,22 @@ class TableBuilder {
      * @param rowCapacity     the row capacity of the table
      * @param columnCapacity  the column capacity of the table
      * @param configEntry     the config
-     * @param bufferSize      the buffer size
+     * @param rowFlushPolicy  the policy that decides when the rows are flushed
+     * @param config          the table config
+     * @param stringPool      the pool of the string values of the document, or null
+     * @param chunkPool       the pool of the chunks of the flushers
      */
     TableBuilder(final PositionUtil positionUtil, final WriteUtil writeUtil, final XMLUtil xmlUtil,
                  final StylesContainer stylesContainer, final DataStyles format, final String name,
                  final int rowCapacity, final int columnCapacity,
-                 final ConfigItemMapEntrySet configEntry, final int bufferSize) {
+                 final ConfigItemMapEntrySet configEntry, final RowFlushPolicy rowFlushPolicy,
+                 final TableConfig config, final StringPool stringPool,
+                 final ByteChunkPool chunkPool) {
         this.xmlUtil = xmlUtil;
+        this.stringPool = stringPool;
+        this.cellOpenFragments = new CellOpenFragments();
+        this.cellStyleResolver = new CellStyleResolver(stylesContainer);
+        this.chunkPool = chunkPool;
         this.writeUtil = writeUtil;
         this.positionUtil = positionUtil;
         this.stylesContainer = stylesContainer;
@@ -165,8 +220,33 @@ class TableBuilder {
         this.tableRows = FastFullList.newListWithCapacity(rowCapacity);
         this.curRowIndex = -1;
         this.lastFlushedRowIndex = 0;
+        this.rowOffset = 0;
+        this.streaming = config.isStreaming();
+        if (this.streaming || config.getSerializationExecutor() == null) {
+            this.serializationExecutor = null;
+            this.sequencer = null;
+            this.xmlUtilPool = null;
+        } else {
+            this.serializationExecutor = config.getSerializationExecutor();
+            this.sequencer = new FlusherSequencer(config.getMaxPendingBlocks());
+            this.xmlUtilPool = XMLUtilPool.create(xmlUtil);
+        }
         this.lastRowIndex = -1;
-        this.bufferSize = bufferSize;
+        this.lastFlushNanos = System.nanoTime();
+        this.pendingCells = 0;
+        this.rowFlushPolicy = rowFlushPolicy;
+        if (config.isCompactRows()) {
+            this.compactCellStyles = new CompactCellStyles();
+            this.estimatedCellSize = ESTIMATED_COMPACT_CELL_SIZE;
+            this.spillHeapBudget = config.getSpillHeapBudget();
+        } else {
+            this.compactCellStyles = null;
+            this.estimatedCellSize = ESTIMATED_CELL_SIZE;
+            this.spillHeapBudget = 0;
+        }
+        this.spillCursor = 0;
+        this.residentRows = 0;
+        this.residentCells = 0;
     }
 
     /**
@@ -185,7 +265,7 @@ class TableBuilder {
      * @throws IOException if an error occurs
      */
     public void flushBeginTable(final TableAppender appender) throws IOException {
-        this.observer.update(new BeginTableFlusher(appender));
+        this.updateObserver(new BeginTableFlusher(appender));
     }
 
     /**
@@ -195,8 +275,25 @@ class TableBuilder {
      * @throws IOException if an error occurs
      */
     public void flushEndTable(final TableAppender appender) throws IOException {
-        this.observer.update(new EndTableFlusher(appender,
-                this.tableRows.subList(this.lastFlushedRowIndex, this.tableRows.usedSize())));
+        this.updateObserver(new EndTableFlusher(appender,
+                this.tableRows.subList(this.lastFlushedRowIndex - this.rowOffset,
+                        this.tableRows.usedSize())));
+        if (this.sequencer != null) {
+            this.sequencer.drain(this.observer);
+            this.xmlUtilPool.clear();
+        }
+    }
+
+    /**
+     * Send a flusher to the observer, through the sequencer if the rows are serialized
+     * concurrently.
+     *
+     * @param flusher the flusher
+     * @throws IOException if an error occurs
+     */
+    private void updateObserver(final OdsFlusher flusher) throws IOException {
+        if (this.sequencer == null) this.observer.update(flusher);
+        else this.sequencer.add(this.observer, flusher);
     }
 
     /**
@@ -217,7 +314,7 @@ class TableBuilder {
      * @return the index of the last used row
      */
     public int getLastRowNumber() {
-        return this.tableRows.usedSize() - 1;
+        return this.rowOffset + this.tableRows.usedSize() - 1;
     }
 
     /**
@@ -255,12 +352,23 @@ class TableBuilder {
     private TableRow getRowSecure(final Table table, final TableAppender appender,
                                   final int rowIndex, final boolean updateRowIndex)
             throws IOException {
-        TableRow tr = this.tableRows.get(rowIndex);
-        if (tr == null) {
+        if (rowIndex < this.rowOffset)
+            throw new IllegalStateException(
+                    "Row " + rowIndex + " was already written: the table is streamed");
+
+        TableRow tr = this.tableRows.get(rowIndex - this.rowOffset);
+        if (tr == null && this.spillStore != null && this.spillStore.contains(rowIndex)) {
+            tr = this.pageIn(table, rowIndex);
+        } else if (tr == null) {
             tr = new TableRow(this.writeUtil, this.xmlUtil, this.stylesContainer, this.format,
-                    table, rowIndex, this.columnCapacity);
-            this.tableRows.set(rowIndex, tr);
-            if (rowIndex > this.lastRowIndex) this.lastRowIndex = rowIndex;
+                    table, rowIndex, this.columnCapacity, this.compactCellStyles, this.stringPool,
+                    this.cellOpenFragments, this.cellStyleResolver);
+            this.tableRows.set(rowIndex - this.rowOffset, tr);
+            if (rowIndex > this.lastRowIndex) {
+                this.countCellsOfLastRow();
+                this.lastRowIndex = rowIndex;
+                if (this.spillHeapBudget > 0 && this.observer == null) this.spillColdRows(table);
+            }
 
             this.notifyIfHasObserver(appender, rowIndex);
         }
@@ -268,22 +376,139 @@ class TableBuilder {
         return tr;
     }
 
+    /**
+     * The last row is complete when a new row is created after it: count its cells.
+     */
+    private void countCellsOfLastRow() {
+        if (this.lastRowIndex < this.lastFlushedRowIndex) return;
+
+        final TableRow lastRow = this.tableRows.get(this.lastRowIndex - this.rowOffset);
+        if (lastRow != null) {
+            final int columnCount = lastRow.getColumnCount();
+            this.pendingCells += columnCount;
+            this.residentRows++;
+            this.residentCells += columnCount;
+        }
+    }
+
+    /**
+     * Anonymous document: if the estimated heap size of the complete rows exceeds the budget,
+     * move the oldest spillable rows to the spill store, until the size is under 3/4 of the
+     * budget.
+     *
+     * @param table the table
+     * @throws IOException if the store can't be written
+     */
+    private void spillColdRows(final Table table) throws IOException {
+        if (this.getResidentBytes() <= this.spillHeapBudget) return;
+
+        if (this.spillStore == null) {
+            this.spillStore = RowSpillStore.create();
+            this.spillParent = table;
+        }
+        final long target = this.spillHeapBudget / 4 * 3;
+        while (this.spillCursor < this.lastRowIndex && this.getResidentBytes() > target) {
+            final TableRow row = this.tableRows.get(this.spillCursor);
+            if (row != null && row.isSpillable(this.format)) {
+                this.spillStore.put(this.spillCursor, row);
+                this.tableRows.set(this.spillCursor, null);
+                row.release("was moved to the spill store: get it again from the table");
+                this.residentRows--;
+                this.residentCells -= row.getColumnCount();
+            }
+            this.spillCursor++;
+        }
+    }
+
+    private long getResidentBytes() {
+        return (long) this.residentRows * ESTIMATED_ROW_SIZE +
+                this.residentCells * this.estimatedCellSize;
+    }
+
+    /**
+     * Read a row from the spill store and put it back on the heap
+     *
+     * @param table    the table
+     * @param rowIndex the index of the row
+     * @return the row
+     * @throws IOException if the row can't be read
+     */
+    private TableRow pageIn(final Table table, final int rowIndex) throws IOException {
+        final TableRow tr = this.readSpilledRow(table, rowIndex);
+        this.spillStore.remove(rowIndex);
+        this.tableRows.set(rowIndex, tr);
+        this.residentRows++;
+        this.residentCells += tr.getColumnCount();
+        if (rowIndex < this.spillCursor) this.spillCursor = rowIndex;
+        return tr;
+    }
+
+    private TableRow readSpilledRow(final Table table, final int rowIndex) throws IOException {
+        final TableRow tr = new TableRow(this.writeUtil, this.xmlUtil, this.stylesContainer,
+                this.format, table, rowIndex, this.columnCapacity, this.compactCellStyles,
+                this.stringPool, this.cellOpenFragments, this.cellStyleResolver);
+        tr.readFrom(this.spillStore.get(rowIndex));
+        return tr;
+    }
+
     private void notifyIfHasObserver(final TableAppender appender, final int rowIndex)
             throws IOException {
         if (this.observer != null) {
             if (rowIndex == 0) {
-                this.observer.update(new BeginTableFlusher(appender));
-            } else if (rowIndex % this.bufferSize == 0) {
-                this.observer.update(this
+                this.updateObserver(new BeginTableFlusher(appender));
+            } else if (!this.streaming && this.shouldFlush(rowIndex)) {
+                this.updateObserver(this
                         .createPreprocessedRowsFlusher(rowIndex)); // (0..1023), (1024..2047)
                 this.lastFlushedRowIndex = rowIndex;
+                this.lastFlushNanos = System.nanoTime();
+                this.pendingCells = 0;
             }
         }
     }
 
+    private boolean shouldFlush(final int rowIndex) {
+        final int pendingRows = rowIndex - this.lastFlushedRowIndex;
+        if (pendingRows <= 0) return false;
+
+        final long pendingBytes = (long) pendingRows * ESTIMATED_ROW_SIZE +
+                this.pendingCells * this.estimatedCellSize;
+        return this.rowFlushPolicy.shouldFlush(pendingRows, this.pendingCells, pendingBytes,
+                System.nanoTime() - this.lastFlushNanos);
+    }
+
     private OdsFlusher createPreprocessedRowsFlusher(final int toRowIndex) throws IOException {
-        return PreprocessedRowsFlusher.create(this.xmlUtil, new ArrayList<TableRow>(
-                this.tableRows.subList(this.lastFlushedRowIndex, toRowIndex)));
+        final List<TableRow> rows = new ArrayList<TableRow>(
+                this.tableRows.subList(this.lastFlushedRowIndex - this.rowOffset,
+                        toRowIndex - this.rowOffset));
+        if (this.serializationExecutor == null)
+            return PreprocessedRowsFlusher.create(this.xmlUtil, rows, this.chunkPool);
+        else
+            return ParallelRowsFlusher.create(this.serializationExecutor, rows, this.chunkPool,
+                    this.xmlUtilPool);
+    }
+
+    /**
+     * Streaming mode: write the rows before the given index and release them.
+     *
+     * @param toRowIndex the index of the new row
+     * @throws IOException if an I/O error occurs
+     */
+    private void streamRowsBefore(final int toRowIndex) throws IOException {
+        final int count = toRowIndex - this.lastFlushedRowIndex;
+        if (count <= 0) return;
+
+        final List<TableRow> rows = new ArrayList<TableRow>(this.tableRows.subList(0, count));
+        for (final TableRow row : rows) {
+            if (row != null) row.release("was already written: the table is streamed");
+        }
+        if (rows.contains(null)) // skipped rows
+            this.observer.update(PreprocessedRowsFlusher.create(this.xmlUtil, rows, this.chunkPool));
+        else
+            this.observer.update(new RowsFlusher(rows));
+        this.tableRows.removeFirst(count);
+        this.rowOffset = toRowIndex;
+        this.lastFlushedRowIndex = toRowIndex;
+        this.pendingCells = 0;
     }
 
     /**
@@ -304,7 +529,23 @@ class TableBuilder {
      * @throws IOException if an I/O error occurs
      */
     public TableRow nextRow(final Table table, final TableAppender appender) throws IOException {
-        return this.getRowSecure(table, appender, this.curRowIndex + 1, true);
+        final int rowIndex = this.curRowIndex + 1;
+        if (this.streaming && this.observer != null) this.streamRowsBefore(rowIndex);
+        return this.getRowSecure(table, appender, rowIndex, true);
+    }
+
+    /**
+     * Streaming mode: the row is complete, write it with the rows before it and release them.
+     * The next row is the row after this one.
+     *
+     * @param rowIndex the index of the row
+     * @throws IOException if an I/O error occurs
+     */
+    public void closeRow(final int rowIndex) throws IOException {
+        if (!this.streaming || this.observer == null || rowIndex < this.rowOffset) return;
+
+        this.streamRowsBefore(rowIndex + 1);
+        if (this.curRowIndex < rowIndex) this.curRowIndex = rowIndex;
     }
 
     /**
@@ -367,6 +608,7 @@ class TableBuilder {
         TableBuilder.checkCol(col);
         ts.addToContentStyles(this.stylesContainer);
         this.columnStyles.set(col, ts);
+        this.cellStyleResolver.clearColumn(col);
     }
 
     /**
@@ -454,17 +696,34 @@ class TableBuilder {
      * @return the number if rows
      */
     public int getTableRowsUsedSize() {
-        return this.tableRows.usedSize();
+        return this.rowOffset + this.tableRows.usedSize();
     }
 
     /**
      * Return a table row from its index
      *
      * @param r the index
-     * @return the row
+     * @return the row. If the row was spilled, a read-only transient copy of the row (see getRow)
+     * @throws IOException if the row was spilled and can't be read
+     */
+    public TableRow getTableRow(final int r) throws IOException {
+        if (r < this.rowOffset)
+            throw new IllegalStateException("Row " + r + " was already written: the table is streamed");
+
+        final TableRow tr = this.tableRows.get(r - this.rowOffset);
+        if (tr == null && this.spillStore != null && this.spillStore.contains(r)) {
+            final TableRow copy = this.readSpilledRow(this.spillParent, r);
+            copy.release("is a copy of a spilled row: get the row from the table to write it");
+            return copy;
+        }
+        return tr;
+    }
+
+    /**
+     * @return the number of rows in the spill store
      */
-    public TableRow getTableRow(final int r) {
-        return this.tableRows.get(r);
+    int getSpilledRowCount() {
+        return this.spillStore == null ? 0 : this.spillStore.size();
     }
 
     /**
@@ -159,6 +159,15 @@ public interface TableCell {
 	 */
 	void setCurrencyValue(Number value, String currency);
 
+	/**
+	 * Set the currency value and table cell style to STYLE_CURRENCY. The value is stored as
+	 * a double and written with the shortest representation that gives back the same double.
+	 *
+	 * @param value the value as a double
+	 * @param currency the currency value
+	 */
+	void setCurrencyValue(double value, String currency);
+
 	/**
 	 * Set the date value for a cell with TableCell.STYLE_DATE.
 	 *
@@ -193,6 +202,23 @@ public interface TableCell {
 	 */
 	void setFloatValue(Number value);
 
+	/**
+	 * Set the float value for a cell with TableCell.Type.FLOAT. The value is stored as a double
+	 * and written with the shortest representation that gives back the same double.
+	 *
+	 * @param value a double with the value to be used
+	 */
+	void setFloatValue(double value);
+
+	/**
+	 * Set the float value for a cell with TableCell.Type.FLOAT. The value is stored as a long
+	 * and written exactly. This is not an overload of setFloatValue, because a long argument
+	 * is widened to a float by setFloatValue(float).
+	 *
+	 * @param value a long with the value to be used
+	 */
+	void setLongValue(long value);
+
 	/**
 	 * Set the float value for a cell with TableCell.Type.STRING.
 	 *
@@ -221,6 +247,14 @@ public interface TableCell {
 	 */
 	void setPercentageValue(Number value);
 
+	/**
+	 * Set the float value for a cell with TableCell.Type.PERCENTAGE. The value is stored as a
+	 * double and written with the shortest representation that gives back the same double.
+	 *
+	 * @param value a double with the value to be used
+	 */
+	void setPercentageValue(double value);
+
 	/**
 	 * Set the float value for a cell with TableCell.Type.STRING.
 	 *
@@ -32,10 +32,8 @@ import com.github.jferard.fastods.util.WriteUtil;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.TimeZone;
 
 /**
  * WHERE ? content.xml/office:document-content/office:body/office:spreadsheet/
@@ -45,19 +43,11 @@ import java.util.TimeZone;
  * @author Martin Schulz
  */
 public class TableCellImpl implements TableCell {
-    /**
-     * The default date format
-     */
-    final static SimpleDateFormat DATE_VALUE_FORMAT;
-
-    static {
-        /*
-         * XML Schema Part 2, 3.2.7 dateTime
-		 * Z and UTC time zone for universal time.
-		 */
-        DATE_VALUE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-        DATE_VALUE_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
-    }
+    private static final byte NO_RAW_VALUE = 0;
+    private static final byte RAW_LONG = 1;
+    private static final byte RAW_DOUBLE = 2;
+    private static final byte RAW_DATE = 3;
+    private static final byte RAW_TIME = 4;
 
     private final TableRow parent;
     private final WriteUtil writeUtil;
@@ -75,6 +65,12 @@ public class TableCellImpl implements TableCell {
     private TableCell.Type type;
     private TableColdCell coldCell;
     private String value;
+    /**
+     * The value as a long, as the bits of a double or as milliseconds (date or time), if value
+     * is null
+     */
+    private long rawValue;
+    private byte rawValueKind;
 
     /**
      * Create the table cell implementation
@@ -96,22 +92,69 @@ public class TableCellImpl implements TableCell {
         this.columnIndex = columnIndex;
     }
 
+    /**
+     * Restore the state of a cell that was stored in a compact row.
+     *
+     * @param style the style, or null
+     * @param type  the type, or null
+     * @param value the value, or null
+     */
+    void restoreState(final TableCellStyle style, final TableCell.Type type, final String value) {
+        this.style = style;
+        this.type = type;
+        this.setStringRepresentation(value);
+    }
+
+    private void setStringRepresentation(final String valueAsString) {
+        this.parent.checkWritable();
+        this.value = valueAsString;
+        this.rawValueKind = NO_RAW_VALUE;
+    }
+
+    private void setRawValue(final byte kind, final long rawValue) {
+        this.parent.checkWritable();
+        this.value = null;
+        this.rawValueKind = kind;
+        this.rawValue = rawValue;
+    }
+
     @Override
     public void appendXMLToTableRow(final XMLUtil util, final Appendable appendable) throws IOException {
-        final boolean covered = this.isCovered();
-        if (covered) {
-            appendable.append("<table:covered-table-cell");
-        } else {
-            appendable.append("<table:table-cell");
-        }
-
-        if (this.style != null) {
-            util.appendEAttribute(appendable, "table:style-name", this.style.getName());
-        }
+        this.appendXMLToTableRow(util, appendable, 1);
+    }
 
+    /**
+     * Write the XML of this cell, repeated.
+     *
+     * @param util       an util
+     * @param appendable the destination
+     * @param repeat     the number of identical cells (see isRepeatOf)
+     * @throws IOException if an I/O error occurs
+     */
+    void appendXMLToTableRow(final XMLUtil util, final Appendable appendable, final int repeat)
+            throws IOException {
+        final boolean covered = this.isCovered();
+        this.parent.getCellOpenFragments()
+                .append(util, appendable, covered, this.style, this.type, repeat);
         if (this.type != null) {
-            util.appendAttribute(appendable, "office:value-type", this.type.getValueAttribute());
-            util.appendEAttribute(appendable, this.type.getValueType(), this.value);
+            switch (this.rawValueKind) {
+                case RAW_LONG:
+                    util.appendLong(appendable, this.rawValue);
+                    break;
+                case RAW_DOUBLE:
+                    util.appendDouble(appendable, Double.longBitsToDouble(this.rawValue));
+                    break;
+                case RAW_DATE: // XML Schema Part 2, 3.2.7 dateTime, Z and UTC time zone
+                    util.appendDateTime(appendable, this.rawValue);
+                    break;
+                case RAW_TIME:
+                    util.appendTimeInterval(appendable, this.rawValue);
+                    break;
+                default:
+                    util.appendEscapedXMLAttributeValue(appendable, this.value);
+                    break;
+            }
+            appendable.append('"');
             if (this.type == TableCell.Type.CURRENCY) {
                 final String currency = this.getCurrency();
                 util.appendEAttribute(appendable, "office:currency", currency);
@@ -125,6 +168,25 @@ public class TableCellImpl implements TableCell {
         }
     }
 
+    /**
+     * @param other the previous cell
+     * @return true if this cell is written exactly as the other cell, without being serialized:
+     * same style, type and value, and a simple cold part if any.
+     */
+    boolean isRepeatOf(final TableCellImpl other) {
+        if (this.style != other.style || this.type != other.type ||
+                this.rawValueKind != other.rawValueKind)
+            return false;
+        if (this.rawValueKind == NO_RAW_VALUE) {
+            if (this.value == null ? other.value != null : !this.value.equals(other.value))
+                return false;
+        } else if (this.rawValue != other.rawValue) {
+            return false;
+        }
+        if (this.coldCell == null) return other.coldCell == null;
+        else return other.coldCell != null && this.coldCell.isRepeatOf(other.coldCell);
+    }
+
     @Override
     public boolean isCovered() {
         return this.hasColdCell() && this.coldCell.isCovered();
@@ -178,7 +240,7 @@ public class TableCellImpl implements TableCell {
 
     @Override
     public void setBooleanValue(final boolean value) {
-        this.value = value ? "true" : "false";
+        this.setStringRepresentation(value ? "true" : "false");
         this.type = TableCell.Type.BOOLEAN;
         this.setDataStyle(this.dataStyles.getBooleanDataStyle());
     }
@@ -198,7 +260,17 @@ public class TableCellImpl implements TableCell {
     }
 
     private void setCurrencyValue(final String valueAsString, final String currency) {
-        this.value = valueAsString;
+        this.setStringRepresentation(valueAsString);
+        this.setCurrencyTypeAndStyle(currency);
+    }
+
+    @Override
+    public void setCurrencyValue(final double value, final String currency) {
+        this.setRawValue(RAW_DOUBLE, Double.doubleToRawLongBits(value));
+        this.setCurrencyTypeAndStyle(currency);
+    }
+
+    private void setCurrencyTypeAndStyle(final String currency) {
         this.type = TableCell.Type.CURRENCY;
         this.setDataStyle(this.dataStyles.getCurrencyDataStyle());
 
@@ -217,32 +289,16 @@ public class TableCellImpl implements TableCell {
     }
 
     private void ensureColdCell() {
+        this.parent.checkWritable();
         if (this.coldCell == null) this.coldCell = TableColdCell.create(this.xmlUtil);
     }
 
     @Override
     public void setDataStyle(final DataStyle dataStyle) {
+        this.parent.checkWritable();
         if (dataStyle == null) return;
 
-        this.stylesContainer.addDataStyle(dataStyle);
-        final TableCellStyle curStyle = this.getCurCellStyle();
-        final DataStyle curDataStyle = curStyle.getDataStyle();
-        if (curDataStyle == null) { // no data style yet: create a custom child style
-            this.style = this.stylesContainer.addChildCellStyle(curStyle, dataStyle);
-        } else { // a style and a datastyle => create a custom sibling cell style
-            this.style = this.stylesContainer.addChildCellStyle(curStyle.getParentCellStyle(), dataStyle);
-        }
-    }
-
-    /**
-     * @return the current cell style, eventually found in parent (row, column, table). Never null
-     */
-    private TableCellStyle getCurCellStyle() {
-        if (this.style == null) {
-            return this.parent.findDefaultCellStyle(this.columnIndex);
-        } else {
-            return this.style;
-        }
+        this.style = this.parent.resolveCellStyle(this.style, this.columnIndex, dataStyle);
     }
 
     @Override
@@ -252,17 +308,33 @@ public class TableCellImpl implements TableCell {
 
     @Override
     public void setDateValue(final Date value) {
-        this.value = TableCellImpl.DATE_VALUE_FORMAT.format(value);
+        this.setRawValue(RAW_DATE, value.getTime());
         this.type = TableCell.Type.DATE;
         this.setDataStyle(this.dataStyles.getDateDataStyle());
     }
 
     private void setFloatValue(final String valueAsString) {
-        this.value = valueAsString;
+        this.setStringRepresentation(valueAsString);
+        this.setFloatTypeAndStyle();
+    }
+
+    private void setFloatTypeAndStyle() {
         this.type = TableCell.Type.FLOAT;
         this.setDataStyle(this.dataStyles.getNumberDataStyle());
     }
 
+    @Override
+    public void setFloatValue(final double value) {
+        this.setRawValue(RAW_DOUBLE, Double.doubleToRawLongBits(value));
+        this.setFloatTypeAndStyle();
+    }
+
+    @Override
+    public void setLongValue(final long value) {
+        this.setRawValue(RAW_LONG, value);
+        this.setFloatTypeAndStyle();
+    }
+
     @Override
     public void setFloatValue(final float value) {
         this.setFloatValue(Float.toString(value));
@@ -295,11 +367,21 @@ public class TableCellImpl implements TableCell {
     }
 
     private void setPercentageValue(final String valueAsString) {
-        this.value = valueAsString;
+        this.setStringRepresentation(valueAsString);
+        this.setPercentageTypeAndStyle();
+    }
+
+    private void setPercentageTypeAndStyle() {
         this.type = TableCell.Type.PERCENTAGE;
         this.setDataStyle(this.dataStyles.getPercentageDataStyle());
     }
 
+    @Override
+    public void setPercentageValue(final double value) {
+        this.setRawValue(RAW_DOUBLE, Double.doubleToRawLongBits(value));
+        this.setPercentageTypeAndStyle();
+    }
+
     @Override
     public void setPercentageValue(final float value) {
         this.setPercentageValue(Float.toString(value));
@@ -312,12 +394,13 @@ public class TableCellImpl implements TableCell {
 
     @Override
     public void setStringValue(final String value) {
-        this.value = value;
+        this.setStringRepresentation(this.parent.internString(value));
         this.type = TableCell.Type.STRING;
     }
 
     @Override
     public void setStyle(final TableCellStyle style) {
+        this.parent.checkWritable();
         if (style == null) return;
 
         this.stylesContainer.addContentStyle(style);
@@ -338,7 +421,7 @@ public class TableCellImpl implements TableCell {
     public void setText(final Text text) {
         this.ensureColdCell();
         this.coldCell.setText(text);
-        this.value = "";
+        this.setStringRepresentation("");
         this.type = TableCell.Type.STRING;
         text.addEmbeddedStylesFromCell(this.stylesContainer);
     }
@@ -353,7 +436,7 @@ public class TableCellImpl implements TableCell {
 
     @Override
     public void setTimeValue(final long timeInMillis) {
-        this.value = this.xmlUtil.formatTimeInterval(timeInMillis);
+        this.setRawValue(RAW_TIME, timeInMillis);
         this.type = TableCell.Type.TIME;
         this.setDataStyle(this.dataStyles.getTimeDataStyle());
     }
@@ -372,7 +455,7 @@ public class TableCellImpl implements TableCell {
 
     @Override
     public void setVoidValue() {
-        this.value = "";
+        this.setStringRepresentation("");
         this.type = TableCell.Type.VOID;
     }
 
@@ -384,6 +467,6 @@ public class TableCellImpl implements TableCell {
 
     @Override
     public boolean hasValue() {
-        return this.value != null || this.hasColdCell();
+        return this.value != null || this.rawValueKind != NO_RAW_VALUE || this.hasColdCell();
     }
 }
\ No newline at end of file
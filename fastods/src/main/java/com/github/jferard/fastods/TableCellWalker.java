@@ -23,11 +23,22 @@
 
 package com.github.jferard.fastods;
 
+import java.io.Closeable;
+import java.io.IOException;
+
 /**
  * A walker over cells
  * @author Julien Férard
  */
-public interface TableCellWalker extends TableCell {
+public interface TableCellWalker extends TableCell, Closeable {
+    /**
+     * The row is complete. In a streaming table (see TableConfigBuilder.streaming), the row and
+     * the rows before it are written now, and can't be written anymore.
+     * @throws IOException if the rows can't be written
+     */
+    @Override
+    void close() throws IOException;
+
     /**
      * @return true if the walker has a next cell on the row
      */
@@ -37,6 +37,7 @@ import java.util.Date;
  */
 public class TableCellWalkerImpl implements TableCellWalker {
 	private final TableRow row;
+	private final CompactTableCell compactCell;
 	private int c;
 
 	/**
@@ -44,10 +45,30 @@ public class TableCellWalkerImpl implements TableCellWalker {
 	 * @param row the row
 	 */
 	TableCellWalkerImpl(final TableRow row) {
+		this(row, null);
+	}
+
+	/**
+	 * Create a walker on the given row
+	 * @param row the row
+	 * @param compactCell the view on the cells if the row is compact, null otherwise
+	 */
+	TableCellWalkerImpl(final TableRow row, final CompactTableCell compactCell) {
 		this.row = row;
+		this.compactCell = compactCell;
 		this.c = 0;
 	}
 
+	/**
+	 * @return the current cell
+	 */
+	private TableCell getCell() {
+		if (this.compactCell == null)
+			return this.row.getOrCreateCell(this.c);
+		else
+			return this.compactCell.at(this.c);
+	}
+
 	@Override
 	public void appendXMLToTableRow(final XMLUtil util,
 									final Appendable appendable) throws IOException {
@@ -61,12 +82,12 @@ public class TableCellWalkerImpl implements TableCellWalker {
 
 	@Override
 	public void setBooleanValue(final boolean value) {
-		this.row.getOrCreateCell(this.c).setBooleanValue(value);
+		this.getCell().setBooleanValue(value);
 	}
 
 	@Override
 	public void setText(final Text text) {
-		this.row.getOrCreateCell(this.c).setText(text);
+		this.getCell().setText(text);
 	}
 
 	@Override
@@ -86,17 +107,22 @@ public class TableCellWalkerImpl implements TableCellWalker {
 
 	@Override
 	public void setDateValue(final Date value) {
-		this.row.getOrCreateCell(this.c).setDateValue(value);
+		this.getCell().setDateValue(value);
 	}
 
 	@Override
 	public void setFloatValue(final Number value) {
-		this.row.getOrCreateCell(this.c).setFloatValue(value);
+		this.getCell().setFloatValue(value);
 	}
 
 	@Override
 	public void setPercentageValue(final Number value) {
-		this.row.getOrCreateCell(this.c).setPercentageValue(value);
+		this.getCell().setPercentageValue(value);
+	}
+
+	@Override
+	public void setPercentageValue(final double value) {
+		this.getCell().setPercentageValue(value);
 	}
 
 	@Override
@@ -106,48 +132,53 @@ public class TableCellWalkerImpl implements TableCellWalker {
 
 	@Override
 	public void setVoidValue() {
-		this.row.getOrCreateCell(this.c).setVoidValue();
+		this.getCell().setVoidValue();
 	}
 
 	@Override
 	public void setStringValue(final String value) {
-		this.row.getOrCreateCell(this.c).setStringValue(value);
+		this.getCell().setStringValue(value);
 	}
 
 	@Override
 	public void setTimeValue(final long timeInMillis) {
-		this.row.getOrCreateCell(this.c).setTimeValue(timeInMillis);
+		this.getCell().setTimeValue(timeInMillis);
 	}
 
 	@Override
 	public void setTooltip(final String tooltip) {
-		this.row.getOrCreateCell(this.c).setTooltip(tooltip);
+		this.getCell().setTooltip(tooltip);
 	}
 
 	@Override
 	public void setTooltip(final String tooltip, final Length width, final Length height, final boolean visible) {
-		this.row.getOrCreateCell(this.c).setTooltip(tooltip, width, height, visible);
+		this.getCell().setTooltip(tooltip, width, height, visible);
 	}
 
 	@Override
 	public void setFormula(final String formula) {
-		this.row.getOrCreateCell(this.c).setFormula(formula);
+		this.getCell().setFormula(formula);
 
 	}
 
 	@Override
 	public boolean hasValue() {
-		return this.row.getOrCreateCell(this.c).hasValue();
+		return this.getCell().hasValue();
 	}
 
 	@Override
 	public boolean isCovered() {
-		return this.row.getOrCreateCell(this.c).isCovered();
+		return this.getCell().isCovered();
 	}
 
 	@Override
 	public void setCovered() {
-		this.row.getOrCreateCell(this.c).setCovered();
+		this.getCell().setCovered();
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.row.close();
 	}
 
 	@Override
@@ -181,37 +212,52 @@ public class TableCellWalkerImpl implements TableCellWalker {
 
 	@Override
 	public void setCellValue(final CellValue value) {
-		this.row.getOrCreateCell(this.c).setCellValue(value);
+		this.getCell().setCellValue(value);
 	}
 
 	@Override
 	public void setCurrencyValue(final float value, final String currency) {
-		this.row.getOrCreateCell(this.c).setCurrencyValue(value, currency);
+		this.getCell().setCurrencyValue(value, currency);
 	}
 
 	@Override
 	public void setCurrencyValue(final int value, final String currency) {
-		this.row.getOrCreateCell(this.c).setCurrencyValue(value, currency);
+		this.getCell().setCurrencyValue(value, currency);
 	}
 
 	@Override
 	public void setCurrencyValue(final Number value, final String currency) {
-		this.row.getOrCreateCell(this.c).setCurrencyValue(value, currency);
+		this.getCell().setCurrencyValue(value, currency);
+	}
+
+	@Override
+	public void setCurrencyValue(final double value, final String currency) {
+		this.getCell().setCurrencyValue(value, currency);
 	}
 
 	@Override
 	public void setDateValue(final Calendar cal) {
-		this.row.getOrCreateCell(this.c).setDateValue(cal);
+		this.getCell().setDateValue(cal);
 	}
 
 	@Override
 	public void setFloatValue(final float value) {
-		this.row.getOrCreateCell(this.c).setFloatValue(value);
+		this.getCell().setFloatValue(value);
 	}
 
 	@Override
 	public void setFloatValue(final int value) {
-		this.row.getOrCreateCell(this.c).setFloatValue(value);
+		this.getCell().setFloatValue(value);
+	}
+
+	@Override
+	public void setFloatValue(final double value) {
+		this.getCell().setFloatValue(value);
+	}
+
+	@Override
+	public void setLongValue(final long value) {
+		this.getCell().setLongValue(value);
 	}
 
 	/**
@@ -220,22 +266,22 @@ public class TableCellWalkerImpl implements TableCellWalker {
 	@Override
 	@Deprecated
 	public void setObjectValue(final Object value) {
-		this.row.getOrCreateCell(this.c).setObjectValue(value);
+		this.getCell().setObjectValue(value);
 	}
 
 	@Override
 	public void setPercentageValue(final float value) {
-		this.row.getOrCreateCell(this.c).setPercentageValue(value);
+		this.getCell().setPercentageValue(value);
 	}
 
 	@Override
 	public void setPercentageValue(final int value) {
-		this.row.getOrCreateCell(this.c).setPercentageValue(value);
+		this.getCell().setPercentageValue(value);
 	}
 
 	@Override
 	public void setStyle(final TableCellStyle style) {
-		this.row.getOrCreateCell(this.c).setStyle(style);
+		this.getCell().setStyle(style);
 	}
 
 	@Override
@@ -247,6 +293,6 @@ public class TableCellWalkerImpl implements TableCellWalker {
 
 	@Override
 	public void setDataStyle(final DataStyle dataStyle) {
-		this.row.getOrCreateCell(this.c).setDataStyle(dataStyle);
+		this.getCell().setDataStyle(dataStyle);
 	}
 }
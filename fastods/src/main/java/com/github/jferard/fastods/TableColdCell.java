@@ -158,6 +158,28 @@ class TableColdCell {
 		}
 	}
 
+	/**
+	 * @param other the cold part of the previous cell
+	 * @return true if this cold part is written exactly as the other one and the cells may be
+	 * written as one repeated cell: no span, text nor tooltip.
+	 */
+	public boolean isRepeatOf(final TableColdCell other) {
+		if (this.text != null || this.tooltip != null || other.text != null ||
+				other.tooltip != null)
+			return false;
+		if (this.columnsSpanned != other.columnsSpanned) return false;
+		if (!this.isCovered() && (this.columnsSpanned > 1 || this.rowsSpanned > 1 ||
+				other.rowsSpanned > 1))
+			return false;
+
+		return TableColdCell.sameString(this.formula, other.formula) &&
+				TableColdCell.sameString(this.currency, other.currency);
+	}
+
+	private static boolean sameString(final String s1, final String s2) {
+		return s1 == null ? s2 == null : s1.equals(s2);
+	}
+
 	/**
 	 * 9.1.5 table:covered-table-cell
 	 * @return true if the cell is covered
@@ -0,0 +1,164 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The configuration of the tables of a document: how the rows are stored and flushed.
+ *
+ * @author Julien Férard
+ */
+public class TableConfig {
+    /**
+     * The default configuration: one TableCell object per cell.
+     */
+    public static final TableConfig DEFAULT =
+            new TableConfig(false, false, RowFlushPolicies.DEFAULT, null, 0, false, 0, 0, false);
+
+    /**
+     * @return a builder for a configuration
+     */
+    public static TableConfigBuilder builder() {
+        return new TableConfigBuilder();
+    }
+
+    private final boolean compactRows;
+    private final boolean streaming;
+    private final RowFlushPolicy rowFlushPolicy;
+    private final ExecutorService serializationExecutor;
+    private final int maxPendingBlocks;
+    private final boolean concurrentTables;
+    private final int spoolThreshold;
+    private final long spillHeapBudget;
+    private final boolean stringPool;
+
+    /**
+     * Create a new configuration
+     *
+     * @param compactRows    true if the cells are stored in primitive arrays
+     * @param streaming      true if every row is written as soon as the next row is created
+     * @param rowFlushPolicy        the policy that decides when the rows are flushed
+     * @param serializationExecutor the executor that serializes the blocks of rows, or null
+     * @param maxPendingBlocks      the max number of blocks waiting for the serialization
+     * @param concurrentTables      true if the tables may be filled concurrently
+     * @param spoolThreshold        the max number of chars of a table kept in memory
+     * @param spillHeapBudget       the estimated heap size of the rows of an anonymous table
+     *                              before the rows are spilled, 0 if the rows are never spilled
+     * @param stringPool            true if the string values are stored in a pool
+     */
+    TableConfig(final boolean compactRows, final boolean streaming,
+                final RowFlushPolicy rowFlushPolicy, final ExecutorService serializationExecutor,
+                final int maxPendingBlocks, final boolean concurrentTables,
+                final int spoolThreshold, final long spillHeapBudget,
+                final boolean stringPool) {
+        this.compactRows = compactRows;
+        this.streaming = streaming;
+        this.rowFlushPolicy = rowFlushPolicy;
+        this.serializationExecutor = serializationExecutor;
+        this.maxPendingBlocks = maxPendingBlocks;
+        this.concurrentTables = concurrentTables;
+        this.spoolThreshold = spoolThreshold;
+        this.spillHeapBudget = spillHeapBudget;
+        this.stringPool = stringPool;
+    }
+
+    /**
+     * @return true if the cells are stored in primitive arrays (see TableConfigBuilder.compactRows)
+     */
+    public boolean isCompactRows() {
+        return this.compactRows;
+    }
+
+    /**
+     * @return true if every row is written as soon as the next row is created (see
+     * TableConfigBuilder.streaming)
+     */
+    public boolean isStreaming() {
+        return this.streaming;
+    }
+
+    /**
+     * @return the policy that decides when the rows are flushed
+     */
+    public RowFlushPolicy getRowFlushPolicy() {
+        return this.rowFlushPolicy;
+    }
+
+    /**
+     * @return the executor that serializes the blocks of rows, or null if the rows are serialized
+     * by the thread that creates them (see TableConfigBuilder.parallelSerialization)
+     */
+    public ExecutorService getSerializationExecutor() {
+        return this.serializationExecutor;
+    }
+
+    /**
+     * @return the max number of blocks waiting for the serialization
+     */
+    public int getMaxPendingBlocks() {
+        return this.maxPendingBlocks;
+    }
+
+    /**
+     * @return true if the tables may be filled concurrently (see
+     * TableConfigBuilder.concurrentTables)
+     */
+    public boolean isConcurrentTables() {
+        return this.concurrentTables;
+    }
+
+    /**
+     * @return the max number of chars of a table kept in memory, when the tables are filled
+     * concurrently
+     */
+    public int getSpoolThreshold() {
+        return this.spoolThreshold;
+    }
+
+    /**
+     * @return the estimated heap size of the rows of an anonymous table before the rows are
+     * spilled, 0 if the rows are never spilled (see TableConfigBuilder.spill)
+     */
+    public long getSpillHeapBudget() {
+        return this.spillHeapBudget;
+    }
+
+    /**
+     * @return true if the string values are stored in a pool (see TableConfigBuilder.stringPool)
+     */
+    public boolean isStringPool() {
+        return this.stringPool;
+    }
+
+    /**
+     * @param rowFlushPolicy the policy that decides when the rows are flushed
+     * @return a copy of this configuration, with another policy
+     */
+    public TableConfig withRowFlushPolicy(final RowFlushPolicy rowFlushPolicy) {
+        return new TableConfig(this.compactRows, this.streaming, rowFlushPolicy,
+                this.serializationExecutor, this.maxPendingBlocks, this.concurrentTables,
+                this.spoolThreshold, this.spillHeapBudget, this.stringPool);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A builder for a table configuration.
+ *
+ * @author Julien Férard
+ */
+public class TableConfigBuilder {
+    /**
+     * The default max number of chars of a table kept in memory: 4 M chars
+     */
+    public static final int DEFAULT_SPOOL_THRESHOLD = 4 * 1024 * 1024;
+
+    private boolean compactRows;
+    private boolean streaming;
+    private RowFlushPolicy rowFlushPolicy;
+    private ExecutorService serializationExecutor;
+    private int maxPendingBlocks;
+    private boolean concurrentTables;
+    private int spoolThreshold;
+    private long spillHeapBudget;
+    private boolean stringPool;
+
+    /**
+     * Create a new builder
+     */
+    TableConfigBuilder() {
+        this.compactRows = false;
+        this.streaming = false;
+        this.rowFlushPolicy = RowFlushPolicies.DEFAULT;
+        this.serializationExecutor = null;
+        this.maxPendingBlocks = 0;
+        this.concurrentTables = false;
+        this.spoolThreshold = DEFAULT_SPOOL_THRESHOLD;
+        this.spillHeapBudget = 0;
+        this.stringPool = false;
+    }
+
+    /**
+     * Store the type, the value and the style of the cells of a row in primitive arrays, instead of
+     * one TableCell object per cell. A cell that needs a text, a tooltip, a formula, a currency or a span is
+     * still stored as an object. The XML output is the same.
+     *
+     * @return this for fluent style
+     */
+    public TableConfigBuilder compactRows() {
+        this.compactRows = true;
+        return this;
+    }
+
+    /**
+     * Stream the rows of the tables: when a writer observes the document, Table.nextRow writes
+     * the previous rows and releases them (TableCellWalker.close writes the row of the walker).
+     * The memory used by a table does not depend on the number of rows. A row that was written
+     * can't be accessed anymore, and the writes to a released row throw an
+     * IllegalStateException: use this mode for append-only tables. The row flush policy is
+     * ignored.
+     *
+     * @return this for fluent style
+     */
+    public TableConfigBuilder streaming() {
+        this.streaming = true;
+        return this;
+    }
+
+    /**
+     * Set the policy that decides when the rows are flushed. The default policy keeps the
+     * estimated size of the pending rows under 16 MB (see RowFlushPolicies).
+     *
+     * @param rowFlushPolicy the policy
+     * @return this for fluent style
+     */
+    public TableConfigBuilder rowFlushPolicy(final RowFlushPolicy rowFlushPolicy) {
+        this.rowFlushPolicy = rowFlushPolicy;
+        return this;
+    }
+
+    /**
+     * Serialize the blocks of rows (see rowFlushPolicy) concurrently. When the flush policy
+     * decides that the pending rows must be flushed, the block is submitted to the executor and
+     * the producer goes on. The serialized blocks are handed to the writer in the order of the
+     * rows. Ignored in streaming mode.
+     *
+     * @param executor the executor, e.g. Executors.newFixedThreadPool(n). The caller shuts it down.
+     * @return this for fluent style
+     */
+    public TableConfigBuilder parallelSerialization(final ExecutorService executor) {
+        return this.parallelSerialization(executor,
+                2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Serialize the blocks of rows concurrently (see parallelSerialization(ExecutorService)).
+     *
+     * @param executor         the executor. The caller shuts it down.
+     * @param maxPendingBlocks the max number of blocks waiting for the serialization: if there
+     *                         are more blocks, the producer waits for the first one.
+     * @return this for fluent style
+     */
+    public TableConfigBuilder parallelSerialization(final ExecutorService executor,
+                                                    final int maxPendingBlocks) {
+        if (maxPendingBlocks <= 0) throw new IllegalArgumentException(
+                "Expected a positive number of blocks, was " + maxPendingBlocks);
+        this.serializationExecutor = executor;
+        this.maxPendingBlocks = maxPendingBlocks;
+        return this;
+    }
+
+    /**
+     * Allow the tables of a named document to be filled concurrently, one thread per table (see
+     * concurrentTables(int)).
+     *
+     * @return this for fluent style
+     */
+    public TableConfigBuilder concurrentTables() {
+        return this.concurrentTables(DEFAULT_SPOOL_THRESHOLD);
+    }
+
+    /**
+     * Allow the tables of a named document to be filled concurrently, one thread per table.
+     * The tables must be added by one thread, in the order of the document. Then each table is
+     * filled by its own thread and written to its own segment, in memory or in a temporary file
+     * if the segment is bigger than the threshold. The thread should call Table.flush when the
+     * table is complete. The styles container is synchronized.
+     *
+     * On save, once all the threads are done, styles.xml and the preamble of content.xml are
+     * written, then the segments, in the order of the tables.
+     *
+     * @param spoolThreshold the max number of chars of a table kept in memory
+     * @return this for fluent style
+     */
+    public TableConfigBuilder concurrentTables(final int spoolThreshold) {
+        this.concurrentTables = true;
+        this.spoolThreshold = spoolThreshold;
+        return this;
+    }
+
+    /**
+     * Spill the cold rows of the tables of an anonymous document to memory-mapped temporary
+     * files when their estimated heap size exceeds a budget. The rows are stored in a compact
+     * binary form, and read again transparently when Table.getRow touches them, or when the
+     * document is saved. Implies compactRows. A row is spilled only if it has no TableCell object
+     * (see compactRows), no row style, no default cell style and no specific data styles. Ignored
+     * for the tables of a named document: the rows are flushed.
+     *
+     * @param heapBudget the estimated heap size of the rows of a table, in bytes
+     * @return this for fluent style
+     */
+    public TableConfigBuilder spill(final long heapBudget) {
+        if (heapBudget <= 0) throw new IllegalArgumentException(
+                "Expected a positive heap budget, was " + heapBudget);
+        this.compactRows = true;
+        this.spillHeapBudget = heapBudget;
+        return this;
+    }
+
+    /**
+     * Store the string values of the cells in a pool shared by the tables of the document: every
+     * distinct value is stored once, and escaped once. A compact cell (see compactRows) stores
+     * the id of the value. Use OdsDocument.getStringPool to get the hit rate: the pool is
+     * useful if the values are often repeated.
+     *
+     * @return this for fluent style
+     */
+    public TableConfigBuilder stringPool() {
+        this.stringPool = true;
+        return this;
+    }
+
+    /**
+     * @return the configuration
+     */
+    public TableConfig build() {
+        return new TableConfig(this.compactRows, this.streaming, this.rowFlushPolicy,
+                this.serializationExecutor, this.maxPendingBlocks, this.concurrentTables,
+                this.spoolThreshold, this.spillHeapBudget, this.stringPool);
+    }
+}
@@ -23,15 +23,20 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.datastyle.DataStyle;
 import com.github.jferard.fastods.datastyle.DataStyles;
 import com.github.jferard.fastods.odselement.StylesContainer;
 import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.style.TableRowStyle;
 import com.github.jferard.fastods.util.FastFullList;
+import com.github.jferard.fastods.util.StringPool;
 import com.github.jferard.fastods.util.WriteUtil;
 import com.github.jferard.fastods.util.XMLUtil;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.util.List;
 
 /**
  * WHERE ? content.xml/office:document-content/office:body/office:spreadsheet/
@@ -55,6 +60,35 @@ public class TableRow {
         else row.appendXMLToTable(xmlUtil, appendable);
     }
 
+    /**
+     * Write the XML of some rows. The runs of identical rows are written once, with a
+     * table:number-rows-repeated attribute.
+     *
+     * @param rows       the rows, may contain null values
+     * @param xmlUtil    an util
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public static void appendXMLToTable(final List<TableRow> rows, final XMLUtil xmlUtil,
+                                        final Appendable appendable) throws IOException {
+        TableRow runRow = null;
+        int runLength = 0;
+        for (final TableRow row : rows) {
+            if (row == null) {
+                if (runRow != null) runRow.appendXMLToTable(xmlUtil, appendable, runLength);
+                runRow = null;
+                appendable.append("<row />");
+            } else if (runRow != null && row.isRepeatOf(runRow)) {
+                runLength++;
+            } else {
+                if (runRow != null) runRow.appendXMLToTable(xmlUtil, appendable, runLength);
+                runRow = row;
+                runLength = 1;
+            }
+        }
+        if (runRow != null) runRow.appendXMLToTable(xmlUtil, appendable, runLength);
+    }
+
 
     private final int columnCapacity;
     private final Table parent;
@@ -62,10 +96,18 @@ public class TableRow {
     private final StylesContainer stylesContainer;
     private final WriteUtil writeUtil;
     private final XMLUtil xmlUtil;
-    private final FastFullList<TableCell> cells;
+    private final CompactCells compactCells;
+    private final StringPool stringPool;
+    private final CellOpenFragments fragments;
+    private final CellStyleResolver styleResolver;
+    private FastFullList<TableCell> cells;
     private DataStyles dataStyles;
     private TableCellStyle defaultCellStyle;
     private TableRowStyle rowStyle;
+    /**
+     * null if the row is writable, otherwise why it is not
+     */
+    private String releaseReason;
 
     /**
      * Create a new TableRow
@@ -80,6 +122,29 @@ public class TableRow {
      */
     TableRow(final WriteUtil writeUtil, final XMLUtil xmlUtil, final StylesContainer stylesContainer,
              final DataStyles dataStyles, final Table parent, final int rowIndex, final int columnCapacity) {
+        this(writeUtil, xmlUtil, stylesContainer, dataStyles, parent, rowIndex, columnCapacity, null,
+                null, new CellOpenFragments(), new CellStyleResolver(stylesContainer));
+    }
+
+    /**
+     * Create a new TableRow
+     *
+     * @param writeUtil       an util
+     * @param xmlUtil         an util
+     * @param stylesContainer the styles containes
+     * @param dataStyles      the data styles
+     * @param parent          the parent table
+     * @param rowIndex        the index of this row
+     * @param columnCapacity  the max column
+     * @param cellStyles      the index of the cell styles of the table if the row is compact, null otherwise
+     * @param stringPool      the pool of the string values of the document, or null
+     * @param fragments       the beginnings of the cells of the table
+     * @param styleResolver   the resolved styles of the cells of the table
+     */
+    TableRow(final WriteUtil writeUtil, final XMLUtil xmlUtil, final StylesContainer stylesContainer,
+             final DataStyles dataStyles, final Table parent, final int rowIndex, final int columnCapacity,
+             final CompactCellStyles cellStyles, final StringPool stringPool,
+             final CellOpenFragments fragments, final CellStyleResolver styleResolver) {
         this.writeUtil = writeUtil;
         this.stylesContainer = stylesContainer;
         this.xmlUtil = xmlUtil;
@@ -88,11 +153,23 @@ public class TableRow {
         this.rowIndex = rowIndex;
         this.columnCapacity = columnCapacity;
         this.rowStyle = TableRowStyle.DEFAULT_TABLE_ROW_STYLE;
-        this.cells = FastFullList.newListWithCapacity(columnCapacity);
+        this.stringPool = stringPool;
+        this.fragments = fragments;
+        this.styleResolver = styleResolver;
+        if (cellStyles == null) {
+            this.compactCells = null;
+            this.cells = FastFullList.newListWithCapacity(columnCapacity);
+        } else { // the list of objects will be created on demand
+            this.compactCells = new CompactCells(writeUtil, xmlUtil, cellStyles, stringPool,
+                    fragments, columnCapacity);
+            this.cells = null;
+        }
     }
 
-    private void appendRowOpenTag(final XMLUtil util, final Appendable appendable) throws IOException {
+    private void appendRowOpenTag(final XMLUtil util, final Appendable appendable,
+                                  final int repeat) throws IOException {
         appendable.append("<table:table-row");
+        if (repeat > 1) util.appendAttribute(appendable, "table:number-rows-repeated", repeat);
         if (this.rowStyle != null) util.appendEAttribute(appendable, "table:style-name", this.rowStyle.getName());
         if (this.defaultCellStyle != null)
             util.appendEAttribute(appendable, "table:default-cell-style-name", this.defaultCellStyle.getName());
@@ -108,7 +185,30 @@ public class TableRow {
      * @throws IOException If an I/O error occurs
      */
     public void appendXMLToTable(final XMLUtil util, final Appendable appendable) throws IOException {
-        this.appendRowOpenTag(util, appendable);
+        this.appendXMLToTable(util, appendable, 1);
+    }
+
+    /**
+     * Write the XML of this row, repeated.
+     *
+     * @param util       a util for XML writing
+     * @param appendable where to write the XML
+     * @param repeat     the number of identical rows (see isRepeatOf)
+     * @throws IOException If an I/O error occurs
+     */
+    void appendXMLToTable(final XMLUtil util, final Appendable appendable, final int repeat)
+            throws IOException {
+        this.appendRowOpenTag(util, appendable, repeat);
+        if (this.compactCells == null) this.appendCellsXMLToTableRow(util, appendable);
+        else this.appendCompactCellsXMLToTableRow(util, appendable);
+        appendable.append("</table:table-row>");
+    }
+
+    /**
+     * Write the cells. A run of identical cells is detected on the cells (see
+     * TableCellImpl.isRepeatOf) and written once, with a table:number-columns-repeated attribute.
+     */
+    private void appendCellsXMLToTableRow(final XMLUtil util, final Appendable appendable) throws IOException {
         int nullFieldCounter = 0;
 
         final int size = this.cells.usedSize();
@@ -118,21 +218,143 @@ public class TableRow {
                 nullFieldCounter++;
                 continue;
             }
-            this.appendRepeatedCell(util, appendable, nullFieldCounter);
-            nullFieldCounter = 0;
-            cell.appendXMLToTableRow(util, appendable);
+            nullFieldCounter = this.appendRepeatedCell(util, appendable, nullFieldCounter);
+            final int repeat = this.countObjectRepeats(cell, c, size);
+            TableRow.appendCellXMLToTableRow(util, appendable, cell, repeat);
+            c += repeat - 1;
         }
+    }
 
-        appendable.append("</table:table-row>");
+    private void appendCompactCellsXMLToTableRow(final XMLUtil util, final Appendable appendable)
+            throws IOException {
+        int nullFieldCounter = 0;
+
+        final int size = this.compactCells.size();
+        for (int c = 0; c < size; c++) {
+            final byte code = this.compactCells.getCode(c);
+            if (code == CompactCells.NO_VALUE) {
+                nullFieldCounter++;
+            } else if (code == CompactCells.OBJECT) {
+                final TableCell cell = this.cells.get(c);
+                if (this.hasNoValue(cell)) {
+                    nullFieldCounter++;
+                    continue;
+                }
+                nullFieldCounter = this.appendRepeatedCell(util, appendable, nullFieldCounter);
+                final int repeat = this.countObjectRepeats(cell, c, size);
+                TableRow.appendCellXMLToTableRow(util, appendable, cell, repeat);
+                c += repeat - 1;
+            } else {
+                nullFieldCounter = this.appendRepeatedCell(util, appendable, nullFieldCounter);
+                int repeat = 1;
+                while (c + repeat < size &&
+                        this.compactCells.isSameCell(c + repeat, this.compactCells, c))
+                    repeat++;
+                this.compactCells.appendXMLToTableRow(util, appendable, c, repeat);
+                c += repeat - 1;
+            }
+        }
     }
 
-    private void appendRepeatedCell(final XMLUtil util, final Appendable appendable,
-                                    final int nullFieldCounter) throws IOException {
-        if (nullFieldCounter <= 0) return;
+    /**
+     * @param cell the cell
+     * @param c    the index of the cell
+     * @param size the number of cells
+     * @return the number of cells, from c, that are written as this cell
+     */
+    private int countObjectRepeats(final TableCell cell, final int c, final int size) {
+        if (!(cell instanceof TableCellImpl)) return 1;
 
-        appendable.append("<table:table-cell");
-        if (nullFieldCounter >= 2) util.appendAttribute(appendable, "table:number-columns-repeated", nullFieldCounter);
+        int repeat = 1;
+        while (c + repeat < size) {
+            if (this.compactCells != null &&
+                    this.compactCells.getCode(c + repeat) != CompactCells.OBJECT)
+                break;
+            final TableCell next = this.cells.get(c + repeat);
+            if (!(next instanceof TableCellImpl) ||
+                    !((TableCellImpl) next).isRepeatOf((TableCellImpl) cell))
+                break;
+            repeat++;
+        }
+        return repeat;
+    }
+
+    private static void appendCellXMLToTableRow(final XMLUtil util, final Appendable appendable,
+                                                final TableCell cell, final int repeat)
+            throws IOException {
+        if (repeat == 1) cell.appendXMLToTableRow(util, appendable);
+        else ((TableCellImpl) cell).appendXMLToTableRow(util, appendable, repeat);
+    }
+
+    /**
+     * Write the empty cells before a cell with a value, as one element.
+     *
+     * @param util             an util
+     * @param appendable       the destination
+     * @param nullFieldCounter the number of empty cells
+     * @return the new number of empty cells: 0
+     * @throws IOException if an I/O error occurs
+     */
+    private int appendRepeatedCell(final XMLUtil util, final Appendable appendable,
+                                   final int nullFieldCounter) throws IOException {
+        if (nullFieldCounter <= 0) return 0;
+
+        this.fragments.append(util, appendable, false, null, null, nullFieldCounter);
         appendable.append("/>");
+        return 0;
+    }
+
+    /**
+     * @param other the previous row
+     * @return true if this row is written exactly as the other row: same styles and same cells
+     * (see TableCellImpl.isRepeatOf and CompactCells.isSameCell). The cells are compared, not
+     * serialized.
+     */
+    boolean isRepeatOf(final TableRow other) {
+        if (this.rowStyle != other.rowStyle || this.defaultCellStyle != other.defaultCellStyle)
+            return false;
+
+        if (this.compactCells == null) {
+            if (other.compactCells != null) return false;
+            final int size = Math.max(this.cells.usedSize(), other.cells.usedSize());
+            for (int c = 0; c < size; c++) {
+                if (!TableRow.isSameCell(this.cells.get(c), other.cells.get(c))) return false;
+            }
+        } else {
+            if (other.compactCells == null) return false;
+            final int size = Math.max(this.compactCells.size(), other.compactCells.size());
+            for (int c = 0; c < size; c++) {
+                if (!this.isSameCompactCell(c, other)) return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isSameCompactCell(final int c, final TableRow other) {
+        final byte code = this.compactCells.getCode(c);
+        final byte otherCode = other.compactCells.getCode(c);
+        if (code == CompactCells.OBJECT || otherCode == CompactCells.OBJECT) {
+            final TableCell cell = code == CompactCells.OBJECT ? this.cells.get(c) : null;
+            final TableCell otherCell =
+                    otherCode == CompactCells.OBJECT ? other.cells.get(c) : null;
+            if (code == CompactCells.OBJECT && otherCode == CompactCells.OBJECT)
+                return TableRow.isSameCell(cell, otherCell);
+            // an OBJECT without value is an empty cell
+            return (code == CompactCells.NO_VALUE || this.hasNoValue(cell)) &&
+                    (otherCode == CompactCells.NO_VALUE || this.hasNoValue(otherCell));
+        }
+        if (code == CompactCells.NO_VALUE || otherCode == CompactCells.NO_VALUE)
+            return code == otherCode;
+        return this.compactCells.isSameCell(c, other.compactCells, c);
+    }
+
+    private static boolean isSameCell(final TableCell cell, final TableCell otherCell) {
+        final boolean noValue = cell == null || !cell.hasValue();
+        final boolean otherNoValue = otherCell == null || !otherCell.hasValue();
+        if (noValue || otherNoValue) return noValue && otherNoValue;
+
+        return cell instanceof TableCellImpl && otherCell instanceof TableCellImpl &&
+                ((TableCellImpl) cell).isRepeatOf((TableCellImpl) otherCell);
     }
 
     private boolean hasNoValue(final TableCell cell) {
@@ -143,7 +365,9 @@ public class TableRow {
      * @return a CellWalker on the row
      */
     public TableCellWalker getWalker() {
-        return new TableCellWalkerImpl(this);
+        if (this.compactCells == null) return new TableCellWalkerImpl(this);
+        else return new TableCellWalkerImpl(this,
+                new CompactTableCell(this, this.compactCells, this.stylesContainer));
     }
 
     /**
@@ -190,6 +414,7 @@ public class TableRow {
      * @param ts The table rowStyle to be used
      */
     public void setDefaultCellStyle(final TableCellStyle ts) {
+        this.checkWritable();
         this.stylesContainer.addContentStyle(ts);
         this.defaultCellStyle = ts;
     }
@@ -200,9 +425,109 @@ public class TableRow {
      * @param format the format
      */
     public void setFormat(final DataStyles format) {
+        this.checkWritable();
         this.dataStyles = format;
     }
 
+    /**
+     * @return the beginnings of the cells of the table
+     */
+    CellOpenFragments getCellOpenFragments() {
+        return this.fragments;
+    }
+
+    /**
+     * @param curStyle    the current style of the cell, or null if the cell has no style
+     * @param columnIndex the index of the cell
+     * @param dataStyle   the data style
+     * @return the style that mixes the current style (or the default cell style of the row or
+     * of the column) with the data style
+     */
+    TableCellStyle resolveCellStyle(final TableCellStyle curStyle, final int columnIndex,
+                                    final DataStyle dataStyle) {
+        if (curStyle != null) return this.styleResolver.resolve(curStyle, dataStyle);
+        else if (this.defaultCellStyle != null)
+            return this.styleResolver.resolve(this.defaultCellStyle, dataStyle);
+        else return this.styleResolver.resolveForColumn(this.parent, columnIndex, dataStyle);
+    }
+
+    /**
+     * @param value a string value
+     * @return the instance of the value stored in the pool of the document, or the value if there
+     * is no pool
+     */
+    String internString(final String value) {
+        if (this.stringPool == null) return value;
+        return this.stringPool.get(this.stringPool.intern(value));
+    }
+
+    /**
+     * @param format the data styles of the table
+     * @return true if the row can be written in a binary form and read again (see writeTo): the
+     * row is compact, has no TableCell object, no row style, no default cell style and the
+     * data styles of the table.
+     */
+    boolean isSpillable(final DataStyles format) {
+        return this.compactCells != null && this.cells == null &&
+                this.rowStyle == TableRowStyle.DEFAULT_TABLE_ROW_STYLE &&
+                this.defaultCellStyle == null && this.dataStyles == format;
+    }
+
+    /**
+     * Write the cells of a spillable row in a binary form
+     *
+     * @param out the destination
+     * @throws IOException if an I/O error occurs
+     */
+    void writeTo(final DataOutput out) throws IOException {
+        this.compactCells.writeTo(out);
+    }
+
+    /**
+     * Read the cells of a new compact row
+     *
+     * @param in the source
+     * @throws IOException if an I/O error occurs
+     */
+    void readFrom(final DataInput in) throws IOException {
+        this.compactCells.readFrom(in);
+    }
+
+    /**
+     * The table does not hold this object anymore (the row was written or moved to the spill
+     * store): the writes to the row or to its cells would be lost, they throw an
+     * IllegalStateException.
+     *
+     * @param reason why the row is released
+     */
+    void release(final String reason) {
+        this.releaseReason = reason;
+    }
+
+    /**
+     * The row is complete (see TableCellWalker.close)
+     *
+     * @throws IOException if the row can't be written
+     */
+    void close() throws IOException {
+        this.parent.closeRow(this.rowIndex);
+    }
+
+    /**
+     * @throws IllegalStateException if the row was released
+     */
+    void checkWritable() {
+        if (this.releaseReason != null)
+            throw new IllegalStateException("Row " + this.rowIndex + " " + this.releaseReason);
+    }
+
+    /**
+     * @return the current data styles of this row
+     */
+    DataStyles getDataStyles() {
+        return this.dataStyles;
+    }
+
     /**
      * Add a span across rows
      *
@@ -226,6 +551,10 @@ public class TableRow {
      * @return a cell
      */
     public TableCell getOrCreateCell(final int colIndex) {
+        this.checkWritable();
+        if (this.compactCells != null && this.compactCells.getCode(colIndex) != CompactCells.OBJECT)
+            return this.createCellFromCompactCell(colIndex);
+
         TableCell cell = this.cells.get(colIndex);
         if (cell == null) {
             cell = new TableCellImpl(this.writeUtil, this.xmlUtil, this.stylesContainer, this.dataStyles, this,
@@ -235,12 +564,31 @@ public class TableRow {
         return cell;
     }
 
+    /**
+     * Move a cell of the compact row to a TableCell object
+     *
+     * @param colIndex the index of the cell in the row
+     * @return the cell
+     */
+    private TableCell createCellFromCompactCell(final int colIndex) {
+        if (this.cells == null) this.cells = FastFullList.newListWithCapacity(this.columnCapacity);
+
+        final TableCellImpl cell = new TableCellImpl(this.writeUtil, this.xmlUtil, this.stylesContainer,
+                this.dataStyles, this, colIndex);
+        cell.restoreState(this.compactCells.getStyle(colIndex), this.compactCells.getType(colIndex),
+                this.compactCells.getValueAsString(colIndex));
+        this.compactCells.setObject(colIndex);
+        this.cells.set(colIndex, cell);
+        return cell;
+    }
+
     /**
      * Set the row style
      *
      * @param rowStyle the style
      */
     public void setStyle(final TableRowStyle rowStyle) {
+        this.checkWritable();
         this.stylesContainer.addContentStyle(rowStyle);
         this.rowStyle = rowStyle;
     }
@@ -249,7 +597,8 @@ public class TableRow {
      * @return the current column count
      */
     public int getColumnCount() {
-        return this.cells.usedSize();
+        if (this.compactCells == null) return this.cells.usedSize();
+        else return this.compactCells.size();
     }
 
     /**
@@ -257,6 +606,9 @@ public class TableRow {
      * @return true if the cell at the colIndex is covered by a span
      */
     public boolean isCovered(final int colIndex) {
+        if (this.compactCells != null && this.compactCells.getCode(colIndex) != CompactCells.OBJECT)
+            return false;
+
         final TableCell cell = this.cells.get(colIndex);
         return cell != null && cell.isCovered();
     }
@@ -273,4 +625,4 @@ public class TableRow {
         }
         return s;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+/**
+ * A CellValue that contains a time (a duration)
+ * @author Julien Férard
+ */
+public class TimeValue extends CellValue {
+	private final long timeInMillis;
+
+	/**
+	 * @param timeInMillis the duration in milliseconds
+	 */
+	public TimeValue(final long timeInMillis) {
+		this.timeInMillis = timeInMillis;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (o == this)
+			return true;
+		if (!(o instanceof TimeValue))
+			return false;
+
+		final TimeValue other = (TimeValue) o;
+		return this.timeInMillis == other.timeInMillis;
+	}
+
+	@Override
+	public final int hashCode() {
+		return (int) (this.timeInMillis ^ (this.timeInMillis >>> 32));
+	}
+
+	@Override
+	public void setToCell(final TableCell tableCell) {
+		tableCell.setTimeValue(this.timeInMillis);
+	}
+}
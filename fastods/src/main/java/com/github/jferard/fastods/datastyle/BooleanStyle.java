@@ -24,6 +24,7 @@
 package com.github.jferard.fastods.datastyle;
 
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.ContainerId;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
@@ -35,6 +36,7 @@ import java.io.IOException;
  */
 public class BooleanStyle implements DataStyle {
 	private final CoreDataStyle dataStyle;
+	private ContainerId containerId;
 
 	/**
 	 * Create a new boolean style
@@ -67,4 +69,14 @@ public class BooleanStyle implements DataStyle {
 	public void addToElements(final OdsElements odsElements) {
 		odsElements.addDataStyle(this);
 	}
+
+	@Override
+	public ContainerId getContainerId() {
+		return this.containerId;
+	}
+
+	@Override
+	public void setContainerId(final ContainerId containerId) {
+		this.containerId = containerId;
+	}
 }
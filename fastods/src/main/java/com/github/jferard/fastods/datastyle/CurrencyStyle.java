@@ -24,6 +24,7 @@
 package com.github.jferard.fastods.datastyle;
 
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.ContainerId;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
@@ -58,6 +59,7 @@ public class CurrencyStyle implements DataStyle {
 	private final SymbolPosition currencyPosition;
 	private final String currencySymbol;
 	private final FloatStyle floatStyle;
+	private ContainerId containerId;
 
 	/**
 	 * Create a new CurrencyStyle.
@@ -100,9 +102,9 @@ public class CurrencyStyle implements DataStyle {
 			final Appendable appendable) throws IOException {
 		appendable.append("<number:currency-symbol");
 		// this.appendLocaleAttributes(util, appendable);
-		appendable.append(">")
-				.append(util.escapeXMLContent(this.currencySymbol))
-				.append("</number:currency-symbol>");
+		appendable.append(">");
+		util.appendEscapedXMLContent(appendable, this.currencySymbol);
+		appendable.append("</number:currency-symbol>");
 	}
 
 	@Override
@@ -119,4 +121,14 @@ public class CurrencyStyle implements DataStyle {
 	public void addToElements(final OdsElements odsElements) {
 		odsElements.addDataStyle(this);
 	}
+
+	@Override
+	public ContainerId getContainerId() {
+		return this.containerId;
+	}
+
+	@Override
+	public void setContainerId(final ContainerId containerId) {
+		this.containerId = containerId;
+	}
 }
@@ -24,6 +24,7 @@
 package com.github.jferard.fastods.datastyle;
 
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.ContainerId;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
@@ -36,6 +37,16 @@ import java.io.IOException;
  * @author Martin Schulz
  */
 public class DateStyle implements DataStyle {
+    @Override
+    public ContainerId getContainerId() {
+        return this.containerId;
+    }
+
+    @Override
+    public void setContainerId(final ContainerId containerId) {
+        this.containerId = containerId;
+    }
+
     /**
      * The format of the date
      */
@@ -93,6 +104,7 @@ public class DateStyle implements DataStyle {
     private final boolean automaticOrder;
     private final CoreDataStyle dataStyle;
     private final DateStyleFormat dateFormat;
+    private ContainerId containerId;
 
     /**
      * Create a new date style with the name name.
@@ -24,6 +24,7 @@
 package com.github.jferard.fastods.datastyle;
 
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.ContainerId;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
@@ -39,6 +40,7 @@ import java.io.IOException;
 public class FloatStyle implements DataStyle {
 	private final NumberStyleHelper numberStyle;
 	private final int decimalPlaces;
+	private ContainerId containerId;
 
 	/**
 	 * Create a float style
@@ -119,4 +121,14 @@ public class FloatStyle implements DataStyle {
     public void addToElements(final OdsElements odsElements) {
         odsElements.addDataStyle(this);
     }
+
+	@Override
+	public ContainerId getContainerId() {
+		return this.containerId;
+	}
+
+	@Override
+	public void setContainerId(final ContainerId containerId) {
+		this.containerId = containerId;
+	}
 }
@@ -24,6 +24,7 @@
 package com.github.jferard.fastods.datastyle;
 
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.ContainerId;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
@@ -44,6 +45,7 @@ public class FractionStyle implements DataStyle {
 	private final NumberStyleHelper numberStyle;
 	private final int minDenominatorDigits;
 	private final int minNumeratorDigits;
+	private ContainerId containerId;
 
 	/**
 	 * Create a new fraction style
@@ -91,4 +93,14 @@ public class FractionStyle implements DataStyle {
 	public void addToElements(final OdsElements odsElements) {
 		odsElements.addDataStyle(this);
 	}
+
+	@Override
+	public ContainerId getContainerId() {
+		return this.containerId;
+	}
+
+	@Override
+	public void setContainerId(final ContainerId containerId) {
+		this.containerId = containerId;
+	}
 }
@@ -24,6 +24,7 @@
 package com.github.jferard.fastods.datastyle;
 
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.ContainerId;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
@@ -42,6 +43,7 @@ import java.io.IOException;
  */
 public class PercentageStyle implements DataStyle {
 	private final FloatStyle floatStyle;
+	private ContainerId containerId;
 
 	/**
 	 * A percentage style
@@ -74,4 +76,14 @@ public class PercentageStyle implements DataStyle {
 	public void addToElements(final OdsElements odsElements) {
 		odsElements.addDataStyle(this);
 	}
+
+	@Override
+	public ContainerId getContainerId() {
+		return this.containerId;
+	}
+
+	@Override
+	public void setContainerId(final ContainerId containerId) {
+		this.containerId = containerId;
+	}
 }
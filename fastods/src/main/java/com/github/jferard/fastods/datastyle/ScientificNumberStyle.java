@@ -24,6 +24,7 @@
 package com.github.jferard.fastods.datastyle;
 
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.ContainerId;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
@@ -42,6 +43,7 @@ import java.io.IOException;
 public class ScientificNumberStyle implements DataStyle {
     private final FloatStyle floatStyle;
     private final int minExponentDigits;
+    private ContainerId containerId;
 
     /**
      * Create a new number style with the name name, minimum integer digits is
@@ -84,4 +86,14 @@ public class ScientificNumberStyle implements DataStyle {
     public void addToElements(final OdsElements odsElements) {
         odsElements.addDataStyle(this);
     }
+
+    @Override
+    public ContainerId getContainerId() {
+        return this.containerId;
+    }
+
+    @Override
+    public void setContainerId(final ContainerId containerId) {
+        this.containerId = containerId;
+    }
 }
@@ -24,6 +24,7 @@
 package com.github.jferard.fastods.datastyle;
 
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.ContainerId;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
@@ -43,6 +44,7 @@ public class TimeStyle implements DataStyle {
 	private static final String SECONDS = "<number:seconds/>";
 	private final CoreDataStyle dataStyle;
 	private final TimeStyle.Format timeFormat;
+	private ContainerId containerId;
 
 	/**
 	 * Create a new date style
@@ -82,6 +84,16 @@ public class TimeStyle implements DataStyle {
 		}
 	}
 
+	@Override
+	public ContainerId getContainerId() {
+		return this.containerId;
+	}
+
+	@Override
+	public void setContainerId(final ContainerId containerId) {
+		this.containerId = containerId;
+	}
+
 	/**
 	 * A time format
 	 */
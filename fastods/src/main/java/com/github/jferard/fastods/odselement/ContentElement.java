@@ -25,10 +25,13 @@ package com.github.jferard.fastods.odselement;
 
 import com.github.jferard.fastods.Table;
 import com.github.jferard.fastods.TableCell;
+import com.github.jferard.fastods.TableConfig;
 import com.github.jferard.fastods.datastyle.DataStyle;
 import com.github.jferard.fastods.datastyle.DataStyles;
 import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.ByteChunkPool;
 import com.github.jferard.fastods.util.PositionUtil;
+import com.github.jferard.fastods.util.StringPool;
 import com.github.jferard.fastods.util.UniqueList;
 import com.github.jferard.fastods.util.WriteUtil;
 import com.github.jferard.fastods.util.XMLUtil;
@@ -48,6 +51,9 @@ import java.util.zip.ZipEntry;
 public class ContentElement implements OdsElement {
     private final FlushPosition flushPosition;
     private final DataStyles format;
+    private final TableConfig tableConfig;
+    private final ByteChunkPool chunkPool;
+    private final StringPool stringPool;
     private final PositionUtil positionUtil;
     private final StylesContainer stylesContainer;
     private final UniqueList<Table> tables;
@@ -61,14 +67,22 @@ public class ContentElement implements OdsElement {
      * @param writeUtil       an util to compute some data
      * @param format          the format for data styles
      * @param stylesContainer a styles container.
+     * @param tableConfig     the config of the tables
+     * @param chunkPool       the pool of the chunks of the flushers
      */
     ContentElement(final PositionUtil positionUtil, final XMLUtil xmlUtil, final WriteUtil writeUtil,
-                   final DataStyles format, final StylesContainer stylesContainer) {
+                   final DataStyles format, final StylesContainer stylesContainer,
+                   final TableConfig tableConfig, final ByteChunkPool chunkPool) {
         this.writeUtil = writeUtil;
         this.xmlUtil = xmlUtil;
         this.positionUtil = positionUtil;
         this.format = format;
         this.stylesContainer = stylesContainer;
+        this.tableConfig = tableConfig;
+        this.chunkPool = chunkPool;
+        // the rows may be serialized by the thread of an asynchronous writer
+        if (tableConfig.isStringPool()) this.stringPool = StringPool.createSynchronized();
+        else this.stringPool = null;
         this.tables = new UniqueList<Table>();
         this.flushPosition = new FlushPosition();
     }
@@ -101,9 +115,13 @@ public class ContentElement implements OdsElement {
     public Table addTable(final String name, final int rowCapacity, final int columnCapacity) {
         Table table = this.tables.getByName(name);
         if (table == null) {
+            // the escaper of XMLUtil is not thread-safe: one per table if the tables are concurrent
+            final XMLUtil tableXMLUtil =
+                    this.tableConfig.isConcurrentTables() ? this.xmlUtil.copy() : this.xmlUtil;
             table = Table
-                    .create(this.positionUtil, this.writeUtil, this.xmlUtil, name, rowCapacity,
-                            columnCapacity, this.stylesContainer, this.format);
+                    .create(this.positionUtil, this.writeUtil, tableXMLUtil, name, rowCapacity,
+                            columnCapacity, this.stylesContainer, this.format, this.tableConfig,
+                            this.stringPool, this.chunkPool);
             this.tables.add(table);
         }
         return table;
@@ -220,6 +238,13 @@ public class ContentElement implements OdsElement {
         return this.tables;
     }
 
+    /**
+     * @return the pool of the string values of the cells, or null
+     */
+    public StringPool getStringPool() {
+        return this.stringPool;
+    }
+
     @Override
     public void write(final XMLUtil util, final ZipUTF8Writer writer) throws IOException {
         this.writePreamble(util, writer);
@@ -236,9 +261,7 @@ public class ContentElement implements OdsElement {
      * @throws IOException if the postamble could not be written
      */
     public void writePostamble(final XMLUtil util, final ZipUTF8Writer writer) throws IOException {
-        if (this.autofilters != null) this.appendAutofilters(writer, util);
-        writer.write("</office:spreadsheet>");
-        writer.write("</office:body>");
+        this.appendBodyEnd(util, writer);
         writer.write("</office:document-content>");
         writer.flush();
         writer.closeEntry();
@@ -252,6 +275,100 @@ public class ContentElement implements OdsElement {
      * @throws IOException if the preamble was not written
      */
     public void writePreamble(final XMLUtil util, final ZipUTF8Writer writer) throws IOException {
+        this.writePreambleHead(writer);
+        this.appendAutomaticStyles(util, writer);
+        this.writePreambleTail(writer);
+    }
+
+    /**
+     * Append the automatic styles of content.xml, without the office:automatic-styles tags: in the
+     * flat XML document, those styles share the element with the automatic styles of styles.xml.
+     *
+     * @param util       an XML util
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendAutomaticStyles(final XMLUtil util, final Appendable appendable)
+            throws IOException {
+        this.stylesContainer.writeHiddenDataStyles(util, appendable);
+        this.stylesContainer.writeContentAutomaticStyles(util, appendable);
+    }
+
+    /**
+     * Append the opening tags of the body, before the tables.
+     *
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendBodyStart(final Appendable appendable) throws IOException {
+        appendable.append("<office:body>");
+        appendable.append("<office:spreadsheet>");
+    }
+
+    /**
+     * Append the autofilters and the closing tags of the body, after the tables.
+     *
+     * @param util       an XML util
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendBodyEnd(final XMLUtil util, final Appendable appendable)
+            throws IOException {
+        if (this.autofilters != null) this.appendAutofilters(appendable, util);
+        appendable.append("</office:spreadsheet>");
+        appendable.append("</office:body>");
+    }
+
+    /**
+     * Write the preamble into the given writer, before styles.xml. Used by the
+     * ContentPreambleFlusher.
+     *
+     * @param writer          the destination
+     * @param automaticStyles the automatic styles (see renderAutomaticStylesBeforeStyles)
+     * @throws IOException if the preamble was not written
+     */
+    public void writePreamble(final ZipUTF8Writer writer, final String automaticStyles)
+            throws IOException {
+        this.writePreambleHead(writer);
+        writer.write(automaticStyles);
+        this.writePreambleTail(writer);
+    }
+
+    /**
+     * Render the automatic styles of content.xml, to write them on another thread (see
+     * writePreamble(ZipUTF8Writer, String)): the styles that are added after this call are
+     * ignored.
+     *
+     * @return the automatic styles
+     * @throws IOException never
+     */
+    public String renderAutomaticStyles() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        this.appendAutomaticStyles(this.xmlUtil, sb);
+        return sb.toString();
+    }
+
+    /**
+     * @return the XML util of the thread that fills the document
+     */
+    XMLUtil getXMLUtil() {
+        return this.xmlUtil;
+    }
+
+    /**
+     * Render the automatic styles of content.xml when content.xml is written before styles.xml.
+     * The styles that are added after this call are written to styles.xml.
+     *
+     * @return the automatic styles
+     * @throws IOException never
+     */
+    public String renderAutomaticStylesBeforeStyles() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        this.stylesContainer.writeContentAutomaticStylesBeforeStyles(this.xmlUtil, sb);
+        return sb.toString();
+    }
+
+    private void writePreambleHead(final ZipUTF8Writer writer) throws IOException {
         writer.putNextEntry(new ZipEntry("content.xml"));
         writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
         writer.write(
@@ -266,13 +383,11 @@ public class ContentElement implements OdsElement {
                 "<style:font-face style:name=\"Tahoma\" svg:font-family=\"Tahoma\" " + "style:font-family-generic=\"system\" style:font-pitch=\"variable\"/>");
         writer.write("</office:font-face-decls>");
         writer.write("<office:automatic-styles>");
+    }
 
-        this.stylesContainer.writeHiddenDataStyles(util, writer);
-        this.stylesContainer.writeContentAutomaticStyles(util, writer);
-
+    private void writePreambleTail(final ZipUTF8Writer writer) throws IOException {
         writer.write("</office:automatic-styles>");
-        writer.write("<office:body>");
-        writer.write("<office:spreadsheet>");
+        this.appendBodyStart(writer);
     }
 
     private void appendAutofilters(final Appendable appendable, final XMLUtil util) throws IOException {
@@ -23,11 +23,11 @@
 
 package com.github.jferard.fastods.odselement;
 
+import com.github.jferard.fastods.util.PrecompressedEntry;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 
 import java.io.IOException;
-import java.util.zip.ZipEntry;
 
 /**
  * See META-INF/manifest.xml/manifest:manifest
@@ -36,7 +36,7 @@ import java.util.zip.ZipEntry;
  *
  */
 public class ManifestElement implements OdsElement {
-	private final String[] text = { "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>",
+	private static final String[] TEXT = { "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>",
 			"<manifest:manifest xmlns:manifest=\"urn:oasis:names:tc:opendocument:xmlns:manifest:1.0\">",
 			"<manifest:file-entry manifest:media-type=\"application/vnd.oasis.opendocument.spreadsheet\" manifest:full-path=\"/\" />",
 			"<manifest:file-entry manifest:media-type=\"\" manifest:full-path=\"Configurations2/statusbar/\" />",
@@ -59,14 +59,45 @@ public class ManifestElement implements OdsElement {
 			"</manifest:manifest>"
 
 	};
+	private static final String[] MINIMAL_TEXT = { "<?xml version=\"1.0\" encoding=\"UTF-8\" ?>",
+			"<manifest:manifest xmlns:manifest=\"urn:oasis:names:tc:opendocument:xmlns:manifest:1.0\">",
+			"<manifest:file-entry manifest:media-type=\"application/vnd.oasis.opendocument.spreadsheet\" manifest:full-path=\"/\" />",
+			"<manifest:file-entry manifest:media-type=\"text/xml\" manifest:full-path=\"content.xml\" /> ",
+			"<manifest:file-entry manifest:media-type=\"text/xml\" manifest:full-path=\"styles.xml\" /> ",
+			"<manifest:file-entry manifest:media-type=\"text/xml\" manifest:full-path=\"meta.xml\" /> ",
+			"<manifest:file-entry manifest:media-type=\"text/xml\" manifest:full-path=\"settings.xml\" />",
+			"</manifest:manifest>"
+
+	};
+	private static final PrecompressedEntry ENTRY = ManifestElement.createEntry(TEXT);
+	private static final PrecompressedEntry MINIMAL_ENTRY = ManifestElement.createEntry(MINIMAL_TEXT);
+
+	private static PrecompressedEntry createEntry(final String[] text) {
+		final StringBuilder sb = new StringBuilder();
+		for (final String item : text)
+			sb.append(item);
+		return PrecompressedEntry.create("META-INF/manifest.xml", sb.toString());
+	}
+
+	private final boolean minimalPackage;
+
+	/**
+	 * Create the manifest of a full package
+	 */
+	public ManifestElement() {
+		this(false);
+	}
+
+	/**
+	 * @param minimalPackage true if the package has no Configurations2 and Thumbnails entries
+	 */
+	public ManifestElement(final boolean minimalPackage) {
+		this.minimalPackage = minimalPackage;
+	}
 
 	@Override
 	public void write(final XMLUtil util, final ZipUTF8Writer writer)
 			throws IOException {
-		writer.putNextEntry(new ZipEntry("META-INF/manifest.xml"));
-		for (final String item : this.text)
-			writer.write(item);
-		writer.flush();
-		writer.closeEntry();
+		writer.writeEntry(this.minimalPackage ? MINIMAL_ENTRY : ENTRY);
 	}
 }
@@ -23,12 +23,12 @@
 
 package com.github.jferard.fastods.odselement;
 
+import com.github.jferard.fastods.util.ISO8601Util;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 
 import java.io.IOException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.TimeZone;
 import java.util.zip.ZipEntry;
 
 /**
@@ -38,14 +38,6 @@ import java.util.zip.ZipEntry;
  * @author Martin Schulz
  */
 public class MetaElement implements OdsElement {
-    /**
-     * the date format: 2017-12-31
-     */
-    final static SimpleDateFormat DF_DATE = new SimpleDateFormat("yyyy-MM-dd");
-    /**
-     * the time format: 18:12:59
-     */
-    final static SimpleDateFormat DF_TIME = new SimpleDateFormat("HH:mm:ss");
     private final String editingCycles;
     private final String editingDuration;
     private final String generator;
@@ -75,6 +67,39 @@ public class MetaElement implements OdsElement {
     public void write(final XMLUtil util, final ZipUTF8Writer writer)
             throws IOException {
         writer.putNextEntry(new ZipEntry("meta.xml"));
+        this.appendDocument(util, writer);
+        writer.flush();
+        writer.closeEntry();
+    }
+
+    /**
+     * Render meta.xml, to write it later or on another thread (see write(ZipUTF8Writer, String)).
+     *
+     * @param util an XML util
+     * @return the content of meta.xml
+     * @throws IOException never
+     */
+    public String render(final XMLUtil util) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        this.appendDocument(util, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Write meta.xml as rendered by the render method.
+     *
+     * @param writer the destination
+     * @param meta   the content of meta.xml
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(final ZipUTF8Writer writer, final String meta) throws IOException {
+        writer.putNextEntry(new ZipEntry("meta.xml"));
+        writer.write(meta);
+        writer.flush();
+        writer.closeEntry();
+    }
+
+    private void appendDocument(final XMLUtil util, final Appendable writer) throws IOException {
         writer.append("<?xml");
         util.appendAttribute(writer, "version", "1.0");
         util.appendAttribute(writer, "encoding", "UTF-8");
@@ -90,32 +115,42 @@ public class MetaElement implements OdsElement {
         util.appendAttribute(writer, "xmlns:ooo",
                 "http://openoffice.org/2004/office");
         util.appendAttribute(writer, "office:version", "1.1");
-        writer.append("><office:meta>");
-        util.appendTag(writer, "meta:generator", this.generator);
-        util.appendTag(writer, "dc:creator", this.creator);
-        util.appendTag(writer, "dc:date", this.dateTime);
-        util.appendTag(writer, "meta:editing-cycles", this.editingCycles);
-        util.appendTag(writer, "meta:editing-duration", this.editingDuration);
-        writer.append("<meta:user-defined meta:name=\"Info 1\"/>")
+        writer.append(">");
+        this.appendMeta(util, writer);
+        writer.append("</office:document-meta>");
+    }
+
+    /**
+     * Append the office:meta element. Used by the write method and for the flat XML document.
+     *
+     * @param util       an XML util
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendMeta(final XMLUtil util, final Appendable appendable) throws IOException {
+        appendable.append("<office:meta>");
+        util.appendTag(appendable, "meta:generator", this.generator);
+        util.appendTag(appendable, "dc:creator", this.creator);
+        util.appendTag(appendable, "dc:date", this.dateTime);
+        util.appendTag(appendable, "meta:editing-cycles", this.editingCycles);
+        util.appendTag(appendable, "meta:editing-duration", this.editingDuration);
+        appendable.append("<meta:user-defined meta:name=\"Info 1\"/>")
                 .append("<meta:user-defined meta:name=\"Info 2\"/>")
                 .append("<meta:user-defined meta:name=\"Info 3\"/>")
                 .append("<meta:user-defined meta:name=\"Info 4\"/>");
         // .append("<meta:document-statistic");
-        // util.appendAttribute(writer, "meta:table-count", this.tableCount);
-        // util.appendAttribute(writer, "meta:cell-count", this.cellCount);
-        // writer.append("/>")
-        writer.append("</office:meta>").append("</office:document-meta>");
-        writer.flush();
-        writer.closeEntry();
+        // util.appendAttribute(appendable, "meta:table-count", this.tableCount);
+        // util.appendAttribute(appendable, "meta:cell-count", this.cellCount);
+        // appendable.append("/>")
+        appendable.append("</office:meta>");
     }
 
     /**
      * Store the date and time of the document creation in the MetaElement data.
      */
     private void setDateTimeNow() {
-        final Date dt = new Date();
-
-        this.dateTime = MetaElement.DF_DATE.format(dt) +
-                "T" + MetaElement.DF_TIME.format(dt);
+        final long now = System.currentTimeMillis();
+        final long localNow = now + TimeZone.getDefault().getOffset(now);
+        this.dateTime = ISO8601Util.create().formatLocalDateTime(localNow); // 2017-12-31T18:12:59
     }
 }
@@ -23,11 +23,11 @@
 
 package com.github.jferard.fastods.odselement;
 
+import com.github.jferard.fastods.util.PrecompressedEntry;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 
 import java.io.IOException;
-import java.util.zip.ZipEntry;
 
 /**
  * WHERE ? mimetype
@@ -37,13 +37,13 @@ import java.util.zip.ZipEntry;
  *
  */
 public class MimetypeElement implements OdsElement {
+	private static final PrecompressedEntry ENTRY = PrecompressedEntry.create("mimetype",
+			"application/vnd.oasis.opendocument.spreadsheet");
+
 	@Override
 	public void write(final XMLUtil util, final ZipUTF8Writer writer)
 			throws IOException {
-		writer.putNextEntry(new ZipEntry("mimetype"));
-		writer.write("application/vnd.oasis.opendocument.spreadsheet");
-		writer.flush();
-		writer.closeEntry();
+		writer.writeEntry(ENTRY);
 	}
 
 }
@@ -23,12 +23,19 @@
 
 package com.github.jferard.fastods.odselement;
 
+import com.github.jferard.fastods.ContentPreambleFlusher;
+import com.github.jferard.fastods.DocumentConfig;
 import com.github.jferard.fastods.FinalizeFlusher;
+import com.github.jferard.fastods.FlatFinalizeFlusher;
+import com.github.jferard.fastods.FlatPreambleFlusher;
 import com.github.jferard.fastods.ImmutableElementsFlusher;
 import com.github.jferard.fastods.MetaAndStylesElementsFlusher;
 import com.github.jferard.fastods.NamedOdsFileWriter;
+import com.github.jferard.fastods.OdsFlusher;
+import com.github.jferard.fastods.SpooledTableWriter;
 import com.github.jferard.fastods.Table;
 import com.github.jferard.fastods.TableCell;
+import com.github.jferard.fastods.TableConfig;
 import com.github.jferard.fastods.datastyle.DataStyle;
 import com.github.jferard.fastods.datastyle.DataStyles;
 import com.github.jferard.fastods.style.MasterPageStyle;
@@ -36,16 +43,19 @@ import com.github.jferard.fastods.style.ObjectStyle;
 import com.github.jferard.fastods.style.PageLayoutStyle;
 import com.github.jferard.fastods.style.PageStyle;
 import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.ByteChunkPool;
 import com.github.jferard.fastods.util.PositionUtil;
+import com.github.jferard.fastods.util.PrecompressedEntry;
+import com.github.jferard.fastods.util.StringPool;
 import com.github.jferard.fastods.util.WriteUtil;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.zip.ZipEntry;
 
 /**
  * The OdsElements class is simply a facade in front of various OdsElement classes (ContentElement, StylesElement, ...).
@@ -58,26 +68,83 @@ public class OdsElements {
             "Configurations2/floater/", "Configurations2/images/Bitmaps/", "Configurations2/menubar/",
             "Configurations2/popupmenu/", "Configurations2/progressbar/", "Configurations2/statusbar/",
             "Configurations2/toolbar/"};
+    private static final PrecompressedEntry[] EMPTY_ELEMENTS = OdsElements.createEmptyEntries();
+    private static final String FLAT_DOCUMENT_START = "<office:document " +
+            "xmlns:office=\"urn:oasis:names:tc:opendocument:xmlns:office:1.0\" " +
+            "xmlns:style=\"urn:oasis:names:tc:opendocument:xmlns:style:1.0\" " +
+            "xmlns:text=\"urn:oasis:names:tc:opendocument:xmlns:text:1.0\" " +
+            "xmlns:table=\"urn:oasis:names:tc:opendocument:xmlns:table:1.0\" " +
+            "xmlns:draw=\"urn:oasis:names:tc:opendocument:xmlns:drawing:1.0\" " +
+            "xmlns:fo=\"urn:oasis:names:tc:opendocument:xmlns:xsl-fo-compatible:1.0\" " +
+            "xmlns:xlink=\"http://www.w3.org/1999/xlink\" " +
+            "xmlns:dc=\"http://purl.org/dc/elements/1.1/\" " +
+            "xmlns:meta=\"urn:oasis:names:tc:opendocument:xmlns:meta:1.0\" " +
+            "xmlns:number=\"urn:oasis:names:tc:opendocument:xmlns:datastyle:1.0\" " +
+            "xmlns:presentation=\"urn:oasis:names:tc:opendocument:xmlns:presentation:1.0\" " +
+            "xmlns:svg=\"urn:oasis:names:tc:opendocument:xmlns:svg-compatible:1.0\" " +
+            "xmlns:chart=\"urn:oasis:names:tc:opendocument:xmlns:chart:1.0\" " +
+            "xmlns:dr3d=\"urn:oasis:names:tc:opendocument:xmlns:dr3d:1.0\" " +
+            "xmlns:math=\"http://www.w3.org/1998/Math/MathML\" " +
+            "xmlns:form=\"urn:oasis:names:tc:opendocument:xmlns:form:1.0\" " +
+            "xmlns:script=\"urn:oasis:names:tc:opendocument:xmlns:script:1.0\" " +
+            "xmlns:config=\"urn:oasis:names:tc:opendocument:xmlns:config:1.0\" " +
+            "xmlns:ooo=\"http://openoffice.org/2004/office\" " +
+            "xmlns:ooow=\"http://openoffice.org/2004/writer\" " +
+            "xmlns:oooc=\"http://openoffice.org/2004/calc\" " +
+            "xmlns:dom=\"http://www.w3.org/2001/xml-events\" " +
+            "xmlns:xforms=\"http://www.w3.org/2002/xforms\" " +
+            "xmlns:xsd=\"http://www.w3.org/2001/XMLSchema\" " +
+            "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" " +
+            "office:version=\"1.1\" " +
+            "office:mimetype=\"application/vnd.oasis.opendocument.spreadsheet\">";
+
+    private static PrecompressedEntry[] createEmptyEntries() {
+        final PrecompressedEntry[] entries = new PrecompressedEntry[EMPTY_ELEMENT_NAMES.length];
+        for (int i = 0; i < entries.length; i++)
+            entries[i] = PrecompressedEntry.create(EMPTY_ELEMENT_NAMES[i], new byte[0]);
+        return entries;
+    }
+
+    /**
+     * @param positionUtil an util for cell addresses (e.g. "A1")
+     * @param xmlUtil      an XML util
+     * @param writeUtil    an util for write
+     * @param format       the data styles
+     * @param tableConfig  the config of the tables
+     * @return a new OdsElements, with newly build elements.
+     */
+    public static OdsElements create(final PositionUtil positionUtil, final XMLUtil xmlUtil, final WriteUtil writeUtil,
+                                     final DataStyles format, final TableConfig tableConfig) {
+        return OdsElements.create(positionUtil, xmlUtil, writeUtil, format, tableConfig,
+                DocumentConfig.DEFAULT);
+    }
 
     /**
      * @param positionUtil an util for cell addresses (e.g. "A1")
      * @param xmlUtil      an XML util
      * @param writeUtil    an util for write
      * @param format       the data styles
+     * @param tableConfig  the config of the tables
+     * @param documentConfig the config of the document and of its writer
      * @return a new OdsElements, with newly build elements.
      */
     public static OdsElements create(final PositionUtil positionUtil, final XMLUtil xmlUtil, final WriteUtil writeUtil,
-                                     final DataStyles format) {
+                                     final DataStyles format, final TableConfig tableConfig,
+                                     final DocumentConfig documentConfig) {
         final MimetypeElement mimetypeElement = new MimetypeElement();
-        final ManifestElement manifestElement = new ManifestElement();
+        final ManifestElement manifestElement = new ManifestElement(documentConfig.isMinimalPackage());
         final SettingsElement settingsElement = SettingsElement.create();
         final MetaElement metaElement = new MetaElement();
-        final StylesContainer stylesContainer = new StylesContainer();
+        final StylesContainer stylesContainer = tableConfig.isConcurrentTables() ?
+                new SynchronizedStylesContainer() : new StylesContainer();
         final StylesElement stylesElement = new StylesElement(stylesContainer);
+        final ByteChunkPool chunkPool = documentConfig.getChunkPool() == null ?
+                ByteChunkPool.create() : documentConfig.getChunkPool();
         final ContentElement contentElement = new ContentElement(positionUtil, xmlUtil, writeUtil, format,
-                stylesContainer);
+                stylesContainer, tableConfig, chunkPool);
         return new OdsElements(Logger.getLogger(OdsElements.class.getName()), stylesContainer, mimetypeElement,
-                manifestElement, settingsElement, metaElement, contentElement, stylesElement);
+                manifestElement, settingsElement, metaElement, contentElement, stylesElement,
+                tableConfig, documentConfig);
     }
 
     private final ContentElement contentElement;
@@ -88,6 +155,12 @@ public class OdsElements {
     private final SettingsElement settingsElement;
     private final StylesContainer stylesContainer;
     private final StylesElement stylesElement;
+    private final TableConfig tableConfig;
+    private final DocumentConfig documentConfig;
+    /**
+     * The writers of the tables, if the tables are filled concurrently
+     */
+    private final List<SpooledTableWriter> spooledTableWriters;
     private NamedOdsFileWriter observer;
 
     /**
@@ -101,10 +174,34 @@ public class OdsElements {
      * @param metaElement     the meta element
      * @param contentElement  the content.xml element
      * @param stylesElement   the styles.xml element
+     * @param tableConfig     the config of the tables
      */
     OdsElements(final Logger logger, final StylesContainer stylesContainer, final MimetypeElement mimetypeElement,
                 final ManifestElement manifestElement, final SettingsElement settingsElement,
-                final MetaElement metaElement, final ContentElement contentElement, final StylesElement stylesElement) {
+                final MetaElement metaElement, final ContentElement contentElement, final StylesElement stylesElement,
+                final TableConfig tableConfig) {
+        this(logger, stylesContainer, mimetypeElement, manifestElement, settingsElement, metaElement,
+                contentElement, stylesElement, tableConfig, DocumentConfig.DEFAULT);
+    }
+
+    /**
+     * Create a new instance from elements
+     *
+     * @param logger          the logger
+     * @param stylesContainer the styles container (before dispatch to styles.xml and content.xml)
+     * @param mimetypeElement the mimetype element
+     * @param manifestElement the manifest element
+     * @param settingsElement the settings.xml element
+     * @param metaElement     the meta element
+     * @param contentElement  the content.xml element
+     * @param stylesElement   the styles.xml element
+     * @param tableConfig     the config of the tables
+     * @param documentConfig  the config of the document and of its writer
+     */
+    OdsElements(final Logger logger, final StylesContainer stylesContainer, final MimetypeElement mimetypeElement,
+                final ManifestElement manifestElement, final SettingsElement settingsElement,
+                final MetaElement metaElement, final ContentElement contentElement, final StylesElement stylesElement,
+                final TableConfig tableConfig, final DocumentConfig documentConfig) {
         this.logger = logger;
         this.mimetypeElement = mimetypeElement;
         this.manifestElement = manifestElement;
@@ -113,6 +210,9 @@ public class OdsElements {
         this.contentElement = contentElement;
         this.stylesElement = stylesElement;
         this.stylesContainer = stylesContainer;
+        this.tableConfig = tableConfig;
+        this.documentConfig = documentConfig;
+        this.spooledTableWriters = new ArrayList<SpooledTableWriter>();
     }
 
     /**
@@ -201,7 +301,11 @@ public class OdsElements {
     /**
      * Add a new table to content. The config for this table is added to the settings.
      * If the OdsElements is observed, the previous table is flushed. If there is no previous table,
-     * meta.xml, styles.xml and the preamble of content.xml are written to destination.
+     * meta.xml, styles.xml and the preamble of content.xml are written to destination (styles.xml
+     * is written on save if the styles are late, see OdsFactory.lateStyles). For a flat XML
+     * document, the preamble of the document is written instead.
+     * If the tables are filled concurrently, the table is written to its own segment and nothing
+     * is written to destination.
      *
      * @param name           name of the table
      * @param rowCapacity    estimated rows
@@ -212,29 +316,61 @@ public class OdsElements {
     public Table addTableToContent(final String name, final int rowCapacity,
                                    final int columnCapacity) throws IOException {
         final Table previousTable = this.contentElement.getLastTable();
+        final int tableCount = this.contentElement.getTableCount();
         final Table table = this.contentElement.addTable(name, rowCapacity, columnCapacity);
         this.settingsElement.addTableConfig(table.getConfigEntry());
-        if (this.observer != null) {
-            if (previousTable == null)
-                this.observer.update(new MetaAndStylesElementsFlusher(this, this.contentElement));
+        if (this.tableConfig.isConcurrentTables()) {
+            if (this.observer != null && this.contentElement.getTableCount() > tableCount) {
+                final SpooledTableWriter tableWriter = SpooledTableWriter
+                        .create(this.observer, this.tableConfig.getSpoolThreshold());
+                this.spooledTableWriters.add(tableWriter);
+                table.addObserver(tableWriter);
+            }
+        } else if (this.observer != null) {
+            if (previousTable == null) this.observer.update(this.createPreambleFlusher());
             else previousTable.flush();
             table.addObserver(this.observer);
         }
         return table;
     }
 
+    private OdsFlusher createPreambleFlusher() throws IOException {
+        if (this.documentConfig.isFlatXML())
+            return new FlatPreambleFlusher(this, this.renderFlatPreamble());
+        if (this.documentConfig.isLateStyles())
+            return new ContentPreambleFlusher(this, this.contentElement, this.renderMeta(),
+                    this.contentElement.renderAutomaticStylesBeforeStyles());
+        else return this.createMetaAndStylesFlusher();
+    }
+
     /**
-     * Create empty elements for package. Used on save or by the ImmutableElementsFlusher.
+     * The preamble is rendered on the thread that fills the document: the writer thread of an
+     * OdsFileAsyncWriter must not walk the styles that this thread may still add.
+     */
+    private OdsFlusher createMetaAndStylesFlusher() throws IOException {
+        return new MetaAndStylesElementsFlusher(this, this.contentElement, this.renderMeta(),
+                this.stylesElement.render(this.contentElement.getXMLUtil()),
+                this.contentElement.renderAutomaticStyles());
+    }
+
+    private String renderMeta() throws IOException {
+        return this.metaElement.render(this.contentElement.getXMLUtil());
+    }
+
+    /**
+     * Create empty elements for package. Used on save or by the ImmutableElementsFlusher. Nothing
+     * is written for a minimal package.
      *
      * @param writer destination
      * @throws IOException if the elements were not created.
      */
     public void createEmptyElements(final ZipUTF8Writer writer) throws IOException {
+        if (this.documentConfig.isMinimalPackage()) return;
+
         this.logger.log(Level.FINER, "Writing empty ods elements to zip file");
-        for (final String elementName : EMPTY_ELEMENT_NAMES) {
-            this.logger.log(Level.FINEST, "Writing odselement: {0} to zip file", elementName);
-            writer.putNextEntry(new ZipEntry(elementName));
-            writer.closeEntry();
+        for (final PrecompressedEntry entry : EMPTY_ELEMENTS) {
+            this.logger.log(Level.FINEST, "Writing odselement: {0} to zip file", entry.getName());
+            writer.writeEntry(entry);
         }
     }
 
@@ -320,12 +456,21 @@ public class OdsElements {
         return this.contentElement.getTables();
     }
 
+    /**
+     * @return the pool of the string values of the cells, or null
+     */
+    public StringPool getStringPool() {
+        return this.contentElement.getStringPool();
+    }
+
     /**
      * Prepare the elements for writing.
      *
      * @throws IOException if the preparation fails
      */
     public void prepare() throws IOException {
+        if (this.documentConfig.isFlatXML()) return; // no package
+
         this.observer.update(new ImmutableElementsFlusher(this));
     }
 
@@ -335,10 +480,35 @@ public class OdsElements {
      * @throws IOException if the write fails
      */
     public void save() throws IOException {
-        final Table previousTable = this.contentElement.getLastTable();
-        if (previousTable != null) previousTable.flush();
+        if (this.tableConfig.isConcurrentTables()) this.flushSpooledTables();
+        else {
+            final Table previousTable = this.contentElement.getLastTable();
+            if (previousTable != null) previousTable.flush();
+        }
 
-        this.observer.update(new FinalizeFlusher(this.contentElement, this.settingsElement));
+        if (this.documentConfig.isFlatXML()) this.observer.update(new FlatFinalizeFlusher(this));
+        else if (this.documentConfig.isLateStyles() && !this.tableConfig.isConcurrentTables())
+            this.observer.update(new FinalizeFlusher(this.contentElement, this.settingsElement,
+                    this.stylesElement));
+        else this.observer.update(new FinalizeFlusher(this.contentElement, this.settingsElement));
+    }
+
+    /**
+     * End the tables that were not flushed, then write styles.xml, the preamble of content.xml
+     * and the segments.
+     *
+     * @throws IOException if the write fails
+     */
+    private void flushSpooledTables() throws IOException {
+        final List<Table> tables = this.contentElement.getTables();
+        for (int i = 0; i < this.spooledTableWriters.size(); i++) {
+            if (!this.spooledTableWriters.get(i).isEnded()) tables.get(i).flush();
+        }
+        if (this.documentConfig.isFlatXML())
+            this.observer.update(new FlatPreambleFlusher(this, this.renderFlatPreamble()));
+        else this.observer.update(this.createMetaAndStylesFlusher());
+        for (final SpooledTableWriter tableWriter : this.spooledTableWriters)
+            this.observer.update(tableWriter.createSegmentFlusher());
     }
 
     /**
@@ -424,6 +594,84 @@ public class OdsElements {
         this.stylesElement.write(xmlUtil, writer);
     }
 
+    /**
+     * Write the meta element as rendered on the thread that fills the document.
+     *
+     * @param writer the writer
+     * @param meta   the content of meta.xml
+     * @throws IOException if write fails
+     */
+    public void writeMeta(final ZipUTF8Writer writer, final String meta) throws IOException {
+        this.logger.log(Level.FINER, "Writing odselement: metaElement to zip file");
+        this.metaElement.write(writer, meta);
+    }
+
+    /**
+     * Write the styles element as rendered on the thread that fills the document.
+     *
+     * @param writer the writer
+     * @param styles the content of styles.xml
+     * @throws IOException if write fails
+     */
+    public void writeStyles(final ZipUTF8Writer writer, final String styles) throws IOException {
+        this.logger.log(Level.FINER, "Writing odselement: stylesElement to zip file");
+        this.stylesElement.write(writer, styles);
+    }
+
+    /**
+     * Render the beginning of the flat XML document, up to the first table: meta, settings,
+     * styles, automatic styles and master styles. The settings are those known at this point.
+     *
+     * @return the beginning of the document
+     * @throws IOException never
+     */
+    public String renderFlatPreamble() throws IOException {
+        final XMLUtil xmlUtil = this.contentElement.getXMLUtil();
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+        sb.append(FLAT_DOCUMENT_START);
+        this.metaElement.appendMeta(xmlUtil, sb);
+        this.settingsElement.setTables(this.getTables());
+        this.settingsElement.appendSettings(xmlUtil, sb);
+        sb.append("<office:scripts/>");
+        this.stylesElement.appendFontFaceDecls(sb);
+        this.stylesElement.appendStyles(xmlUtil, sb);
+        sb.append("<office:automatic-styles>");
+        this.stylesElement.appendAutomaticStyles(xmlUtil, sb);
+        this.contentElement.appendAutomaticStyles(xmlUtil, sb);
+        sb.append("</office:automatic-styles>");
+        this.stylesElement.appendMasterStyles(xmlUtil, sb);
+        this.contentElement.appendBodyStart(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Write the beginning of the flat XML document, as rendered by renderFlatPreamble.
+     *
+     * @param writer   the writer
+     * @param preamble the beginning of the document
+     * @throws IOException if write fails
+     */
+    public void writeFlatPreamble(final ZipUTF8Writer writer, final String preamble)
+            throws IOException {
+        this.logger.log(Level.FINER, "Writing odselements: preamble of the flat document");
+        writer.write(preamble);
+    }
+
+    /**
+     * Write the end of the flat XML document, after the last table.
+     *
+     * @param xmlUtil the xml util
+     * @param writer  the writer
+     * @throws IOException if write fails
+     */
+    public void writeFlatPostamble(final XMLUtil xmlUtil, final ZipUTF8Writer writer) throws IOException {
+        this.logger.log(Level.FINER, "Writing odselements: postamble of the flat document");
+        this.contentElement.appendBodyEnd(xmlUtil, writer);
+        writer.write("</office:document>");
+        writer.flush();
+    }
+
     /**
      * Add an autofilter to a table
      *
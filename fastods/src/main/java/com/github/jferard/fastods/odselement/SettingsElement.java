@@ -106,15 +106,26 @@ public class SettingsElement implements OdsElement {
 		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>");
 		writer.write(
 				"<office:document-settings xmlns:office=\"urn:oasis:names:tc:opendocument:xmlns:office:1.0\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" xmlns:config=\"urn:oasis:names:tc:opendocument:xmlns:config:1.0\" xmlns:ooo=\"http://openoffice.org/2004/office\" office:version=\"1.1\">");
-		writer.write("<office:settings>");
-		for (final ConfigBlock block : this.settings.getRootBlocks())
-			block.appendXMLContent(util, writer);
-		writer.write("</office:settings>");
+		this.appendSettings(util, writer);
 		writer.write("</office:document-settings>");
 		writer.flush();
 		writer.closeEntry();
 	}
 
+	/**
+	 * Append the office:settings element. Used by the write method and for the flat XML document.
+	 * @param util an XML util
+	 * @param appendable the destination
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void appendSettings(final XMLUtil util, final Appendable appendable)
+			throws IOException {
+		appendable.append("<office:settings>");
+		for (final ConfigBlock block : this.settings.getRootBlocks())
+			block.appendXMLContent(util, appendable);
+		appendable.append("</office:settings>");
+	}
+
 	/**
 	 * Set the active table
 	 * @param table the table
@@ -36,6 +36,7 @@ import com.github.jferard.fastods.util.MultiContainer;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -91,6 +92,16 @@ public class StylesContainer {
      */
     private final Container<String, PageLayoutStyle> pageLayoutStylesContainer;
     private final MultiContainer<String, Dest, ObjectStyle> objectStylesContainer;
+    /**
+     * The ids of the object styles that were written to content.xml, null if styles.xml is not
+     * written after content.xml
+     */
+    private BitSet writtenObjectStyleIds;
+    /**
+     * The ids of the data styles that were written to content.xml, null if styles.xml is not
+     * written after content.xml
+     */
+    private BitSet writtenDataStyleIds;
 
     /**
      * Create a styles container
@@ -101,6 +112,8 @@ public class StylesContainer {
         this.masterPageStylesContainer = new Container<String, MasterPageStyle>();
         this.pageLayoutStylesContainer = new Container<String, PageLayoutStyle>();
         this.anonymousStyleByChildCellStyle = new HashMap<ChildCellStyle, TableCellStyle>();
+        this.writtenObjectStyleIds = null;
+        this.writtenDataStyleIds = null;
     }
 
     /**
@@ -333,6 +346,24 @@ public class StylesContainer {
         this.write(styles, util, writer);
     }
 
+    /**
+     * Write the automatic styles of content.xml before styles.xml. The styles of
+     * content.xml/automatic-styles that are added after this call are written to
+     * styles.xml/common-styles.
+     *
+     * @param util   an XML util
+     * @param writer the destination
+     * @throws IOException if the styles can't be written
+     */
+    public void writeContentAutomaticStylesBeforeStyles(final XMLUtil util, final Appendable writer)
+            throws IOException {
+        this.writeHiddenDataStyles(util, writer);
+        this.writeContentAutomaticStyles(util, writer);
+        this.writtenObjectStyleIds =
+                this.objectStylesContainer.getIds(Dest.CONTENT_AUTOMATIC_STYLES);
+        this.writtenDataStyleIds = this.dataStylesContainer.getIds(Dest.CONTENT_AUTOMATIC_STYLES);
+    }
+
     /**
      * Write the data styles in the automatic-styles. They belong to content.xml/automatic-styles
      *
@@ -413,6 +444,9 @@ public class StylesContainer {
                     TableCellStyle.DEFAULT_CELL_STYLE.toString();
 
         this.write(styles, util, writer);
+        if (this.writtenObjectStyleIds != null) // content.xml was written
+            this.write(this.objectStylesContainer.getValues(Dest.CONTENT_AUTOMATIC_STYLES,
+                    this.writtenObjectStyleIds), util, writer);
     }
 
     /**
@@ -432,6 +466,11 @@ public class StylesContainer {
 
             dataStyle.appendXMLContent(util, writer);
         }
+        if (this.writtenDataStyleIds != null) { // content.xml was written
+            for (final DataStyle dataStyle : this.dataStylesContainer
+                    .getValues(Dest.CONTENT_AUTOMATIC_STYLES, this.writtenDataStyleIds))
+                dataStyle.appendXMLContent(util, writer);
+        }
     }
 
     /**
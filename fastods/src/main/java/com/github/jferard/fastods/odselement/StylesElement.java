@@ -70,48 +70,119 @@ public class StylesElement implements OdsElement {
 	@Override
 	public void write(final XMLUtil util, final ZipUTF8Writer writer)
 			throws IOException {
-		final HasFooterHeader hasFooterHeader = this.stylesContainer
-				.hasFooterHeader();
+		writer.putNextEntry(new ZipEntry("styles.xml"));
+		this.appendDocument(util, writer);
+		writer.flush();
+		writer.closeEntry();
+	}
 
+	/**
+	 * Render styles.xml, to write it later or on another thread (see
+	 * write(ZipUTF8Writer, String)): the styles that are added after this call are ignored.
+	 * @param util an XML util
+	 * @return the content of styles.xml
+	 * @throws IOException never
+	 */
+	public String render(final XMLUtil util) throws IOException {
+		final StringBuilder sb = new StringBuilder();
+		this.appendDocument(util, sb);
+		return sb.toString();
+	}
+
+	/**
+	 * Write styles.xml as rendered by the render method.
+	 * @param writer the destination
+	 * @param styles the content of styles.xml
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void write(final ZipUTF8Writer writer, final String styles) throws IOException {
 		writer.putNextEntry(new ZipEntry("styles.xml"));
-		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
-		writer.write(
+		writer.write(styles);
+		writer.flush();
+		writer.closeEntry();
+	}
+
+	private void appendDocument(final XMLUtil util, final Appendable appendable)
+			throws IOException {
+		appendable.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+		appendable.append(
 				"<office:document-styles xmlns:office=\"urn:oasis:names:tc:opendocument:xmlns:office:1.0\" xmlns:style=\"urn:oasis:names:tc:opendocument:xmlns:style:1.0\" xmlns:text=\"urn:oasis:names:tc:opendocument:xmlns:text:1.0\" xmlns:table=\"urn:oasis:names:tc:opendocument:xmlns:table:1.0\" xmlns:draw=\"urn:oasis:names:tc:opendocument:xmlns:drawing:1.0\" xmlns:fo=\"urn:oasis:names:tc:opendocument:xmlns:xsl-fo-compatible:1.0\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" xmlns:dc=\"http://purl.org/dc/elements/1.1/\" xmlns:meta=\"urn:oasis:names:tc:opendocument:xmlns:meta:1.0\" xmlns:number=\"urn:oasis:names:tc:opendocument:xmlns:datastyle:1.0\" xmlns:presentation=\"urn:oasis:names:tc:opendocument:xmlns:presentation:1.0\" xmlns:svg=\"urn:oasis:names:tc:opendocument:xmlns:svg-compatible:1.0\" xmlns:chart=\"urn:oasis:names:tc:opendocument:xmlns:chart:1.0\" xmlns:dr3d=\"urn:oasis:names:tc:opendocument:xmlns:dr3d:1.0\" xmlns:math=\"http://www.w3.org/1998/Math/MathML\" xmlns:form=\"urn:oasis:names:tc:opendocument:xmlns:form:1.0\" xmlns:script=\"urn:oasis:names:tc:opendocument:xmlns:script:1.0\" xmlns:ooo=\"http://openoffice.org/2004/office\" xmlns:ooow=\"http://openoffice.org/2004/writer\" xmlns:oooc=\"http://openoffice.org/2004/calc\" xmlns:dom=\"http://www.w3.org/2001/xml-events\" office:version=\"1.1\">");
-		writer.write("<office:font-face-decls>");
-		writer.write(
+		this.appendFontFaceDecls(appendable);
+		this.appendStyles(util, appendable);
+		appendable.append("<office:automatic-styles>");
+		this.appendAutomaticStyles(util, appendable);
+		appendable.append("</office:automatic-styles>");
+		this.appendMasterStyles(util, appendable);
+		appendable.append("</office:document-styles>");
+	}
+
+	/**
+	 * Append the office:font-face-decls element. Used by the write method and for the flat XML
+	 * document.
+	 * @param appendable the destination
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void appendFontFaceDecls(final Appendable appendable) throws IOException {
+		appendable.append("<office:font-face-decls>");
+		appendable.append(
 				"<style:font-face style:name=\"Arial\" svg:font-family=\"Arial\" style:font-family-generic=\"swiss\" style:font-pitch=\"variable\"/>");
-		writer.write(
+		appendable.append(
 				"<style:font-face style:name=\"Lucida Sans Unicode\" svg:font-family=\"&apos;Lucida Sans Unicode&apos;\" style:font-family-generic=\"system\" style:font-pitch=\"variable\"/>");
-		writer.write(
+		appendable.append(
 				"<style:font-face style:name=\"Tahoma\" svg:font-family=\"Tahoma\" style:font-family-generic=\"system\" style:font-pitch=\"variable\"/>");
-		writer.write("</office:font-face-decls>");
-		writer.write("<office:styles>");
+		appendable.append("</office:font-face-decls>");
+	}
+
+	/**
+	 * Append the office:styles element: the common styles.
+	 * @param util an XML util
+	 * @param appendable the destination
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void appendStyles(final XMLUtil util, final Appendable appendable)
+			throws IOException {
+		final HasFooterHeader hasFooterHeader = this.stylesContainer
+				.hasFooterHeader();
+
+		appendable.append("<office:styles>");
 
-		this.stylesContainer.writeStylesCommonStyles(util, writer); // table-cell
-		this.stylesContainer.writeVisibleDataStyles(util, writer); // table-cell
+		this.stylesContainer.writeStylesCommonStyles(util, appendable); // table-cell
+		this.stylesContainer.writeVisibleDataStyles(util, appendable); // table-cell
 
 		if (hasFooterHeader.hasHeader()) {
-			StylesElement.appendDefaultFooterHeaderStyle(util, writer, "Header");
+			StylesElement.appendDefaultFooterHeaderStyle(util, appendable, "Header");
 		}
 		if (hasFooterHeader.hasFooter()) {
-			StylesElement.appendDefaultFooterHeaderStyle(util, writer, "Footer");
+			StylesElement.appendDefaultFooterHeaderStyle(util, appendable, "Footer");
 		}
 
-		writer.write("</office:styles>");
-		writer.write("<office:automatic-styles>");
-
-		this.stylesContainer.writeStylesAutomaticStyles(util, writer);
-		this.stylesContainer.writePageLayoutStyles(util,
-				writer);
-
-		writer.write("</office:automatic-styles>");
-		writer.write("<office:master-styles>");
+		appendable.append("</office:styles>");
+	}
 
-		this.stylesContainer.writeMasterPageStyles(util, writer);
+	/**
+	 * Append the automatic styles of styles.xml, without the office:automatic-styles tags: in
+	 * the flat XML document, those styles share the element with the automatic styles of
+	 * content.xml.
+	 * @param util an XML util
+	 * @param appendable the destination
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void appendAutomaticStyles(final XMLUtil util, final Appendable appendable)
+			throws IOException {
+		this.stylesContainer.writeStylesAutomaticStyles(util, appendable);
+		this.stylesContainer.writePageLayoutStyles(util, appendable);
+	}
 
-		writer.write("</office:master-styles>");
-		writer.write("</office:document-styles>");
-		writer.flush();
-		writer.closeEntry();
+	/**
+	 * Append the office:master-styles element.
+	 * @param util an XML util
+	 * @param appendable the destination
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void appendMasterStyles(final XMLUtil util, final Appendable appendable)
+			throws IOException {
+		appendable.append("<office:master-styles>");
+		this.stylesContainer.writeMasterPageStyles(util, appendable);
+		appendable.append("</office:master-styles>");
 	}
 }
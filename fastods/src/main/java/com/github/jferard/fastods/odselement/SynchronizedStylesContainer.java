@@ -0,0 +1,182 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.odselement;
+
+import com.github.jferard.fastods.datastyle.DataStyle;
+import com.github.jferard.fastods.style.MasterPageStyle;
+import com.github.jferard.fastods.style.ObjectStyle;
+import com.github.jferard.fastods.style.PageLayoutStyle;
+import com.github.jferard.fastods.style.PageStyle;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.Container.Mode;
+import com.github.jferard.fastods.util.XMLUtil;
+
+import java.io.IOException;
+
+/**
+ * A styles container for tables that are filled concurrently: every method holds the lock of the
+ * container.
+ *
+ * @author Julien Férard
+ */
+class SynchronizedStylesContainer extends StylesContainer {
+    /**
+     * Create a styles container
+     */
+    SynchronizedStylesContainer() {
+        super();
+    }
+
+    @Override
+    public synchronized TableCellStyle addChildCellStyle(final TableCellStyle style,
+                                                         final DataStyle dataStyle) {
+        return super.addChildCellStyle(style, dataStyle);
+    }
+
+    @Override
+    public synchronized boolean addDataStyle(final DataStyle dataStyle) {
+        return super.addDataStyle(dataStyle);
+    }
+
+    @Override
+    public synchronized void setDataStylesMode(final Mode mode) {
+        super.setDataStylesMode(mode);
+    }
+
+    @Override
+    public synchronized boolean addMasterPageStyle(final MasterPageStyle masterPageStyle) {
+        return super.addMasterPageStyle(masterPageStyle);
+    }
+
+    @Override
+    public synchronized void setMasterPageStyleMode(final Mode mode) {
+        super.setMasterPageStyleMode(mode);
+    }
+
+    @Override
+    public synchronized boolean addNewDataStyleFromCellStyle(final TableCellStyle style) {
+        return super.addNewDataStyleFromCellStyle(style);
+    }
+
+    @Override
+    public synchronized void setPageLayoutStyleMode(final Mode mode) {
+        super.setPageLayoutStyleMode(mode);
+    }
+
+    @Override
+    public synchronized boolean addPageLayoutStyle(final PageLayoutStyle pageLayoutStyle) {
+        return super.addPageLayoutStyle(pageLayoutStyle);
+    }
+
+    @Override
+    public synchronized void setPageStyleMode(final Mode mode) {
+        super.setPageStyleMode(mode);
+    }
+
+    @Override
+    public synchronized boolean addPageStyle(final PageStyle ps) {
+        return super.addPageStyle(ps);
+    }
+
+    @Override
+    public synchronized void setObjectStyleMode(final Mode mode) {
+        super.setObjectStyleMode(mode);
+    }
+
+    @Override
+    public synchronized boolean addContentStyle(final ObjectStyle objectStyle) {
+        return super.addContentStyle(objectStyle);
+    }
+
+    @Override
+    public synchronized boolean addStyleStyle(final ObjectStyle objectStyle) {
+        return super.addStyleStyle(objectStyle);
+    }
+
+    @Override
+    public synchronized void debug() {
+        super.debug();
+    }
+
+    @Override
+    public synchronized void freeze() {
+        super.freeze();
+    }
+
+    @Override
+    public synchronized HasFooterHeader hasFooterHeader() {
+        return super.hasFooterHeader();
+    }
+
+    @Override
+    public synchronized void writeContentAutomaticStyles(final XMLUtil util,
+                                                         final Appendable writer)
+            throws IOException {
+        super.writeContentAutomaticStyles(util, writer);
+    }
+
+    @Override
+    public synchronized void writeContentAutomaticStylesBeforeStyles(final XMLUtil util,
+                                                                     final Appendable writer)
+            throws IOException {
+        super.writeContentAutomaticStylesBeforeStyles(util, writer);
+    }
+
+    @Override
+    public synchronized void writeHiddenDataStyles(final XMLUtil util, final Appendable writer)
+            throws IOException {
+        super.writeHiddenDataStyles(util, writer);
+    }
+
+    @Override
+    public synchronized void writePageLayoutStyles(final XMLUtil util, final Appendable writer)
+            throws IOException {
+        super.writePageLayoutStyles(util, writer);
+    }
+
+    @Override
+    public synchronized void writeMasterPageStyles(final XMLUtil util, final Appendable writer)
+            throws IOException {
+        super.writeMasterPageStyles(util, writer);
+    }
+
+    @Override
+    public synchronized void writeStylesAutomaticStyles(final XMLUtil util,
+                                                        final Appendable writer)
+            throws IOException {
+        super.writeStylesAutomaticStyles(util, writer);
+    }
+
+    @Override
+    public synchronized void writeStylesCommonStyles(final XMLUtil util, final Appendable writer)
+            throws IOException {
+        super.writeStylesCommonStyles(util, writer);
+    }
+
+    @Override
+    public synchronized void writeVisibleDataStyles(final XMLUtil util, final Appendable writer)
+            throws IOException {
+        super.writeVisibleDataStyles(util, writer);
+    }
+}
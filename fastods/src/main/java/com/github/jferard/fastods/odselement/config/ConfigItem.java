@@ -59,7 +59,7 @@ public class ConfigItem implements ConfigBlock {
 		util.appendEAttribute(appendable, "config:name", this.name);
 		util.appendEAttribute(appendable, "config:type", this.type);
 		appendable.append(">");
-		appendable.append(util.escapeXMLContent(this.value));
+		util.appendEscapedXMLContent(appendable, this.value);
 		appendable.append("</config:config-item>");
 	}
 
@@ -29,6 +29,8 @@ import com.github.jferard.fastods.StyleWithEmbeddedStyles;
 import com.github.jferard.fastods.odselement.OdsElements;
 import com.github.jferard.fastods.odselement.StylesContainer;
 import com.github.jferard.fastods.util.Container.Mode;
+import com.github.jferard.fastods.util.ContainerId;
+import com.github.jferard.fastods.util.ContainerValue;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
@@ -39,12 +41,14 @@ import java.io.IOException;
  * @author Julien Férard
  * @author Martin Schulz
  */
-public class MasterPageStyle implements AddableToOdsElements, StyleWithEmbeddedStyles {
+public class MasterPageStyle implements AddableToOdsElements, StyleWithEmbeddedStyles,
+        ContainerValue {
     private final String layoutName;
     private final Footer footer;
     private final Header header;
 
     private final String name;
+    private ContainerId containerId;
 
     /**
      * Create a new page style. Version 0.5.0 Added parameter NamedOdsDocument o
@@ -128,4 +132,13 @@ public class MasterPageStyle implements AddableToOdsElements, StyleWithEmbeddedS
         return this.name;
     }
 
+    @Override
+    public ContainerId getContainerId() {
+        return this.containerId;
+    }
+
+    @Override
+    public void setContainerId(final ContainerId containerId) {
+        this.containerId = containerId;
+    }
 }
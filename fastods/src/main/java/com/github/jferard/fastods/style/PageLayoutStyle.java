@@ -29,6 +29,8 @@ import com.github.jferard.fastods.Header;
 import com.github.jferard.fastods.PageSection;
 import com.github.jferard.fastods.SimpleColor;
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.ContainerId;
+import com.github.jferard.fastods.util.ContainerValue;
 import com.github.jferard.fastods.util.Hidable;
 import com.github.jferard.fastods.util.Length;
 import com.github.jferard.fastods.util.XMLUtil;
@@ -41,7 +43,7 @@ import java.io.IOException;
  * @author Julien Férard
  * @author Martin Schulz
  */
-public class PageLayoutStyle implements AddableToOdsElements, Hidable {
+public class PageLayoutStyle implements AddableToOdsElements, Hidable, ContainerValue {
 	private final Color backgroundColor;
 	private final Footer footer;
 	private final Header header;
@@ -57,6 +59,7 @@ public class PageLayoutStyle implements AddableToOdsElements, Hidable {
 	private final PageStyle.PrintOrientation printOrientation;
 
 	private final PageStyle.WritingMode writingMode;
+	private ContainerId containerId;
 
 	/**
 	 * Create a new page style. Version 0.5.0 Added parameter NamedOdsDocument o
@@ -165,4 +168,14 @@ public class PageLayoutStyle implements AddableToOdsElements, Hidable {
 	public boolean isHidden() {
 		return true;
 	}
+
+	@Override
+	public ContainerId getContainerId() {
+		return this.containerId;
+	}
+
+	@Override
+	public void setContainerId(final ContainerId containerId) {
+		this.containerId = containerId;
+	}
 }
@@ -27,6 +27,7 @@ import com.github.jferard.fastods.Color;
 import com.github.jferard.fastods.SimpleColor;
 import com.github.jferard.fastods.datastyle.DataStyle;
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.ContainerId;
 import com.github.jferard.fastods.util.SimpleLength;
 import com.github.jferard.fastods.util.XMLUtil;
 
@@ -71,6 +72,7 @@ public class TableCellStyle implements ObjectStyle {
     private final boolean wrap; // No line wrap when false, line wrap when
     private final DataStyle dataStyle;
     private String key;
+    private ContainerId containerId;
 
     /**
      * Create a new cell style
@@ -226,6 +228,16 @@ public class TableCellStyle implements ObjectStyle {
         return this.parentCellStyle;
     }
 
+    @Override
+    public ContainerId getContainerId() {
+        return this.containerId;
+    }
+
+    @Override
+    public void setContainerId(final ContainerId containerId) {
+        this.containerId = containerId;
+    }
+
     /**
      * Text rotation 
      * 20.339 style:rotation-angle http://docs.oasis-open.org/office/v1.2/os/OpenDocument-v1.2-os-part1.html#__RefHeading__1420142_253892949
@@ -25,6 +25,7 @@ package com.github.jferard.fastods.style;
 
 import com.github.jferard.fastods.odselement.OdsElements;
 import com.github.jferard.fastods.odselement.StylesContainer;
+import com.github.jferard.fastods.util.ContainerId;
 import com.github.jferard.fastods.util.Length;
 import com.github.jferard.fastods.util.XMLUtil;
 
@@ -57,6 +58,7 @@ public class TableColumnStyle implements ObjectStyle {
     private final String name;
     private final boolean optimalWidth;
     private String key;
+    private ContainerId containerId;
 
     /**
      * Create a new column style
@@ -182,4 +184,14 @@ public class TableColumnStyle implements ObjectStyle {
             stylesContainer.addContentStyle(this.defaultCellStyle);
         }
     }
+
+    @Override
+    public ContainerId getContainerId() {
+        return this.containerId;
+    }
+
+    @Override
+    public void setContainerId(final ContainerId containerId) {
+        this.containerId = containerId;
+    }
 }
@@ -24,6 +24,7 @@
 package com.github.jferard.fastods.style;
 
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.ContainerId;
 import com.github.jferard.fastods.util.Length;
 import com.github.jferard.fastods.util.XMLUtil;
 
@@ -52,6 +53,7 @@ public class TableRowStyle implements ObjectStyle {
     private final Length rowHeight;
     private TableCellStyle defaultCellStyle;
     private String key;
+    private ContainerId containerId;
 
     /**
      * Create a new table row style.
@@ -113,4 +115,14 @@ public class TableRowStyle implements ObjectStyle {
     public boolean isHidden() {
         return this.hidden;
     }
+
+    @Override
+    public ContainerId getContainerId() {
+        return this.containerId;
+    }
+
+    @Override
+    public void setContainerId(final ContainerId containerId) {
+        this.containerId = containerId;
+    }
 }
@@ -24,6 +24,7 @@
 package com.github.jferard.fastods.style;
 
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.ContainerId;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
@@ -52,6 +53,7 @@ public class TableStyle implements ObjectStyle {
     private final PageStyle pageStyle;
     private final String name;
     private String key;
+    private ContainerId containerId;
 
     /**
      * Create a new table style and add it to contentEntry.<br>
@@ -112,4 +114,14 @@ public class TableStyle implements ObjectStyle {
     public PageStyle getPageStyle() {
         return this.pageStyle;
     }
+
+    @Override
+    public ContainerId getContainerId() {
+        return this.containerId;
+    }
+
+    @Override
+    public void setContainerId(final ContainerId containerId) {
+        this.containerId = containerId;
+    }
 }
@@ -24,6 +24,7 @@
 package com.github.jferard.fastods.style;
 
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.ContainerId;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
@@ -43,6 +44,7 @@ public class TextStyle implements ObjectStyle {
     private final boolean hidden;
     private final TextProperties textProperties;
     private String key;
+    private ContainerId containerId;
 
     /**
      * Create a new text style
@@ -104,4 +106,14 @@ public class TextStyle implements ObjectStyle {
     public void addToElements(final OdsElements odsElements) {
         throw new UnsupportedOperationException();
     }
+
+    @Override
+    public ContainerId getContainerId() {
+        return this.containerId;
+    }
+
+    @Override
+    public void setContainerId(final ContainerId containerId) {
+        this.containerId = containerId;
+    }
 }
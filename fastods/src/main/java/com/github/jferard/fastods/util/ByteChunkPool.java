@@ -0,0 +1,138 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of fixed-size byte chunks. The chunks are taken by the threads that serialize
+ * the rows and released by the writer thread: the pool is thread safe. If the pool is empty, a
+ * new chunk is allocated; if the pool is full, a released chunk is dropped.
+ *
+ * @author Julien Férard
+ */
+public class ByteChunkPool {
+    /**
+     * The default size of a chunk: 32 KB
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 32 * 1024;
+
+    /**
+     * The default max number of chunks kept by the pool
+     */
+    public static final int DEFAULT_MAX_POOLED_CHUNKS = 64;
+
+    /**
+     * @return a new pool with the default sizes
+     */
+    public static ByteChunkPool create() {
+        return new ByteChunkPool(DEFAULT_CHUNK_SIZE, DEFAULT_MAX_POOLED_CHUNKS);
+    }
+
+    /**
+     * @param chunkSize       the size of a chunk
+     * @param maxPooledChunks the max number of chunks kept by the pool
+     * @return a new pool
+     */
+    public static ByteChunkPool create(final int chunkSize, final int maxPooledChunks) {
+        if (chunkSize < UTF8ChunkAppender.MAX_CHAR_SIZE)
+            throw new IllegalArgumentException("Chunk size is too small: " + chunkSize);
+        return new ByteChunkPool(chunkSize, maxPooledChunks);
+    }
+
+    private final int chunkSize;
+    private final int maxPooledChunks;
+    private final ConcurrentLinkedQueue<byte[]> chunks;
+    private final AtomicInteger pooledChunks;
+    private final AtomicLong allocations;
+    private final AtomicLong reuses;
+
+    /**
+     * @param chunkSize       the size of a chunk
+     * @param maxPooledChunks the max number of chunks kept by the pool
+     */
+    ByteChunkPool(final int chunkSize, final int maxPooledChunks) {
+        this.chunkSize = chunkSize;
+        this.maxPooledChunks = maxPooledChunks;
+        this.chunks = new ConcurrentLinkedQueue<byte[]>();
+        this.pooledChunks = new AtomicInteger(0);
+        this.allocations = new AtomicLong(0);
+        this.reuses = new AtomicLong(0);
+    }
+
+    /**
+     * @return a chunk, from the pool if possible
+     */
+    public byte[] take() {
+        final byte[] chunk = this.chunks.poll();
+        if (chunk == null) {
+            this.allocations.incrementAndGet();
+            return new byte[this.chunkSize];
+        }
+        this.pooledChunks.decrementAndGet();
+        this.reuses.incrementAndGet();
+        return chunk;
+    }
+
+    /**
+     * @param chunk a chunk that was taken from this pool
+     */
+    public void release(final byte[] chunk) {
+        if (this.pooledChunks.incrementAndGet() > this.maxPooledChunks) {
+            this.pooledChunks.decrementAndGet();
+            return;
+        }
+        this.chunks.offer(chunk);
+    }
+
+    /**
+     * @return the size of a chunk
+     */
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    /**
+     * @return the number of chunks in the pool
+     */
+    public int getPooledChunkCount() {
+        return this.pooledChunks.get();
+    }
+
+    /**
+     * @return the number of chunks that were allocated
+     */
+    public long getAllocations() {
+        return this.allocations.get();
+    }
+
+    /**
+     * @return the number of chunks that were taken from the pool
+     */
+    public long getReuses() {
+        return this.reuses.get();
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An output stream that writes to a channel. The bytes are copied to a few direct buffers, and
+ * the full buffers are written to the channel at once, with a gathering write if the channel
+ * supports it (e.g. a FileChannel). There is no other copy: the JDK does not need a temporary
+ * direct buffer, and the stream replaces the BufferedOutputStream of the writer.
+ * <p>
+ * A file may be preallocated: the file is extended to the expected size before the first write
+ * and truncated to the actual size on close.
+ *
+ * @author Julien Férard
+ */
+public class ChannelOutputStream extends OutputStream {
+    /**
+     * The number of direct buffers of a stream
+     */
+    public static final int BUFFER_COUNT = 4;
+
+    /**
+     * @param channel the destination
+     * @return the stream
+     */
+    public static ChannelOutputStream create(final WritableByteChannel channel) {
+        return ChannelOutputStream.create(channel, null);
+    }
+
+    /**
+     * @param channel the destination
+     * @param pool    the pool of the direct buffers, or null. The buffers are released on close.
+     * @return the stream
+     */
+    public static ChannelOutputStream create(final WritableByteChannel channel,
+                                             final WriterResourcePool pool) {
+        return new ChannelOutputStream(channel, ChannelOutputStream.takeBuffers(pool), pool, null);
+    }
+
+    /**
+     * @param channel          the destination file
+     * @param preallocatedSize the expected size of the data, 0 for no preallocation
+     * @param pool             the pool of the direct buffers, or null. The buffers are released
+     *                         on close.
+     * @return the stream
+     * @throws IOException if the file can't be extended
+     */
+    public static ChannelOutputStream create(final FileChannel channel, final long preallocatedSize,
+                                             final WriterResourcePool pool) throws IOException {
+        if (preallocatedSize < 0)
+            throw new IllegalArgumentException("Negative size: " + preallocatedSize);
+
+        final FileChannel truncatedChannel;
+        if (preallocatedSize == 0) truncatedChannel = null;
+        else {
+            final long end = channel.position() + preallocatedSize;
+            if (channel.size() < end) channel.write(ByteBuffer.allocate(1), end - 1);
+            truncatedChannel = channel;
+        }
+        return new ChannelOutputStream(channel, ChannelOutputStream.takeBuffers(pool), pool,
+                truncatedChannel);
+    }
+
+    private static ByteBuffer[] takeBuffers(final WriterResourcePool pool) {
+        final ByteBuffer[] buffers = new ByteBuffer[BUFFER_COUNT];
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            if (pool == null)
+                buffers[i] = ByteBuffer.allocateDirect(WriterResourcePool.DIRECT_BUFFER_SIZE);
+            else buffers[i] = pool.takeDirectBuffer();
+        }
+        return buffers;
+    }
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer[] buffers;
+    private final WriterResourcePool pool;
+    private final FileChannel truncatedChannel;
+    private int current;
+    private boolean closed;
+
+    /**
+     * @param channel          the destination
+     * @param buffers          the cleared direct buffers
+     * @param pool             the pool of the buffers, or null
+     * @param truncatedChannel the channel to truncate on close, or null
+     */
+    ChannelOutputStream(final WritableByteChannel channel, final ByteBuffer[] buffers,
+                        final WriterResourcePool pool, final FileChannel truncatedChannel) {
+        this.channel = channel;
+        this.buffers = buffers;
+        this.pool = pool;
+        this.truncatedChannel = truncatedChannel;
+        this.current = 0;
+        this.closed = false;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (!this.buffers[this.current].hasRemaining()) this.nextBuffer();
+        this.buffers[this.current].put((byte) b);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            final ByteBuffer buffer = this.buffers[this.current];
+            if (!buffer.hasRemaining()) {
+                this.nextBuffer();
+                continue;
+            }
+            final int n = Math.min(remaining, buffer.remaining());
+            buffer.put(b, offset, n);
+            offset += n;
+            remaining -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.writeBuffers();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) return;
+
+        this.closed = true;
+        try {
+            this.writeBuffers();
+            if (this.truncatedChannel != null)
+                this.truncatedChannel.truncate(this.truncatedChannel.position());
+            this.channel.close();
+        } finally {
+            if (this.pool != null) {
+                for (final ByteBuffer buffer : this.buffers)
+                    this.pool.releaseDirectBuffer(buffer);
+            }
+        }
+    }
+
+    private void nextBuffer() throws IOException {
+        if (this.current == this.buffers.length - 1) this.writeBuffers();
+        else this.current++;
+    }
+
+    /**
+     * Write the filled buffers to the channel, with one gathering write if possible.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeBuffers() throws IOException {
+        final int count = this.current + 1;
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            this.buffers[i].flip();
+            total += this.buffers[i].remaining();
+        }
+
+        if (this.channel instanceof GatheringByteChannel) {
+            final GatheringByteChannel gatheringChannel = (GatheringByteChannel) this.channel;
+            while (total > 0)
+                total -= gatheringChannel.write(this.buffers, 0, count);
+        } else {
+            for (int i = 0; i < count; i++) {
+                while (this.buffers[i].hasRemaining())
+                    this.channel.write(this.buffers[i]);
+            }
+        }
+
+        for (int i = 0; i < count; i++)
+            this.buffers[i].clear();
+        this.current = 0;
+    }
+}
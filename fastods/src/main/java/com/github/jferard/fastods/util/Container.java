@@ -23,21 +23,30 @@
 
 package com.github.jferard.fastods.util;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
 /**
  * A Container is a Map like object, but with a mode parameter: one may create, update, or create or update a key-value pair.
  * The container may be frozen: no new key-value pair is accepted.
+ * The values get dense ids when they are registered, and are stored in a list indexed by those ids, hence the output
+ * is in the order of registration. A value keeps its id (see ContainerValue): adding the value again does not look up
+ * the key.
  *
  * @param <K> key class
  * @param <V> value class
  *
  * @author Julien Férard
  */
-public class Container<K, V> {
-	private final Map<K, V> valueByKey;
+public class Container<K, V extends ContainerValue> {
+	private final Map<K, Integer> idByKey;
+	private final List<K> keyById;
+	private final List<V> valueById;
 	private boolean closed;
 	private boolean debug;
     private Mode mode;
@@ -46,7 +55,9 @@ public class Container<K, V> {
 	 * Builds a default container
 	 */
 	public Container() {
-		this.valueByKey = new HashMap<K, V>();
+		this.idByKey = new HashMap<K, Integer>();
+		this.keyById = new ArrayList<K>();
+		this.valueById = new ArrayList<V>();
 		this.closed = false;
 		this.debug = false;
         this.mode = Mode.CREATE;
@@ -69,28 +80,51 @@ public class Container<K, V> {
 	 * @return true if the value was updated
 	 */
 	public boolean add(final K key, final V value) {
-		final V curValue = this.valueByKey.get(key);
-		if (curValue == null) { // key does not exist
+		final int id = this.getId(key, value);
+		if (id == -1) { // key does not exist
 			if (this.mode == Mode.UPDATE)
 				return false;
 
+			if (this.closed)
+				throw new IllegalStateException(
+						"Container put(" + key + ", " + value + ")");
+			else if (this.debug)
+				Logger.getLogger("debug").severe(
+						"Container put(" + key + ", " + value + ")");
+
+			final int newId = this.valueById.size();
+			this.idByKey.put(key, newId);
+			this.keyById.add(key);
+			this.valueById.add(value);
+			value.setContainerId(new ContainerId(this, newId));
 		} else { // key exists
 			if (this.mode == Mode.CREATE)
 				return false;
-		}
 
-		if (this.closed && !this.valueByKey.containsKey(key)) {
-			throw new IllegalStateException(
-					"Container put(" + key + ", " + value + ")");
-		} else if (this.debug && !this.valueByKey.containsKey(key)) {
-			Logger.getLogger("debug").severe(
-					"Container put(" + key + ", " + value + ")");
+			if (this.valueById.get(id) != value) {
+				this.valueById.set(id, value);
+				value.setContainerId(new ContainerId(this, id));
+			}
 		}
-
-		this.valueByKey.put(key, value);
 		return true;
 	}
 
+	/**
+	 * @param key the key
+	 * @param value the value
+	 * @return the id of the key, -1 if the key does not exist
+	 */
+	private int getId(final K key, final V value) {
+		final ContainerId containerId = value.getContainerId();
+		if (containerId != null) {
+			final int id = containerId.getId(this);
+			if (id != -1 && key.equals(this.keyById.get(id)))
+				return id;
+		}
+		final Integer id = this.idByKey.get(key);
+		return id == null ? -1 : id;
+	}
+
 	/**
 	 * Set the debug mode: every add will be stored
 	 */
@@ -110,23 +144,26 @@ public class Container<K, V> {
 	 * @return the value mapped to the key
 	 */
 	public V get(final K key) {
-		return this.valueByKey.get(key);
+		final Integer id = this.idByKey.get(key);
+		return id == null ? null : this.valueById.get(id);
 	}
 
 	/**
-	 * @return the container as a Map
+	 * @return a copy of the container as a Map
 	 */
 	public Map<K, V> getValueByKey() {
-		return this.valueByKey;
+		final Map<K, V> valueByKey = new LinkedHashMap<K, V>();
+		for (int id = 0; id < this.keyById.size(); id++)
+			valueByKey.put(this.keyById.get(id), this.valueById.get(id));
+		return valueByKey;
 	}
 
 	/**
-	 * @return the values
+	 * @return the values, in the order of registration
 	 */
 	public Iterable<V> getValues() {
-		return this.valueByKey.values();
+		return Collections.unmodifiableList(this.valueById);
 	}
-
 	/**
 	 * the mode
 	 */
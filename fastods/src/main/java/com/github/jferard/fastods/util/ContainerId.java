@@ -0,0 +1,52 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.github.jferard.fastods.util;
+
+/**
+ * The id that a Container or a MultiContainer gave to a value.
+ *
+ * @author Julien Férard
+ */
+public final class ContainerId {
+	private final Object container;
+	private final int id;
+
+	/**
+	 * @param container the container
+	 * @param id        the dense id of the value in the container
+	 */
+	ContainerId(final Object container, final int id) {
+		this.container = container;
+		this.id = id;
+	}
+
+	/**
+	 * @param container the container
+	 * @return the id if it was given by this container, -1 otherwise
+	 */
+	int getId(final Object container) {
+		return this.container == container ? this.id : -1;
+	}
+}
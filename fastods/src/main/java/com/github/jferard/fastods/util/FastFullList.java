@@ -139,6 +139,24 @@ public class FastFullList<E> implements Iterable<E> {
         }
     }
 
+    /**
+     * Remove the first elements and shift the other ones to the left.
+     *
+     * @param count the number of elements to remove
+     */
+    public void removeFirst(final int count) {
+        if (count <= 0) return;
+        if (count >= this.size) {
+            Arrays.fill(this.arr, 0, this.size, null);
+            this.size = 0;
+            return;
+        }
+        final int newSize = this.size - count;
+        System.arraycopy(this.arr, count, this.arr, 0, newSize);
+        Arrays.fill(this.arr, newSize, this.size, null);
+        this.size = newSize;
+    }
+
     public List<E> subList(final int fromIndex, final int toIndex) {
         return Arrays.asList(this.arr).subList(fromIndex, toIndex);
     }
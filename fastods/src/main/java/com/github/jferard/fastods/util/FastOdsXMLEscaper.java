@@ -23,19 +23,56 @@
 
 package com.github.jferard.fastods.util;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
 
 /**
  * The FastOdsXMLEscaper class is an utility class to escape XML special chars.
+ * <p>
+ * The escaped strings are stored in two bounded caches (attributes and contents). Strings that
+ * do not need to be escaped and strings longer than a threshold are not cached.
+ * <p>
+ * The {@code appendEscaped...} methods do not use those caches: they copy the runs of chars
+ * that do not need to be escaped in bulk, and the substitutes, directly to the destination.
  *
  * @author Julien Férard
  */
 @SuppressWarnings("PMD.UnusedLocalVariable")
 public class FastOdsXMLEscaper implements XMLEscaper {
+    /**
+     * The eviction policy of the caches
+     */
+    public enum CachePolicy {
+        /**
+         * No cache at all
+         */
+        NONE,
+        /**
+         * Least recently used entries are evicted
+         */
+        LRU,
+        /**
+         * CLOCK (second chance) eviction: cheaper hits than LRU, close hit ratio
+         */
+        CLOCK
+    }
+
+    /**
+     * The default policy
+     */
+    public static final CachePolicy DEFAULT_CACHE_POLICY = CachePolicy.LRU;
+    /**
+     * The default max number of entries of each cache
+     */
+    public static final int DEFAULT_CACHE_CAPACITY = 4096;
+    /**
+     * The default max length of a cached string
+     */
+    public static final int DEFAULT_MAX_CACHED_LENGTH = 128;
     private static final int BUFFER_SIZE = 65536;
     private static final char[][] CHAR_SUBSTITUTES_IN_ATTRIBUTE;
     private static final char[][] CHAR_SUBSTITUTES_IN_CONTENT;
+    private static final String[] STRING_SUBSTITUTES_IN_ATTRIBUTE;
+    private static final String[] STRING_SUBSTITUTES_IN_CONTENT;
 
     /**
      * @return an xml escaper with the default buffer size (65536 bytes)
@@ -44,6 +81,16 @@ public class FastOdsXMLEscaper implements XMLEscaper {
         return new FastOdsXMLEscaper(FastOdsXMLEscaper.BUFFER_SIZE);
     }
 
+    /**
+     * @param policy   the eviction policy of the caches
+     * @param capacity the max number of entries of each cache
+     * @return an xml escaper with the default buffer size (65536 bytes)
+     */
+    public static FastOdsXMLEscaper create(final CachePolicy policy, final int capacity) {
+        return new FastOdsXMLEscaper(FastOdsXMLEscaper.BUFFER_SIZE, policy, capacity,
+                FastOdsXMLEscaper.DEFAULT_MAX_CACHED_LENGTH);
+    }
+
     static {
         final char[] REPLACEMENT_CHAR = "\\uFFFD".toCharArray();
         CHAR_SUBSTITUTES_IN_ATTRIBUTE = new char[][]{REPLACEMENT_CHAR, REPLACEMENT_CHAR,
@@ -69,32 +116,82 @@ public class FastOdsXMLEscaper implements XMLEscaper {
                 null, "&amp;".toCharArray(), null, null, null, null, null, null, null, null, null,
                 null, null, null, null, null, null, null, null, null, null, null, null,
                 "&lt;".toCharArray(), null, "&gt;".toCharArray()};
+        STRING_SUBSTITUTES_IN_ATTRIBUTE = FastOdsXMLEscaper.toStrings(CHAR_SUBSTITUTES_IN_ATTRIBUTE);
+        STRING_SUBSTITUTES_IN_CONTENT = FastOdsXMLEscaper.toStrings(CHAR_SUBSTITUTES_IN_CONTENT);
+    }
+
+    private static String[] toStrings(final char[][] charSubstitutes) {
+        final int length = charSubstitutes.length;
+        final String[] stringSubstitutes = new String[length];
+        for (int i = 0; i < length; i++) {
+            final char[] charSubstitute = charSubstitutes[i];
+            if (charSubstitute != null) stringSubstitutes[i] = new String(charSubstitute);
+        }
+        return stringSubstitutes;
     }
 
-    private final Map<String, String> attrCacheMap;
-    private final Map<String, String> contentCacheMap;
+    private final StringCache attrCache;
+    private final StringCache contentCache;
+    private final int maxCachedLength;
+    private final int bufferSize;
+    private final CachePolicy policy;
+    private final int capacity;
     private char[] buffer;
 
     /**
-     * Creates an xml escaper with a specified buffer size
+     * Creates an xml escaper with a specified buffer size and the default caches
      *
      * @param bufferSize the buffer size
      */
     public FastOdsXMLEscaper(final int bufferSize) {
-        this.attrCacheMap = new HashMap<String, String>();
-        this.contentCacheMap = new HashMap<String, String>();
+        this(bufferSize, FastOdsXMLEscaper.DEFAULT_CACHE_POLICY,
+                FastOdsXMLEscaper.DEFAULT_CACHE_CAPACITY,
+                FastOdsXMLEscaper.DEFAULT_MAX_CACHED_LENGTH);
+    }
+
+    /**
+     * Creates an xml escaper with a specified buffer size
+     *
+     * @param bufferSize      the buffer size
+     * @param policy          the eviction policy of the caches
+     * @param capacity        the max number of entries of each cache
+     * @param maxCachedLength the max length of a cached string
+     */
+    public FastOdsXMLEscaper(final int bufferSize, final CachePolicy policy, final int capacity,
+                             final int maxCachedLength) {
+        this.attrCache = StringCache.create(policy, capacity);
+        this.contentCache = StringCache.create(policy, capacity);
+        this.maxCachedLength = maxCachedLength;
+        this.bufferSize = bufferSize;
+        this.policy = policy;
+        this.capacity = capacity;
         this.buffer = new char[bufferSize];
     }
 
+    /**
+     * @return a new escaper with the same buffer size and the same caches configuration, but its
+     * own (empty) caches and buffer: an escaper is not thread safe.
+     */
+    public FastOdsXMLEscaper copy() {
+        return new FastOdsXMLEscaper(this.bufferSize, this.policy, this.capacity,
+                this.maxCachedLength);
+    }
+
     @Override
     public String escapeXMLAttribute(final String s) {
+        return this.escape(s, this.attrCache, CHAR_SUBSTITUTES_IN_ATTRIBUTE);
+    }
+
+    private String escape(final String s, final StringCache cache, final char[][] charSubstitutes) {
         if (s == null) return null;
+        if (s.length() > this.maxCachedLength) return this.getEscapedString(s, charSubstitutes);
 
-        String s2 = this.attrCacheMap.get(s);
+        String s2 = cache.get(s);
         if (s2 != null) return s2;
 
-        s2 = this.getEscapedString(s, CHAR_SUBSTITUTES_IN_ATTRIBUTE);
-        this.attrCacheMap.put(s, s2);
+        s2 = this.getEscapedString(s, charSubstitutes);
+        if (s2 != s) // the string was escaped
+            cache.put(s, s2);
         return s2;
     }
 
@@ -173,13 +270,75 @@ public class FastOdsXMLEscaper implements XMLEscaper {
 
     @Override
     public String escapeXMLContent(final String s) {
-        if (s == null) return null;
+        return this.escape(s, this.contentCache, CHAR_SUBSTITUTES_IN_CONTENT);
+    }
 
-        String s2 = this.contentCacheMap.get(s);
-        if (s2 != null) return s2;
+    @Override
+    public void appendEscapedXMLAttribute(final Appendable appendable, final String s)
+            throws IOException {
+        this.appendEscaped(appendable, s, STRING_SUBSTITUTES_IN_ATTRIBUTE);
+    }
 
-        s2 = this.getEscapedString(s, CHAR_SUBSTITUTES_IN_CONTENT);
-        this.attrCacheMap.put(s, s2);
-        return s2;
+    @Override
+    public void appendEscapedXMLContent(final Appendable appendable, final String s)
+            throws IOException {
+        this.appendEscaped(appendable, s, STRING_SUBSTITUTES_IN_CONTENT);
+    }
+
+    private void appendEscaped(final Appendable appendable, final String s,
+                               final String[] stringSubstitutes) throws IOException {
+        if (s == null) { // as appendable.append(this.escape(s)).
+            appendable.append(s);
+            return;
+        }
+
+        final int sourceLength = s.length();
+        int firstIdenticalCharInSourceIndex = 0;
+        for (int sourceIndex = 0; sourceIndex < sourceLength; sourceIndex++) {
+            final char c = s.charAt(sourceIndex);
+            if (c <= '>') {
+                final String toAppend = stringSubstitutes[c];
+                if (toAppend != null) {
+                    if (firstIdenticalCharInSourceIndex < sourceIndex)
+                        appendable.append(s, firstIdenticalCharInSourceIndex, sourceIndex);
+                    appendable.append(toAppend);
+                    firstIdenticalCharInSourceIndex = sourceIndex + 1; // next one
+                }
+            }
+        }
+
+        if (firstIdenticalCharInSourceIndex == 0) // no special char
+            appendable.append(s);
+        else if (firstIdenticalCharInSourceIndex < sourceLength)
+            appendable.append(s, firstIdenticalCharInSourceIndex, sourceLength);
+    }
+
+    /**
+     * @return the number of cache hits (attributes and contents)
+     */
+    public long getCacheHits() {
+        return this.attrCache.getHits() + this.contentCache.getHits();
+    }
+
+    /**
+     * @return the number of cache misses (attributes and contents). Strings that are too long
+     * to be cached are not counted.
+     */
+    public long getCacheMisses() {
+        return this.attrCache.getMisses() + this.contentCache.getMisses();
+    }
+
+    /**
+     * @return the number of entries evicted from the caches (attributes and contents)
+     */
+    public long getCacheEvictions() {
+        return this.attrCache.getEvictions() + this.contentCache.getEvictions();
+    }
+
+    /**
+     * @return the number of entries in the caches (attributes and contents)
+     */
+    public int getCacheSize() {
+        return this.attrCache.size() + this.contentCache.size();
     }
 }
@@ -0,0 +1,86 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * A ZipOutput that writes the bytes as they are, without compression nor zip container: the
+ * destination of a flat XML document (.fods). There is no entry: putNextEntry, closeEntry,
+ * writeEntry and setComment throw an UnsupportedOperationException.
+ *
+ * @author Julien Férard
+ */
+class FlatXMLOutput implements ZipOutput {
+    private final OutputStream out;
+
+    /**
+     * @param out the destination
+     */
+    FlatXMLOutput(final OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void putNextEntry(final ZipEntry entry) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        this.out.write(b, off, len);
+    }
+
+    @Override
+    public void closeEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeEntry(final PrecompressedEntry entry) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.out.flush();
+    }
+
+    @Override
+    public void setComment(final String comment) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.out.close();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.out.flush();
+    }
+}
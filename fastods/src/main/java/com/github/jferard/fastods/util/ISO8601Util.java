@@ -0,0 +1,250 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+
+/**
+ * An util to write dates, date-times and durations in the ISO 8601 format (XML Schema Part 2,
+ * 3.2.6 duration and 3.2.7 dateTime). The fields are computed from the milliseconds since
+ * epoch: no Calendar, no SimpleDateFormat. The util has no state, hence it is thread-safe.
+ * <p>
+ * The calendar is the proleptic gregorian calendar, as in ISO 8601 (SimpleDateFormat uses the
+ * julian calendar before 1582).
+ *
+ * @author Julien Férard
+ */
+public class ISO8601Util {
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long MILLIS_PER_MINUTE = 60L * MILLIS_PER_SECOND;
+    private static final long MILLIS_PER_HOUR = 60L * MILLIS_PER_MINUTE;
+    private static final long MILLIS_PER_DAY = 24L * MILLIS_PER_HOUR;
+    /**
+     * Days from 0000-03-01 to 1970-01-01
+     */
+    private static final long DAYS_0000_TO_1970 = 719468L;
+    private static final long DAYS_PER_400_YEARS = 146097L;
+
+    /**
+     * @return a new util
+     */
+    public static ISO8601Util create() {
+        return new ISO8601Util();
+    }
+
+    /**
+     * Create a new util
+     */
+    ISO8601Util() {
+    }
+
+    /**
+     * Append a date-time in UTC: "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'"
+     *
+     * @param appendable  the destination
+     * @param epochMillis the milliseconds since 1970-01-01T00:00:00Z
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendUTCDateTime(final Appendable appendable, final long epochMillis)
+            throws IOException {
+        this.appendDateTime(appendable, epochMillis, true);
+        appendable.append('Z');
+    }
+
+    /**
+     * Append a date-time without time zone and without milliseconds: "yyyy-MM-dd'T'HH:mm:ss"
+     *
+     * @param appendable       the destination
+     * @param localEpochMillis the milliseconds since 1970-01-01T00:00:00 in the local time zone,
+     *                         i.e. the epoch millis plus the offset of the time zone
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendLocalDateTime(final Appendable appendable, final long localEpochMillis)
+            throws IOException {
+        this.appendDateTime(appendable, localEpochMillis, false);
+    }
+
+    /**
+     * Append a duration: "'PT'HH'H'mm'M'ss.SSS'S'". The milliseconds are omitted if they are
+     * zero. The days are not used since OdfToolkit can't handle them.
+     *
+     * @param appendable the destination
+     * @param millis     the duration in milliseconds
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendDuration(final Appendable appendable, final long millis)
+            throws IOException {
+        long remainder;
+        if (millis < 0) {
+            appendable.append('-');
+            remainder = -millis;
+        } else {
+            remainder = millis;
+        }
+        appendable.append("PT");
+        final long hours = remainder / MILLIS_PER_HOUR;
+        remainder -= hours * MILLIS_PER_HOUR;
+        if (hours < 10) appendable.append('0');
+        this.appendDigits(appendable, hours);
+        appendable.append('H');
+
+        final int minutes = (int) (remainder / MILLIS_PER_MINUTE);
+        remainder -= minutes * MILLIS_PER_MINUTE;
+        this.append2Digits(appendable, minutes);
+        appendable.append('M');
+
+        final int seconds = (int) (remainder / MILLIS_PER_SECOND);
+        remainder -= seconds * MILLIS_PER_SECOND;
+        this.append2Digits(appendable, seconds);
+        if (remainder > 0) {
+            appendable.append('.');
+            this.append3Digits(appendable, (int) remainder);
+        }
+        appendable.append('S');
+    }
+
+    /**
+     * @param epochMillis the milliseconds since 1970-01-01T00:00:00Z
+     * @return the date-time in UTC, see appendUTCDateTime
+     */
+    public String formatUTCDateTime(final long epochMillis) {
+        final StringBuilder sb = new StringBuilder(24);
+        try {
+            this.appendUTCDateTime(sb, epochMillis);
+        } catch (final IOException e) {
+            throw new AssertionError(e); // a StringBuilder does not throw IOExceptions
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param localEpochMillis the milliseconds since 1970-01-01T00:00:00 in the local time zone
+     * @return the date-time, see appendLocalDateTime
+     */
+    public String formatLocalDateTime(final long localEpochMillis) {
+        final StringBuilder sb = new StringBuilder(24);
+        try {
+            this.appendLocalDateTime(sb, localEpochMillis);
+        } catch (final IOException e) {
+            throw new AssertionError(e); // a StringBuilder does not throw IOExceptions
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @param millis the duration in milliseconds
+     * @return the duration, see appendDuration
+     */
+    public String formatDuration(final long millis) {
+        final StringBuilder sb = new StringBuilder(24);
+        try {
+            this.appendDuration(sb, millis);
+        } catch (final IOException e) {
+            throw new AssertionError(e); // a StringBuilder does not throw IOExceptions
+        }
+        return sb.toString();
+    }
+
+    private void appendDateTime(final Appendable appendable, final long epochMillis,
+                                final boolean withMillis) throws IOException {
+        long epochDay = epochMillis / MILLIS_PER_DAY;
+        long millisOfDay = epochMillis % MILLIS_PER_DAY;
+        if (millisOfDay < 0) { // floor, not truncation
+            epochDay--;
+            millisOfDay += MILLIS_PER_DAY;
+        }
+        this.appendDate(appendable, epochDay);
+        appendable.append('T');
+
+        int remainder = (int) millisOfDay;
+        final int hours = remainder / (int) MILLIS_PER_HOUR;
+        remainder -= hours * (int) MILLIS_PER_HOUR;
+        final int minutes = remainder / (int) MILLIS_PER_MINUTE;
+        remainder -= minutes * (int) MILLIS_PER_MINUTE;
+        final int seconds = remainder / (int) MILLIS_PER_SECOND;
+        remainder -= seconds * (int) MILLIS_PER_SECOND;
+        this.append2Digits(appendable, hours);
+        appendable.append(':');
+        this.append2Digits(appendable, minutes);
+        appendable.append(':');
+        this.append2Digits(appendable, seconds);
+        if (withMillis) {
+            appendable.append('.');
+            this.append3Digits(appendable, remainder);
+        }
+    }
+
+    /**
+     * Days to civil date, see H. Hinnant, "chrono-Compatible Low-Level Date Algorithms"
+     */
+    private void appendDate(final Appendable appendable, final long epochDay)
+            throws IOException {
+        final long z = epochDay + DAYS_0000_TO_1970;
+        final long era = (z >= 0 ? z : z - DAYS_PER_400_YEARS + 1) / DAYS_PER_400_YEARS;
+        final int dayOfEra = (int) (z - era * DAYS_PER_400_YEARS); // [0, 146096]
+        final int yearOfEra =
+                (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int shiftedMonth = (5 * dayOfYear + 2) / 153; // March = 0
+        final int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        final int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400;
+        if (month <= 2) year++;
+
+        if (year < 0) {
+            appendable.append('-');
+            year = -year;
+        }
+        if (year < 1000) {
+            if (year < 100) {
+                appendable.append('0');
+                if (year < 10) appendable.append('0');
+            }
+            appendable.append('0');
+        }
+        this.appendDigits(appendable, year);
+        appendable.append('-');
+        this.append2Digits(appendable, month);
+        appendable.append('-');
+        this.append2Digits(appendable, day);
+    }
+
+    private void append2Digits(final Appendable appendable, final int value)
+            throws IOException {
+        appendable.append((char) ('0' + value / 10));
+        appendable.append((char) ('0' + value % 10));
+    }
+
+    private void append3Digits(final Appendable appendable, final int value)
+            throws IOException {
+        appendable.append((char) ('0' + value / 100));
+        this.append2Digits(appendable, value % 100);
+    }
+
+    private void appendDigits(final Appendable appendable, final long value)
+            throws IOException {
+        if (value >= 10) this.appendDigits(appendable, value / 10);
+        appendable.append((char) ('0' + value % 10));
+    }
+}
@@ -25,22 +25,33 @@ package com.github.jferard.fastods.util;
 
 import com.github.jferard.fastods.util.Container.Mode;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
 /**
  * A multi container contains values indexed by sub container. The sub container is a value inside an enum.
  * Basically, we have a map (K,S) -> V.
+ * The values get dense ids when they are registered (see Container), and are stored in a list indexed by those ids.
+ * Every sub container holds the ids of its values, in the order of registration, hence the output is deterministic.
  * @see StylesContainer for an example.
  * @param <K> the key type
  * @param <V> the value type
  * @param <S> an enum of sub containers
  * @author Julien Férard
  */
-public class MultiContainer<K, S extends Enum<S>, V> {
-	private final Map<K, S> subcontainerByKey;
-	private final Map<S, Map<K, V>> valueByKeyBySubcontainer;
+public class MultiContainer<K, S extends Enum<S>, V extends ContainerValue> {
+	private final Map<K, Integer> idByKey;
+	private final List<K> keyById;
+	private final List<S> subcontainerById;
+	private final List<V> valueById;
+	private final Map<S, List<Integer>> idsBySubcontainer;
 	private boolean closed;
 	private boolean debug;
     private Mode mode;
@@ -50,11 +61,13 @@ public class MultiContainer<K, S extends Enum<S>, V> {
      * @param clazz the enum
      */
     public MultiContainer(final Class<S> clazz) {
-		this.subcontainerByKey = new HashMap<K, S>();
-		this.valueByKeyBySubcontainer = new HashMap<S, Map<K, V>>();
+		this.idByKey = new HashMap<K, Integer>();
+		this.keyById = new ArrayList<K>();
+		this.subcontainerById = new ArrayList<S>();
+		this.valueById = new ArrayList<V>();
+		this.idsBySubcontainer = new EnumMap<S, List<Integer>>(clazz);
 		for (final S subcontainer : clazz.getEnumConstants()) {
-			this.valueByKeyBySubcontainer.put(subcontainer,
-					new HashMap<K, V>());
+			this.idsBySubcontainer.put(subcontainer, new ArrayList<Integer>());
 		}
 		this.closed = false;
 		this.debug = false;
@@ -77,37 +90,63 @@ public class MultiContainer<K, S extends Enum<S>, V> {
      * @return true
      */
     public boolean add(final K key, final S subcontainer, final V value) {
-		final S curSubcontainer = this.subcontainerByKey.get(key);
-		if (curSubcontainer == null) { // key does not exist
+		final int id = this.getId(key, value);
+		if (id == -1) { // key does not exist
 			if (this.mode == Mode.UPDATE)
 				return false;
 
-		} else { // key exists
-			if (this.mode == Mode.CREATE)
-				return false;
-
-			if (subcontainer != curSubcontainer) {
-				if (this.closed)
-					throw new IllegalStateException(
-							"MultiContainer put(" + key + ", " + value + ") in " + subcontainer);
-				this.valueByKeyBySubcontainer.get(curSubcontainer).remove(key);
-			}
+			this.checkPut(key, subcontainer, value);
+			final int newId = this.valueById.size();
+			this.idByKey.put(key, newId);
+			this.keyById.add(key);
+			this.subcontainerById.add(subcontainer);
+			this.valueById.add(value);
+			this.idsBySubcontainer.get(subcontainer).add(newId);
+			value.setContainerId(new ContainerId(this, newId));
+			return true;
 		}
 
+		// key exists
+		if (this.mode == Mode.CREATE)
+			return false;
 
-		if (subcontainer != curSubcontainer)
-			this.subcontainerByKey.put(key, subcontainer);
+		final S curSubcontainer = this.subcontainerById.get(id);
+		if (subcontainer != curSubcontainer) {
+			this.checkPut(key, subcontainer, value);
+			this.idsBySubcontainer.get(curSubcontainer).remove(Integer.valueOf(id));
+			this.idsBySubcontainer.get(subcontainer).add(id);
+			this.subcontainerById.set(id, subcontainer);
+		}
+		if (this.valueById.get(id) != value) {
+			this.valueById.set(id, value);
+			value.setContainerId(new ContainerId(this, id));
+		}
+		return true;
+	}
 
-		final Map<K, V> valueByKey = this.valueByKeyBySubcontainer.get(subcontainer);
-		if (this.closed && !valueByKey.containsKey(key))
+	private void checkPut(final K key, final S subcontainer, final V value) {
+		if (this.closed)
 			throw new IllegalStateException(
 					"MultiContainer put(" + key + ", " + value + ") in " + subcontainer);
-		else if (this.debug && !valueByKey.containsKey(key))
+		else if (this.debug)
 			Logger.getLogger("debug").severe(
 					"MultiContainer put(" + key + ", " + value + ") in " + subcontainer);
+	}
 
-		valueByKey.put(key, value);
-		return true;
+	/**
+	 * @param key the key
+	 * @param value the value
+	 * @return the id of the key, -1 if the key does not exist
+	 */
+	private int getId(final K key, final V value) {
+		final ContainerId containerId = value.getContainerId();
+		if (containerId != null) {
+			final int id = containerId.getId(this);
+			if (id != -1 && key.equals(this.keyById.get(id)))
+				return id;
+		}
+		final Integer id = this.idByKey.get(key);
+		return id == null ? -1 : id;
 	}
 
     /**
@@ -116,8 +155,10 @@ public class MultiContainer<K, S extends Enum<S>, V> {
      * @return the value, null if none
      */
     public V get(final K key, final S subcontainer) {
-		final Map<K, V> valueByKey = this.valueByKeyBySubcontainer.get(subcontainer);
-		return valueByKey == null ? null : valueByKey.get(key);
+		final Integer id = this.idByKey.get(key);
+		if (id == null || this.subcontainerById.get(id) != subcontainer)
+			return null;
+		return this.valueById.get(id);
 	}
 
     /**
@@ -136,22 +177,64 @@ public class MultiContainer<K, S extends Enum<S>, V> {
 
     /**
      * @param subcontainer the sub container
-     * @return a map of K->V for the given container
+     * @return a copy of the map of K->V for the given container
      */
     public Map<K, V> getValueByKey(final S subcontainer) {
-		return this.valueByKeyBySubcontainer.get(subcontainer);
+		final Map<K, V> valueByKey = new LinkedHashMap<K, V>();
+		for (final Integer id : this.idsBySubcontainer.get(subcontainer))
+			valueByKey.put(this.keyById.get(id), this.valueById.get(id));
+		return valueByKey;
 	}
 
     /**
      * @param subcontainer the sub container
-     * @return all the values
+     * @return all the values, in the order of registration
      */
     public Iterable<V> getValues(final S subcontainer) {
-		return this.valueByKeyBySubcontainer.get(subcontainer).values();
+		final List<Integer> ids = this.idsBySubcontainer.get(subcontainer);
+		return new AbstractList<V>() {
+			@Override
+			public V get(final int index) {
+				return MultiContainer.this.valueById.get(ids.get(index));
+			}
+
+			@Override
+			public int size() {
+				return ids.size();
+			}
+		};
+	}
+
+	/**
+	 * @param subcontainer the sub container
+	 * @return the ids of the values of the sub container
+	 */
+	public BitSet getIds(final S subcontainer) {
+		final BitSet ids = new BitSet(this.valueById.size());
+		for (final Integer id : this.idsBySubcontainer.get(subcontainer))
+			ids.set(id);
+		return ids;
+	}
+
+	/**
+	 * @param subcontainer the sub container
+	 * @param excludedIds the ids to skip (see getIds)
+	 * @return the other values of the sub container, in the order of registration
+	 */
+	public List<V> getValues(final S subcontainer, final BitSet excludedIds) {
+		final List<V> values = new ArrayList<V>();
+		for (final Integer id : this.idsBySubcontainer.get(subcontainer)) {
+			if (!excludedIds.get(id))
+				values.add(this.valueById.get(id));
+		}
+		return values;
 	}
 
 	@Override
 	public String toString() {
-		return this.valueByKeyBySubcontainer.toString();
+		final Map<S, Map<K, V>> valueByKeyBySubcontainer = new LinkedHashMap<S, Map<K, V>>();
+		for (final S subcontainer : this.idsBySubcontainer.keySet())
+			valueByKeyBySubcontainer.put(subcontainer, this.getValueByKey(subcontainer));
+		return valueByKeyBySubcontainer.toString();
 	}
 }
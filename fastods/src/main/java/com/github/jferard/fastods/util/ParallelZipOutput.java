@@ -0,0 +1,686 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * A ZipOutput that writes the zip format itself and deflates the entries on a pool of threads, like pigz.
+ * The data of an entry is cut into blocks. Each block is deflated with the last 32 kB of the previous block
+ * as preset dictionary and ends with a sync flush, hence the deflated blocks, written in order, form one
+ * deflate stream. The CRC32 is computed on the calling thread. The sizes and the CRC32 are written in a data
+ * descriptor after the data.
+ * <p>
+ * The sync flush of a Deflater requires Java 7. With an older JRE, or with one thread, the entries are
+ * deflated on the calling thread.
+ * <p>
+ * The threads belong either to the output (create(OutputStream, int, int, int)): they are created with
+ * the output and stopped when it is finished; or to the caller (create(OutputStream, int,
+ * ExecutorService, int, int, WriterResourcePool)): the executor is shared by the outputs and the caller
+ * shuts it down when the last output is finished.
+ * <p>
+ * Zip64 is not supported: the entries and the file must be smaller than 4 GB.
+ *
+ * @author Julien Férard
+ */
+public class ParallelZipOutput implements ZipOutput {
+    /**
+     * The default size of a block
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final int SYNC_FLUSH = 2;
+    private static final Method DEFLATE_WITH_FLUSH_METHOD = ParallelZipOutput.getDeflateWithFlushMethod();
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int DATA_DESCRIPTOR_FLAG = 0x0008;
+    private static final int UTF8_FLAG = 0x0800;
+    private static final int VERSION_STORED = 10;
+    private static final int VERSION_DEFLATED = 20;
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+
+    /**
+     * @return Deflater.deflate(byte[], int, int, int) or null if the method does not exist (Java 6)
+     */
+    private static Method getDeflateWithFlushMethod() {
+        try {
+            return Deflater.class.getMethod("deflate", byte[].class, int.class, int.class, int.class);
+        } catch (final NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the blocks can be deflated in parallel on this JRE
+     */
+    public static boolean isParallelDeflateAvailable() {
+        return DEFLATE_WITH_FLUSH_METHOD != null;
+    }
+
+    /**
+     * Create a new output with its own pool of threads. The pool is shut down when the output is
+     * finished.
+     *
+     * @param out         the destination
+     * @param level       the compression level
+     * @param threadCount the number of threads that deflate the blocks. If 1, the entries are deflated
+     *                    on the calling thread
+     * @param blockSize   the size of the blocks
+     * @return the output
+     */
+    public static ParallelZipOutput create(final OutputStream out, final int level, final int threadCount,
+                                           final int blockSize) {
+        return ParallelZipOutput.create(out, level, threadCount, blockSize, null);
+    }
+
+    /**
+     * Create a new output with its own pool of threads, that takes its Deflaters and its buffer from a
+     * pool and releases them when it is finished.
+     *
+     * @param out         the destination
+     * @param level       the compression level
+     * @param threadCount the number of threads that deflate the blocks. If 1, the entries are deflated
+     *                    on the calling thread
+     * @param blockSize   the size of the blocks
+     * @param pool        the pool of resources, or null
+     * @return the output
+     */
+    public static ParallelZipOutput create(final OutputStream out, final int level, final int threadCount,
+                                           final int blockSize, final WriterResourcePool pool) {
+        ParallelZipOutput.checkArguments(level, threadCount, blockSize);
+        final ExecutorService executor;
+        if (threadCount > 1 && ParallelZipOutput.isParallelDeflateAvailable())
+            executor = Executors.newFixedThreadPool(threadCount, new DaemonThreadFactory());
+        else
+            executor = null;
+        return new ParallelZipOutput(out, level, executor, true, 2 * threadCount, blockSize, pool);
+    }
+
+    /**
+     * Create a new output that deflates the blocks on an executor of the caller, e.g. an executor
+     * shared by all the documents. The output does not shut down the executor: the caller does, once
+     * the outputs that use it are finished.
+     *
+     * @param out         the destination
+     * @param level       the compression level
+     * @param executor    the executor that deflates the blocks
+     * @param threadCount the number of threads of the executor, to bound the number of pending blocks
+     * @param blockSize   the size of the blocks
+     * @param pool        the pool of resources, or null
+     * @return the output
+     */
+    public static ParallelZipOutput create(final OutputStream out, final int level,
+                                           final ExecutorService executor, final int threadCount,
+                                           final int blockSize, final WriterResourcePool pool) {
+        ParallelZipOutput.checkArguments(level, threadCount, blockSize);
+        if (executor == null) throw new IllegalArgumentException("no executor");
+        final ExecutorService actualExecutor =
+                ParallelZipOutput.isParallelDeflateAvailable() ? executor : null;
+        return new ParallelZipOutput(out, level, actualExecutor, false, 2 * threadCount, blockSize,
+                pool);
+    }
+
+    private static void checkArguments(final int level, final int threadCount, final int blockSize) {
+        if ((level < 0 || level > Deflater.BEST_COMPRESSION) && level != Deflater.DEFAULT_COMPRESSION)
+            throw new IllegalArgumentException("invalid compression level");
+        if (threadCount <= 0) throw new IllegalArgumentException("invalid thread count");
+        if (blockSize < DICTIONARY_SIZE) throw new IllegalArgumentException("block size < 32 kB");
+    }
+
+    private final OutputStream out;
+    private final int level;
+    private final ExecutorService executor;
+    private final boolean ownExecutor;
+    private final int maxPendingBlocks;
+    private final int blockSize;
+    private final Deque<Future<DeflatedBlock>> pendingBlocks;
+    private final Deque<byte[]> freeBlocks;
+    private final List<EntryRecord> records;
+    private final Set<String> names;
+    private final CRC32 crc;
+    private final byte[] header;
+    private final WriterResourcePool pool;
+    private Deflater serialDeflater;
+    private byte[] serialBuffer;
+    private long written;
+    private String comment;
+    private boolean finished;
+
+    // the current entry
+    private EntryRecord record;
+    private byte[] block;
+    private int blockLength;
+    private byte[] dictionary;
+
+    /**
+     * Create a new output
+     *
+     * @param out              the destination
+     * @param level            the compression level
+     * @param executor         the executor for parallel deflate, null for serial deflate
+     * @param ownExecutor      true if the executor is shut down when the output is finished
+     * @param maxPendingBlocks the max number of blocks submitted but not written yet
+     * @param blockSize        the size of the blocks
+     * @param pool             the pool of resources, or null
+     */
+    ParallelZipOutput(final OutputStream out, final int level, final ExecutorService executor,
+                      final boolean ownExecutor, final int maxPendingBlocks, final int blockSize,
+                      final WriterResourcePool pool) {
+        this.out = out;
+        this.level = level;
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+        this.maxPendingBlocks = maxPendingBlocks;
+        this.blockSize = blockSize;
+        this.pendingBlocks = new ArrayDeque<Future<DeflatedBlock>>();
+        this.freeBlocks = new ArrayDeque<byte[]>();
+        this.records = new ArrayList<EntryRecord>();
+        this.names = new HashSet<String>();
+        this.crc = new CRC32();
+        this.header = new byte[46];
+        this.pool = pool;
+        this.written = 0;
+        this.finished = false;
+    }
+
+    @Override
+    public void putNextEntry(final ZipEntry entry) throws IOException {
+        this.ensureOpen();
+        if (this.record != null) this.closeEntry();
+        if (!this.names.add(entry.getName())) throw new ZipException("duplicate entry: " + entry.getName());
+
+        final byte[] name = entry.getName().getBytes(ZipUTF8Writer.UTF_8);
+        final int flags = ParallelZipOutput.isASCII(entry.getName()) ? 0 : UTF8_FLAG;
+        final long time = entry.getTime() == -1 ? System.currentTimeMillis() : entry.getTime();
+        final EntryRecord record = new EntryRecord(name, ParallelZipOutput.toDosTime(time), this.written);
+        if (entry.getMethod() == ZipEntry.STORED) {
+            if (entry.getSize() == -1 || entry.getCrc() == -1)
+                throw new ZipException("STORED entry missing size, compressed size, or crc-32");
+            record.method = ZipEntry.STORED;
+            record.flags = flags;
+            record.crc = entry.getCrc();
+            record.size = entry.getSize();
+            record.compressedSize = entry.getSize();
+        } else {
+            record.method = ZipEntry.DEFLATED;
+            record.flags = flags | DATA_DESCRIPTOR_FLAG;
+        }
+        this.writeLocalHeader(record);
+        this.record = record;
+        this.crc.reset();
+        this.blockLength = 0;
+        this.dictionary = null;
+        record.size = 0;
+        if (record.method == ZipEntry.DEFLATED) record.compressedSize = 0;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (this.record == null) throw new ZipException("no current ZIP entry");
+        if (len == 0) return;
+
+        this.crc.update(b, off, len);
+        this.record.size += len;
+        if (this.record.method == ZipEntry.STORED) {
+            this.writeBytes(b, off, len);
+        } else if (this.executor == null) {
+            this.deflateSerially(b, off, len);
+        } else {
+            int i = off;
+            final int end = off + len;
+            while (i < end) {
+                if (this.block == null) this.block = this.newBlock();
+                final int n = Math.min(end - i, this.blockSize - this.blockLength);
+                System.arraycopy(b, i, this.block, this.blockLength, n);
+                this.blockLength += n;
+                i += n;
+                if (this.blockLength == this.blockSize) this.submitBlock(false);
+            }
+        }
+    }
+
+    @Override
+    public void closeEntry() throws IOException {
+        final EntryRecord record = this.record;
+        if (record == null) return;
+
+        if (record.method == ZipEntry.STORED) {
+            if (record.size != record.compressedSize || this.crc.getValue() != record.crc)
+                throw new ZipException("invalid entry size or crc-32 for " + new String(record.name,
+                        ZipUTF8Writer.UTF_8));
+        } else {
+            if (this.executor == null) {
+                this.finishSerialDeflate();
+            } else {
+                if (this.block == null) this.block = this.newBlock();
+                this.submitBlock(true);
+                while (!this.pendingBlocks.isEmpty())
+                    this.writeFirstPendingBlock();
+            }
+            record.crc = this.crc.getValue();
+            if (record.size > MAX_SIZE || record.compressedSize > MAX_SIZE)
+                throw new ZipException("zip64 is not supported");
+            this.writeDataDescriptor(record);
+        }
+        this.records.add(record);
+        this.record = null;
+    }
+
+    @Override
+    public void writeEntry(final PrecompressedEntry entry) throws IOException {
+        this.ensureOpen();
+        if (this.record != null) this.closeEntry();
+        if (!this.names.add(entry.getName())) throw new ZipException("duplicate entry: " + entry.getName());
+
+        final byte[] name = entry.getName().getBytes(ZipUTF8Writer.UTF_8);
+        final int flags = ParallelZipOutput.isASCII(entry.getName()) ? 0 : UTF8_FLAG;
+        final EntryRecord record = new EntryRecord(name,
+                ParallelZipOutput.toDosTime(System.currentTimeMillis()), this.written);
+        record.method = ZipEntry.DEFLATED;
+        record.flags = flags; // the sizes and the CRC32 are known: no data descriptor
+        record.crc = entry.getCrc();
+        record.size = entry.getSize();
+        record.compressedSize = entry.getCompressedSize();
+        this.writeLocalHeader(record);
+        this.writeBytes(entry.getDeflatedData(), 0, entry.getCompressedSize());
+        this.records.add(record);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (this.finished) return;
+
+        this.closeEntry();
+        final long centralOffset = this.written;
+        for (final EntryRecord record : this.records)
+            this.writeCentralHeader(record);
+        this.writeEnd(centralOffset, this.written - centralOffset);
+        this.out.flush();
+        this.finished = true;
+        this.shutdown();
+    }
+
+    @Override
+    public void setComment(final String comment) {
+        this.comment = comment;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.finish();
+        } finally {
+            this.shutdown();
+            this.out.close();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.out.flush();
+    }
+
+    private void shutdown() {
+        // a shared executor may still deflate the blocks of other outputs
+        for (final Future<DeflatedBlock> future : this.pendingBlocks)
+            future.cancel(false);
+        this.pendingBlocks.clear();
+        if (this.executor != null && this.ownExecutor) this.executor.shutdown();
+        if (this.serialDeflater != null) {
+            if (this.pool == null) {
+                this.serialDeflater.end();
+            } else {
+                this.pool.releaseDeflater(this.serialDeflater);
+                this.pool.getBufferPool().release(this.serialBuffer);
+            }
+            this.serialDeflater = null;
+            this.serialBuffer = null;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.finished) throw new IOException("Zip file finished");
+    }
+
+    private byte[] newBlock() {
+        final byte[] block = this.freeBlocks.pollFirst();
+        if (block == null) return new byte[this.blockSize];
+        else return block;
+    }
+
+    /**
+     * Submit the current block to the executor. If there are too many pending blocks, write the
+     * first pending block before.
+     *
+     * @param last true if this is the last block of the entry
+     * @throws IOException if an I/O error occurs
+     */
+    private void submitBlock(final boolean last) throws IOException {
+        while (this.pendingBlocks.size() >= this.maxPendingBlocks)
+            this.writeFirstPendingBlock();
+
+        final byte[] input = this.block;
+        final int length = this.blockLength;
+        final DeflateTask task = new DeflateTask(this.level, input, length, this.dictionary, last,
+                this.pool);
+        this.pendingBlocks.addLast(this.executor.submit(task));
+        if (!last) {
+            this.dictionary = new byte[DICTIONARY_SIZE];
+            System.arraycopy(input, length - DICTIONARY_SIZE, this.dictionary, 0, DICTIONARY_SIZE);
+        }
+        this.block = null;
+        this.blockLength = 0;
+    }
+
+    private void writeFirstPendingBlock() throws IOException {
+        final Future<DeflatedBlock> future = this.pendingBlocks.pollFirst();
+        final DeflatedBlock deflatedBlock;
+        try {
+            deflatedBlock = future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (final ExecutionException e) {
+            throw new IOException("Can't deflate a block", e.getCause());
+        }
+        this.writeBytes(deflatedBlock.data, 0, deflatedBlock.length);
+        this.record.compressedSize += deflatedBlock.length;
+        this.freeBlocks.addLast(deflatedBlock.input);
+    }
+
+    private void deflateSerially(final byte[] b, final int off, final int len) throws IOException {
+        if (this.serialDeflater == null) this.initSerialDeflater();
+        this.serialDeflater.setInput(b, off, len);
+        while (!this.serialDeflater.needsInput())
+            this.writeSerialOutput();
+    }
+
+    private void finishSerialDeflate() throws IOException {
+        if (this.serialDeflater == null) this.initSerialDeflater();
+        this.serialDeflater.finish();
+        while (!this.serialDeflater.finished())
+            this.writeSerialOutput();
+        this.serialDeflater.reset();
+    }
+
+    private void initSerialDeflater() {
+        if (this.pool == null) {
+            this.serialDeflater = new Deflater(this.level, true);
+            this.serialBuffer = new byte[8 * 1024];
+        } else {
+            this.serialDeflater = this.pool.takeDeflater(this.level);
+            this.serialBuffer = this.pool.getBufferPool().take();
+        }
+    }
+
+    private void writeSerialOutput() throws IOException {
+        final int n = this.serialDeflater.deflate(this.serialBuffer, 0, this.serialBuffer.length);
+        if (n > 0) {
+            this.writeBytes(this.serialBuffer, 0, n);
+            this.record.compressedSize += n;
+        }
+    }
+
+    private void writeLocalHeader(final EntryRecord record) throws IOException {
+        final boolean deflated = record.method == ZipEntry.DEFLATED;
+        final boolean dataDescriptor = (record.flags & DATA_DESCRIPTOR_FLAG) != 0;
+        this.putInt(0, LOCAL_HEADER_SIGNATURE);
+        this.putShort(4, deflated ? VERSION_DEFLATED : VERSION_STORED);
+        this.putShort(6, record.flags);
+        this.putShort(8, record.method);
+        this.putInt(10, record.dosTime);
+        this.putInt(14, dataDescriptor ? 0 : record.crc);
+        this.putInt(18, dataDescriptor ? 0 : record.compressedSize);
+        this.putInt(22, dataDescriptor ? 0 : record.size);
+        this.putShort(26, record.name.length);
+        this.putShort(28, 0);
+        this.writeBytes(this.header, 0, 30);
+        this.writeBytes(record.name, 0, record.name.length);
+    }
+
+    private void writeDataDescriptor(final EntryRecord record) throws IOException {
+        this.putInt(0, DATA_DESCRIPTOR_SIGNATURE);
+        this.putInt(4, record.crc);
+        this.putInt(8, record.compressedSize);
+        this.putInt(12, record.size);
+        this.writeBytes(this.header, 0, 16);
+    }
+
+    private void writeCentralHeader(final EntryRecord record) throws IOException {
+        final int version = record.method == ZipEntry.DEFLATED ? VERSION_DEFLATED : VERSION_STORED;
+        this.putInt(0, CENTRAL_HEADER_SIGNATURE);
+        this.putShort(4, version);
+        this.putShort(6, version);
+        this.putShort(8, record.flags);
+        this.putShort(10, record.method);
+        this.putInt(12, record.dosTime);
+        this.putInt(16, record.crc);
+        this.putInt(20, record.compressedSize);
+        this.putInt(24, record.size);
+        this.putShort(28, record.name.length);
+        this.putShort(30, 0); // extra
+        this.putShort(32, 0); // comment
+        this.putShort(34, 0); // disk
+        this.putShort(36, 0); // internal attributes
+        this.putInt(38, 0); // external attributes
+        this.putInt(42, record.offset);
+        this.writeBytes(this.header, 0, 46);
+        this.writeBytes(record.name, 0, record.name.length);
+    }
+
+    private void writeEnd(final long centralOffset, final long centralSize) throws IOException {
+        if (this.records.size() > 0xFFFF || centralOffset > MAX_SIZE)
+            throw new ZipException("zip64 is not supported");
+
+        final byte[] commentBytes;
+        if (this.comment == null) commentBytes = new byte[0];
+        else commentBytes = this.comment.getBytes(ZipUTF8Writer.UTF_8);
+
+        this.putInt(0, END_SIGNATURE);
+        this.putShort(4, 0);
+        this.putShort(6, 0);
+        this.putShort(8, this.records.size());
+        this.putShort(10, this.records.size());
+        this.putInt(12, centralSize);
+        this.putInt(16, centralOffset);
+        this.putShort(20, commentBytes.length);
+        this.writeBytes(this.header, 0, 22);
+        this.writeBytes(commentBytes, 0, commentBytes.length);
+    }
+
+    private void putShort(final int i, final int value) {
+        this.header[i] = (byte) value;
+        this.header[i + 1] = (byte) (value >> 8);
+    }
+
+    private void putInt(final int i, final long value) {
+        this.header[i] = (byte) value;
+        this.header[i + 1] = (byte) (value >> 8);
+        this.header[i + 2] = (byte) (value >> 16);
+        this.header[i + 3] = (byte) (value >> 24);
+    }
+
+    private void writeBytes(final byte[] b, final int off, final int len) throws IOException {
+        this.out.write(b, off, len);
+        this.written += len;
+    }
+
+    private static boolean isASCII(final String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param time the time in millis
+     * @return the MS-DOS date and time
+     */
+    static long toDosTime(final long time) {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        final int year = calendar.get(Calendar.YEAR);
+        if (year < 1980) return (1 << 21) | (1 << 16);
+        return ((long) (year - 1980) << 25) | ((calendar.get(Calendar.MONTH) + 1) << 21) |
+                (calendar.get(Calendar.DAY_OF_MONTH) << 16) | (calendar.get(Calendar.HOUR_OF_DAY) << 11) |
+                (calendar.get(Calendar.MINUTE) << 5) | (calendar.get(Calendar.SECOND) >> 1);
+    }
+
+    /**
+     * The data of an entry, for the central directory
+     */
+    private static class EntryRecord {
+        private final byte[] name;
+        private final long dosTime;
+        private final long offset;
+        private int method;
+        private int flags;
+        private long crc;
+        private long size;
+        private long compressedSize;
+
+        EntryRecord(final byte[] name, final long dosTime, final long offset) {
+            this.name = name;
+            this.dosTime = dosTime;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * A deflated block, and the input that can be reused.
+     */
+    private static class DeflatedBlock {
+        private final byte[] input;
+        private final byte[] data;
+        private final int length;
+
+        DeflatedBlock(final byte[] input, final byte[] data, final int length) {
+            this.input = input;
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+    /**
+     * A task that deflates one block
+     */
+    private static class DeflateTask implements Callable<DeflatedBlock> {
+        private final int level;
+        private final byte[] input;
+        private final int length;
+        private final byte[] dictionary;
+        private final boolean last;
+        private final WriterResourcePool pool;
+
+        DeflateTask(final int level, final byte[] input, final int length, final byte[] dictionary,
+                    final boolean last, final WriterResourcePool pool) {
+            this.level = level;
+            this.input = input;
+            this.length = length;
+            this.dictionary = dictionary;
+            this.last = last;
+            this.pool = pool;
+        }
+
+        @Override
+        public DeflatedBlock call() throws IllegalAccessException, InvocationTargetException {
+            final Deflater deflater;
+            if (this.pool == null) deflater = new Deflater(this.level, true);
+            else deflater = this.pool.takeDeflater(this.level);
+            try {
+                if (this.dictionary != null) deflater.setDictionary(this.dictionary);
+                deflater.setInput(this.input, 0, this.length);
+                byte[] data = new byte[this.length + (this.length >> 4) + 64];
+                int n = 0;
+                if (this.last) {
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        if (n == data.length) data = ParallelZipOutput.grow(data);
+                        n += deflater.deflate(data, n, data.length - n);
+                    }
+                } else {
+                    // "If the return value is len, the space available in output buffer b, this method should be
+                    // invoked again with the same flush parameter and more output space."
+                    while (true) {
+                        final int available = data.length - n;
+                        final int count = (Integer) DEFLATE_WITH_FLUSH_METHOD.invoke(deflater, data, n,
+                                available, SYNC_FLUSH);
+                        n += count;
+                        if (count < available) break;
+                        data = ParallelZipOutput.grow(data);
+                    }
+                }
+                return new DeflatedBlock(this.input, data, n);
+            } finally {
+                if (this.pool == null) deflater.end();
+                else this.pool.releaseDeflater(deflater);
+            }
+        }
+    }
+
+    private static byte[] grow(final byte[] data) {
+        final byte[] newData = new byte[data.length * 2];
+        System.arraycopy(data, 0, newData, 0, data.length);
+        return newData;
+    }
+
+    /**
+     * Daemon threads: an unclosed output won't prevent the JVM from exiting
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private int count;
+
+        @Override
+        public synchronized Thread newThread(final Runnable r) {
+            final Thread thread = new Thread(r, "fastods-deflate-" + this.count++);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * A zip entry whose data is known in advance (mimetype, manifest, empty directories...). The
+ * data is encoded, deflated and checksummed once: a ZipOutput that writes the zip format itself
+ * copies the deflated bytes without compressing them again. The instances are immutable and may
+ * be shared by all the documents.
+ *
+ * @author Julien Férard
+ */
+public class PrecompressedEntry {
+    /**
+     * @param name the name of the entry
+     * @param text the data of the entry
+     * @return the entry
+     */
+    public static PrecompressedEntry create(final String name, final String text) {
+        return PrecompressedEntry.create(name, text.getBytes(ZipUTF8Writer.UTF_8));
+    }
+
+    /**
+     * @param name the name of the entry
+     * @param data the data of the entry
+     * @return the entry
+     */
+    public static PrecompressedEntry create(final String name, final byte[] data) {
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            final byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                final int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+        } finally {
+            deflater.end();
+        }
+        return new PrecompressedEntry(name, data.clone(), out.toByteArray(), crc.getValue());
+    }
+
+    private final String name;
+    private final byte[] data;
+    private final byte[] deflatedData;
+    private final long crc;
+
+    /**
+     * @param name         the name of the entry
+     * @param data         the data
+     * @param deflatedData the deflated data, without zlib header
+     * @param crc          the CRC32 of the data
+     */
+    PrecompressedEntry(final String name, final byte[] data, final byte[] deflatedData,
+                       final long crc) {
+        this.name = name;
+        this.data = data;
+        this.deflatedData = deflatedData;
+        this.crc = crc;
+    }
+
+    /**
+     * @return the name of the entry
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return the CRC32 of the data
+     */
+    public long getCrc() {
+        return this.crc;
+    }
+
+    /**
+     * @return the size of the data
+     */
+    public int getSize() {
+        return this.data.length;
+    }
+
+    /**
+     * @return the size of the deflated data
+     */
+    public int getCompressedSize() {
+        return this.deflatedData.length;
+    }
+
+    /**
+     * @return the data. Do not modify.
+     */
+    byte[] getData() {
+        return this.data;
+    }
+
+    /**
+     * @return the deflated data. Do not modify.
+     */
+    byte[] getDeflatedData() {
+        return this.deflatedData;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.zip.ZipEntry;
+
+/**
+ * A part of an entry (e.g. a table of content.xml) that is written before the entry is
+ * opened. The segment is kept in memory, and spilled to a temporary file when its size exceeds a
+ * threshold. The segment has no entry: putNextEntry, closeEntry, writeEntry, finish and setComment
+ * are not supported.
+ *
+ * @author Julien Férard
+ */
+public class SpooledSegment implements ZipUTF8Writer {
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * @param threshold the max number of chars kept in memory
+     * @return a new segment
+     */
+    public static SpooledSegment create(final int threshold) {
+        return new SpooledSegment(threshold);
+    }
+
+    private final int threshold;
+    private StringBuilder sb;
+    private File file;
+    private Writer fileWriter;
+
+    /**
+     * @param threshold the max number of chars kept in memory
+     */
+    SpooledSegment(final int threshold) {
+        this.threshold = threshold;
+        this.sb = new StringBuilder();
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq) throws IOException {
+        if (this.fileWriter == null) {
+            this.sb.append(csq);
+            this.spillIfNecessary();
+        } else {
+            this.fileWriter.append(csq);
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end)
+            throws IOException {
+        if (this.fileWriter == null) {
+            this.sb.append(csq, start, end);
+            this.spillIfNecessary();
+        } else {
+            this.fileWriter.append(csq, start, end);
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(final char c) throws IOException {
+        if (this.fileWriter == null) {
+            this.sb.append(c);
+            this.spillIfNecessary();
+        } else {
+            this.fileWriter.append(c);
+        }
+        return this;
+    }
+
+    @Override
+    public void write(final String str) throws IOException {
+        this.append(str);
+    }
+
+    /**
+     * The bytes are decoded: a segment stores chars.
+     */
+    @Override
+    public void write(final byte[] utf8Bytes, final int off, final int len) throws IOException {
+        this.append(new String(utf8Bytes, off, len, UTF_8));
+    }
+
+    private void spillIfNecessary() throws IOException {
+        if (this.sb.length() <= this.threshold) return;
+
+        this.file = File.createTempFile("fastods", ".xml");
+        this.file.deleteOnExit();
+        this.fileWriter = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(this.file), UTF_8), BUFFER_SIZE);
+        this.fileWriter.append(this.sb);
+        this.sb = null;
+    }
+
+    /**
+     * @return true if the segment was spilled to a temporary file
+     */
+    public boolean isSpilled() {
+        return this.file != null;
+    }
+
+    /**
+     * Write the segment to a writer and release it. The segment is empty after this call.
+     *
+     * @param writer the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public void transferTo(final ZipUTF8Writer writer) throws IOException {
+        if (this.fileWriter == null) {
+            writer.append(this.sb);
+            this.sb = new StringBuilder();
+            return;
+        }
+
+        this.fileWriter.close();
+        final Reader reader = new InputStreamReader(new FileInputStream(this.file), UTF_8);
+        try {
+            final char[] buffer = new char[BUFFER_SIZE];
+            int count = reader.read(buffer);
+            while (count != -1) {
+                writer.write(new String(buffer, 0, count));
+                count = reader.read(buffer);
+            }
+        } finally {
+            reader.close();
+            this.release();
+        }
+        this.sb = new StringBuilder();
+    }
+
+    private void release() {
+        this.fileWriter = null;
+        if (this.file != null) {
+            this.file.delete();
+            this.file = null;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (this.fileWriter != null) this.fileWriter.flush();
+    }
+
+    /**
+     * Discard the segment.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.fileWriter != null) this.fileWriter.close();
+        this.release();
+        this.sb = new StringBuilder();
+    }
+
+    @Override
+    public void closeEntry() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void finish() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putNextEntry(final ZipEntry entry) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeEntry(final PrecompressedEntry entry) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setComment(final String comment) {
+        throw new UnsupportedOperationException();
+    }
+}
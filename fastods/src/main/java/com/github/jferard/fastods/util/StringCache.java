@@ -0,0 +1,233 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of strings, used by the xml escaper. The cache counts hits, misses and
+ * evictions.
+ *
+ * @author Julien Férard
+ */
+abstract class StringCache {
+    /**
+     * @param policy   the eviction policy
+     * @param capacity the max number of entries
+     * @return the cache
+     */
+    static StringCache create(final FastOdsXMLEscaper.CachePolicy policy, final int capacity) {
+        if (policy == FastOdsXMLEscaper.CachePolicy.NONE) return new NoStringCache();
+
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        switch (policy) {
+            case LRU:
+                return new LRUStringCache(capacity);
+            case CLOCK:
+                return new ClockStringCache(capacity);
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + policy);
+        }
+    }
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param key the key
+     * @return the cached value or null
+     */
+    String get(final String key) {
+        final String value = this.lookup(key);
+        if (value == null) this.misses++;
+        else this.hits++;
+        return value;
+    }
+
+    /**
+     * @param key the key
+     * @return the cached value or null. Counters are not updated
+     */
+    protected abstract String lookup(final String key);
+
+    /**
+     * Store a new value. May evict another one.
+     *
+     * @param key   the key, not present in the cache
+     * @param value the value
+     */
+    abstract void put(final String key, final String value);
+
+    /**
+     * @return the number of entries
+     */
+    abstract int size();
+
+    /**
+     * Record an eviction
+     */
+    protected void evicted() {
+        this.evictions++;
+    }
+
+    /**
+     * @return the number of hits
+     */
+    long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return the number of misses
+     */
+    long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * @return the number of evicted entries
+     */
+    long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * A cache that never stores anything
+     */
+    private static class NoStringCache extends StringCache {
+        @Override
+        protected String lookup(final String key) {
+            return null;
+        }
+
+        @Override
+        void put(final String key, final String value) {
+            // do nothing
+        }
+
+        @Override
+        int size() {
+            return 0;
+        }
+    }
+
+    /**
+     * A least recently used cache, backed by a LinkedHashMap in access order.
+     */
+    private static class LRUStringCache extends StringCache {
+        private final Map<String, String> map;
+
+        LRUStringCache(final int capacity) {
+            this.map = new LinkedHashMap<String, String>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+                    if (this.size() <= capacity) return false;
+
+                    LRUStringCache.this.evicted();
+                    return true;
+                }
+            };
+        }
+
+        @Override
+        protected String lookup(final String key) {
+            return this.map.get(key);
+        }
+
+        @Override
+        void put(final String key, final String value) {
+            this.map.put(key, value);
+        }
+
+        @Override
+        int size() {
+            return this.map.size();
+        }
+    }
+
+    /**
+     * A CLOCK (second chance) cache: a hit only sets a flag, hence the lookup does not
+     * reorder anything. On insertion, the hand clears the flags until it finds an entry
+     * without flag, and replaces this entry.
+     */
+    private static class ClockStringCache extends StringCache {
+        private final Map<String, Integer> indexByKey;
+        private final String[] keys;
+        private final String[] values;
+        private final boolean[] referenced;
+        private int hand;
+        private int size;
+
+        ClockStringCache(final int capacity) {
+            this.indexByKey = new HashMap<String, Integer>();
+            this.keys = new String[capacity];
+            this.values = new String[capacity];
+            this.referenced = new boolean[capacity];
+            this.hand = 0;
+            this.size = 0;
+        }
+
+        @Override
+        protected String lookup(final String key) {
+            final Integer index = this.indexByKey.get(key);
+            if (index == null) return null;
+
+            final int i = index;
+            this.referenced[i] = true;
+            return this.values[i];
+        }
+
+        @Override
+        void put(final String key, final String value) {
+            final int i;
+            if (this.size < this.keys.length) {
+                i = this.size++;
+            } else {
+                while (this.referenced[this.hand]) {
+                    this.referenced[this.hand] = false;
+                    this.hand = (this.hand + 1) % this.keys.length;
+                }
+                i = this.hand;
+                this.hand = (this.hand + 1) % this.keys.length;
+                this.indexByKey.remove(this.keys[i]);
+                this.evicted();
+            }
+            this.keys[i] = key;
+            this.values[i] = value;
+            this.referenced[i] = false;
+            this.indexByKey.put(key, i);
+        }
+
+        @Override
+        int size() {
+            return this.size;
+        }
+    }
+}
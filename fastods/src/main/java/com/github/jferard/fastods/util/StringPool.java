@@ -0,0 +1,214 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A pool of the string values of the cells of a document. Every distinct value is stored once,
+ * with an int id, escaped once and encoded to UTF-8 once. The pool counts hits and misses: the counters are cumulative,
+ * take a snapshot before and after the filling of a table to get the hit rate of this table.
+ *
+ * @author Julien Férard
+ */
+public class StringPool {
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * @return a new pool, for one thread: the tables are filled and serialized by the same thread
+     */
+    public static StringPool create() {
+        return new StringPool();
+    }
+
+    /**
+     * @return a new pool, for the tables filled concurrently or for the rows serialized by an
+     * executor or by the thread of an asynchronous writer
+     */
+    public static StringPool createSynchronized() {
+        return new SynchronizedStringPool();
+    }
+
+    private final Map<String, Integer> idByValue;
+    private String[] values;
+    private String[] escapedAttributes;
+    private byte[][] escapedAttributeBytes;
+    private int size;
+    private long hits;
+    private long misses;
+
+    /**
+     * Create a new pool
+     */
+    StringPool() {
+        this.idByValue = new HashMap<String, Integer>();
+        this.values = new String[INITIAL_CAPACITY];
+        this.escapedAttributes = new String[INITIAL_CAPACITY];
+        this.escapedAttributeBytes = new byte[INITIAL_CAPACITY][];
+        this.size = 0;
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    /**
+     * @param value the value
+     * @return the id of the value. The value is added if necessary.
+     */
+    public int intern(final String value) {
+        final Integer id = this.idByValue.get(value);
+        if (id != null) {
+            this.hits++;
+            return id;
+        }
+
+        this.misses++;
+        if (this.size == this.values.length) {
+            final String[] newValues = new String[this.size * 2];
+            System.arraycopy(this.values, 0, newValues, 0, this.size);
+            this.values = newValues;
+            final String[] newEscapedAttributes = new String[this.size * 2];
+            System.arraycopy(this.escapedAttributes, 0, newEscapedAttributes, 0, this.size);
+            this.escapedAttributes = newEscapedAttributes;
+            final byte[][] newEscapedAttributeBytes = new byte[this.size * 2][];
+            System.arraycopy(this.escapedAttributeBytes, 0, newEscapedAttributeBytes, 0, this.size);
+            this.escapedAttributeBytes = newEscapedAttributeBytes;
+        }
+        final int newId = this.size;
+        this.values[newId] = value;
+        this.idByValue.put(value, newId);
+        this.size++;
+        return newId;
+    }
+
+    /**
+     * @param id the id of the value
+     * @return the value
+     */
+    public String get(final int id) {
+        return this.values[id];
+    }
+
+    /**
+     * @param util an util to escape the value on the first call
+     * @param id   the id of the value
+     * @return the value, escaped for an attribute
+     */
+    public String getEscapedAttribute(final XMLUtil util, final int id) {
+        String escaped = this.escapedAttributes[id];
+        if (escaped == null) {
+            escaped = util.escapeXMLAttribute(this.values[id]);
+            this.escapedAttributes[id] = escaped;
+        }
+        return escaped;
+    }
+
+    /**
+     * @param util an util to escape the value on the first call
+     * @param id   the id of the value
+     * @return the value, escaped for an attribute and encoded to UTF-8. Do not modify the array.
+     */
+    public byte[] getEscapedAttributeBytes(final XMLUtil util, final int id) {
+        byte[] bytes = this.escapedAttributeBytes[id];
+        if (bytes == null) {
+            bytes = this.getEscapedAttribute(util, id).getBytes(ZipUTF8Writer.UTF_8);
+            this.escapedAttributeBytes[id] = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return the number of distinct values
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the number of values that were already in the pool
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return the number of values that were added to the pool
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * @return the ratio hits / (hits + misses), 0 if the pool was never used
+     */
+    public double getHitRate() {
+        final long total = this.getHits() + this.getMisses();
+        return total == 0 ? 0.0 : (double) this.getHits() / total;
+    }
+
+    /**
+     * A pool for the tables filled concurrently
+     */
+    private static class SynchronizedStringPool extends StringPool {
+        @Override
+        public synchronized int intern(final String value) {
+            return super.intern(value);
+        }
+
+        @Override
+        public synchronized String get(final int id) {
+            return super.get(id);
+        }
+
+        @Override
+        public synchronized String getEscapedAttribute(final XMLUtil util, final int id) {
+            return super.getEscapedAttribute(util, id);
+        }
+
+        @Override
+        public synchronized byte[] getEscapedAttributeBytes(final XMLUtil util, final int id) {
+            return super.getEscapedAttributeBytes(util, id);
+        }
+
+        @Override
+        public synchronized int size() {
+            return super.size();
+        }
+
+        @Override
+        public synchronized long getHits() {
+            return super.getHits();
+        }
+
+        @Override
+        public synchronized long getMisses() {
+            return super.getMisses();
+        }
+
+        @Override
+        public synchronized double getHitRate() {
+            return super.getHitRate();
+        }
+    }
+}
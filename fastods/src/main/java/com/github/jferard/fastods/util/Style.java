@@ -30,5 +30,6 @@ import com.github.jferard.fastods.style.AddableToOdsElements;
  * A style (data style or object style)
  * @author Julien Férard
  */
-public interface Style extends NamedObject, AddableToOdsElements, Tag, Hidable {
+public interface Style
+        extends NamedObject, AddableToOdsElements, Tag, Hidable, ContainerValue {
 }
@@ -0,0 +1,263 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An appendable that encodes the chars to UTF-8 in byte chunks taken from a pool. A char is
+ * never split between two chunks: every chunk is valid UTF-8. The chunks are written to a
+ * ZipUTF8Writer and released with writeTo. There is a fast path for ASCII chars.
+ * <p>
+ * The output is the same as the output of an OutputStreamWriter with the UTF-8 charset: a
+ * malformed surrogate is replaced by '?'.
+ *
+ * @author Julien Férard
+ */
+public class UTF8ChunkAppender implements Appendable {
+    /**
+     * The max size of an encoded char (or surrogate pair).
+     */
+    static final int MAX_CHAR_SIZE = 4;
+
+    private static final byte REPLACEMENT = '?';
+    private static final char NO_HIGH_SURROGATE = 0;
+    private static final int CHARS_SIZE = 1024;
+
+    /**
+     * @param pool the pool of chunks
+     * @return a new appender
+     */
+    public static UTF8ChunkAppender create(final ByteChunkPool pool) {
+        return new UTF8ChunkAppender(pool);
+    }
+
+    private final ByteChunkPool pool;
+    private final List<byte[]> fullChunks;
+    private final List<Integer> fullChunkCounts;
+    private char[] chars;
+    private byte[] chunk;
+    private int limit;
+    private int count;
+    private char highSurrogate;
+
+    /**
+     * @param pool the pool of chunks
+     */
+    UTF8ChunkAppender(final ByteChunkPool pool) {
+        this.pool = pool;
+        this.fullChunks = new ArrayList<byte[]>();
+        this.fullChunkCounts = new ArrayList<Integer>();
+        this.chunk = null;
+        this.count = 0;
+        this.limit = -1;
+        this.highSurrogate = NO_HIGH_SURROGATE;
+    }
+
+    @Override
+    public Appendable append(final char c) {
+        if (this.count > this.limit) this.nextChunk();
+        if (c < 0x80 && this.highSurrogate == NO_HIGH_SURROGATE)
+            this.chunk[this.count++] = (byte) c;
+        else this.encode(c);
+        return this;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq) {
+        if (csq == null) return this.append("null", 0, 4);
+        return this.append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end) {
+        if (csq == null) return this.append("null", start, end);
+
+        if (csq instanceof String) {
+            if (this.chars == null) this.chars = new char[CHARS_SIZE];
+            final String str = (String) csq;
+            int i = start;
+            while (i < end) { // bulk copy of the chars: avoid the calls to charAt
+                final int len = Math.min(end - i, CHARS_SIZE);
+                str.getChars(i, i + len, this.chars, 0);
+                this.write(this.chars, len);
+                i += len;
+            }
+        } else {
+            for (int i = start; i < end; i++) {
+                this.append(csq.charAt(i));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Append bytes that are already encoded to UTF-8. The bytes must not split a char. A char is
+     * never split between two chunks.
+     *
+     * @param utf8Bytes the bytes
+     * @param off       the offset
+     * @param len       the number of bytes
+     */
+    public void write(final byte[] utf8Bytes, final int off, final int len) {
+        if (this.highSurrogate != NO_HIGH_SURROGATE) { // malformed
+            this.highSurrogate = NO_HIGH_SURROGATE;
+            if (this.count > this.limit) this.nextChunk();
+            this.chunk[this.count++] = REPLACEMENT;
+        }
+        final int end = off + len;
+        int i = off;
+        while (i < end) {
+            if (this.count > this.limit) this.nextChunk();
+            int stop = Math.min(end, i + this.chunk.length - this.count);
+            if (stop < end) { // at least MAX_CHAR_SIZE free bytes: stop > i
+                while ((utf8Bytes[stop] & 0xC0) == 0x80) stop--; // a continuation byte
+            }
+            System.arraycopy(utf8Bytes, i, this.chunk, this.count, stop - i);
+            this.count += stop - i;
+            i = stop;
+        }
+    }
+
+    private void write(final char[] cs, final int len) {
+        int i = 0;
+        while (i < len) {
+            if (this.count > this.limit) this.nextChunk();
+            final char c = cs[i];
+            if (c >= 0x80 || this.highSurrogate != NO_HIGH_SURROGATE) {
+                this.encode(c);
+                i++;
+                continue;
+            }
+            // ASCII run: the chunk has at least MAX_CHAR_SIZE free bytes
+            final byte[] buf = this.chunk;
+            int n = this.count;
+            final int stop = Math.min(len, i + this.limit + 1 - n);
+            while (i < stop) {
+                final char d = cs[i];
+                if (d >= 0x80) break;
+                buf[n++] = (byte) d;
+                i++;
+            }
+            this.count = n;
+        }
+    }
+
+    /**
+     * Encode a char that is not a plain ASCII char. There are at least four free bytes in the
+     * chunk.
+     *
+     * @param c the char
+     */
+    private void encode(final char c) {
+        final byte[] buf = this.chunk;
+        if (this.highSurrogate != NO_HIGH_SURROGATE) {
+            final char high = this.highSurrogate;
+            this.highSurrogate = NO_HIGH_SURROGATE;
+            if (Character.isLowSurrogate(c)) {
+                final int codePoint = Character.toCodePoint(high, c);
+                buf[this.count++] = (byte) (0xF0 | (codePoint >> 18));
+                buf[this.count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buf[this.count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buf[this.count++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            buf[this.count++] = REPLACEMENT; // malformed: c is encoded below
+        }
+
+        if (c < 0x80) {
+            buf[this.count++] = (byte) c;
+        } else if (c < 0x800) {
+            buf[this.count++] = (byte) (0xC0 | (c >> 6));
+            buf[this.count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            this.highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buf[this.count++] = REPLACEMENT;
+        } else {
+            buf[this.count++] = (byte) (0xE0 | (c >> 12));
+            buf[this.count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buf[this.count++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void nextChunk() {
+        if (this.chunk != null) {
+            this.fullChunks.add(this.chunk);
+            this.fullChunkCounts.add(this.count);
+        }
+        this.chunk = this.pool.take();
+        this.limit = this.chunk.length - MAX_CHAR_SIZE;
+        this.count = 0;
+    }
+
+    /**
+     * @return the number of encoded bytes
+     */
+    public long size() {
+        long size = this.count;
+        for (final Integer fullChunkCount : this.fullChunkCounts)
+            size += fullChunkCount;
+        return size;
+    }
+
+    /**
+     * Write the bytes to a writer and release the chunks. A pending high surrogate is replaced by
+     * '?'. The appender is empty after this call.
+     *
+     * @param writer the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(final ZipUTF8Writer writer) throws IOException {
+        if (this.highSurrogate != NO_HIGH_SURROGATE) {
+            this.highSurrogate = NO_HIGH_SURROGATE;
+            this.append((char) REPLACEMENT);
+        }
+        try {
+            for (int i = 0; i < this.fullChunks.size(); i++)
+                writer.write(this.fullChunks.get(i), 0, this.fullChunkCounts.get(i));
+            if (this.count > 0) writer.write(this.chunk, 0, this.count);
+        } finally {
+            this.release();
+        }
+    }
+
+    /**
+     * Release the chunks without writing them.
+     */
+    public void release() {
+        for (final byte[] fullChunk : this.fullChunks)
+            this.pool.release(fullChunk);
+        this.fullChunks.clear();
+        this.fullChunkCounts.clear();
+        if (this.chunk != null) {
+            this.pool.release(this.chunk);
+            this.chunk = null;
+        }
+        this.count = 0;
+        this.limit = -1;
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+/**
+ * A pool of the resources of the writers created by a factory: the Deflaters, the byte buffers of
+ * the writers, the chunks of the row flushers, the direct buffers of the channel sinks and the XML
+ * utils (and their escaper buffers). The
+ * resources are taken when a writer is created and released when it is closed, hence the steady
+ * generation of small documents allocates almost nothing and does not churn the native memory
+ * of zlib.
+ * <p>
+ * The pool is thread safe and bounded: if the pool is empty, a new resource is created; if the
+ * pool is full, a released resource is dropped (a Deflater is ended).
+ *
+ * @author Julien Férard
+ */
+public class WriterResourcePool {
+    /**
+     * The default size of the buffer of a writer: 8 KB
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * The size of a direct buffer of a channel sink: 64 KB
+     */
+    public static final int DIRECT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The default max number of pooled resources of each kind
+     */
+    public static final int DEFAULT_MAX_POOLED = 16;
+
+    /**
+     * @return a new pool with the default sizes
+     */
+    public static WriterResourcePool create() {
+        return WriterResourcePool.create(DEFAULT_MAX_POOLED);
+    }
+
+    /**
+     * @param maxPooled the max number of pooled resources of each kind. The row flushers may
+     *                  use four times more chunks, and the channel sinks four times more direct
+     *                  buffers.
+     * @return a new pool
+     */
+    public static WriterResourcePool create(final int maxPooled) {
+        if (maxPooled < 0) throw new IllegalArgumentException("Negative max: " + maxPooled);
+        return new WriterResourcePool(ByteChunkPool.create(DEFAULT_BUFFER_SIZE, maxPooled),
+                ByteChunkPool.create(ByteChunkPool.DEFAULT_CHUNK_SIZE, 4 * maxPooled), maxPooled);
+    }
+
+    private final ByteChunkPool bufferPool;
+    private final ByteChunkPool chunkPool;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<Deflater> deflaters;
+    private final AtomicInteger pooledDeflaters;
+    private final AtomicLong deflaterAllocations;
+    private final AtomicLong deflaterReuses;
+    private final ConcurrentLinkedQueue<XMLUtil> xmlUtils;
+    private final AtomicInteger pooledXMLUtils;
+    private final AtomicLong xmlUtilAllocations;
+    private final AtomicLong xmlUtilReuses;
+    private final ConcurrentLinkedQueue<ByteBuffer> directBuffers;
+    private final AtomicInteger pooledDirectBuffers;
+    private final AtomicLong directBufferAllocations;
+    private final AtomicLong directBufferReuses;
+
+    /**
+     * @param bufferPool the pool of the buffers of the writers
+     * @param chunkPool  the pool of the chunks of the row flushers
+     * @param maxPooled  the max number of pooled Deflaters and XML utils
+     */
+    WriterResourcePool(final ByteChunkPool bufferPool, final ByteChunkPool chunkPool,
+                       final int maxPooled) {
+        this.bufferPool = bufferPool;
+        this.chunkPool = chunkPool;
+        this.maxPooled = maxPooled;
+        this.deflaters = new ConcurrentLinkedQueue<Deflater>();
+        this.pooledDeflaters = new AtomicInteger(0);
+        this.deflaterAllocations = new AtomicLong(0);
+        this.deflaterReuses = new AtomicLong(0);
+        this.xmlUtils = new ConcurrentLinkedQueue<XMLUtil>();
+        this.pooledXMLUtils = new AtomicInteger(0);
+        this.xmlUtilAllocations = new AtomicLong(0);
+        this.xmlUtilReuses = new AtomicLong(0);
+        this.directBuffers = new ConcurrentLinkedQueue<ByteBuffer>();
+        this.pooledDirectBuffers = new AtomicInteger(0);
+        this.directBufferAllocations = new AtomicLong(0);
+        this.directBufferReuses = new AtomicLong(0);
+    }
+
+    /**
+     * @param level the compression level
+     * @return a Deflater without zlib header, from the pool if possible
+     */
+    public Deflater takeDeflater(final int level) {
+        final Deflater deflater = this.deflaters.poll();
+        if (deflater == null) {
+            this.deflaterAllocations.incrementAndGet();
+            return new Deflater(level, true);
+        }
+        this.pooledDeflaters.decrementAndGet();
+        this.deflaterReuses.incrementAndGet();
+        deflater.setLevel(level);
+        return deflater;
+    }
+
+    /**
+     * @param deflater a Deflater that was taken from this pool. Do not use it after this call.
+     */
+    public void releaseDeflater(final Deflater deflater) {
+        if (this.pooledDeflaters.incrementAndGet() > this.maxPooled) {
+            this.pooledDeflaters.decrementAndGet();
+            deflater.end();
+            return;
+        }
+        deflater.reset();
+        this.deflaters.offer(deflater);
+    }
+
+    /**
+     * @return an XML util, from the pool if possible
+     */
+    public XMLUtil takeXMLUtil() {
+        final XMLUtil xmlUtil = this.xmlUtils.poll();
+        if (xmlUtil == null) {
+            this.xmlUtilAllocations.incrementAndGet();
+            return XMLUtil.create();
+        }
+        this.pooledXMLUtils.decrementAndGet();
+        this.xmlUtilReuses.incrementAndGet();
+        return xmlUtil;
+    }
+
+    /**
+     * @param xmlUtil an XML util that was taken from this pool. Do not use it after this call.
+     */
+    public void releaseXMLUtil(final XMLUtil xmlUtil) {
+        if (this.pooledXMLUtils.incrementAndGet() > this.maxPooled) {
+            this.pooledXMLUtils.decrementAndGet();
+            return;
+        }
+        this.xmlUtils.offer(xmlUtil);
+    }
+
+    /**
+     * @return a cleared direct buffer of DIRECT_BUFFER_SIZE bytes, from the pool if possible
+     */
+    public ByteBuffer takeDirectBuffer() {
+        final ByteBuffer buffer = this.directBuffers.poll();
+        if (buffer == null) {
+            this.directBufferAllocations.incrementAndGet();
+            return ByteBuffer.allocateDirect(DIRECT_BUFFER_SIZE);
+        }
+        this.pooledDirectBuffers.decrementAndGet();
+        this.directBufferReuses.incrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * @param buffer a direct buffer that was taken from this pool. Do not use it after this call.
+     */
+    public void releaseDirectBuffer(final ByteBuffer buffer) {
+        if (this.pooledDirectBuffers.incrementAndGet() > 4 * this.maxPooled) {
+            this.pooledDirectBuffers.decrementAndGet();
+            return;
+        }
+        this.directBuffers.offer(buffer);
+    }
+
+    /**
+     * @return the pool of the buffers of the writers
+     */
+    public ByteChunkPool getBufferPool() {
+        return this.bufferPool;
+    }
+
+    /**
+     * @return the pool of the chunks of the row flushers
+     */
+    public ByteChunkPool getChunkPool() {
+        return this.chunkPool;
+    }
+
+    /**
+     * @return the number of Deflaters in the pool
+     */
+    public int getPooledDeflaterCount() {
+        return this.pooledDeflaters.get();
+    }
+
+    /**
+     * @return the number of Deflaters that were created
+     */
+    public long getDeflaterAllocations() {
+        return this.deflaterAllocations.get();
+    }
+
+    /**
+     * @return the number of Deflaters that were taken from the pool
+     */
+    public long getDeflaterReuses() {
+        return this.deflaterReuses.get();
+    }
+
+    /**
+     * @return the number of XML utils in the pool
+     */
+    public int getPooledXMLUtilCount() {
+        return this.pooledXMLUtils.get();
+    }
+
+    /**
+     * @return the number of XML utils that were created
+     */
+    public long getXMLUtilAllocations() {
+        return this.xmlUtilAllocations.get();
+    }
+
+    /**
+     * @return the number of XML utils that were taken from the pool
+     */
+    public long getXMLUtilReuses() {
+        return this.xmlUtilReuses.get();
+    }
+
+    /**
+     * @return the number of direct buffers in the pool
+     */
+    public int getPooledDirectBufferCount() {
+        return this.pooledDirectBuffers.get();
+    }
+
+    /**
+     * @return the number of direct buffers that were created
+     */
+    public long getDirectBufferAllocations() {
+        return this.directBufferAllocations.get();
+    }
+
+    /**
+     * @return the number of direct buffers that were taken from the pool
+     */
+    public long getDirectBufferReuses() {
+        return this.directBufferReuses.get();
+    }
+}
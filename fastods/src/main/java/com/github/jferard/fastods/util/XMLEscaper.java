@@ -23,6 +23,8 @@
 
 package com.github.jferard.fastods.util;
 
+import java.io.IOException;
+
 /**
  * @author Julien Férard
  */
@@ -38,4 +40,26 @@ public interface XMLEscaper {
 	 * @return the string escaped as a content (text node)
 	 */
 	String escapeXMLContent(final String s);
+
+	/**
+	 * Escape the string as an attribute, directly into the appendable: no escaped string is
+	 * built.
+	 *
+	 * @param appendable the destination
+	 * @param s          the input string
+	 * @throws IOException If an I/O error occurs
+	 */
+	void appendEscapedXMLAttribute(final Appendable appendable, final String s)
+			throws IOException;
+
+	/**
+	 * Escape the string as a content (text node), directly into the appendable: no escaped
+	 * string is built.
+	 *
+	 * @param appendable the destination
+	 * @param s          the input string
+	 * @throws IOException If an I/O error occurs
+	 */
+	void appendEscapedXMLContent(final Appendable appendable, final String s)
+			throws IOException;
 }
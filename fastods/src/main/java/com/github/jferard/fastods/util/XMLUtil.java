@@ -24,7 +24,6 @@
 package com.github.jferard.fastods.util;
 
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
 
 /**
  * An util for writing XML representation.
@@ -35,7 +34,36 @@ public class XMLUtil {
 	 * A space char for append
 	 */
 	public static final char SPACE_CHAR = ' ';
+	/**
+	 * 2^53: every double below is an integer or has a fractional part
+	 */
+	private static final double TWO_POW_53 = 9007199254740992.0;
+	/**
+	 * 1, 10, ..., 10^22: the powers of ten that are exact doubles
+	 */
+	private static final double[] DOUBLE_POW10;
+	/**
+	 * 1, 10, ..., 10^18
+	 */
+	private static final long[] LONG_POW10;
+
+	static {
+		DOUBLE_POW10 = new double[23];
+		double d = 1.0;
+		for (int i = 0; i < DOUBLE_POW10.length; i++) {
+			DOUBLE_POW10[i] = d;
+			d *= 10.0;
+		}
+		LONG_POW10 = new long[19];
+		long l = 1;
+		for (int i = 0; i < LONG_POW10.length; i++) {
+			LONG_POW10[i] = l;
+			l *= 10;
+		}
+	}
+
 	private final XMLEscaper escaper;
+	private final ISO8601Util iso8601Util;
 
     /**
      * Create a new util
@@ -43,6 +71,7 @@ public class XMLUtil {
      */
     XMLUtil(final XMLEscaper escaper) {
 		this.escaper = escaper;
+		this.iso8601Util = ISO8601Util.create();
 	}
 
     /**
@@ -53,6 +82,34 @@ public class XMLUtil {
 		return new XMLUtil(escaper);
 	}
 
+	/**
+	 * @param policy   the eviction policy of the escaper caches
+	 * @param capacity the max number of entries of each escaper cache
+	 * @return a new xml util
+	 */
+	public static XMLUtil create(final FastOdsXMLEscaper.CachePolicy policy, final int capacity) {
+		final XMLEscaper escaper = FastOdsXMLEscaper.create(policy, capacity);
+		return new XMLUtil(escaper);
+	}
+
+	/**
+	 * @param escaper the escaper, e.g. to read the cache counters
+	 * @return a new xml util
+	 */
+	public static XMLUtil create(final XMLEscaper escaper) {
+		return new XMLUtil(escaper);
+	}
+
+	/**
+	 * @return a new util for another thread. A FastOdsXMLEscaper is copied (same configuration,
+	 * own caches and buffer); any other escaper is shared and must be thread safe.
+	 */
+	public XMLUtil copy() {
+		if (this.escaper instanceof FastOdsXMLEscaper)
+			return new XMLUtil(((FastOdsXMLEscaper) this.escaper).copy());
+		return new XMLUtil(this.escaper);
+	}
+
 	/**
 	 * Append a space and new element to the appendable element, the name of the element is
 	 * attrName and the value is attrRawValue. The will be escaped if necessary
@@ -65,9 +122,9 @@ public class XMLUtil {
 	public void appendEAttribute(final Appendable appendable,
 								final CharSequence attrName, final String attrRawValue)
 			throws IOException {
-		appendable.append(' ').append(attrName).append("=\"")
-				.append(this.escaper.escapeXMLAttribute(attrRawValue))
-				.append('"');
+		appendable.append(' ').append(attrName).append("=\"");
+		this.escaper.appendEscapedXMLAttribute(appendable, attrRawValue);
+		appendable.append('"');
 	}
 
     /**
@@ -115,6 +172,250 @@ public class XMLUtil {
 				.append('"');
 	}
 
+	/**
+	 * Append a space, then a new element to the appendable element, the name of the element is
+	 * attrName and the value is attrValue. No String is created.
+	 *
+	 * @param appendable where to write
+	 * @param attrName   the name of the attribute
+	 * @param attrValue  the value
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void appendAttribute(final Appendable appendable,
+								final CharSequence attrName, final long attrValue) throws IOException {
+		appendable.append(' ').append(attrName).append("=\"");
+		this.appendLong(appendable, attrValue);
+		appendable.append('"');
+	}
+
+	/**
+	 * Append a space, then a new element to the appendable element, the name of the element is
+	 * attrName and the value is attrValue. See appendDouble.
+	 *
+	 * @param appendable where to write
+	 * @param attrName   the name of the attribute
+	 * @param attrValue  the value
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void appendAttribute(final Appendable appendable,
+								final CharSequence attrName, final double attrValue) throws IOException {
+		appendable.append(' ').append(attrName).append("=\"");
+		this.appendDouble(appendable, attrValue);
+		appendable.append('"');
+	}
+
+	/**
+	 * Append the decimal digits of a long. No String is created.
+	 *
+	 * @param appendable where to write
+	 * @param value      the value
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void appendLong(final Appendable appendable, final long value) throws IOException {
+		if (value == Long.MIN_VALUE) {
+			appendable.append("-9223372036854775808");
+			return;
+		}
+
+		final long absValue;
+		if (value < 0) {
+			appendable.append('-');
+			absValue = -value;
+		} else {
+			absValue = value;
+		}
+		XMLUtil.appendDigits(appendable, absValue, 1);
+	}
+
+	/**
+	 * Append the shortest decimal that gives back the same double, in the format of
+	 * Double.toString: plain notation in [10^-3, 10^7), with ".0" for the integers, and
+	 * computerized scientific notation (e.g. 1.5E-5, 1.0E22) outside. No String is created if
+	 * the value is d &times; 10^e or d / 10^e, where d &lt; 2^53 and 10^e is an exact double
+	 * (e &lt;= 22), that is every value with at most 15 significant digits between 10^-22 and
+	 * 10^37, and every integer below 2^53. Zeros, NaN and the infinities are written as
+	 * constants. The other values (17 significant digits far from 1, subnormals) are written by
+	 * Double.toString, which allocates and may, before Java 19, give one more digit than
+	 * necessary.
+	 *
+	 * @param appendable where to write
+	 * @param value      the value
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void appendDouble(final Appendable appendable, final double value) throws IOException {
+		if (Double.isNaN(value)) {
+			appendable.append("NaN");
+			return;
+		}
+		final boolean negative = value < 0 || (value == 0 && 1 / value < 0);
+		final double absValue = Math.abs(value);
+		if (absValue == 0) {
+			appendable.append(negative ? "-0.0" : "0.0");
+			return;
+		}
+		if (Double.isInfinite(value)) {
+			appendable.append(negative ? "-Infinity" : "Infinity");
+			return;
+		}
+
+		if (absValue < TWO_POW_53) {
+			if (absValue == Math.floor(absValue)) {
+				XMLUtil.appendDecimal(appendable, negative, (long) absValue, 0);
+				return;
+			}
+			// c/10^scale with c < 2^53 and 10^scale exact is a correctly rounded division: if
+			// it gives back absValue, then the digits of c are the digits we are looking for.
+			for (int scale = 1; scale < DOUBLE_POW10.length; scale++) {
+				final double pow = DOUBLE_POW10[scale];
+				final double scaled = absValue * pow;
+				if (scaled >= TWO_POW_53) break;
+
+				final double c = Math.rint(scaled);
+				if (c / pow == absValue) {
+					XMLUtil.appendDecimal(appendable, negative, (long) c, scale);
+					return;
+				}
+				// the product was rounded: try the other neighbour
+				final double c2 = scaled < c ? c - 1 : c + 1;
+				if (c2 / pow == absValue) {
+					XMLUtil.appendDecimal(appendable, negative, (long) c2, scale);
+					return;
+				}
+			}
+		} else {
+			// c*10^k with c < 2^53 and 10^k exact is a correctly rounded product: the greatest
+			// k that gives back absValue gives the shortest digits.
+			final int maxK = DOUBLE_POW10.length - 1;
+			final double maxPow = DOUBLE_POW10[maxK];
+			final double maxScaled = absValue / maxPow;
+			if (maxScaled < TWO_POW_53) {
+				// k could be greater than 22: look for the c with the most trailing zeros
+				for (int j = LONG_POW10.length - 3; j > 0; j--) {
+					final double m = LONG_POW10[j];
+					final double c = Math.rint(maxScaled / m) * m;
+					if (c > 0 && c < TWO_POW_53 && c * maxPow == absValue) {
+						XMLUtil.appendDecimal(appendable, negative, (long) c, -maxK);
+						return;
+					}
+				}
+			}
+			for (int k = maxK; k > 0; k--) {
+				final double pow = DOUBLE_POW10[k];
+				final double scaled = absValue / pow;
+				if (scaled >= TWO_POW_53) break;
+
+				final double c = Math.rint(scaled);
+				if (c > 0 && c * pow == absValue) {
+					XMLUtil.appendDecimal(appendable, negative, (long) c, -k);
+					return;
+				}
+				final double c2 = scaled < c ? c - 1 : c + 1;
+				if (c2 > 0 && c2 * pow == absValue) {
+					XMLUtil.appendDecimal(appendable, negative, (long) c2, -k);
+					return;
+				}
+			}
+		}
+		appendable.append(Double.toString(value));
+	}
+
+	/**
+	 * @param value the value
+	 * @return the String written by appendDouble
+	 */
+	public String toString(final double value) {
+		final StringBuilder sb = new StringBuilder(24);
+		try {
+			this.appendDouble(sb, value);
+		} catch (final IOException e) {
+			throw new AssertionError(e); // a StringBuilder does not throw IOExceptions
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Append digits / 10^scale in the format of Double.toString
+	 *
+	 * @param appendable where to write
+	 * @param negative   true if a minus sign is written
+	 * @param digits     the digits, &gt; 0
+	 * @param scale      the scale, may be negative
+	 * @throws IOException If an I/O error occurs
+	 */
+	private static void appendDecimal(final Appendable appendable, final boolean negative,
+									  final long digits, final int scale) throws IOException {
+		long significand = digits;
+		int fractionDigits = scale;
+		while (significand % 10 == 0) {
+			significand /= 10;
+			fractionDigits--;
+		}
+		final int width = XMLUtil.countDigits(significand);
+		final int exponent = width - 1 - fractionDigits;
+
+		if (negative) appendable.append('-');
+		if (exponent >= -3 && exponent < 7) { // 10^-3 <= value < 10^7
+			if (fractionDigits <= 0) {
+				XMLUtil.appendDigits(appendable, significand, 1);
+				for (int i = fractionDigits; i < 0; i++)
+					appendable.append('0');
+				appendable.append(".0");
+			} else if (fractionDigits < width) {
+				final long pow = LONG_POW10[fractionDigits];
+				XMLUtil.appendDigits(appendable, significand / pow, 1);
+				appendable.append('.');
+				XMLUtil.appendDigits(appendable, significand % pow, fractionDigits);
+			} else {
+				appendable.append("0.");
+				XMLUtil.appendDigits(appendable, significand, fractionDigits);
+			}
+		} else {
+			final long pow = LONG_POW10[width - 1];
+			appendable.append((char) ('0' + significand / pow));
+			appendable.append('.');
+			if (width == 1) appendable.append('0');
+			else XMLUtil.appendDigits(appendable, significand % pow, width - 1);
+			appendable.append('E');
+			if (exponent < 0) {
+				appendable.append('-');
+				XMLUtil.appendDigits(appendable, -exponent, 1);
+			} else {
+				XMLUtil.appendDigits(appendable, exponent, 1);
+			}
+		}
+	}
+
+	private static int countDigits(final long value) {
+		int width = 1;
+		while (width < LONG_POW10.length && LONG_POW10[width] <= value)
+			width++;
+		return width;
+	}
+
+	/**
+	 * Append the digits of a non negative long, left padded with zeros
+	 *
+	 * @param appendable where to write
+	 * @param value      the value, &gt;= 0
+	 * @param minWidth   the min number of digits
+	 * @throws IOException If an I/O error occurs
+	 */
+	private static void appendDigits(final Appendable appendable, final long value,
+									 final int minWidth) throws IOException {
+		final int width = XMLUtil.countDigits(value);
+		for (int i = width; i < minWidth; i++)
+			appendable.append('0');
+
+		long remainder = value;
+		for (int i = width - 1; i > 0; i--) {
+			final long pow = LONG_POW10[i];
+			final int digit = (int) (remainder / pow);
+			appendable.append((char) ('0' + digit));
+			remainder -= digit * pow;
+		}
+		appendable.append((char) ('0' + remainder));
+	}
+
     /**
      * Append a content inside a tag
      * @param appendable the destination
@@ -124,9 +425,9 @@ public class XMLUtil {
      */
     public void appendTag(final Appendable appendable, final CharSequence tagName,
 						  final String content) throws IOException {
-		appendable.append('<').append(tagName).append('>')
-				.append(this.escaper.escapeXMLContent(content)).append("</")
-				.append(tagName).append('>');
+		appendable.append('<').append(tagName).append('>');
+		this.escaper.appendEscapedXMLContent(appendable, content);
+		appendable.append("</").append(tagName).append('>');
 	}
 
     /**
@@ -147,6 +448,54 @@ public class XMLUtil {
 		return this.escaper.escapeXMLContent(s);
 	}
 
+	/**
+	 * Escape an XML content directly into the appendable
+	 * @param appendable the destination
+	 * @param s the content
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void appendEscapedXMLContent(final Appendable appendable, final String s)
+			throws IOException {
+		this.escaper.appendEscapedXMLContent(appendable, s);
+	}
+
+	/**
+	 * Escape an attribute value directly into the appendable. The name and the quotes are not
+	 * written.
+	 *
+	 * @param appendable the destination
+	 * @param s          the raw value
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void appendEscapedXMLAttributeValue(final Appendable appendable, final String s)
+			throws IOException {
+		this.escaper.appendEscapedXMLAttribute(appendable, s);
+	}
+
+	/**
+	 * Append a date-time in UTC (see appendDateTimeAttribute). No String is created.
+	 *
+	 * @param appendable  where to write
+	 * @param epochMillis the milliseconds since 1970-01-01T00:00:00Z
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void appendDateTime(final Appendable appendable, final long epochMillis)
+			throws IOException {
+		this.iso8601Util.appendUTCDateTime(appendable, epochMillis);
+	}
+
+	/**
+	 * Append a duration (see appendTimeIntervalAttribute). No String is created.
+	 *
+	 * @param appendable   where to write
+	 * @param milliseconds the duration in milliseconds
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void appendTimeInterval(final Appendable appendable, final long milliseconds)
+			throws IOException {
+		this.iso8601Util.appendDuration(appendable, milliseconds);
+	}
+
 	/**
 	 * XML Schema Part 2, 3.2.6 duration
 	 * "'P'yyyy'Y'MM'M'dd'DT'HH'H'mm'M'ss.SSS'S'"
@@ -156,30 +505,49 @@ public class XMLUtil {
 	 * @return the string that represents this interval
 	 */
 	public String formatTimeInterval(final long milliseconds) {
-		long curMilliseconds = milliseconds;
-		final StringBuilder sb = new StringBuilder().append("PT");
-		final long hours = TimeUnit.MILLISECONDS.toHours(curMilliseconds);
-		if (hours < 10)
-			sb.append('0');
-		sb.append(hours).append('H');
-		curMilliseconds -= TimeUnit.HOURS.toMillis(hours);
-
-		final long minutes = TimeUnit.MILLISECONDS.toMinutes(curMilliseconds);
-		if (minutes < 10)
-			sb.append('0');
-		sb.append(minutes).append('M');
-		curMilliseconds -= TimeUnit.MINUTES.toMillis(minutes);
-
-		final long seconds = TimeUnit.MILLISECONDS.toSeconds(curMilliseconds);
-		if (seconds < 10)
-			sb.append('0');
-		sb.append(seconds);
-		curMilliseconds -= TimeUnit.SECONDS.toMillis(seconds);
-
-		if (curMilliseconds > 0)
-			sb.append('.').append(curMilliseconds);
-
-		sb.append('S');
-		return sb.toString();
+		return this.iso8601Util.formatDuration(milliseconds);
+	}
+
+	/**
+	 * XML Schema Part 2, 3.2.7 dateTime, with Z (UTC time zone)
+	 *
+	 * @param epochMillis the milliseconds since 1970-01-01T00:00:00Z
+	 * @return the string that represents this date
+	 */
+	public String formatDateTime(final long epochMillis) {
+		return this.iso8601Util.formatUTCDateTime(epochMillis);
+	}
+
+	/**
+	 * Append a space, then a new element to the appendable element, the name of the element is
+	 * attrName and the value is the date-time in UTC. No String is created.
+	 *
+	 * @param appendable  where to write
+	 * @param attrName    the name of the attribute
+	 * @param epochMillis the milliseconds since 1970-01-01T00:00:00Z
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void appendDateTimeAttribute(final Appendable appendable, final CharSequence attrName,
+										final long epochMillis) throws IOException {
+		appendable.append(' ').append(attrName).append("=\"");
+		this.iso8601Util.appendUTCDateTime(appendable, epochMillis);
+		appendable.append('"');
+	}
+
+	/**
+	 * Append a space, then a new element to the appendable element, the name of the element is
+	 * attrName and the value is the duration. No String is created.
+	 *
+	 * @param appendable   where to write
+	 * @param attrName     the name of the attribute
+	 * @param milliseconds the duration in milliseconds
+	 * @throws IOException If an I/O error occurs
+	 */
+	public void appendTimeIntervalAttribute(final Appendable appendable,
+											final CharSequence attrName,
+											final long milliseconds) throws IOException {
+		appendable.append(' ').append(attrName).append("=\"");
+		this.iso8601Util.appendDuration(appendable, milliseconds);
+		appendable.append('"');
 	}
 }
@@ -0,0 +1,84 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A pool of XML utils for the threads that serialize the rows of a table. The utils are copies of
+ * the util of the document (same escaper configuration). The pool holds at most one util per
+ * thread that serializes concurrently, and is dropped with the table.
+ *
+ * @author Julien Férard
+ */
+public class XMLUtilPool {
+    /**
+     * @param prototype the util of the document
+     * @return a new pool
+     */
+    public static XMLUtilPool create(final XMLUtil prototype) {
+        return new XMLUtilPool(prototype);
+    }
+
+    private final XMLUtil prototype;
+    private final ConcurrentLinkedQueue<XMLUtil> xmlUtils;
+
+    /**
+     * @param prototype the util of the document
+     */
+    XMLUtilPool(final XMLUtil prototype) {
+        this.prototype = prototype;
+        this.xmlUtils = new ConcurrentLinkedQueue<XMLUtil>();
+    }
+
+    /**
+     * @return a util, from the pool if possible. Release it after use.
+     */
+    public XMLUtil take() {
+        final XMLUtil xmlUtil = this.xmlUtils.poll();
+        if (xmlUtil == null) return this.prototype.copy();
+        return xmlUtil;
+    }
+
+    /**
+     * @param xmlUtil a util that was taken from this pool. Do not use it after this call.
+     */
+    public void release(final XMLUtil xmlUtil) {
+        this.xmlUtils.offer(xmlUtil);
+    }
+
+    /**
+     * Drop the pooled utils (and their buffers and caches)
+     */
+    public void clear() {
+        this.xmlUtils.clear();
+    }
+
+    /**
+     * @return the number of pooled utils
+     */
+    public int size() {
+        return this.xmlUtils.size();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+
+/**
+ * A destination for the bytes of a zip file: the subset of ZipOutputStream used by the ZipUTF8Writers.
+ *
+ * @author Julien Férard
+ */
+public interface ZipOutput extends Closeable, Flushable {
+    /**
+     * Put a new entry into the zip. This becomes the current entry
+     *
+     * @param entry the entry
+     * @throws IOException if an I/O error occurs
+     */
+    void putNextEntry(ZipEntry entry) throws IOException;
+
+    /**
+     * Write bytes to the current entry
+     *
+     * @param b   the bytes
+     * @param off the offset
+     * @param len the number of bytes
+     * @throws IOException if an I/O error occurs
+     */
+    void write(byte[] b, int off, int len) throws IOException;
+
+    /**
+     * Close the current entry
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void closeEntry() throws IOException;
+
+    /**
+     * Close the current entry and write a whole entry, whose data is known in advance
+     *
+     * @param entry the entry
+     * @throws IOException if an I/O error occurs
+     */
+    void writeEntry(PrecompressedEntry entry) throws IOException;
+
+    /**
+     * Finish the zip file, without closing the underlying stream
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    void finish() throws IOException;
+
+    /**
+     * Set the comment of the zip file
+     *
+     * @param comment the comment
+     */
+    void setComment(String comment);
+}
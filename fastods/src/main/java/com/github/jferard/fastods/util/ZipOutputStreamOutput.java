@@ -0,0 +1,86 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A ZipOutput backed by a java.util.zip.ZipOutputStream.
+ *
+ * @author Julien Férard
+ */
+class ZipOutputStreamOutput implements ZipOutput {
+    private final ZipOutputStream zipStream;
+
+    /**
+     * @param zipStream the zip stream
+     */
+    ZipOutputStreamOutput(final ZipOutputStream zipStream) {
+        this.zipStream = zipStream;
+    }
+
+    @Override
+    public void putNextEntry(final ZipEntry entry) throws IOException {
+        this.zipStream.putNextEntry(entry);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        this.zipStream.write(b, off, len);
+    }
+
+    @Override
+    public void closeEntry() throws IOException {
+        this.zipStream.closeEntry();
+    }
+
+    @Override
+    public void writeEntry(final PrecompressedEntry entry) throws IOException {
+        this.zipStream.putNextEntry(new ZipEntry(entry.getName()));
+        this.zipStream.write(entry.getData(), 0, entry.getSize());
+        this.zipStream.closeEntry();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.zipStream.finish();
+    }
+
+    @Override
+    public void setComment(final String comment) {
+        this.zipStream.setComment(comment);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.zipStream.close();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.zipStream.flush();
+    }
+}
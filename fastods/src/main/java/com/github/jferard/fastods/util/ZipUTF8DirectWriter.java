@@ -0,0 +1,270 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+
+/**
+ * A writer for a zip file that encodes the chars to UTF-8 bytes itself, in a reusable byte buffer,
+ * and hands the full buffers to the zip stream. There is a fast path for ASCII chars.
+ * <p>
+ * The output is the same as the output of an OutputStreamWriter with the UTF-8 charset: a malformed
+ * surrogate is replaced by '?'.
+ *
+ * @author Julien Férard
+ */
+public class ZipUTF8DirectWriter implements ZipUTF8Writer {
+    /**
+     * The minimum size of the buffer: a char (or a surrogate pair) is at most four bytes long.
+     */
+    static final int MIN_BUFFER_SIZE = 16;
+
+    private static final byte REPLACEMENT = '?';
+    private static final char NO_HIGH_SURROGATE = 0;
+    private static final int CHARS_SIZE = 1024;
+
+    private final ZipOutput zipOutput;
+    private final ByteChunkPool bufferPool;
+    private final char[] chars;
+    private final int limit;
+    private byte[] buffer;
+    private int count;
+    private char highSurrogate;
+
+    /**
+     * Create a new writer. Do not use directly. Use a builder if you want to avoid mistakes
+     *
+     * @param zipOutput  the zip output
+     * @param bufferSize the size of the byte buffer
+     */
+    ZipUTF8DirectWriter(final ZipOutput zipOutput, final int bufferSize) {
+        this(zipOutput, new byte[bufferSize < MIN_BUFFER_SIZE ? MIN_BUFFER_SIZE : bufferSize], null);
+    }
+
+    /**
+     * Create a new writer with a buffer taken from a pool. The buffer is released when the writer
+     * is closed.
+     *
+     * @param zipOutput  the zip output
+     * @param bufferPool the pool of buffers
+     */
+    ZipUTF8DirectWriter(final ZipOutput zipOutput, final ByteChunkPool bufferPool) {
+        this(zipOutput, bufferPool.take(), bufferPool);
+    }
+
+    private ZipUTF8DirectWriter(final ZipOutput zipOutput, final byte[] buffer,
+                                final ByteChunkPool bufferPool) {
+        this.zipOutput = zipOutput;
+        this.bufferPool = bufferPool;
+        this.buffer = buffer;
+        this.limit = this.buffer.length - 4;
+        this.chars = new char[CHARS_SIZE];
+        this.count = 0;
+        this.highSurrogate = NO_HIGH_SURROGATE;
+    }
+
+    @Override
+    public Appendable append(final char c) throws IOException {
+        if (this.count > this.limit) this.flushBuffer();
+        if (c < 0x80 && this.highSurrogate == NO_HIGH_SURROGATE) this.buffer[this.count++] = (byte) c;
+        else this.encode(c);
+        return this;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq) throws IOException {
+        if (csq == null) return this.append("null", 0, 4);
+        return this.append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end)
+            throws IOException {
+        if (csq == null) return this.append("null", start, end);
+
+        if (csq instanceof String) {
+            final String str = (String) csq;
+            int i = start;
+            while (i < end) { // bulk copy of the chars: avoid the calls to charAt
+                final int len = Math.min(end - i, CHARS_SIZE);
+                str.getChars(i, i + len, this.chars, 0);
+                this.write(this.chars, len);
+                i += len;
+            }
+        } else {
+            for (int i = start; i < end; i++) {
+                this.append(csq.charAt(i));
+            }
+        }
+        return this;
+    }
+
+    private void write(final char[] cs, final int len) throws IOException {
+        final byte[] buf = this.buffer;
+        int i = 0;
+        while (this.highSurrogate != NO_HIGH_SURROGATE && i < len) {
+            if (this.count > this.limit) this.flushBuffer();
+            this.encode(cs[i++]);
+        }
+        int n = this.count;
+        while (i < len) {
+            // ASCII run: no call in this loop
+            final int stop = Math.min(len, i + buf.length - n);
+            while (i < stop) {
+                final char c = cs[i];
+                if (c >= 0x80) break;
+                buf[n++] = (byte) c;
+                i++;
+            }
+            if (i == len) break;
+
+            this.count = n;
+            if (n > this.limit) this.flushBuffer();
+            if (i == stop) { // the buffer was full
+                n = this.count;
+                continue;
+            }
+            this.encode(cs[i++]);
+            while (this.highSurrogate != NO_HIGH_SURROGATE && i < len) {
+                if (this.count > this.limit) this.flushBuffer();
+                this.encode(cs[i++]);
+            }
+            n = this.count;
+        }
+        this.count = n;
+    }
+
+    /**
+     * Encode a char that is not a plain ASCII char. There are at least four free bytes in the buffer.
+     *
+     * @param c the char
+     */
+    private void encode(final char c) {
+        final byte[] buf = this.buffer;
+        if (this.highSurrogate != NO_HIGH_SURROGATE) {
+            final char high = this.highSurrogate;
+            this.highSurrogate = NO_HIGH_SURROGATE;
+            if (Character.isLowSurrogate(c)) {
+                final int codePoint = Character.toCodePoint(high, c);
+                buf[this.count++] = (byte) (0xF0 | (codePoint >> 18));
+                buf[this.count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buf[this.count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buf[this.count++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            buf[this.count++] = REPLACEMENT; // malformed: c is encoded below
+        }
+
+        if (c < 0x80) {
+            buf[this.count++] = (byte) c;
+        } else if (c < 0x800) {
+            buf[this.count++] = (byte) (0xC0 | (c >> 6));
+            buf[this.count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            this.highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buf[this.count++] = REPLACEMENT;
+        } else {
+            buf[this.count++] = (byte) (0xE0 | (c >> 12));
+            buf[this.count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buf[this.count++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (this.count > 0) {
+            this.zipOutput.write(this.buffer, 0, this.count);
+            this.count = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.flushBuffer();
+            this.zipOutput.close();
+        } finally {
+            if (this.bufferPool != null && this.buffer != null) {
+                this.bufferPool.release(this.buffer);
+                this.buffer = null;
+            }
+        }
+    }
+
+    @Override
+    public void closeEntry() throws IOException {
+        this.flushBuffer();
+        this.zipOutput.closeEntry();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.flushBuffer();
+        this.zipOutput.finish();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.flushBuffer();
+        this.zipOutput.flush();
+    }
+
+    @Override
+    public void putNextEntry(final ZipEntry entry) throws IOException {
+        this.zipOutput.putNextEntry(entry);
+    }
+
+    @Override
+    public void writeEntry(final PrecompressedEntry entry) throws IOException {
+        this.flushBuffer();
+        this.zipOutput.writeEntry(entry);
+    }
+
+    @Override
+    public void setComment(final String comment) {
+        this.zipOutput.setComment(comment);
+    }
+
+    @Override
+    public void write(final String str) throws IOException {
+        this.append(str, 0, str.length());
+    }
+
+    @Override
+    public void write(final byte[] utf8Bytes, final int off, final int len) throws IOException {
+        if (this.highSurrogate != NO_HIGH_SURROGATE) { // malformed
+            this.highSurrogate = NO_HIGH_SURROGATE;
+            if (this.count > this.limit) this.flushBuffer();
+            this.buffer[this.count++] = REPLACEMENT;
+        }
+        if (len < this.buffer.length - this.count) { // small: copy to the buffer
+            System.arraycopy(utf8Bytes, off, this.buffer, this.count, len);
+            this.count += len;
+        } else {
+            this.flushBuffer();
+            this.zipOutput.write(utf8Bytes, off, len);
+        }
+    }
+}
@@ -59,6 +59,14 @@ public interface ZipUTF8Writer
 	 */
 	void putNextEntry(final ZipEntry entry) throws IOException;
 
+	/**
+	 * Close the current entry and write a whole entry, whose data is known in advance. The
+	 * deflated data is copied if the underlying output allows it.
+	 * @param entry the entry
+	 * @throws IOException if an I/O error occurs
+	 */
+	void writeEntry(final PrecompressedEntry entry) throws IOException;
+
 	/**
 	 * Add a comment to the zip
 	 * @param comment the comment
@@ -71,4 +79,13 @@ public interface ZipUTF8Writer
 	 * @throws IOException if an I/O error occurs
 	 */
 	void write(final String str) throws IOException;
+
+	/**
+	 * Write bytes that are already encoded to UTF-8. The bytes must not split a char.
+	 * @param utf8Bytes the bytes
+	 * @param off the offset
+	 * @param len the number of bytes
+	 * @throws IOException if an I/O error occurs
+	 */
+	void write(final byte[] utf8Bytes, final int off, final int len) throws IOException;
 }
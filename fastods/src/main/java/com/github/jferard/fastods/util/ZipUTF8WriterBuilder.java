@@ -28,6 +28,8 @@ import java.io.BufferedWriter;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.Deflater;
 import java.util.zip.ZipOutputStream;
 
@@ -38,17 +40,30 @@ import java.util.zip.ZipOutputStream;
 public class ZipUTF8WriterBuilder {
 	private static final int DEFAULT_BUFFER = -1;
 	private static final int NO_BUFFER = -2;
+	private static final int DEFAULT_DIRECT_BUFFER_SIZE = 8 * 1024;
+	private boolean directEncoder;
+	private boolean flatXML;
+	private int deflateThreadCount;
+	private ExecutorService deflateExecutor;
+	private int deflateBlockSize;
 	private int level;
 	private int writerBufferSize;
 	private int zipBufferSize;
+	private WriterResourcePool resourcePool;
 
     /**
      * Create a new builder
      */
     ZipUTF8WriterBuilder() {
 		this.level = Deflater.BEST_SPEED;
+		this.directEncoder = false;
+		this.flatXML = false;
+		this.deflateThreadCount = 0;
+		this.deflateExecutor = null;
+		this.deflateBlockSize = ParallelZipOutput.DEFAULT_BLOCK_SIZE;
 		this.writerBufferSize = ZipUTF8WriterBuilder.DEFAULT_BUFFER;
 		this.zipBufferSize = ZipUTF8WriterBuilder.DEFAULT_BUFFER;
+		this.resourcePool = null;
 	}
 
     /**
@@ -58,7 +73,9 @@ public class ZipUTF8WriterBuilder {
      */
     public ZipUTF8Writer build(final OutputStream out) {
 		final OutputStream bufferedOut;
-		switch (this.zipBufferSize) {
+		if (out instanceof ChannelOutputStream) // already buffered
+			bufferedOut = out;
+		else switch (this.zipBufferSize) {
 		case NO_BUFFER:
 			bufferedOut = out;
 			break;
@@ -69,9 +86,34 @@ public class ZipUTF8WriterBuilder {
 			bufferedOut = new BufferedOutputStream(out, this.zipBufferSize);
 			break;
 		}
+		if (this.flatXML) {
+			final ZipOutput flatOut = new FlatXMLOutput(bufferedOut);
+			if (this.resourcePool != null)
+				return new ZipUTF8DirectWriter(flatOut, this.resourcePool.getBufferPool());
+			return this.buildDirectWriter(flatOut);
+		}
+		if (this.deflateExecutor != null) {
+			final ZipOutput parallelOut = ParallelZipOutput.create(bufferedOut, this.level,
+					this.deflateExecutor, this.deflateThreadCount, this.deflateBlockSize,
+					this.resourcePool);
+			if (this.resourcePool != null)
+				return new ZipUTF8DirectWriter(parallelOut, this.resourcePool.getBufferPool());
+			return this.buildDirectWriter(parallelOut);
+		}
+		if (this.resourcePool != null)
+			return new ZipUTF8DirectWriter(ParallelZipOutput.create(bufferedOut, this.level,
+					Math.max(1, this.deflateThreadCount), this.deflateBlockSize,
+					this.resourcePool), this.resourcePool.getBufferPool());
+		if (this.deflateThreadCount > 0)
+			return this.buildDirectWriter(ParallelZipOutput.create(bufferedOut, this.level,
+					this.deflateThreadCount, this.deflateBlockSize));
+
 		final ZipOutputStream zipOut = new ZipOutputStream(bufferedOut);
 		zipOut.setMethod(ZipOutputStream.DEFLATED);
 		zipOut.setLevel(this.level);
+		if (this.directEncoder)
+			return this.buildDirectWriter(new ZipOutputStreamOutput(zipOut));
+
 		final Writer writer = new OutputStreamWriter(zipOut,
 				ZipUTF8Writer.UTF_8);
 		final Writer bufferedWriter;
@@ -89,6 +131,116 @@ public class ZipUTF8WriterBuilder {
 		return new ZipUTF8WriterImpl(zipOut, bufferedWriter);
 	}
 
+	/**
+	 * Build the new writer, with a given channel. The zip buffer is replaced by the direct
+	 * buffers of a ChannelOutputStream, taken from the resource pool if there is one.
+	 * @param channel the destination
+	 * @return the writer
+	 */
+	public ZipUTF8Writer build(final WritableByteChannel channel) {
+		return this.build(ChannelOutputStream.create(channel, this.resourcePool));
+	}
+
+	private ZipUTF8Writer buildDirectWriter(final ZipOutput zipOut) {
+		final int bufferSize;
+		switch (this.writerBufferSize) {
+		case NO_BUFFER:
+			bufferSize = ZipUTF8DirectWriter.MIN_BUFFER_SIZE;
+			break;
+		case DEFAULT_BUFFER:
+			bufferSize = ZipUTF8WriterBuilder.DEFAULT_DIRECT_BUFFER_SIZE;
+			break;
+		default:
+			bufferSize = this.writerBufferSize;
+			break;
+		}
+		return new ZipUTF8DirectWriter(zipOut, bufferSize);
+	}
+
+    /**
+     * Encode the chars to UTF-8 bytes with a ZipUTF8DirectWriter instead of an OutputStreamWriter.
+	 * The writer buffer is then a byte buffer. The output is the same.
+     * @return this for fluent style
+     */
+	public ZipUTF8WriterBuilder directEncoder() {
+		this.directEncoder = true;
+		return this;
+	}
+
+    /**
+     * Write the bytes to the stream without compression nor zip container, for a flat XML document
+	 * (.fods): the writer has no entry. Implies the direct encoder (see directEncoder()); the
+	 * level and the deflate settings are ignored.
+     * @return this for fluent style
+     */
+	public ZipUTF8WriterBuilder flatXML() {
+		this.flatXML = true;
+		return this;
+	}
+
+    /**
+     * Deflate the entries on one thread per available processor, by blocks of 128 kB.
+     * See parallelDeflate(int, int).
+     * @return this for fluent style
+     */
+	public ZipUTF8WriterBuilder parallelDeflate() {
+		return this.parallelDeflate(Runtime.getRuntime().availableProcessors(),
+				ParallelZipOutput.DEFAULT_BLOCK_SIZE);
+	}
+
+    /**
+     * Deflate the entries on a pool of threads, like pigz: the data is cut into blocks that are
+	 * deflated in parallel, and stitched into one deflate stream. Implies the direct encoder (see
+	 * directEncoder()). Needs Java 7: with an older JRE, the entries are deflated on the calling thread.
+	 * Every writer creates its own pool of threads and shuts it down when it is closed: to write
+	 * many documents, see parallelDeflate(ExecutorService, int, int).
+     * @param threadCount the number of threads
+     * @param blockSize the size of a block, at least 32 kB
+     * @return this for fluent style
+     */
+	public ZipUTF8WriterBuilder parallelDeflate(final int threadCount, final int blockSize) {
+		if (threadCount <= 0 || blockSize < 32 * 1024)
+			throw new IllegalArgumentException();
+
+		this.deflateThreadCount = threadCount;
+		this.deflateBlockSize = blockSize;
+		this.deflateExecutor = null;
+		return this;
+	}
+
+    /**
+     * Deflate the entries on an executor of the caller, like parallelDeflate(int, int). The
+	 * executor may be shared by the writers of many documents: the writers do not shut it down,
+	 * the caller does when the last writer is closed.
+     * @param executor the executor
+     * @param threadCount the number of threads of the executor
+     * @param blockSize the size of a block, at least 32 kB
+     * @return this for fluent style
+     */
+	public ZipUTF8WriterBuilder parallelDeflate(final ExecutorService executor,
+												final int threadCount, final int blockSize) {
+		if (executor == null || threadCount <= 0 || blockSize < 32 * 1024)
+			throw new IllegalArgumentException();
+
+		this.deflateThreadCount = threadCount;
+		this.deflateBlockSize = blockSize;
+		this.deflateExecutor = executor;
+		return this;
+	}
+
+    /**
+     * Take the Deflaters and the writer buffer from a pool, and release them when the writer is
+	 * closed. Implies the direct encoder (see directEncoder()): the entries are deflated on the
+	 * calling thread, unless parallelDeflate is set. The writer buffer has the size of the buffers
+	 * of the pool.
+     * @param pool the pool
+     * @return this for fluent style
+     */
+	public ZipUTF8WriterBuilder resourcePool(final WriterResourcePool pool) {
+		this.resourcePool = pool;
+		return this;
+	}
+
     /**
      * Set the default buffer size for the writer
      * @return this for fluent style
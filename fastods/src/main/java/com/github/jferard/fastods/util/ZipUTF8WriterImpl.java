@@ -67,6 +67,10 @@ public class ZipUTF8WriterImpl
 	@Override
 	public Appendable append(final CharSequence csq, final int start, final int end)
 			throws IOException {
+		if (csq instanceof String) { // Writer.append would create a sub sequence
+			this.writer.write((String) csq, start, end - start);
+			return this.writer;
+		}
 		return this.writer.append(csq, start, end);
 	}
 
@@ -97,6 +101,14 @@ public class ZipUTF8WriterImpl
 		this.zipStream.putNextEntry(entry);
 	}
 
+	@Override
+	public void writeEntry(final PrecompressedEntry entry) throws IOException {
+		this.writer.flush();
+		this.zipStream.putNextEntry(new ZipEntry(entry.getName()));
+		this.zipStream.write(entry.getData(), 0, entry.getSize());
+		this.zipStream.closeEntry();
+	}
+
 	@Override
 	public void setComment(final String comment) {
 		this.zipStream.setComment(comment);
@@ -106,4 +118,10 @@ public class ZipUTF8WriterImpl
 	public void write(final String str) throws IOException {
 		this.writer.write(str);
 	}
+
+	@Override
+	public void write(final byte[] utf8Bytes, final int off, final int len) throws IOException {
+		this.writer.flush();
+		this.zipStream.write(utf8Bytes, off, len);
+	}
 }
@@ -32,6 +32,7 @@ import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 import com.github.jferard.fastods.util.ZipUTF8WriterBuilder;
 import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
 import org.easymock.EasyMock;
 import org.junit.After;
 import org.junit.Assert;
@@ -131,6 +132,34 @@ public class AnonymousOdsFileWriterTest {
                 "Configurations2/statusbar/"), names);
     }
 
+    @Test
+    public final void testSaveMinimalPackage() throws IOException {
+        this.odsFactory.minimalPackage();
+        final AnonymousOdsFileWriter writer = this.odsFactory.createWriter();
+
+        PowerMock.resetAll();
+        PowerMock.replayAll();
+        writer.save(this.os);
+
+        PowerMock.verifyAll();
+        final InputStream is = new ByteArrayInputStream(this.os.toByteArray());
+        final ZipInputStream zis = new ZipInputStream(is);
+        ZipEntry entry = zis.getNextEntry();
+        final Set<String> names = new HashSet<String>();
+        String manifest = null;
+        while (entry != null) {
+            names.add(entry.getName());
+            if (entry.getName().equals("META-INF/manifest.xml"))
+                manifest = new String(ByteStreams.toByteArray(zis), ZipUTF8Writer.UTF_8);
+            entry = zis.getNextEntry();
+        }
+
+        Assert.assertEquals(Sets.newHashSet("mimetype", "META-INF/manifest.xml", "meta.xml",
+                "styles.xml", "content.xml", "settings.xml"), names);
+        Assert.assertTrue(manifest.contains("manifest:full-path=\"content.xml\""));
+        Assert.assertFalse(manifest.contains("Configurations2"));
+    }
+
     @Test
     public final void testSaveWriter() throws IOException {
         final ZipUTF8WriterBuilder zb = PowerMock.createMock(ZipUTF8WriterBuilder.class);
@@ -248,4 +277,4 @@ public class AnonymousOdsFileWriterTest {
 
         PowerMock.verifyAll();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
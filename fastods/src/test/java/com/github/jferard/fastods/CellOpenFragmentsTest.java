@@ -0,0 +1,63 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.XMLUtil;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class CellOpenFragmentsTest {
+    private XMLUtil util;
+    private CellOpenFragments fragments;
+
+    @Before
+    public void setUp() {
+        this.util = XMLUtil.create();
+        this.fragments = new CellOpenFragments();
+    }
+
+    @Test
+    public final void testNoStyle() throws IOException {
+        Assert.assertEquals("<table:table-cell",
+                this.fragments.get(this.util, false, null, null));
+        Assert.assertEquals("<table:covered-table-cell office:value-type=\"float\" office:value=\"",
+                this.fragments.get(this.util, true, null, TableCell.Type.FLOAT));
+    }
+
+    @Test
+    public final void testStyle() throws IOException {
+        final TableCellStyle style = TableCellStyle.builder("s1").build();
+        final String fragment = this.fragments.get(this.util, false, style, TableCell.Type.STRING);
+        Assert.assertEquals("<table:table-cell table:style-name=\"s1\" " +
+                "office:value-type=\"string\" office:string-value=\"", fragment);
+        Assert.assertSame(fragment,
+                this.fragments.get(this.util, false, style, TableCell.Type.STRING));
+        Assert.assertEquals("<table:table-cell table:style-name=\"s1\"",
+                this.fragments.get(this.util, false, style, null));
+    }
+}
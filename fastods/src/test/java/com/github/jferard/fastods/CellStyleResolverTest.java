@@ -0,0 +1,133 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.datastyle.DataStyle;
+import com.github.jferard.fastods.datastyle.DataStyles;
+import com.github.jferard.fastods.datastyle.DataStylesBuilder;
+import com.github.jferard.fastods.odselement.StylesContainer;
+import com.github.jferard.fastods.style.TableCellStyle;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.util.Locale;
+
+public class CellStyleResolverTest {
+    private StylesContainer stc;
+    private Table table;
+    private CellStyleResolver resolver;
+    private DataStyle floatDataStyle;
+    private TableCellStyle tcs;
+
+    @Before
+    public void setUp() {
+        this.stc = PowerMock.createMock(StylesContainer.class);
+        this.table = PowerMock.createMock(Table.class);
+        this.resolver = new CellStyleResolver(this.stc);
+        final DataStyles ds = DataStylesBuilder.create(Locale.US).build();
+        this.floatDataStyle = ds.getNumberDataStyle();
+        this.tcs = TableCellStyle.builder("s1").build();
+    }
+
+    @Test
+    public final void testResolveOnce() {
+        final TableCellStyle childStyle = TableCellStyle.builder("s2").build();
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.stc.addDataStyle(this.floatDataStyle)).andReturn(true);
+        EasyMock.expect(this.stc.addChildCellStyle(this.tcs, this.floatDataStyle))
+                .andReturn(childStyle);
+
+        PowerMock.replayAll();
+        Assert.assertSame(childStyle, this.resolver.resolve(this.tcs, this.floatDataStyle));
+        Assert.assertSame(childStyle, this.resolver.resolve(this.tcs, this.floatDataStyle));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public final void testResolveForColumn() {
+        final TableCellStyle childStyle = TableCellStyle.builder("s2").build();
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.table.findDefaultCellStyle(20)).andReturn(this.tcs);
+        EasyMock.expect(this.stc.addDataStyle(this.floatDataStyle)).andReturn(true);
+        EasyMock.expect(this.stc.addChildCellStyle(this.tcs, this.floatDataStyle))
+                .andReturn(childStyle);
+
+        PowerMock.replayAll();
+        for (int i = 0; i < 3; i++)
+            Assert.assertSame(childStyle,
+                    this.resolver.resolveForColumn(this.table, 20, this.floatDataStyle));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public final void testClearColumn() {
+        final TableCellStyle childStyle = TableCellStyle.builder("s2").build();
+        final TableCellStyle otherStyle = TableCellStyle.builder("s3").build();
+        final TableCellStyle otherChildStyle = TableCellStyle.builder("s4").build();
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.table.findDefaultCellStyle(2)).andReturn(this.tcs);
+        EasyMock.expect(this.stc.addDataStyle(this.floatDataStyle)).andReturn(true);
+        EasyMock.expect(this.stc.addChildCellStyle(this.tcs, this.floatDataStyle))
+                .andReturn(childStyle);
+        EasyMock.expect(this.table.findDefaultCellStyle(2)).andReturn(otherStyle);
+        EasyMock.expect(this.stc.addDataStyle(this.floatDataStyle)).andReturn(false);
+        EasyMock.expect(this.stc.addChildCellStyle(otherStyle, this.floatDataStyle))
+                .andReturn(otherChildStyle);
+
+        PowerMock.replayAll();
+        Assert.assertSame(childStyle,
+                this.resolver.resolveForColumn(this.table, 2, this.floatDataStyle));
+        this.resolver.clearColumn(2);
+        Assert.assertSame(otherChildStyle,
+                this.resolver.resolveForColumn(this.table, 2, this.floatDataStyle));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public final void testSibling() {
+        final TableCellStyle styleWithDataStyle = TableCellStyle.builder("s2")
+                .parentCellStyle(this.tcs).dataStyle(this.floatDataStyle).build();
+        final TableCellStyle siblingStyle = TableCellStyle.builder("s3").build();
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.stc.addDataStyle(this.floatDataStyle)).andReturn(true);
+        EasyMock.expect(this.stc.addChildCellStyle(this.tcs, this.floatDataStyle))
+                .andReturn(siblingStyle);
+
+        PowerMock.replayAll();
+        Assert.assertSame(siblingStyle,
+                this.resolver.resolve(styleWithDataStyle, this.floatDataStyle));
+
+        PowerMock.verifyAll();
+    }
+}
@@ -21,6 +21,7 @@
 package com.github.jferard.fastods;
 
 import org.junit.After;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 import org.powermock.api.easymock.PowerMock;
@@ -132,4 +133,56 @@ public class CellValueTest {
         PowerMock.replayAll();
         v.setToCell(this.cell);
     }
-}
\ No newline at end of file
+
+    @Test
+    public final void testJavaTimeDurationFromObject() throws Exception {
+        final Object duration = CellValueTest.javaTime("java.time.Duration", "ofMillis", 1500L);
+        final CellValue v = CellValue.fromObject(duration);
+
+        // PLAY
+        this.cell.setTimeValue(1500L);
+
+        PowerMock.replayAll();
+        v.setToCell(this.cell);
+    }
+
+    @Test
+    public final void testJavaTimeInstantFromObject() throws Exception {
+        final Object instant = CellValueTest.javaTime("java.time.Instant", "ofEpochMilli",
+                1234567891011L);
+        final CellValue v = CellValue.fromObject(instant);
+
+        // PLAY
+        this.cell.setDateValue(new Date(1234567891011L));
+
+        PowerMock.replayAll();
+        v.setToCell(this.cell);
+    }
+
+    @Test
+    public final void testJavaTimeLocalDateFromObject() throws Exception {
+        final Object localDate = CellValueTest.javaTime("java.time.LocalDate", "ofEpochDay", 2L);
+        final CellValue v = CellValue.fromObject(localDate);
+
+        // PLAY
+        this.cell.setDateValue(new Date(2L * 24 * 60 * 60 * 1000));
+
+        PowerMock.replayAll();
+        v.setToCell(this.cell);
+    }
+
+    /**
+     * @return the result of a static method with a long parameter, if java.time is available
+     */
+    private static Object javaTime(final String className, final String methodName,
+                                   final long param) throws Exception {
+        final Class<?> clazz;
+        try {
+            clazz = Class.forName(className);
+        } catch (final ClassNotFoundException e) {
+            Assume.assumeNoException(e); // Java 6 or 7
+            return null;
+        }
+        return clazz.getMethod(methodName, long.class).invoke(null, param);
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.datastyle.DataStyle;
+import com.github.jferard.fastods.datastyle.DataStyles;
+import com.github.jferard.fastods.datastyle.DataStylesBuilder;
+import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.odselement.StylesContainer;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.PositionUtil;
+import com.github.jferard.fastods.util.StringPool;
+import com.github.jferard.fastods.util.WriteUtil;
+import com.github.jferard.fastods.util.XMLUtil;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Locale;
+
+public class CompactCellsTest {
+    private static abstract class Filler {
+        abstract void fill(TableCellWalker walker) throws IOException;
+    }
+
+    private DataStyles ds;
+    private WriteUtil writeUtil;
+    private XMLUtil xmlUtil;
+
+    @Before
+    public void setUp() {
+        this.writeUtil = WriteUtil.create();
+        this.xmlUtil = XMLUtil.create();
+        this.ds = DataStylesBuilder.create(Locale.US).build();
+    }
+
+    @Test
+    public final void testValues() throws IOException {
+        this.assertSameXML(new Filler() {
+            @Override
+            void fill(final TableCellWalker walker) {
+                walker.setBooleanValue(true);
+                walker.next();
+                walker.setFloatValue(10);
+                walker.next();
+                walker.setFloatValue(10.5f);
+                walker.next();
+                walker.setFloatValue(new BigDecimal("12.75"));
+                walker.next();
+                walker.setPercentageValue(7);
+                walker.next();
+                walker.setPercentageValue(0.25f);
+                walker.next();
+                walker.setPercentageValue(new BigDecimal("0.5"));
+                walker.next();
+                walker.setDateValue(new Date(1234567891011L));
+                walker.next();
+                walker.setTimeValue(3723004L);
+                walker.next();
+                walker.setStringValue("a&b<c>");
+                walker.next();
+                walker.setVoidValue();
+                walker.next();
+                walker.setCellValue(CellValue.fromObject(5));
+            }
+        });
+    }
+
+    @Test
+    public final void testPrimitiveValues() throws IOException {
+        final Filler filler = new Filler() {
+            @Override
+            void fill(final TableCellWalker walker) throws IOException {
+                walker.setFloatValue(12.75);
+                walker.next();
+                walker.setLongValue(123456789012L);
+                walker.next();
+                walker.setPercentageValue(0.125);
+                walker.next();
+                walker.setCurrencyValue(-3.5, "EUR");
+                walker.next();
+                walker.setFloatValue(0.1);
+                walker.setTooltip("tooltip"); // upgrade to an object
+            }
+        };
+        this.assertSameXML(filler);
+
+        final TableRow row = this.createRow(true);
+        filler.fill(row.getWalker());
+        final String xml = this.toXML(row);
+        Assert.assertTrue(xml.contains("office:value=\"12.75\""));
+        Assert.assertTrue(xml.contains("office:value=\"123456789012\""));
+        Assert.assertTrue(xml.contains("office:value=\"0.125\""));
+        Assert.assertTrue(xml.contains("office:value=\"-3.5\""));
+        Assert.assertTrue(xml.contains("office:value=\"0.1\""));
+    }
+
+    @Test
+    public final void testEmptyCells() throws IOException {
+        this.assertSameXML(new Filler() {
+            @Override
+            void fill(final TableCellWalker walker) {
+                walker.to(3);
+                walker.setFloatValue(1);
+                walker.to(6);
+                walker.setStyle(TableCellStyle.builder("s").build());
+                walker.to(10);
+                walker.setStringValue("x");
+                walker.to(15);
+                Assert.assertFalse(walker.hasValue());
+            }
+        });
+    }
+
+    @Test
+    public final void testStyles() throws IOException {
+        final TableCellStyle style = TableCellStyle.builder("s").fontWeightBold().build();
+        final DataStyle percentageDataStyle = this.ds.getPercentageDataStyle();
+        this.assertSameXML(new Filler() {
+            @Override
+            void fill(final TableCellWalker walker) {
+                walker.setStyle(style);
+                walker.setFloatValue(1);
+                walker.next();
+                walker.setFloatValue(2);
+                walker.setStyle(style);
+                walker.next();
+                walker.setStringValue("x");
+                walker.setStyle(style);
+                walker.next();
+                walker.setDataStyle(percentageDataStyle);
+            }
+        });
+    }
+
+    @Test
+    public final void testObjectCells() throws IOException {
+        this.assertSameXML(new Filler() {
+            @Override
+            void fill(final TableCellWalker walker) throws IOException {
+                walker.setFloatValue(1);
+                walker.setTooltip("tooltip");
+                walker.next();
+                walker.setCurrencyValue(10, "EUR");
+                walker.next();
+                walker.setStringValue("x");
+                walker.setColumnsSpanned(2);
+                walker.next();
+                walker.next();
+                walker.setText(Text.content("text"));
+                walker.setFloatValue(3.5f);
+                walker.next();
+                walker.setFormula("=1+1");
+            }
+        });
+    }
+
+    @Test
+    public final void testColumnCount() throws IOException {
+        final TableRow row = this.createRow(true);
+        final TableCellWalker walker = row.getWalker();
+        Assert.assertEquals(0, row.getColumnCount());
+        walker.to(2);
+        walker.setFloatValue(1);
+        Assert.assertEquals(3, row.getColumnCount());
+        row.getOrCreateCell(40).setStringValue("far");
+        Assert.assertEquals(41, row.getColumnCount());
+        Assert.assertTrue(row.getOrCreateCell(2).hasValue());
+    }
+
+    @Test
+    public final void testStyleIds() {
+        final CompactCellStyles cellStyles = new CompactCellStyles();
+        final TableCellStyle style1 = TableCellStyle.builder("s1").build();
+        final TableCellStyle style2 = TableCellStyle.builder("s2").build();
+        Assert.assertEquals(0, cellStyles.getId(null));
+        Assert.assertEquals(1, cellStyles.getId(style1));
+        Assert.assertEquals(2, cellStyles.getId(style2));
+        Assert.assertEquals(1, cellStyles.getId(style1));
+        Assert.assertSame(style2, cellStyles.get(2));
+        Assert.assertNull(cellStyles.get(0));
+    }
+
+    @Test
+    public final void testStringPool() throws IOException {
+        final TableConfig config = TableConfig.builder().compactRows().stringPool().build();
+        final OdsElements odsElements = OdsElements
+                .create(PositionUtil.create(), this.xmlUtil, this.writeUtil, this.ds, config);
+        final Table table = odsElements.addTableToContent("t", 10, 4);
+        final TableRow row = table.nextRow();
+        final TableRow row2 = table.nextRow();
+        final TableCellWalker walker = row.getWalker();
+        walker.setStringValue("a&b<c>");
+        walker.next();
+        walker.setVoidValue();
+        row2.getWalker().setStringValue("a&b<c>");
+        final TableCellWalker walker2 = row2.getWalker();
+        walker2.next();
+        walker2.setStringValue("d");
+        walker2.setTooltip("tooltip"); // upgrade to an object
+
+        final TableRow expectedRow = this.createRow(false);
+        final TableCellWalker expectedWalker = expectedRow.getWalker();
+        expectedWalker.setStringValue("a&b<c>");
+        expectedWalker.next();
+        expectedWalker.setVoidValue();
+        Assert.assertEquals(this.toXML(expectedRow), this.toXML(row));
+
+        final StringPool pool = odsElements.getStringPool();
+        Assert.assertEquals(2, pool.size());
+        Assert.assertEquals(1, pool.getHits());
+        Assert.assertEquals(2, pool.getMisses());
+        Assert.assertTrue(this.toXML(row2).contains("office:string-value=\"d\""));
+    }
+
+    @Test
+    public final void testSetStringAgain() throws IOException {
+        this.assertSameXML(new Filler() {
+            @Override
+            void fill(final TableCellWalker walker) {
+                for (int i = 0; i < 100; i++)
+                    walker.setStringValue("v" + i);
+                walker.next();
+                walker.setStringValue("a");
+                walker.setVoidValue();
+                walker.setFloatValue(new BigDecimal("1.5"));
+            }
+        });
+
+        final CompactCells cells = new CompactCells(this.writeUtil, this.xmlUtil,
+                new CompactCellStyles(), null, new CellOpenFragments(), 1);
+        cells.setString(0, CompactCells.STRING, "a");
+        cells.setString(0, CompactCells.STRING, "b");
+        cells.setString(1, CompactCells.STRING, "c");
+        cells.setString(0, CompactCells.VOID, "");
+        Assert.assertEquals("", cells.getValueAsString(0));
+        Assert.assertEquals("c", cells.getValueAsString(1));
+    }
+
+    @Test
+    public final void testCompactTableCellXML() throws IOException {
+        final StylesContainer stylesContainer = PowerMock.createMock(StylesContainer.class);
+        final TableRow row = this.createRow(true);
+        final CompactCells cells = new CompactCells(this.writeUtil, this.xmlUtil,
+                new CompactCellStyles(), null, new CellOpenFragments(), 4);
+        final CompactTableCell compactCell = new CompactTableCell(row, cells, stylesContainer);
+        final TableRow expectedRow = this.createRow(false);
+
+        compactCell.at(0).setStringValue("a&b");
+        expectedRow.getOrCreateCell(0).setStringValue("a&b");
+        compactCell.at(1).setVoidValue();
+        expectedRow.getOrCreateCell(1).setVoidValue();
+        compactCell.at(2);
+        expectedRow.getOrCreateCell(2);
+
+        PowerMock.replayAll();
+        for (int c = 0; c < 3; c++) {
+            final StringBuilder expected = new StringBuilder();
+            expectedRow.getOrCreateCell(c).appendXMLToTableRow(this.xmlUtil, expected);
+            final StringBuilder actual = new StringBuilder();
+            compactCell.at(c).appendXMLToTableRow(this.xmlUtil, actual);
+            Assert.assertEquals(expected.toString(), actual.toString());
+        }
+        PowerMock.verifyAll();
+    }
+
+    private void assertSameXML(final Filler filler) throws IOException {
+        final TableRow row = this.createRow(false);
+        filler.fill(row.getWalker());
+        final TableRow compactRow = this.createRow(true);
+        filler.fill(compactRow.getWalker());
+
+        Assert.assertEquals(this.toXML(row), this.toXML(compactRow));
+    }
+
+    private TableRow createRow(final boolean compact) throws IOException {
+        final TableConfig config = compact ? TableConfig.builder().compactRows().build() : TableConfig.DEFAULT;
+        final OdsElements odsElements = OdsElements
+                .create(PositionUtil.create(), this.xmlUtil, this.writeUtil, this.ds, config);
+        return odsElements.addTableToContent("t", 10, 4).nextRow();
+    }
+
+    private String toXML(final TableRow row) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        row.appendXMLToTable(this.xmlUtil, sb);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.zip.ZipFile;
+
+public class ConcurrentTablesTest {
+    private static final int ROW_COUNT = 2000;
+
+    @Test
+    public final void testConcurrentTables() throws Exception {
+        final File file = File.createTempFile("fastods-concurrent", ".ods");
+        try {
+            final OdsFactory factory = OdsFactory.create(Logger.getLogger("test"), Locale.US)
+                    .tableConfig(TableConfig.builder().rowFlushPolicy(RowFlushPolicies.rows(100))
+                            .concurrentTables(1000).build());
+            final NamedOdsFileWriter writer = factory.createWriter(file);
+            final NamedOdsDocument document = writer.document();
+
+            final List<Thread> threads = new ArrayList<Thread>();
+            final List<Throwable> errors = new ArrayList<Throwable>();
+            for (int t = 0; t < 3; t++) {
+                final Table table = document.addTable("t" + t);
+                final int tableIndex = t;
+                threads.add(new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            for (int r = 0; r < ROW_COUNT; r++) {
+                                final TableCellWalker walker = table.nextRow().getWalker();
+                                walker.setFloatValue(r);
+                                walker.next();
+                                walker.setPercentageValue(0.5);
+                                walker.next();
+                                walker.setStringValue("t" + tableIndex + "<" + r + ">");
+                            }
+                            if (tableIndex != 2) table.flush(); // t2 is flushed by save
+                        } catch (final Throwable e) {
+                            synchronized (errors) {
+                                errors.add(e);
+                            }
+                        }
+                    }
+                }));
+            }
+            for (final Thread thread : threads)
+                thread.start();
+            for (final Thread thread : threads)
+                thread.join();
+            Assert.assertEquals(new ArrayList<Throwable>(), errors);
+
+            document.save();
+            writer.close();
+
+            final ZipFile zipFile = new ZipFile(file);
+            try {
+                final Document content = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                        .parse(zipFile.getInputStream(zipFile.getEntry("content.xml")));
+                final NodeList tables = content.getElementsByTagName("table:table");
+                Assert.assertEquals(3, tables.getLength());
+                for (int t = 0; t < 3; t++) {
+                    final Element table = (Element) tables.item(t);
+                    Assert.assertEquals("t" + t, table.getAttribute("table:name"));
+                    final NodeList rows = table.getElementsByTagName("table:table-row");
+                    Assert.assertEquals(ROW_COUNT, rows.getLength());
+                    Assert.assertEquals("t" + t + "<" + (ROW_COUNT - 1) + ">",
+                            ((Element) rows.item(ROW_COUNT - 1).getLastChild())
+                                    .getAttribute("office:string-value"));
+                }
+            } finally {
+                zipFile.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
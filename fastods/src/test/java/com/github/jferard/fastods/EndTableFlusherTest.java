@@ -23,6 +23,7 @@ package com.github.jferard.fastods;
 
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
+import org.easymock.EasyMock;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -72,8 +73,9 @@ public class EndTableFlusherTest {
         final List<TableRow> rows = Arrays.asList(r1, r2);
 
         // play
-        r1.appendXMLToTable(this.util, this.w);
-        r2.appendXMLToTable(this.util, this.w);
+        EasyMock.expect(r2.isRepeatOf(r1)).andReturn(false);
+        r1.appendXMLToTable(this.util, this.w, 1);
+        r2.appendXMLToTable(this.util, this.w, 1);
         this.appender.appendPostamble(this.w);
 
         PowerMock.replayAll();
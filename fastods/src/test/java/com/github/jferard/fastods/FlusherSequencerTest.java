@@ -0,0 +1,110 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.ByteChunkPool;
+import com.github.jferard.fastods.util.UTF8ChunkAppender;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
+import java.util.concurrent.FutureTask;
+
+public class FlusherSequencerTest {
+    private NamedOdsFileWriter observer;
+
+    @Before
+    public void setUp() {
+        this.observer = PowerMock.createMock(NamedOdsFileWriter.class);
+    }
+
+    private static FutureTask<UTF8ChunkAppender> task(final String s) {
+        return new FutureTask<UTF8ChunkAppender>(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, UTF8ChunkAppender.create(ByteChunkPool.create()));
+    }
+
+    @Test
+    public final void testOrder() throws IOException {
+        final FlusherSequencer sequencer = new FlusherSequencer(10);
+        final OdsFlusher begin = PowerMock.createMock(OdsFlusher.class);
+        final FutureTask<UTF8ChunkAppender> task1 = FlusherSequencerTest.task("1");
+        final FutureTask<UTF8ChunkAppender> task2 = FlusherSequencerTest.task("2");
+        final ParallelRowsFlusher block1 = new ParallelRowsFlusher(task1);
+        final ParallelRowsFlusher block2 = new ParallelRowsFlusher(task2);
+        final OdsFlusher end = PowerMock.createMock(OdsFlusher.class);
+
+        // the first block is not serialized: nothing after it can be written
+        this.observer.update(begin);
+        PowerMock.replayAll();
+        sequencer.add(this.observer, begin);
+        sequencer.add(this.observer, block1);
+        task2.run();
+        sequencer.add(this.observer, block2);
+        PowerMock.verifyAll();
+
+        // the first block is serialized
+        PowerMock.resetAll();
+        this.observer.update(block1);
+        this.observer.update(block2);
+        this.observer.update(end);
+        PowerMock.replayAll();
+        task1.run();
+        sequencer.add(this.observer, end);
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public final void testMaxPending() throws IOException {
+        final FlusherSequencer sequencer = new FlusherSequencer(2);
+        final ParallelRowsFlusher block1 = new ParallelRowsFlusher(FlusherSequencerTest.task("1"));
+        final ParallelRowsFlusher block2 = new ParallelRowsFlusher(FlusherSequencerTest.task("2"));
+        final ParallelRowsFlusher block3 = new ParallelRowsFlusher(FlusherSequencerTest.task("3"));
+
+        this.observer.update(block1); // not serialized, but too many blocks
+        PowerMock.replayAll();
+        sequencer.add(this.observer, block1);
+        sequencer.add(this.observer, block2);
+        sequencer.add(this.observer, block3);
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public final void testDrain() throws IOException {
+        final FlusherSequencer sequencer = new FlusherSequencer(10);
+        final ParallelRowsFlusher block1 = new ParallelRowsFlusher(FlusherSequencerTest.task("1"));
+        final OdsFlusher end = PowerMock.createMock(OdsFlusher.class);
+
+        this.observer.update(block1);
+        this.observer.update(end);
+        PowerMock.replayAll();
+        sequencer.add(this.observer, block1);
+        sequencer.add(this.observer, end);
+        sequencer.drain(this.observer);
+        PowerMock.verifyAll();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.style.TableColumnStyle;
+import com.github.jferard.fastods.util.SimpleLength;
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class LateStylesTest {
+    private static final int ROW_COUNT = 1000;
+
+    @Test
+    public final void testLateStyles() throws Exception {
+        final File file = File.createTempFile("fastods-late-styles", ".ods");
+        try {
+            final OdsFactory factory = OdsFactory.create(Logger.getLogger("test"), Locale.US)
+                    .tableConfig(TableConfig.builder().rowFlushPolicy(RowFlushPolicies.rows(100))
+                            .build()).lateStyles();
+            final NamedOdsFileWriter writer = factory.createWriter(file);
+            final NamedOdsDocument document = writer.document();
+            final Table table = document.addTable("t"); // content.xml is started
+            table.setColumnStyle(1, TableColumnStyle.builder("co-late")
+                    .columnWidth(SimpleLength.cm(5)).build());
+            final TableCellStyle lateCellStyle = TableCellStyle.builder("late").hidden()
+                    .fontWrap(true).build();
+            for (int r = 0; r < ROW_COUNT; r++) {
+                final TableCellWalker walker = table.nextRow().getWalker();
+                walker.setFloatValue(r);
+                if (r == ROW_COUNT - 1) walker.setStyle(lateCellStyle);
+            }
+            document.save();
+            writer.close();
+
+            final ZipFile zipFile = new ZipFile(file);
+            try {
+                final List<String> names = new ArrayList<String>();
+                final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                while (entries.hasMoreElements()) {
+                    final String name = entries.nextElement().getName();
+                    if (name.endsWith(".xml") && !name.contains("/")) names.add(name);
+                }
+                Assert.assertEquals(Arrays.asList("meta.xml", "content.xml", "styles.xml",
+                        "settings.xml"), names);
+
+                final Document content = this.parse(zipFile, "content.xml");
+                final Element contentAutomaticStyles = (Element) content
+                        .getElementsByTagName("office:automatic-styles").item(0);
+                Assert.assertFalse(this.containsStyle(contentAutomaticStyles, "late"));
+                final NodeList rows = content.getElementsByTagName("table:table-row");
+                Assert.assertEquals(ROW_COUNT, rows.getLength());
+                Assert.assertEquals("late-_-float-data", ((Element) rows.item(ROW_COUNT - 1).getFirstChild())
+                        .getAttribute("table:style-name"));
+
+                final Document styles = this.parse(zipFile, "styles.xml");
+                final Element commonStyles = (Element) styles
+                        .getElementsByTagName("office:styles").item(0);
+                Assert.assertTrue(this.containsStyle(commonStyles, "late"));
+                Assert.assertTrue(this.containsStyle(commonStyles, "late-_-float-data"));
+                Assert.assertTrue(this.containsStyle(commonStyles, "co-late"));
+            } finally {
+                zipFile.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private Document parse(final ZipFile zipFile, final String name) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(zipFile.getInputStream(zipFile.getEntry(name)));
+    }
+
+    private boolean containsStyle(final Element element, final String name) {
+        final NodeList styles = element.getElementsByTagName("style:style");
+        for (int i = 0; i < styles.getLength(); i++) {
+            if (name.equals(((Element) styles.item(i)).getAttribute("style:name"))) return true;
+        }
+        return false;
+    }
+}
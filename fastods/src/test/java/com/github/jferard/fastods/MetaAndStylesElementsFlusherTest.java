@@ -43,12 +43,13 @@ public class MetaAndStylesElementsFlusherTest {
 
         // play
         PowerMock.resetAll();
-        odsElements.writeMeta(util, w);
-        odsElements.writeStyles(util, w);
-        contentElement.writePreamble(util, w);
+        odsElements.writeMeta(w, "meta");
+        odsElements.writeStyles(w, "styles");
+        contentElement.writePreamble(w, "automatic styles");
 
         PowerMock.replayAll();
-        final MetaAndStylesElementsFlusher flusher = new MetaAndStylesElementsFlusher(odsElements, contentElement);
+        final MetaAndStylesElementsFlusher flusher = new MetaAndStylesElementsFlusher(odsElements,
+                contentElement, "meta", "styles", "automatic styles");
         flusher.flushInto(util, w);
 
         PowerMock.verifyAll();
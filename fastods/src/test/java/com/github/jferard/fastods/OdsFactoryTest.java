@@ -21,16 +21,27 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.util.ChannelOutputStream;
+import com.github.jferard.fastods.util.WriterResourcePool;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.powermock.api.easymock.PowerMock;
 
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
 import java.util.Locale;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.ZipFile;
 
 /**
  * Created by jferard on 09/05/17.
@@ -66,6 +77,99 @@ public class OdsFactoryTest {
         Assert.assertTrue(this.file.length() > 0);
     }
 
+    @Test
+    public void createWriterWithResourcePool() throws Exception {
+        final WriterResourcePool pool = WriterResourcePool.create();
+        this.odsFactory.resourcePool(pool);
+        PowerMock.resetAll();
+
+        PowerMock.replayAll();
+        for (int i = 0; i < 2; i++) {
+            final NamedOdsFileWriter writer = this.odsFactory.createWriter(this.file);
+            final NamedOdsDocument document = writer.document();
+            document.addTable("t" + i).getRow(0).getOrCreateCell(0).setStringValue("v");
+            document.save();
+            writer.close();
+
+            final ZipFile zipFile = new ZipFile(this.file);
+            try {
+                Assert.assertNotNull(zipFile.getEntry("content.xml"));
+            } finally {
+                zipFile.close();
+            }
+        }
+
+        PowerMock.verifyAll();
+        Assert.assertEquals(1, pool.getXMLUtilAllocations());
+        Assert.assertEquals(1, pool.getXMLUtilReuses());
+        Assert.assertEquals(1, pool.getDeflaterAllocations());
+        Assert.assertEquals(1, pool.getDeflaterReuses());
+        Assert.assertEquals(1, pool.getPooledDeflaterCount());
+        Assert.assertEquals(2, pool.getBufferPool().getReuses()); // writer and deflater buffers
+    }
+
+    @Test
+    public void createWriterWithChannel() throws Exception {
+        final WriterResourcePool pool = WriterResourcePool.create();
+        this.odsFactory.resourcePool(pool);
+        PowerMock.resetAll();
+
+        PowerMock.replayAll();
+        final FileChannel channel = new RandomAccessFile(this.file, "rw").getChannel();
+        final NamedOdsFileWriter writer = this.odsFactory.createWriter(channel, 1024 * 1024);
+        final NamedOdsDocument document = writer.document();
+        document.addTable("t").getRow(0).getOrCreateCell(0).setStringValue("v");
+        document.save();
+        writer.close();
+
+        PowerMock.verifyAll();
+        Assert.assertTrue(this.file.length() < 1024 * 1024);
+        final ZipFile zipFile = new ZipFile(this.file);
+        try {
+            Assert.assertNotNull(zipFile.getEntry("content.xml"));
+        } finally {
+            zipFile.close();
+        }
+        Assert.assertEquals(ChannelOutputStream.BUFFER_COUNT, pool.getPooledDirectBufferCount());
+    }
+
+    @Test
+    public void createFlatWriter() throws Exception {
+        PowerMock.resetAll();
+
+        PowerMock.replayAll();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final NamedOdsFileWriter writer = this.odsFactory.createFlatWriter(out);
+        final NamedOdsDocument document = writer.document();
+        document.addTable("t1").getRow(0).getOrCreateCell(0).setStringValue("v1");
+        document.addTable("t2").getRow(1).getOrCreateCell(0).setStringValue("v2");
+        document.save();
+        writer.close();
+
+        PowerMock.verifyAll();
+        final String office = "urn:oasis:names:tc:opendocument:xmlns:office:1.0";
+        final String table = "urn:oasis:names:tc:opendocument:xmlns:table:1.0";
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        final Element root = factory.newDocumentBuilder()
+                .parse(new ByteArrayInputStream(out.toByteArray())).getDocumentElement();
+        Assert.assertEquals("document", root.getLocalName());
+        Assert.assertEquals("application/vnd.oasis.opendocument.spreadsheet",
+                root.getAttributeNS(office, "mimetype"));
+        for (final String name : new String[]{"meta", "settings", "styles", "automatic-styles",
+                "master-styles", "spreadsheet"})
+            Assert.assertEquals(1, root.getElementsByTagNameNS(office, name).getLength());
+
+        final NodeList tables = root.getElementsByTagNameNS(table, "table");
+        Assert.assertEquals(2, tables.getLength());
+        for (int i = 0; i < 2; i++) {
+            final Element t = (Element) tables.item(i);
+            Assert.assertEquals("t" + (i + 1), t.getAttributeNS(table, "name"));
+            final Element cell = (Element) t.getElementsByTagNameNS(table, "table-cell").item(0);
+            Assert.assertEquals("v" + (i + 1), cell.getAttributeNS(office, "string-value"));
+        }
+    }
+
     @Test
     public void createWriter1() throws Exception {
         PowerMock.resetAll();
@@ -76,6 +180,12 @@ public class OdsFactoryTest {
         PowerMock.verifyAll();
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void createWriterLateStylesAndConcurrentTables() throws Exception {
+        this.odsFactory.tableConfig(TableConfig.builder().concurrentTables().build()).lateStyles();
+        this.odsFactory.createWriter(this.file);
+    }
+
     @Test
     public void createWriterAdapter() throws Exception {
         PowerMock.resetAll();
@@ -105,4 +215,4 @@ public class OdsFactoryTest {
 
         PowerMock.verifyAll();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,280 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class OdsFileAsyncWriterTest {
+    private static class TestFlusher implements OdsFlusher {
+        private final boolean end;
+
+        TestFlusher(final boolean end) {
+            this.end = end;
+        }
+
+        @Override
+        public void flushInto(final XMLUtil xmlUtil, final ZipUTF8Writer writer) {
+        }
+
+        @Override
+        public boolean isEnd() {
+            return this.end;
+        }
+    }
+
+    /**
+     * A slow adaptee that records the flushers, and may fail.
+     */
+    private static class RecordingWriter implements NamedOdsFileWriter {
+        private final List<OdsFlusher> flushers =
+                Collections.synchronizedList(new ArrayList<OdsFlusher>());
+        private final int failAt;
+        private volatile boolean closed;
+
+        RecordingWriter(final int failAt) {
+            this.failAt = failAt;
+        }
+
+        @Override
+        public void close() {
+            Assert.assertFalse(this.closed);
+            this.closed = true;
+        }
+
+        @Override
+        public NamedOdsDocument document() {
+            return null;
+        }
+
+        @Override
+        public void save() {
+        }
+
+        @Override
+        public void update(final OdsFlusher flusher) throws IOException {
+            if (this.closed) throw new IOException("closed");
+            if (this.flushers.size() == this.failAt) throw new IOException("fail");
+            if (this.flushers.size() % 16 == 0) Thread.yield();
+            this.flushers.add(flusher);
+        }
+    }
+
+    @Test
+    public final void testOrderAndBackpressure() throws Exception {
+        final RecordingWriter adaptee = new RecordingWriter(-1);
+        final OdsFileAsyncWriter writer = OdsFileAsyncWriter
+                .create(adaptee, 2, OdsFileAsyncWriter.defaultThreadFactory());
+        final List<OdsFlusher> expected = new ArrayList<OdsFlusher>();
+        for (int i = 0; i < 1000; i++) {
+            final OdsFlusher flusher = new TestFlusher(false);
+            expected.add(flusher);
+            writer.update(flusher);
+        }
+        final OdsFlusher end = new TestFlusher(true);
+        expected.add(end);
+        writer.update(end);
+        writer.save(); // the end was sent: wait
+        Assert.assertTrue(writer.getFuture().isDone());
+        Assert.assertEquals(expected, adaptee.flushers);
+    }
+
+    @Test
+    public final void testUpdateAfterEnd() throws Exception {
+        final OdsFileAsyncWriter writer = OdsFileAsyncWriter
+                .create(new RecordingWriter(-1), 2, OdsFileAsyncWriter.defaultThreadFactory());
+        writer.update(new TestFlusher(true));
+        writer.getFuture().get();
+        try {
+            writer.update(new TestFlusher(false));
+            Assert.fail();
+        } catch (final IOException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public final void testFailure() throws Exception {
+        final OdsFileAsyncWriter writer = OdsFileAsyncWriter
+                .create(new RecordingWriter(3), 2, OdsFileAsyncWriter.defaultThreadFactory());
+        try {
+            for (int i = 0; i < 1000; i++)
+                writer.update(new TestFlusher(false));
+            Assert.fail();
+        } catch (final IOException e) {
+            Assert.assertEquals("fail", e.getMessage());
+        }
+        try {
+            writer.getFuture().get();
+            Assert.fail();
+        } catch (final ExecutionException e) {
+            Assert.assertEquals("fail", e.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public final void testClose() throws Exception {
+        final RecordingWriter adaptee = new RecordingWriter(-1);
+        final OdsFileAsyncWriter writer = OdsFileAsyncWriter
+                .create(adaptee, 2, OdsFileAsyncWriter.defaultThreadFactory());
+        writer.close();
+        Assert.assertTrue(writer.getFuture().isDone());
+        Assert.assertFalse(writer.getFuture().isCancelled());
+        Assert.assertTrue(adaptee.closed);
+    }
+
+    @Test
+    public final void testCloseWritesPendingFlushers() throws Exception {
+        final RecordingWriter adaptee = new RecordingWriter(-1);
+        final OdsFileAsyncWriter writer = OdsFileAsyncWriter
+                .create(adaptee, 4, OdsFileAsyncWriter.defaultThreadFactory());
+        for (int i = 0; i < 100; i++)
+            writer.update(new TestFlusher(false));
+        writer.close();
+        Assert.assertEquals(100, adaptee.flushers.size());
+        Assert.assertTrue(adaptee.closed);
+        try {
+            writer.update(new TestFlusher(false));
+            Assert.fail();
+        } catch (final IOException e) {
+            Assert.assertEquals("The writer is closed", e.getMessage());
+        }
+    }
+
+    @Test
+    public final void testCloseAfterEnd() throws Exception {
+        final RecordingWriter adaptee = new RecordingWriter(-1);
+        final OdsFileAsyncWriter writer = OdsFileAsyncWriter
+                .create(adaptee, 2, OdsFileAsyncWriter.defaultThreadFactory());
+        writer.update(new TestFlusher(true));
+        writer.close(); // waits for the end, that closes the file
+        Assert.assertEquals(1, adaptee.flushers.size());
+        Assert.assertFalse(adaptee.closed);
+    }
+
+    @Test
+    public final void testFactory() throws Exception {
+        final File file = File.createTempFile("fastods-async", ".ods");
+        Assert.assertTrue(file.delete());
+        try {
+            final OdsFileAsyncWriter writer = OdsFactory
+                    .create(Logger.getLogger("test"), Locale.US).createAsyncWriter(file);
+            final NamedOdsDocument document = writer.document();
+            final Table table = document.addTable("t");
+            for (int r = 0; r < 1000; r++) {
+                final TableCellWalker walker = table.nextRow().getWalker();
+                walker.setFloatValue(r);
+                walker.next();
+                walker.setStringValue("row " + r);
+            }
+            document.save();
+            writer.save();
+
+            final ZipFile zipFile = new ZipFile(file);
+            try {
+                final ZipEntry entry = zipFile.getEntry("content.xml");
+                Assert.assertNotNull(entry);
+                Assert.assertTrue(entry.getSize() > 1000 * 20);
+            } finally {
+                zipFile.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public final void testStringPoolWithTwoTables() throws Exception {
+        final File file = File.createTempFile("fastods-async", ".ods");
+        Assert.assertTrue(file.delete());
+        try {
+            final OdsFileAsyncWriter writer = OdsFactory.create(Logger.getLogger("test"), Locale.US)
+                    .tableConfig(TableConfig.builder().compactRows().stringPool().build())
+                    .createAsyncWriter(file);
+            final NamedOdsDocument document = writer.document();
+            final Table table1 = document.addTable("t1");
+            for (int r = 0; r < 20000; r++)
+                table1.nextRow().getWalker().setStringValue("a&" + r);
+            final Table table2 = document.addTable("t2"); // the writer thread ends the table 1...
+            for (int r = 0; r < 20000; r++) // ... while the pool grows
+                table2.nextRow().getWalker().setStringValue("b&" + r);
+            document.save();
+            writer.save();
+
+            final ZipFile zipFile = new ZipFile(file);
+            try {
+                final String content = this.read(zipFile, "content.xml");
+                Assert.assertEquals(20000, this.count(content, "office:string-value=\"a&amp;"));
+                Assert.assertEquals(20000, this.count(content, "office:string-value=\"b&amp;"));
+                Assert.assertEquals(0, this.count(content, "\"null\""));
+            } finally {
+                zipFile.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private String read(final ZipFile zipFile, final String name) throws IOException {
+        final Reader reader = new InputStreamReader(
+                zipFile.getInputStream(zipFile.getEntry(name)), "UTF-8");
+        try {
+            final StringBuilder sb = new StringBuilder();
+            final char[] buffer = new char[8192];
+            int count = reader.read(buffer);
+            while (count != -1) {
+                sb.append(buffer, 0, count);
+                count = reader.read(buffer);
+            }
+            return sb.toString();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private int count(final String text, final String sub) {
+        int count = 0;
+        int i = text.indexOf(sub);
+        while (i != -1) {
+            count++;
+            i = text.indexOf(sub, i + sub.length());
+        }
+        return count;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.ByteChunkPool;
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.XMLUtilPool;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+import java.util.zip.ZipFile;
+
+public class ParallelRowsFlusherTest {
+    @Test
+    public final void testFailure() throws IOException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final XMLUtilPool xmlUtilPool = XMLUtilPool.create(XMLUtil.create());
+            final TableRow row = PowerMock.createMock(TableRow.class);
+            final ZipUTF8Writer writer = PowerMock.createMock(ZipUTF8Writer.class);
+            row.appendXMLToTable(EasyMock.isA(XMLUtil.class), EasyMock.isA(Appendable.class),
+                    EasyMock.eq(1));
+            EasyMock.expectLastCall().andThrow(new IOException("fail"));
+            PowerMock.replayAll();
+            final ParallelRowsFlusher flusher =
+                    ParallelRowsFlusher.create(executor, Arrays.asList(row),
+                            ByteChunkPool.create(), xmlUtilPool);
+            try {
+                flusher.flushInto(XMLUtil.create(), writer);
+                Assert.fail();
+            } catch (final IOException e) {
+                Assert.assertEquals("fail", e.getMessage());
+            }
+            Assert.assertTrue(flusher.isDone());
+            Assert.assertEquals(1, xmlUtilPool.size()); // released
+            PowerMock.verifyAll();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public final void testSameContent() throws IOException {
+        final String expected = ParallelRowsFlusherTest.content(TableConfig.builder()
+                .rowFlushPolicy(RowFlushPolicies.rows(100)).build());
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final String actual = ParallelRowsFlusherTest.content(TableConfig.builder()
+                    .rowFlushPolicy(RowFlushPolicies.rows(100)).compactRows()
+                    .parallelSerialization(executor, 4).build());
+            Assert.assertEquals(expected, actual);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public final void testSameContentWithStringPool() throws IOException {
+        final String expected = ParallelRowsFlusherTest.content(TableConfig.builder()
+                .rowFlushPolicy(RowFlushPolicies.rows(100)).build());
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final String actual = ParallelRowsFlusherTest.content(TableConfig.builder()
+                    .rowFlushPolicy(RowFlushPolicies.rows(100)).compactRows().stringPool()
+                    .parallelSerialization(executor, 4).build());
+            Assert.assertEquals(expected, actual);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static String content(final TableConfig config) throws IOException {
+        final File file = File.createTempFile("fastods-parallel", ".ods");
+        try {
+            final OdsFactory factory =
+                    OdsFactory.create(Logger.getLogger("test"), Locale.US).tableConfig(config);
+            final NamedOdsFileWriter writer = factory.createWriter(file);
+            final NamedOdsDocument document = writer.document();
+            for (int t = 0; t < 2; t++) {
+                final Table table = document.addTable("t" + t);
+                for (int r = 0; r < 1050; r++) {
+                    final TableCellWalker walker = table.nextRow().getWalker();
+                    walker.setFloatValue(r);
+                    walker.next();
+                    walker.setStringValue("r<" + r + ">");
+                    walker.next();
+                    walker.setStringValue("é<" + r % 20 + ">");
+                }
+            }
+            document.save();
+            writer.close();
+
+            final ZipFile zipFile = new ZipFile(file);
+            try {
+                final InputStream in = zipFile.getInputStream(zipFile.getEntry("content.xml"));
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[8192];
+                int count = in.read(buffer);
+                while (count != -1) {
+                    out.write(buffer, 0, count);
+                    count = in.read(buffer);
+                }
+                return out.toString("UTF-8");
+            } finally {
+                zipFile.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -21,6 +21,8 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.util.ByteChunkPool;
+import com.github.jferard.fastods.util.UTF8ChunkAppender;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 import org.easymock.Capture;
@@ -42,13 +44,15 @@ public class PreprocessedRowsFlusherTest {
 
     private XMLUtil util;
     private ZipUTF8Writer w;
-    private StringBuilder sb;
+    private ByteChunkPool pool;
+    private UTF8ChunkAppender appender;
 
     @Before
     public void setUp() {
         this.util = XMLUtil.create();
         this.w = PowerMock.createMock(ZipUTF8Writer.class);
-        this.sb = new StringBuilder(1024 * 32);
+        this.pool = ByteChunkPool.create();
+        this.appender = UTF8ChunkAppender.create(this.pool);
         PowerMock.resetAll();
     }
 
@@ -57,17 +61,18 @@ public class PreprocessedRowsFlusherTest {
         final List<TableRow> rows = Collections.emptyList();
 
         PowerMock.replayAll();
-        final PreprocessedRowsFlusher flusher = PreprocessedRowsFlusher.create(this.util, rows);
+        final PreprocessedRowsFlusher flusher = PreprocessedRowsFlusher.create(this.util, rows,
+                this.pool);
         PowerMock.verifyAll();
     }
 
     @Test
     public void flushIntoEmptyList() throws Exception {
         final List<TableRow> rows = Collections.emptyList();
-        EasyMock.expect(this.w.append(this.sb)).andReturn(this.sb);
 
         PowerMock.replayAll();
-        final PreprocessedRowsFlusher flusher = new PreprocessedRowsFlusher(this.util, rows, this.sb);
+        final PreprocessedRowsFlusher flusher = new PreprocessedRowsFlusher(this.util, rows,
+                this.appender);
         flusher.flushInto(this.util, this.w);
         PowerMock.verifyAll();
     }
@@ -78,14 +83,17 @@ public class PreprocessedRowsFlusherTest {
         final TableRow r2 = PowerMock.createMock(TableRow.class);
         final List<TableRow> rows = Arrays.asList(r1, r2);
 
-        r1.appendXMLToTable(this.util, this.sb);
-        r2.appendXMLToTable(this.util, this.sb);
-        EasyMock.expect(this.w.append(this.sb)).andReturn(this.sb);
+        EasyMock.expect(r2.isRepeatOf(r1)).andReturn(false);
+        r1.appendXMLToTable(EasyMock.eq(this.util), EasyMock.isA(Appendable.class),
+                EasyMock.eq(1));
+        r2.appendXMLToTable(EasyMock.eq(this.util), EasyMock.isA(Appendable.class),
+                EasyMock.eq(1));
 
         PowerMock.replayAll();
-        final PreprocessedRowsFlusher flusher = new PreprocessedRowsFlusher(this.util, rows, this.sb);
+        final PreprocessedRowsFlusher flusher = new PreprocessedRowsFlusher(this.util, rows,
+                this.appender);
         flusher.flushInto(this.util, this.w);
-        Assert.assertEquals("", this.sb.toString());
+        Assert.assertEquals(0, this.appender.size());
         PowerMock.verifyAll();
     }
 
@@ -94,13 +102,16 @@ public class PreprocessedRowsFlusherTest {
         final List<TableRow> rows = new ArrayList<TableRow>();
         rows.add(null);
 
-        final Capture<CharSequence> capturedArgument = EasyMock.newCapture();
-        EasyMock.expect(this.w.append(EasyMock.capture(capturedArgument))).andReturn(this.w);
+        final Capture<byte[]> capturedArgument = EasyMock.newCapture();
+        this.w.write(EasyMock.capture(capturedArgument), EasyMock.eq(0), EasyMock.eq(7));
 
         PowerMock.replayAll();
-        final PreprocessedRowsFlusher flusher = new PreprocessedRowsFlusher(this.util, rows, this.sb);
-        flusher.flushInto(this.util, this.w);
-        Assert.assertEquals("<row />", capturedArgument.getValue().toString());
+        final PreprocessedRowsFlusher flusher = new PreprocessedRowsFlusher(this.util, rows,
+                this.appender);
+        flusher.flushBytesInto(this.w);
+        Assert.assertEquals("<row />",
+                new String(capturedArgument.getValue(), 0, 7, ZipUTF8Writer.UTF_8));
+        Assert.assertEquals(1, this.pool.getPooledChunkCount());
         PowerMock.verifyAll();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class RowFlushPoliciesTest {
+    @Test
+    public final void testRows() {
+        final RowFlushPolicy policy = RowFlushPolicies.rows(10);
+        Assert.assertFalse(policy.shouldFlush(9, 1000, 100000, Long.MAX_VALUE));
+        Assert.assertTrue(policy.shouldFlush(10, 0, 0, 0));
+    }
+
+    @Test
+    public final void testCells() {
+        final RowFlushPolicy policy = RowFlushPolicies.cells(100);
+        Assert.assertFalse(policy.shouldFlush(1000, 99, 100000, Long.MAX_VALUE));
+        Assert.assertTrue(policy.shouldFlush(1, 100, 0, 0));
+    }
+
+    @Test
+    public final void testBytes() {
+        final RowFlushPolicy policy = RowFlushPolicies.bytes(1000);
+        Assert.assertFalse(policy.shouldFlush(100000, 100000, 999, Long.MAX_VALUE));
+        Assert.assertTrue(policy.shouldFlush(1, 1, 1000, 0));
+    }
+
+    @Test
+    public final void testAdaptive() {
+        final RowFlushPolicy policy = RowFlushPolicies.adaptive(1000);
+        Assert.assertFalse(policy.shouldFlush(100, 300, 999, 0));
+        Assert.assertTrue(policy.shouldFlush(1, 300, 1000, 0));
+        Assert.assertTrue(
+                policy.shouldFlush(RowFlushPolicies.DEFAULT_MAX_ROWS, 0, 0, 0));
+    }
+
+    @Test
+    public final void testDefault() {
+        final RowFlushPolicy policy = RowFlushPolicies.DEFAULT;
+        Assert.assertFalse(policy.shouldFlush(8191, 3 * 8191, 1000000, 0));
+        Assert.assertTrue(policy.shouldFlush(8192, 3 * 8192, 1000000, 0));
+        Assert.assertTrue(policy.shouldFlush(10, 10 * 300, RowFlushPolicies.DEFAULT_HEAP_BUDGET, 0));
+    }
+
+    @Test
+    public final void testTime() {
+        final RowFlushPolicy policy = RowFlushPolicies.time(1, TimeUnit.SECONDS);
+        Assert.assertFalse(policy.shouldFlush(1, 1, 1, 999999999L));
+        Assert.assertFalse(policy.shouldFlush(0, 0, 0, 1000000000L));
+        Assert.assertTrue(policy.shouldFlush(1, 1, 1, 1000000000L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testBadRows() {
+        RowFlushPolicies.rows(0);
+    }
+
+    @Test
+    public final void testFactory() {
+        final RowFlushPolicy policy = RowFlushPolicies.rows(10);
+        final TableConfig config = TableConfig.builder().compactRows().rowFlushPolicy(policy)
+                .build();
+        Assert.assertSame(policy, config.getRowFlushPolicy());
+        Assert.assertTrue(config.isCompactRows());
+        Assert.assertSame(RowFlushPolicies.DEFAULT, TableConfig.DEFAULT.getRowFlushPolicy());
+        Assert.assertSame(policy, TableConfig.DEFAULT.withRowFlushPolicy(policy).getRowFlushPolicy());
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.datastyle.DataStyles;
+import com.github.jferard.fastods.datastyle.DataStylesBuilder;
+import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.PositionUtil;
+import com.github.jferard.fastods.util.WriteUtil;
+import com.github.jferard.fastods.util.XMLUtil;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class RowSpillStoreTest {
+    private DataStyles ds;
+    private WriteUtil writeUtil;
+    private XMLUtil xmlUtil;
+
+    @Before
+    public void setUp() {
+        this.writeUtil = WriteUtil.create();
+        this.xmlUtil = XMLUtil.create();
+        this.ds = DataStylesBuilder.create(Locale.US).build();
+    }
+
+    @Test
+    public final void testRoundTrip() throws IOException {
+        final Table table = this.createTable();
+        final TableRow row = table.nextRow();
+        final TableCellWalker walker = row.getWalker();
+        walker.setBooleanValue(true);
+        walker.next();
+        walker.setFloatValue(12.75);
+        walker.next();
+        walker.setStringValue("é&<>");
+        walker.next();
+        walker.setStyle(TableCellStyle.builder("s").fontWeightBold().build());
+        walker.to(5);
+        walker.setDateValue(new Date(1234567891011L));
+        walker.next();
+        walker.setVoidValue();
+        Assert.assertTrue(row.isSpillable(this.ds));
+
+        final RowSpillStore store = new RowSpillStore(64);
+        store.put(0, row);
+        store.put(3000, row); // a new chunk, a new capacity
+        Assert.assertEquals(2, store.size());
+        Assert.assertEquals(2, store.getChunkCount());
+        Assert.assertTrue(store.contains(3000));
+        Assert.assertFalse(store.contains(1));
+
+        final TableRow restored = table.nextRow();
+        restored.readFrom(store.get(3000));
+        Assert.assertEquals(this.toXML(row), this.toXML(restored));
+
+        store.remove(0);
+        Assert.assertFalse(store.contains(0));
+        Assert.assertEquals(1, store.size());
+    }
+
+    @Test
+    public final void testReuseSlot() throws IOException {
+        final Table table = this.createTable();
+        final TableRow row = table.nextRow();
+        final TableCellWalker walker = row.getWalker();
+        walker.setStringValue("a long string value");
+        final TableRow shortRow = table.nextRow();
+        shortRow.getWalker().setStringValue("a");
+
+        final RowSpillStore store = new RowSpillStore(1024);
+        store.put(0, row);
+        store.put(1, shortRow);
+        store.remove(0);
+        Assert.assertEquals(1, store.getFreeSlotCount());
+
+        store.put(2, shortRow); // fits in the slot of the row 0
+        Assert.assertEquals(0, store.getFreeSlotCount());
+        store.remove(1);
+        store.put(3, row); // does not fit in the slot of the row 1
+        Assert.assertEquals(1, store.getFreeSlotCount());
+        store.put(2, row); // the slot of the row 2 is freed
+        Assert.assertEquals(2, store.getFreeSlotCount());
+        Assert.assertEquals(1, store.getChunkCount());
+
+        final TableRow restored = table.nextRow();
+        restored.readFrom(store.get(2));
+        Assert.assertEquals(this.toXML(row), this.toXML(restored));
+    }
+
+    @Test
+    public final void testNotSpillable() throws IOException {
+        final Table table = this.createTable();
+        final TableRow row = table.nextRow();
+        row.getOrCreateCell(0).setTooltip("tooltip");
+        Assert.assertFalse(row.isSpillable(this.ds));
+        final TableRow row2 = table.nextRow();
+        row2.setDefaultCellStyle(TableCellStyle.builder("s").build());
+        Assert.assertFalse(row2.isSpillable(this.ds));
+    }
+
+    @Test
+    public final void testSpilledDocument() throws IOException, FastOdsException {
+        final String expected = this.content(TableConfig.builder().compactRows().build());
+        final String actual = this.content(TableConfig.builder().spill(16 * 1024).build());
+        Assert.assertEquals(expected, actual);
+    }
+
+    private String content(final TableConfig config) throws IOException, FastOdsException {
+        final AnonymousOdsFileWriter writer = OdsFactory.create(Logger.getLogger("test"), Locale.US)
+                .tableConfig(config).createWriter();
+        final Table table = writer.document().addTable("t");
+        for (int r = 0; r < 2000; r++) {
+            final TableCellWalker walker = table.nextRow().getWalker();
+            walker.setFloatValue(r);
+            walker.next();
+            walker.setStringValue("r<" + r + ">");
+        }
+        // random access to cold rows
+        for (int r = 0; r < 2000; r += 97) {
+            final TableCellWalker walker = table.getRow(r).getWalker();
+            walker.to(2);
+            walker.setBooleanValue(r % 2 == 0);
+        }
+        table.getRow(10).getOrCreateCell(3).setTooltip("tooltip");
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.save(out);
+        final ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+        ZipEntry entry = zipIn.getNextEntry();
+        while (!entry.getName().equals("content.xml")) entry = zipIn.getNextEntry();
+        return this.read(zipIn);
+    }
+
+    private String read(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int count = in.read(buffer);
+        while (count != -1) {
+            out.write(buffer, 0, count);
+            count = in.read(buffer);
+        }
+        return out.toString("UTF-8");
+    }
+
+    private Table createTable() throws IOException {
+        final OdsElements odsElements = OdsElements
+                .create(PositionUtil.create(), this.xmlUtil, this.writeUtil, this.ds,
+                        TableConfig.builder().compactRows().build());
+        return odsElements.addTableToContent("t", 10, 4);
+    }
+
+    private String toXML(final TableRow row) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        row.appendXMLToTable(this.xmlUtil, sb);
+        return sb.toString();
+    }
+}
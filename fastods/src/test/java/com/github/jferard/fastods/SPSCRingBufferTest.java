@@ -0,0 +1,82 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SPSCRingBufferTest {
+    @Test
+    public final void testCapacity() {
+        Assert.assertEquals(1, new SPSCRingBuffer<String>(1).capacity());
+        Assert.assertEquals(8, new SPSCRingBuffer<String>(5).capacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testBadCapacity() {
+        new SPSCRingBuffer<String>(0);
+    }
+
+    @Test
+    public final void testOfferPoll() {
+        final SPSCRingBuffer<String> buffer = new SPSCRingBuffer<String>(2);
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertNull(buffer.poll());
+        Assert.assertTrue(buffer.offer("a"));
+        Assert.assertTrue(buffer.offer("b"));
+        Assert.assertFalse(buffer.offer("c"));
+        Assert.assertEquals("a", buffer.poll());
+        Assert.assertTrue(buffer.offer("c"));
+        Assert.assertEquals("b", buffer.poll());
+        Assert.assertEquals("c", buffer.poll());
+        Assert.assertNull(buffer.poll());
+        Assert.assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public final void testTwoThreads() throws InterruptedException {
+        final int count = 100000;
+        final SPSCRingBuffer<Integer> buffer = new SPSCRingBuffer<Integer>(4);
+        final Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    while (!buffer.offer(i))
+                        Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        for (int i = 0; i < count; i++) {
+            Integer value = buffer.poll();
+            while (value == null) {
+                Thread.yield();
+                value = buffer.poll();
+            }
+            Assert.assertEquals(i, value.intValue());
+        }
+        producer.join();
+        Assert.assertTrue(buffer.isEmpty());
+    }
+}
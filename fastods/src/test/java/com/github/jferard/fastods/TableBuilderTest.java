@@ -26,7 +26,9 @@ import com.github.jferard.fastods.odselement.StylesContainer;
 import com.github.jferard.fastods.odselement.config.ConfigItemMapEntrySet;
 import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.style.TableColumnStyle;
+import com.github.jferard.fastods.style.TableRowStyle;
 import com.github.jferard.fastods.style.TableStyle;
+import com.github.jferard.fastods.util.ByteChunkPool;
 import com.github.jferard.fastods.util.EqualityUtil;
 import com.github.jferard.fastods.util.PositionUtil;
 import com.github.jferard.fastods.util.TableNameUtil;
@@ -58,7 +60,9 @@ public class TableBuilderTest {
         final XMLUtil xmlUtil = XMLUtil.create();
         this.ds = DataStylesBuilder.create(Locale.US).build();
         this.builder = new TableBuilder(positionUtil, WriteUtil.create(), xmlUtil,
-                this.stc, this.ds, "mytable", 10, 100, ConfigItemMapEntrySet.createSet("mytable"), 2);
+                this.stc, this.ds, "mytable", 10, 100, ConfigItemMapEntrySet.createSet("mytable"),
+                RowFlushPolicies.rows(2),
+                TableConfig.DEFAULT, null, ByteChunkPool.create());
         this.xmlUtil = xmlUtil;
 
         this.table = PowerMock.createMock(Table.class);
@@ -182,6 +186,152 @@ public class TableBuilderTest {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public final void testCellFlushPolicy() throws IOException {
+        final TableBuilder builder = new TableBuilder(
+                new PositionUtil(new EqualityUtil(), new TableNameUtil()), WriteUtil.create(),
+                this.xmlUtil, this.stc, this.ds, "mytable", 10, 100,
+                ConfigItemMapEntrySet.createSet("mytable"), RowFlushPolicies.cells(10),
+                TableConfig.DEFAULT, null, ByteChunkPool.create());
+        final NamedOdsFileWriter o = PowerMock.createMock(NamedOdsFileWriter.class);
+        builder.addObserver(o);
+
+        o.update(EasyMock.isA(BeginTableFlusher.class));
+        o.update(EasyMock.isA(PreprocessedRowsFlusher.class));
+        EasyMock.expectLastCall().times(2);
+        PowerMock.replayAll();
+        for (int r = 0; r < 5; r++) { // flush before rows 2 and 4
+            final TableRow row = builder.nextRow(this.table, this.appender);
+            row.getOrCreateCell(4);
+        }
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public final void testStreaming() throws IOException, FastOdsException {
+        final TableBuilder builder = new TableBuilder(
+                new PositionUtil(new EqualityUtil(), new TableNameUtil()), WriteUtil.create(),
+                this.xmlUtil, this.stc, this.ds, "mytable", 10, 100,
+                ConfigItemMapEntrySet.createSet("mytable"), RowFlushPolicies.DEFAULT,
+                TableConfig.builder().streaming().build(), null,
+                ByteChunkPool.create());
+        final NamedOdsFileWriter o = PowerMock.createMock(NamedOdsFileWriter.class);
+        builder.addObserver(o);
+
+        o.update(EasyMock.isA(BeginTableFlusher.class));
+        o.update(EasyMock.isA(RowsFlusher.class));
+        EasyMock.expectLastCall().times(4);
+        PowerMock.replayAll();
+        for (int r = 0; r < 5; r++)
+            builder.nextRow(this.table, this.appender);
+
+        Assert.assertEquals(4, builder.getLastRowNumber());
+        Assert.assertEquals(5, builder.getTableRowsUsedSize());
+        Assert.assertNotNull(builder.getRow(this.table, this.appender, 4));
+        try {
+            builder.getRow(this.table, this.appender, 3);
+            Assert.fail();
+        } catch (final IllegalStateException e) {
+            // ok: released
+        }
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public final void testStreamingCloseRow() throws IOException, FastOdsException {
+        final TableBuilder builder = new TableBuilder(
+                new PositionUtil(new EqualityUtil(), new TableNameUtil()), WriteUtil.create(),
+                this.xmlUtil, this.stc, this.ds, "mytable", 10, 100,
+                ConfigItemMapEntrySet.createSet("mytable"), RowFlushPolicies.DEFAULT,
+                TableConfig.builder().streaming().build(), null,
+                ByteChunkPool.create());
+        final NamedOdsFileWriter o = PowerMock.createMock(NamedOdsFileWriter.class);
+        builder.addObserver(o);
+
+        o.update(EasyMock.isA(BeginTableFlusher.class));
+        o.update(EasyMock.isA(RowsFlusher.class));
+        EasyMock.expectLastCall().times(2);
+        PowerMock.replayAll();
+        final TableRow row0 = builder.nextRow(this.table, this.appender);
+        final TableCell cell0 = row0.getOrCreateCell(0);
+        final TableRow row1 = builder.nextRow(this.table, this.appender); // row 0 is written
+        builder.closeRow(1); // row 1 is written
+        builder.closeRow(1); // no pending row
+
+        Assert.assertEquals(2, builder.getTableRowsUsedSize());
+        try {
+            cell0.setStringValue("a");
+            Assert.fail();
+        } catch (final IllegalStateException e) {
+            // ok: released
+        }
+        try {
+            row1.getOrCreateCell(0);
+            Assert.fail();
+        } catch (final IllegalStateException e) {
+            // ok: released
+        }
+        final TableRow row2 = builder.nextRow(this.table, this.appender);
+        Assert.assertNotNull(row2);
+        Assert.assertEquals(2, builder.getLastRowNumber());
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public final void testSpill() throws IOException, FastOdsException {
+        final TableConfig config = TableConfig.builder().spill(1024).build();
+        final TableBuilder builder = new TableBuilder(
+                new PositionUtil(new EqualityUtil(), new TableNameUtil()), WriteUtil.create(),
+                this.xmlUtil, this.stc, this.ds, "mytable", 10, 100,
+                ConfigItemMapEntrySet.createSet("mytable"), config.getRowFlushPolicy(), config,
+                null, ByteChunkPool.create());
+
+        PowerMock.replayAll();
+        TableRow firstRow = null;
+        TableCellWalker firstWalker = null;
+        for (int r = 0; r < 100; r++) {
+            final TableRow tr = builder.nextRow(this.table, this.appender);
+            final TableCellWalker walker = tr.getWalker();
+            walker.setStringValue("a");
+            walker.next();
+            walker.setStringValue("r" + r);
+            if (r == 0) {
+                firstRow = tr;
+                firstWalker = walker;
+            }
+        }
+        final int spilledRowCount = builder.getSpilledRowCount();
+        Assert.assertTrue(spilledRowCount > 80);
+        Assert.assertEquals(99, builder.getLastRowNumber());
+        final StringBuilder sb = new StringBuilder();
+        builder.getTableRow(1).appendXMLToTable(this.xmlUtil, sb); // transient copy
+        Assert.assertTrue(sb.toString().contains("\"r1\""));
+        Assert.assertEquals(spilledRowCount, builder.getSpilledRowCount());
+        try {
+            builder.getTableRow(1).getOrCreateCell(0).setStringValue("b");
+            Assert.fail();
+        } catch (final IllegalStateException e) {
+            // ok: a read-only copy
+        }
+        try {
+            firstWalker.setStringValue("b");
+            Assert.fail();
+        } catch (final IllegalStateException e) {
+            // ok: spilled
+        }
+        try {
+            firstRow.setStyle(TableRowStyle.DEFAULT_TABLE_ROW_STYLE);
+            Assert.fail();
+        } catch (final IllegalStateException e) {
+            // ok: spilled
+        }
+
+        final TableRow row = builder.getRow(this.table, this.appender, 0); // paged in
+        Assert.assertEquals(spilledRowCount - 1, builder.getSpilledRowCount());
+        Assert.assertSame(row, builder.getTableRow(0));
+        PowerMock.verifyAll();
+    }
+
     @Test
     public final void testNameAndStyle() {
         // PLAY
@@ -424,6 +424,14 @@ public class TableCellWalkerImplTest {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public final void testClose() throws IOException {
+        this.row.close();
+        PowerMock.replayAll();
+        this.cellWalker.close();
+        PowerMock.verifyAll();
+    }
+
     private TableRow initRealRow() {
         final StylesContainer stc = PowerMock.createMock(StylesContainer.class);
         final PositionUtil positionUtil = new PositionUtil(new EqualityUtil(), new TableNameUtil());
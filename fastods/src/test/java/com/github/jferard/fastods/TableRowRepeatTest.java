@@ -0,0 +1,124 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.datastyle.DataStylesBuilder;
+import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.PositionUtil;
+import com.github.jferard.fastods.util.WriteUtil;
+import com.github.jferard.fastods.util.XMLUtil;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+public class TableRowRepeatTest {
+    private XMLUtil util;
+
+    @Before
+    public void setUp() {
+        this.util = XMLUtil.create();
+    }
+
+    @Test
+    public final void testCells() throws IOException, FastOdsException {
+        final Table table = this.createTable(TableConfig.DEFAULT);
+        final TableCellStyle style = TableCellStyle.builder("s").build();
+        final TableCellWalker walker = table.nextRow().getWalker();
+        for (int c = 0; c < 3; c++) {
+            walker.setFloatValue(1.5);
+            walker.setStyle(style);
+            walker.next();
+        }
+        walker.setFloatValue(1.5);
+        walker.next();
+        walker.setText(Text.content("t"));
+        walker.next();
+        walker.setText(Text.content("t"));
+
+        final StringBuilder sb = new StringBuilder();
+        table.getRow(0).appendXMLToTable(this.util, sb);
+        Assert.assertEquals("<table:table-row table:style-name=\"ro1\"><table:table-cell " +
+                "table:number-columns-repeated=\"3\" table:style-name=\"s-_-float-data\" " +
+                "office:value-type=\"float\" office:value=\"1.5\"/><table:table-cell " +
+                "table:style-name=\"Default-_-float-data\" office:value-type=\"float\" " +
+                "office:value=\"1.5\"/><table:table-cell office:value-type=\"string\" " +
+                "office:string-value=\"\"><text:p>t</text:p></table:table-cell><table:table-cell " +
+                "office:value-type=\"string\" office:string-value=\"\"><text:p>t</text:p>" +
+                "</table:table-cell></table:table-row>", sb.toString());
+    }
+
+    @Test
+    public final void testCoveredCells() throws IOException, FastOdsException {
+        final Table table = this.createTable(TableConfig.DEFAULT);
+        final TableRow row = table.nextRow();
+        row.getOrCreateCell(0).setColumnsSpanned(3);
+
+        final StringBuilder sb = new StringBuilder();
+        row.appendXMLToTable(this.util, sb);
+        Assert.assertEquals("<table:table-row table:style-name=\"ro1\"><table:table-cell " +
+                "table:number-columns-spanned=\"3\"/><table:covered-table-cell " +
+                "table:number-columns-repeated=\"2\"/></table:table-row>", sb.toString());
+    }
+
+    @Test
+    public final void testRows() throws IOException, FastOdsException {
+        final Table table = this.createTable(TableConfig.builder().compactRows().build());
+        final TableCellStyle style = TableCellStyle.builder("s").build();
+        for (int r = 0; r < 3; r++) {
+            final TableCellWalker walker = table.nextRow().getWalker();
+            for (int c = 0; c < 4; c++) {
+                walker.setStringValue("0");
+                walker.setStyle(style);
+                walker.next();
+            }
+        }
+        final TableCellWalker walker = table.nextRow().getWalker();
+        walker.setStringValue("1");
+
+        final StringBuilder sb = new StringBuilder();
+        TableRow.appendXMLToTable(Arrays.asList(table.getRow(0), table.getRow(1), null,
+                table.getRow(2), table.getRow(3)), this.util, sb);
+        final String row0 = "<table:table-cell table:number-columns-repeated=\"4\" " +
+                "table:style-name=\"s\" office:value-type=\"string\" office:string-value=\"0\"/>" +
+                "</table:table-row>";
+        Assert.assertEquals("<table:table-row table:number-rows-repeated=\"2\" " +
+                "table:style-name=\"ro1\">" + row0 + "<row />" +
+                "<table:table-row table:style-name=\"ro1\">" + row0 +
+                "<table:table-row table:style-name=\"ro1\"><table:table-cell " +
+                "office:value-type=\"string\" office:string-value=\"1\"/></table:table-row>",
+                sb.toString());
+    }
+
+    private Table createTable(final TableConfig config) throws IOException {
+        final OdsElements odsElements = OdsElements
+                .create(PositionUtil.create(), this.util, WriteUtil.create(),
+                        DataStylesBuilder.create(Locale.US).build(), config);
+        return odsElements.addTableToContent("t", 10, 5);
+    }
+}
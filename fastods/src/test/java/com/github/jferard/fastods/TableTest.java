@@ -26,6 +26,7 @@ import com.github.jferard.fastods.odselement.StylesContainer;
 import com.github.jferard.fastods.style.TableColumnStyle;
 import com.github.jferard.fastods.style.TableStyle;
 import com.github.jferard.fastods.testlib.DomTester;
+import com.github.jferard.fastods.util.ByteChunkPool;
 import com.github.jferard.fastods.util.EqualityUtil;
 import com.github.jferard.fastods.util.FastFullList;
 import com.github.jferard.fastods.util.PositionUtil;
@@ -60,7 +61,7 @@ public class TableTest {
         this.ds = DataStylesBuilder.create(Locale.US).build();
         this.table = Table
                 .create(positionUtil, WriteUtil.create(), xmlUtil, "mytable", 10, 100, this.stc,
-                        this.ds);
+                        this.ds, TableConfig.DEFAULT, null, ByteChunkPool.create());
         this.xmlUtil = xmlUtil;
         this.sb = new StringBuilder();
         PowerMock.resetAll();
@@ -192,36 +193,7 @@ public class TableTest {
                         "<table:table-row table:style-name=\"ro1\">" + "<table:table-cell " +
                         "table:number-columns-repeated=\"11\"/>" + "<table:table-cell " +
                         "table:number-rows-spanned=\"12\"/>" + "</table:table-row>" +
-                        "<table:table-row " + "table:style-name=\"ro1\">" +
-                        "<table:table-cell table:number-columns-repeated=\"11\"/>" +
-                        "<table:covered-table-cell/>" + "</table:table-row>" + "<table:table-row " +
-                        "table:style-name=\"ro1\">" +
-                        "<table:table-cell table:number-columns-repeated=\"11\"/>" +
-                        "<table:covered-table-cell/>" + "</table:table-row>" + "<table:table-row " +
-                        "table:style-name=\"ro1\">" +
-                        "<table:table-cell table:number-columns-repeated=\"11\"/>" +
-                        "<table:covered-table-cell/>" + "</table:table-row>" + "<table:table-row " +
-                        "table:style-name=\"ro1\">" +
-                        "<table:table-cell table:number-columns-repeated=\"11\"/>" +
-                        "<table:covered-table-cell/>" + "</table:table-row>" + "<table:table-row " +
-                        "table:style-name=\"ro1\">" +
-                        "<table:table-cell table:number-columns-repeated=\"11\"/>" +
-                        "<table:covered-table-cell/>" + "</table:table-row>" + "<table:table-row " +
-                        "table:style-name=\"ro1\">" +
-                        "<table:table-cell table:number-columns-repeated=\"11\"/>" +
-                        "<table:covered-table-cell/>" + "</table:table-row>" + "<table:table-row " +
-                        "table:style-name=\"ro1\">" +
-                        "<table:table-cell table:number-columns-repeated=\"11\"/>" +
-                        "<table:covered-table-cell/>" + "</table:table-row>" + "<table:table-row " +
-                        "table:style-name=\"ro1\">" +
-                        "<table:table-cell table:number-columns-repeated=\"11\"/>" +
-                        "<table:covered-table-cell/>" + "</table:table-row>" + "<table:table-row " +
-                        "table:style-name=\"ro1\">" +
-                        "<table:table-cell table:number-columns-repeated=\"11\"/>" +
-                        "<table:covered-table-cell/>" + "</table:table-row>" + "<table:table-row " +
-                        "table:style-name=\"ro1\">" +
-                        "<table:table-cell table:number-columns-repeated=\"11\"/>" +
-                        "<table:covered-table-cell/>" + "</table:table-row>" + "<table:table-row " +
+                        "<table:table-row table:number-rows-repeated=\"11\" " +
                         "table:style-name=\"ro1\">" +
                         "<table:table-cell table:number-columns-repeated=\"11\"/>" +
                         "<table:covered-table-cell/>" + "</table:table-row>" + "</table:table>");
@@ -23,10 +23,12 @@ package com.github.jferard.fastods.odselement;
 
 import com.github.jferard.fastods.Table;
 import com.github.jferard.fastods.TableCell;
+import com.github.jferard.fastods.TableConfig;
 import com.github.jferard.fastods.datastyle.DataStyles;
 import com.github.jferard.fastods.datastyle.DataStylesBuilder;
 import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.testlib.ZipUTF8WriterMockHandler;
+import com.github.jferard.fastods.util.ByteChunkPool;
 import com.github.jferard.fastods.util.PositionUtil;
 import com.github.jferard.fastods.util.WriteUtil;
 import com.github.jferard.fastods.util.XMLUtil;
@@ -52,7 +54,7 @@ public class ContentElementTest {
         this.container = PowerMock.createMock(StylesContainer.class);
         this.format = DataStylesBuilder.create(Locale.US).build();
         this.content = new ContentElement(PositionUtil.create(), XMLUtil.create(), WriteUtil.create(), this.format,
-                this.container);
+                this.container, TableConfig.DEFAULT, ByteChunkPool.create());
         PowerMock.resetAll();
     }
 
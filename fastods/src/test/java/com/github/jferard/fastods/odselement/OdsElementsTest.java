@@ -23,6 +23,7 @@ package com.github.jferard.fastods.odselement;
 import com.github.jferard.fastods.FinalizeFlusher;
 import com.github.jferard.fastods.NamedOdsFileWriter;
 import com.github.jferard.fastods.Table;
+import com.github.jferard.fastods.TableConfig;
 import com.github.jferard.fastods.datastyle.BooleanStyleBuilder;
 import com.github.jferard.fastods.datastyle.DataStyle;
 import com.github.jferard.fastods.style.ObjectStyle;
@@ -64,7 +65,8 @@ public class OdsElementsTest {
         this.stylesContainer = new StylesContainer();
 
         this.oe = new OdsElements(logger, this.stylesContainer, this.mimetypeElement, this.manifestElement,
-                this.settingsElement, this.metaElement, this.contentElement, this.stylesElement);
+                this.settingsElement, this.metaElement, this.contentElement, this.stylesElement,
+                TableConfig.DEFAULT);
         this.util = XMLUtil.create();
         this.locale = Locale.US;
     }
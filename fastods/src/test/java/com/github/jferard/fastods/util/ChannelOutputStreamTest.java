@@ -0,0 +1,136 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+public class ChannelOutputStreamTest {
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        this.file = File.createTempFile("channel_test", "tmp");
+    }
+
+    @After
+    public void tearDown() {
+        this.file.delete();
+    }
+
+    @Test
+    public final void testStreamChannel() throws IOException {
+        final byte[] data = ChannelOutputStreamTest.randomData();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ChannelOutputStream channelOut = ChannelOutputStream.create(Channels.newChannel(out));
+        ChannelOutputStreamTest.writeData(channelOut, data);
+        channelOut.close();
+        Assert.assertArrayEquals(data, out.toByteArray());
+    }
+
+    @Test
+    public final void testFileChannel() throws IOException {
+        final byte[] data = ChannelOutputStreamTest.randomData();
+        final WriterResourcePool pool = WriterResourcePool.create();
+        final FileChannel channel = new RandomAccessFile(this.file, "rw").getChannel();
+        final ChannelOutputStream channelOut = ChannelOutputStream.create(channel, 0, pool);
+        ChannelOutputStreamTest.writeData(channelOut, data);
+        channelOut.flush();
+        Assert.assertEquals(data.length, this.file.length());
+        channelOut.close();
+
+        Assert.assertArrayEquals(data, this.readFile());
+        Assert.assertEquals(ChannelOutputStream.BUFFER_COUNT, pool.getPooledDirectBufferCount());
+        ChannelOutputStream.create(Channels.newChannel(new ByteArrayOutputStream()), pool).close();
+        Assert.assertEquals(ChannelOutputStream.BUFFER_COUNT, pool.getDirectBufferReuses());
+    }
+
+    @Test
+    public final void testPreallocation() throws IOException {
+        final FileChannel channel = new RandomAccessFile(this.file, "rw").getChannel();
+        final ChannelOutputStream channelOut = ChannelOutputStream.create(channel, 1024 * 1024, null);
+        Assert.assertEquals(1024 * 1024, this.file.length());
+        channelOut.write(new byte[]{1, 2, 3});
+        channelOut.close();
+
+        Assert.assertArrayEquals(new byte[]{1, 2, 3}, this.readFile());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testNegativePreallocation() throws IOException {
+        final FileChannel channel = new RandomAccessFile(this.file, "rw").getChannel();
+        try {
+            ChannelOutputStream.create(channel, -1, null);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static byte[] randomData() {
+        final byte[] data = new byte[ChannelOutputStream.BUFFER_COUNT *
+                WriterResourcePool.DIRECT_BUFFER_SIZE * 2 + 1000];
+        new Random(0).nextBytes(data);
+        return data;
+    }
+
+    private static void writeData(final ChannelOutputStream out, final byte[] data)
+            throws IOException {
+        int i = 0;
+        int len = 1;
+        while (i < data.length) {
+            if (len == 1) out.write(data[i]);
+            else out.write(data, i, Math.min(len, data.length - i));
+            i += len;
+            len = (len * 7) % 100003;
+        }
+    }
+
+    private byte[] readFile() throws IOException {
+        final FileInputStream in = new FileInputStream(this.file);
+        try {
+            final byte[] data = new byte[(int) this.file.length()];
+            int offset = 0;
+            while (offset < data.length) {
+                final int n = in.read(data, offset, data.length - offset);
+                if (n == -1) break;
+                offset += n;
+            }
+            return Arrays.copyOf(data, offset);
+        } finally {
+            in.close();
+        }
+    }
+}
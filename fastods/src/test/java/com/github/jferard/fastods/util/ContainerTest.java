@@ -27,7 +27,10 @@ import org.junit.Before;
 import org.junit.Test;
 import org.powermock.api.easymock.PowerMock;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Handler;
 import java.util.logging.LogManager;
@@ -35,29 +38,29 @@ import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
 public class ContainerTest {
-    private Container<String, Integer> container;
+    private Container<String, TestValue> container;
 
     @Before
     public void setUp() throws Exception {
-        this.container = new Container<String, Integer>();
+        this.container = new Container<String, TestValue>();
     }
 
     @Test
     public final void testCreateThenUpdate() {
-        Assert.assertTrue(this.container.add("a", 1));
-        Assert.assertEquals(Integer.valueOf(1), this.container.getValues().iterator().next());
+        Assert.assertTrue(this.container.add("a", TestValue.of(1)));
+        Assert.assertEquals(TestValue.of(1), this.container.getValues().iterator().next());
 
         this.container.setMode(Container.Mode.UPDATE);
-        Assert.assertTrue(this.container.add("a", 2));
-        Assert.assertEquals(Integer.valueOf(2), this.container.getValues().iterator().next());
+        Assert.assertTrue(this.container.add("a", TestValue.of(2)));
+        Assert.assertEquals(TestValue.of(2), this.container.getValues().iterator().next());
     }
 
     @Test
     public final void testCreateTwice() {
-        Assert.assertTrue(this.container.add("a", 1));
-        Assert.assertEquals(Integer.valueOf(1), this.container.getValues().iterator().next());
-        Assert.assertFalse(this.container.add("a", 2));
-        Assert.assertEquals(Integer.valueOf(1), this.container.getValues().iterator().next());
+        Assert.assertTrue(this.container.add("a", TestValue.of(1)));
+        Assert.assertEquals(TestValue.of(1), this.container.getValues().iterator().next());
+        Assert.assertFalse(this.container.add("a", TestValue.of(2)));
+        Assert.assertEquals(TestValue.of(1), this.container.getValues().iterator().next());
     }
 
     @Test
@@ -68,27 +71,89 @@ public class ContainerTest {
     @Test
     public final void testUpdateWithoutCreation() {
         this.container.setMode(Container.Mode.UPDATE);
-        Assert.assertFalse(this.container.add("a", 1));
+        Assert.assertFalse(this.container.add("a", TestValue.of(1)));
         Assert.assertFalse(this.container.getValues().iterator().hasNext());
     }
 
     @Test(expected = IllegalStateException.class)
     public final void testCreateAfterFreeze() {
         this.container.freeze();
-        this.container.add("a", 1);
+        this.container.add("a", TestValue.of(1));
     }
 
     @Test
     public final void testGet() {
-        this.container.add("a", 1);
-        Assert.assertEquals(Integer.valueOf(1), this.container.get("a"));
+        this.container.add("a", TestValue.of(1));
+        Assert.assertEquals(TestValue.of(1), this.container.get("a"));
         Assert.assertEquals(null, this.container.get("b"));
 
-        final Map<String, Integer> m = new HashMap<String, Integer>();
-        m.put("a", 1);
+        final Map<String, TestValue> m = new HashMap<String, TestValue>();
+        m.put("a", TestValue.of(1));
         Assert.assertEquals(m, this.container.getValueByKey());
     }
 
+    @Test
+    public final void testOrder() {
+        this.container.add("c", TestValue.of(1));
+        this.container.add("a", TestValue.of(2));
+        this.container.add("b", TestValue.of(3));
+        this.container.setMode(Container.Mode.UPDATE);
+        this.container.add("a", TestValue.of(4));
+
+        Assert.assertEquals(Arrays.asList(TestValue.of(1), TestValue.of(4), TestValue.of(3)),
+                this.list(this.container.getValues()));
+        Assert.assertEquals(Arrays.asList("c", "a", "b"),
+                new ArrayList<String>(this.container.getValueByKey().keySet()));
+    }
+
+    @Test
+    public final void testUpdateAfterFreeze() {
+        this.container.add("a", TestValue.of(1));
+        this.container.freeze();
+        this.container.setMode(Container.Mode.UPDATE);
+        Assert.assertTrue(this.container.add("a", TestValue.of(2)));
+        Assert.assertEquals(TestValue.of(2), this.container.get("a"));
+    }
+
+    @Test
+    public final void testAddSameValueTwice() {
+        final TestValue value = TestValue.of(1);
+        Assert.assertTrue(this.container.add("a", value));
+        Assert.assertFalse(this.container.add("a", value)); // found by its id
+        this.container.setMode(Container.Mode.UPDATE);
+        Assert.assertTrue(this.container.add("a", value));
+        Assert.assertEquals(Arrays.asList(value), this.list(this.container.getValues()));
+    }
+
+    @Test
+    public final void testValueInTwoContainers() {
+        final Container<String, TestValue> other = new Container<String, TestValue>();
+        final TestValue value = TestValue.of(1);
+        other.add("x", TestValue.of(0));
+        other.add("a", value);
+        this.container.add("a", value);
+        Assert.assertFalse(other.add("a", value)); // the id of the other container was lost
+        Assert.assertFalse(this.container.add("a", value));
+        Assert.assertEquals(Arrays.asList(TestValue.of(0), value), this.list(other.getValues()));
+        Assert.assertEquals(Arrays.asList(value), this.list(this.container.getValues()));
+    }
+
+    @Test
+    public final void testSameValueTwoKeys() {
+        final TestValue value = TestValue.of(1);
+        this.container.add("a", value);
+        Assert.assertTrue(this.container.add("b", value)); // not the key of the id
+        Assert.assertEquals(Arrays.asList("a", "b"),
+                new ArrayList<String>(this.container.getValueByKey().keySet()));
+    }
+
+    private List<TestValue> list(final Iterable<TestValue> values) {
+        final List<TestValue> list = new ArrayList<TestValue>();
+        for (final TestValue value : values)
+            list.add(value);
+        return list;
+    }
+
     @Test
     public final void testCreateAfterDebug() {
         final Logger logger = Logger.getLogger("debug");
@@ -101,7 +166,7 @@ public class ContainerTest {
 
         PowerMock.replayAll();
         this.container.debug();
-        final boolean ret = this.container.add("a", 1);
+        final boolean ret = this.container.add("a", TestValue.of(1));
         LogManager.getLogManager().reset();
 
         PowerMock.verifyAll();
@@ -58,6 +58,22 @@ public class FastFullListTest {
 		Assert.assertEquals(100, fl.usedSize());
 	}
 
+	@Test
+	public final void testRemoveFirst() {
+		final FastFullList<String> fl = FastFullList.<String>builder().capacity(10).build();
+		fl.set(0, "a");
+		fl.set(1, "b");
+		fl.set(3, "d");
+		fl.removeFirst(2);
+		Assert.assertEquals(2, fl.usedSize());
+		Assert.assertNull(fl.get(0));
+		Assert.assertEquals("d", fl.get(1));
+		Assert.assertNull(fl.get(2));
+		fl.removeFirst(5);
+		Assert.assertEquals(0, fl.usedSize());
+		Assert.assertNull(fl.get(1));
+	}
+
 	@Test
 	public final void testGet() {
 		final FastFullList<String> fl = FastFullList.<String>builder().build();
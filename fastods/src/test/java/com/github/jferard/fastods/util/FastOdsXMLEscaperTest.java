@@ -24,6 +24,8 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+
 public class FastOdsXMLEscaperTest {
 	XMLEscaper escaper;
 
@@ -179,4 +181,138 @@ public class FastOdsXMLEscaperTest {
 		final String s = this.escaper.escapeXMLAttribute("'abcde");
 		Assert.assertEquals("&apos;abcde", s);
 	}
+
+	@Test
+	public final void testContentCacheIsNotAttrCache() {
+		final FastOdsXMLEscaper escaper2 = FastOdsXMLEscaper.create();
+		Assert.assertEquals("'", escaper2.escapeXMLContent("'"));
+		Assert.assertEquals("&apos;", escaper2.escapeXMLAttribute("'"));
+		Assert.assertEquals("'", escaper2.escapeXMLContent("'"));
+		Assert.assertEquals(0, escaper2.getCacheHits());
+		Assert.assertEquals(3, escaper2.getCacheMisses());
+		Assert.assertEquals(1, escaper2.getCacheSize());
+	}
+
+	@Test
+	public final void testCounters() {
+		final FastOdsXMLEscaper escaper2 = FastOdsXMLEscaper.create();
+		escaper2.escapeXMLAttribute("<a");
+		escaper2.escapeXMLAttribute("<a");
+		escaper2.escapeXMLContent("<a");
+		escaper2.escapeXMLContent("<a");
+		escaper2.escapeXMLContent("<a");
+		Assert.assertEquals(3, escaper2.getCacheHits());
+		Assert.assertEquals(2, escaper2.getCacheMisses());
+		Assert.assertEquals(0, escaper2.getCacheEvictions());
+		Assert.assertEquals(2, escaper2.getCacheSize());
+	}
+
+	@Test
+	public final void testNoCacheForUnescapedOrLongStrings() {
+		final FastOdsXMLEscaper escaper2 = new FastOdsXMLEscaper(16,
+				FastOdsXMLEscaper.CachePolicy.LRU, 10, 4);
+		Assert.assertEquals("abc", escaper2.escapeXMLAttribute("abc"));
+		Assert.assertEquals("&lt;abcd", escaper2.escapeXMLAttribute("<abcd"));
+		Assert.assertEquals(0, escaper2.getCacheSize());
+		Assert.assertEquals(1, escaper2.getCacheMisses());
+	}
+
+	@Test
+	public final void testLRUEviction() {
+		final FastOdsXMLEscaper escaper2 = FastOdsXMLEscaper.create(
+				FastOdsXMLEscaper.CachePolicy.LRU, 2);
+		escaper2.escapeXMLAttribute("<a");
+		escaper2.escapeXMLAttribute("<b");
+		escaper2.escapeXMLAttribute("<a"); // hit: <b is now the eldest
+		escaper2.escapeXMLAttribute("<c"); // evict <b
+		escaper2.escapeXMLAttribute("<a"); // hit
+		escaper2.escapeXMLAttribute("<b"); // miss
+		Assert.assertEquals(2, escaper2.getCacheHits());
+		Assert.assertEquals(4, escaper2.getCacheMisses());
+		Assert.assertEquals(2, escaper2.getCacheEvictions());
+		Assert.assertEquals(2, escaper2.getCacheSize());
+	}
+
+	@Test
+	public final void testClockEviction() {
+		final FastOdsXMLEscaper escaper2 = FastOdsXMLEscaper.create(
+				FastOdsXMLEscaper.CachePolicy.CLOCK, 2);
+		escaper2.escapeXMLAttribute("<a");
+		escaper2.escapeXMLAttribute("<b");
+		escaper2.escapeXMLAttribute("<a"); // hit: <a gets a second chance
+		Assert.assertEquals("&lt;c", escaper2.escapeXMLAttribute("<c")); // evict <b
+		Assert.assertEquals("&lt;a", escaper2.escapeXMLAttribute("<a")); // hit
+		Assert.assertEquals("&lt;b", escaper2.escapeXMLAttribute("<b")); // miss
+		Assert.assertEquals(2, escaper2.getCacheHits());
+		Assert.assertEquals(4, escaper2.getCacheMisses());
+		Assert.assertEquals(2, escaper2.getCacheEvictions());
+		Assert.assertEquals(2, escaper2.getCacheSize());
+	}
+
+	@Test
+	public final void testNoCache() {
+		final FastOdsXMLEscaper escaper2 = FastOdsXMLEscaper.create(
+				FastOdsXMLEscaper.CachePolicy.NONE, 0);
+		Assert.assertEquals("&lt;a", escaper2.escapeXMLAttribute("<a"));
+		Assert.assertEquals("&lt;a", escaper2.escapeXMLAttribute("<a"));
+		Assert.assertEquals(0, escaper2.getCacheHits());
+		Assert.assertEquals(0, escaper2.getCacheSize());
+	}
+
+	@Test
+	public final void testCopy() {
+		final FastOdsXMLEscaper escaper2 = FastOdsXMLEscaper.create(
+				FastOdsXMLEscaper.CachePolicy.NONE, 0);
+		escaper2.escapeXMLAttribute("<a");
+		final FastOdsXMLEscaper copy = escaper2.copy();
+		Assert.assertNotSame(escaper2, copy);
+		Assert.assertEquals("&lt;a", copy.escapeXMLAttribute("<a"));
+		Assert.assertEquals("&lt;a", copy.escapeXMLAttribute("<a"));
+		Assert.assertEquals(0, copy.getCacheHits()); // same policy
+		Assert.assertEquals(0, copy.getCacheSize());
+
+		final FastOdsXMLEscaper escaper3 = FastOdsXMLEscaper.create(
+				FastOdsXMLEscaper.CachePolicy.LRU, 1);
+		escaper3.escapeXMLAttribute("<a");
+		final FastOdsXMLEscaper copy3 = escaper3.copy();
+		Assert.assertEquals(0, copy3.getCacheSize()); // own cache
+		copy3.escapeXMLAttribute("<a");
+		copy3.escapeXMLAttribute("<b");
+		Assert.assertEquals(1, copy3.getCacheEvictions()); // same capacity
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void testBadCapacity() {
+		FastOdsXMLEscaper.create(FastOdsXMLEscaper.CachePolicy.LRU, 0);
+	}
+
+	@Test
+	public final void testAppendEscaped() throws IOException {
+		final String[] strings = {"", "abcde", "'abcde", "abcde'", "w<& ' d\"gfgh >", "\t\n\r\b",
+				"<<>>", "&"};
+		for (final String s : strings) {
+			final StringBuilder sb = new StringBuilder();
+			this.escaper.appendEscapedXMLAttribute(sb, s);
+			Assert.assertEquals(this.escaper.escapeXMLAttribute(s), sb.toString());
+			sb.setLength(0);
+			this.escaper.appendEscapedXMLContent(sb, s);
+			Assert.assertEquals(this.escaper.escapeXMLContent(s), sb.toString());
+		}
+	}
+
+	@Test
+	public final void testAppendEscapedNull() throws IOException {
+		final StringBuilder sb = new StringBuilder();
+		this.escaper.appendEscapedXMLAttribute(sb, null);
+		this.escaper.appendEscapedXMLContent(sb, null);
+		Assert.assertEquals("nullnull", sb.toString());
+	}
+
+	@Test
+	public final void testAppendEscapedDoesNotUseCache() throws IOException {
+		final FastOdsXMLEscaper escaper2 = FastOdsXMLEscaper.create();
+		escaper2.appendEscapedXMLAttribute(new StringBuilder(), "<a");
+		Assert.assertEquals(0, escaper2.getCacheMisses());
+		Assert.assertEquals(0, escaper2.getCacheSize());
+	}
 }
@@ -0,0 +1,93 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+public class ISO8601UtilTest {
+    private ISO8601Util util;
+
+    @Before
+    public void setUp() {
+        this.util = ISO8601Util.create();
+    }
+
+    @Test
+    public final void testUTCDateTime() {
+        Assert.assertEquals("1970-01-01T00:00:00.000Z", this.util.formatUTCDateTime(0L));
+        Assert.assertEquals("2009-02-13T23:31:31.011Z",
+                this.util.formatUTCDateTime(1234567891011L));
+        Assert.assertEquals("1969-12-31T23:59:59.999Z", this.util.formatUTCDateTime(-1L));
+        Assert.assertEquals("2000-02-29T12:00:00.000Z",
+                this.util.formatUTCDateTime(951825600000L));
+        Assert.assertEquals("0001-01-01T00:00:00.000Z",
+                this.util.formatUTCDateTime(-62135596800000L));
+    }
+
+    @Test
+    public final void testUTCDateTimeAsSimpleDateFormat() {
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        final Random random = new Random(0);
+        for (int i = 0; i < 10000; i++) {
+            // 1600-01-01 to 2400-01-01: the julian calendar is not used
+            final long millis = -11676096000000L + (long) (random.nextDouble() * 25245000000000L);
+            Assert.assertEquals(format.format(new Date(millis)),
+                    this.util.formatUTCDateTime(millis));
+        }
+    }
+
+    @Test
+    public final void testLocalDateTime() {
+        Assert.assertEquals("2017-12-31T18:12:59",
+                this.util.formatLocalDateTime(1514743979123L));
+    }
+
+    @Test
+    public final void testDuration() {
+        Assert.assertEquals("PT00H00M00S", this.util.formatDuration(0L));
+        Assert.assertEquals("PT00H00M00.999S", this.util.formatDuration(999L));
+        Assert.assertEquals("PT00H00M00.005S", this.util.formatDuration(5L));
+        Assert.assertEquals("PT01H02M03.004S", this.util.formatDuration(3723004L));
+        Assert.assertEquals("PT100H00M00S", this.util.formatDuration(360000000L));
+        Assert.assertEquals("-PT00H00M01S", this.util.formatDuration(-1000L));
+    }
+
+    @Test
+    public final void testAppend() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        this.util.appendUTCDateTime(sb, 0L);
+        sb.append(' ');
+        this.util.appendDuration(sb, 1000L);
+        Assert.assertEquals("1970-01-01T00:00:00.000Z PT00H00M01S", sb.toString());
+    }
+}
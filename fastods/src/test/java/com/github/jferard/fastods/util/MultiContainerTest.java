@@ -27,28 +27,32 @@ import org.junit.Before;
 import org.junit.Test;
 import org.powermock.api.easymock.PowerMock;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Handler;
 import java.util.logging.LogRecord;
 import java.util.logging.Logger;
 
 public class MultiContainerTest {
-    private MultiContainer<String, Dest, Integer> container;
+    private MultiContainer<String, Dest, TestValue> container;
 
     @Before
     public void setUp() throws Exception {
-        this.container = new MultiContainer<String, Dest, Integer>(Dest.class);
+        this.container = new MultiContainer<String, Dest, TestValue>(Dest.class);
     }
 
     @Test
     public final void testCreateThenUpdate() {
-        Assert.assertTrue(this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, 1));
-        Assert.assertEquals(Integer.valueOf(1),
+        Assert.assertTrue(this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, TestValue.of(1)));
+        Assert.assertEquals(TestValue.of(1),
                 this.container.getValues(Dest.CONTENT_AUTOMATIC_STYLES).iterator().next());
         this.container.setMode(Container.Mode.UPDATE);
-        Assert.assertTrue(this.container.add("a", Dest.STYLES_AUTOMATIC_STYLES, 2));
-        Assert.assertEquals(Integer.valueOf(2),
+        Assert.assertTrue(this.container.add("a", Dest.STYLES_AUTOMATIC_STYLES, TestValue.of(2)));
+        Assert.assertEquals(TestValue.of(2),
                 this.container.getValues(Dest.STYLES_AUTOMATIC_STYLES).iterator().next());
         Assert.assertFalse(
                 this.container.getValues(Dest.CONTENT_AUTOMATIC_STYLES).iterator().hasNext());
@@ -58,11 +62,11 @@ public class MultiContainerTest {
 
     @Test
     public final void testCreateTwice() {
-        Assert.assertTrue(this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, 1));
-        Assert.assertEquals(Integer.valueOf(1),
+        Assert.assertTrue(this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, TestValue.of(1)));
+        Assert.assertEquals(TestValue.of(1),
                 this.container.getValues(Dest.CONTENT_AUTOMATIC_STYLES).iterator().next());
-        Assert.assertFalse(this.container.add("a", Dest.STYLES_AUTOMATIC_STYLES, 2));
-        Assert.assertEquals(Integer.valueOf(1),
+        Assert.assertFalse(this.container.add("a", Dest.STYLES_AUTOMATIC_STYLES, TestValue.of(2)));
+        Assert.assertEquals(TestValue.of(1),
                 this.container.getValues(Dest.CONTENT_AUTOMATIC_STYLES).iterator().next());
         Assert.assertFalse(
                 this.container.getValues(Dest.STYLES_AUTOMATIC_STYLES).iterator().hasNext());
@@ -81,7 +85,7 @@ public class MultiContainerTest {
     @Test
     public final void testUpdateWithoutCreation() {
         this.container.setMode(Container.Mode.UPDATE);
-        Assert.assertFalse(this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, 1));
+        Assert.assertFalse(this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, TestValue.of(1)));
         for (final Dest s : Dest.values())
             Assert.assertFalse(this.container.getValues(s).iterator().hasNext());
     }
@@ -89,7 +93,7 @@ public class MultiContainerTest {
     @Test(expected = IllegalStateException.class)
     public final void testCreateAfterFreeze() {
         this.container.freeze();
-        this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, 1);
+        this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, TestValue.of(1));
     }
 
     @Test
@@ -104,24 +108,78 @@ public class MultiContainerTest {
 
         PowerMock.replayAll();
         this.container.debug();
-        this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, 1);
+        this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, TestValue.of(1));
 
         PowerMock.verifyAll();
     }
 
     @Test
     public final void testGet() {
-        this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, 1);
-        Assert.assertEquals(Integer.valueOf(1),
+        this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, TestValue.of(1));
+        Assert.assertEquals(TestValue.of(1),
                 this.container.get("a", Dest.CONTENT_AUTOMATIC_STYLES));
         Assert.assertEquals(null, this.container.get("a", Dest.STYLES_AUTOMATIC_STYLES));
         Assert.assertEquals(null, this.container.get("b", Dest.CONTENT_AUTOMATIC_STYLES));
 
-        final Map<String, Integer> m = new HashMap<String, Integer>();
-        m.put("a", 1);
+        final Map<String, TestValue> m = new HashMap<String, TestValue>();
+        m.put("a", TestValue.of(1));
         Assert.assertEquals(m, this.container.getValueByKey(Dest.CONTENT_AUTOMATIC_STYLES));
     }
 
+    @Test
+    public final void testOrder() {
+        this.container.add("c", Dest.CONTENT_AUTOMATIC_STYLES, TestValue.of(1));
+        this.container.add("a", Dest.STYLES_COMMON_STYLES, TestValue.of(2));
+        this.container.add("b", Dest.CONTENT_AUTOMATIC_STYLES, TestValue.of(3));
+        this.container.add("d", Dest.CONTENT_AUTOMATIC_STYLES, TestValue.of(4));
+        this.container.setMode(Container.Mode.UPDATE);
+        this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, TestValue.of(5));
+
+        final List<TestValue> values = new ArrayList<TestValue>();
+        for (final TestValue value : this.container.getValues(Dest.CONTENT_AUTOMATIC_STYLES))
+            values.add(value);
+        Assert.assertEquals(
+                Arrays.asList(TestValue.of(1), TestValue.of(3), TestValue.of(4), TestValue.of(5)),
+                values); // "a" moved: at the end
+        Assert.assertEquals(Arrays.asList("c", "b", "d", "a"), new ArrayList<String>(
+                this.container.getValueByKey(Dest.CONTENT_AUTOMATIC_STYLES).keySet()));
+        Assert.assertFalse(
+                this.container.getValues(Dest.STYLES_COMMON_STYLES).iterator().hasNext());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public final void testMoveAfterFreeze() {
+        this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, TestValue.of(1));
+        this.container.freeze();
+        this.container.setMode(Container.Mode.UPDATE);
+        this.container.add("a", Dest.STYLES_COMMON_STYLES, TestValue.of(2));
+    }
+
+    @Test
+    public final void testIds() {
+        this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, TestValue.of(1));
+        this.container.add("b", Dest.STYLES_COMMON_STYLES, TestValue.of(2));
+        final BitSet ids = this.container.getIds(Dest.CONTENT_AUTOMATIC_STYLES);
+        this.container.add("c", Dest.CONTENT_AUTOMATIC_STYLES, TestValue.of(3));
+        this.container.setMode(Container.Mode.UPDATE);
+        this.container.add("b", Dest.CONTENT_AUTOMATIC_STYLES, TestValue.of(4));
+
+        Assert.assertEquals(Arrays.asList(TestValue.of(3), TestValue.of(4)),
+                this.container.getValues(Dest.CONTENT_AUTOMATIC_STYLES, ids));
+    }
+
+    @Test
+    public final void testAddSameValueTwice() {
+        final TestValue value = TestValue.of(1);
+        Assert.assertTrue(this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, value));
+        Assert.assertFalse(this.container.add("a", Dest.STYLES_COMMON_STYLES, value));
+        this.container.setMode(Container.Mode.CREATE_OR_UPDATE);
+        Assert.assertTrue(this.container.add("a", Dest.STYLES_COMMON_STYLES, value));
+        Assert.assertFalse(
+                this.container.getValues(Dest.CONTENT_AUTOMATIC_STYLES).iterator().hasNext());
+        Assert.assertEquals(value, this.container.get("a", Dest.STYLES_COMMON_STYLES));
+    }
+
     public enum Dest {
         CONTENT_AUTOMATIC_STYLES, STYLES_AUTOMATIC_STYLES, STYLES_COMMON_STYLES,
     }
@@ -0,0 +1,309 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+public class ParallelZipOutputTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public final void testParallel() throws IOException {
+        Assume.assumeTrue(ParallelZipOutput.isParallelDeflateAvailable());
+        this.testRoundTrip(4, 32 * 1024);
+    }
+
+    @Test
+    public final void testSerial() throws IOException {
+        this.testRoundTrip(1, 32 * 1024);
+    }
+
+    @Test
+    public final void testPooled() throws IOException {
+        final WriterResourcePool pool = WriterResourcePool.create();
+        final byte[] expected = ParallelZipOutputTest.zipSerially(null);
+        Assert.assertArrayEquals(expected, ParallelZipOutputTest.zipSerially(pool));
+        Assert.assertArrayEquals(expected, ParallelZipOutputTest.zipSerially(pool));
+        Assert.assertEquals(1, pool.getDeflaterAllocations());
+        Assert.assertEquals(1, pool.getDeflaterReuses());
+        Assert.assertEquals(1, pool.getPooledDeflaterCount());
+        Assert.assertEquals(1, pool.getBufferPool().getPooledChunkCount());
+    }
+
+    private static byte[] zipSerially(final WriterResourcePool pool) throws IOException {
+        final byte[] data = ParallelZipOutputTest.createData(100 * 1000);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ParallelZipOutput output = ParallelZipOutput.create(out, 6, 1, 32 * 1024, pool);
+        for (int i = 0; i < 2; i++) {
+            final ZipEntry entry = new ZipEntry("entry" + i);
+            entry.setTime(0);
+            output.putNextEntry(entry);
+            output.write(data, 0, data.length);
+        }
+        output.close();
+        return out.toByteArray();
+    }
+
+    @Test
+    public final void testPrecompressed() throws IOException {
+        final byte[] data = ParallelZipOutputTest.createData(10 * 1000);
+        final PrecompressedEntry precompressed = PrecompressedEntry.create("pre", data);
+        final File file = File.createTempFile("fastods-parallel", ".zip");
+        try {
+            final ParallelZipOutput output = ParallelZipOutput
+                    .create(new FileOutputStream(file), 1, 1, 64 * 1024);
+            output.putNextEntry(new ZipEntry("a"));
+            output.write(data, 0, data.length);
+            output.writeEntry(precompressed); // closes "a"
+            output.writeEntry(PrecompressedEntry.create("empty/", new byte[0]));
+            output.close();
+
+            final ZipFile zipFile = new ZipFile(file);
+            try {
+                final ZipEntry entry = zipFile.getEntry("pre");
+                Assert.assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+                Assert.assertEquals(precompressed.getCompressedSize(), entry.getCompressedSize());
+                Assert.assertEquals(ParallelZipOutputTest.crc(data), entry.getCrc());
+                Assert.assertArrayEquals(data, ParallelZipOutputTest.readAll(zipFile.getInputStream(entry)));
+                Assert.assertArrayEquals(data, ParallelZipOutputTest.readAll(
+                        zipFile.getInputStream(zipFile.getEntry("a"))));
+                Assert.assertEquals(0, zipFile.getEntry("empty/").getSize());
+            } finally {
+                zipFile.close();
+            }
+
+            final ZipInputStream in = new ZipInputStream(new FileInputStream(file));
+            try {
+                Assert.assertEquals("a", in.getNextEntry().getName());
+                Assert.assertEquals("pre", in.getNextEntry().getName());
+                Assert.assertArrayEquals(data, ParallelZipOutputTest.readAll(in));
+                Assert.assertEquals("empty/", in.getNextEntry().getName());
+                Assert.assertNull(in.getNextEntry());
+            } finally {
+                in.close();
+            }
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public final void testZipFile() throws IOException {
+        final byte[] data = ParallelZipOutputTest.createData(300 * 1000);
+        final File file = File.createTempFile("fastods-parallel", ".zip");
+        try {
+            final ParallelZipOutput output = ParallelZipOutput
+                    .create(new FileOutputStream(file), 1, 3, 64 * 1024);
+            output.setComment("a comment");
+            output.putNextEntry(new ZipEntry("content.xml"));
+            output.write(data, 0, data.length);
+            output.putNextEntry(new ZipEntry("empty/"));
+            output.close();
+
+            final ZipFile zipFile = new ZipFile(file);
+            try {
+                Assert.assertEquals(2, zipFile.size());
+                Assert.assertEquals("a comment", zipFile.getComment());
+                final ZipEntry entry = zipFile.getEntry("content.xml");
+                Assert.assertEquals(data.length, entry.getSize());
+                Assert.assertEquals(ParallelZipOutputTest.crc(data), entry.getCrc());
+                Assert.assertArrayEquals(data, ParallelZipOutputTest.readAll(zipFile.getInputStream(entry)));
+            } finally {
+                zipFile.close();
+            }
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public final void testStored() throws IOException {
+        final byte[] data = "application/vnd.oasis.opendocument.spreadsheet".getBytes(ZipUTF8Writer.UTF_8);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ParallelZipOutput output = ParallelZipOutput.create(out, 1, 2, 32 * 1024);
+        final ZipEntry entry = new ZipEntry("mimetype");
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.length);
+        entry.setCrc(ParallelZipOutputTest.crc(data));
+        output.putNextEntry(entry);
+        output.write(data, 0, data.length);
+        output.close();
+
+        final ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+        final ZipEntry readEntry = in.getNextEntry();
+        Assert.assertEquals("mimetype", readEntry.getName());
+        Assert.assertEquals(ZipEntry.STORED, readEntry.getMethod());
+        Assert.assertArrayEquals(data, ParallelZipOutputTest.readAll(in));
+    }
+
+    @Test
+    public final void testStoredBadCrc() throws IOException {
+        final ParallelZipOutput output = ParallelZipOutput.create(new ByteArrayOutputStream(), 1, 2, 32 * 1024);
+        final ZipEntry entry = new ZipEntry("mimetype");
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(1);
+        entry.setCrc(0);
+        output.putNextEntry(entry);
+        output.write(new byte[]{'a'}, 0, 1);
+        this.thrown.expect(ZipException.class);
+        output.closeEntry();
+    }
+
+    @Test
+    public final void testDuplicate() throws IOException {
+        final ParallelZipOutput output = ParallelZipOutput.create(new ByteArrayOutputStream(), 1, 2, 32 * 1024);
+        output.putNextEntry(new ZipEntry("a"));
+        this.thrown.expect(ZipException.class);
+        this.thrown.expectMessage("duplicate entry: a");
+        output.putNextEntry(new ZipEntry("a"));
+    }
+
+    @Test
+    public final void testBadLevel() {
+        this.thrown.expect(IllegalArgumentException.class);
+        this.thrown.expectMessage("invalid compression level");
+        ParallelZipOutput.create(new ByteArrayOutputStream(), 99, 2, 32 * 1024);
+    }
+
+    @Test
+    public final void testBadBlockSize() {
+        this.thrown.expect(IllegalArgumentException.class);
+        ZipUTF8WriterImpl.builder().parallelDeflate(2, 1024);
+    }
+
+    @Test
+    public final void testWriter() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ZipUTF8Writer writer = ZipUTF8WriterImpl.builder().parallelDeflate(2, 32 * 1024).build(out);
+        Assert.assertTrue(writer instanceof ZipUTF8DirectWriter);
+        writer.putNextEntry(new ZipEntry("a"));
+        for (int i = 0; i < 10000; i++)
+            writer.write("<table:table-cell office:value-type=\"float\" office:value=\"" + i + "\"/>");
+        writer.closeEntry();
+        writer.close();
+
+        final ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals("a", in.getNextEntry().getName());
+        final String text = new String(ParallelZipOutputTest.readAll(in), ZipUTF8Writer.UTF_8);
+        Assert.assertTrue(text.endsWith("office:value=\"9999\"/>"));
+    }
+
+    @Test
+    public final void testSharedExecutor() throws IOException {
+        Assume.assumeTrue(ParallelZipOutput.isParallelDeflateAvailable());
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final byte[] data = ParallelZipOutputTest.createData(300 * 1000);
+            for (int i = 0; i < 2; i++) { // the second output reuses the threads
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                final ZipUTF8Writer writer = ZipUTF8WriterImpl.builder()
+                        .parallelDeflate(executor, 3, 32 * 1024).build(out);
+                writer.putNextEntry(new ZipEntry("a"));
+                writer.write(new String(data, ZipUTF8Writer.UTF_8));
+                writer.closeEntry();
+                writer.close();
+                Assert.assertFalse(executor.isShutdown());
+
+                final ZipInputStream in =
+                        new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+                Assert.assertEquals("a", in.getNextEntry().getName());
+                Assert.assertArrayEquals(data, ParallelZipOutputTest.readAll(in));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void testRoundTrip(final int threadCount, final int blockSize) throws IOException {
+        final byte[][] data = {ParallelZipOutputTest.createData(1000 * 1000), new byte[0],
+                ParallelZipOutputTest.createData(blockSize), ParallelZipOutputTest.createData(10)};
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ParallelZipOutput output = ParallelZipOutput.create(out, 6, threadCount, blockSize);
+        for (int i = 0; i < data.length; i++) {
+            output.putNextEntry(new ZipEntry("entry" + i));
+            int j = 0;
+            while (j < data[i].length) { // irregular writes
+                final int len = Math.min(data[i].length - j, 1 + (j * 7) % 50000);
+                output.write(data[i], j, len);
+                j += len;
+            }
+            output.closeEntry();
+        }
+        output.finish();
+
+        final ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+        for (int i = 0; i < data.length; i++) {
+            final ZipEntry entry = in.getNextEntry();
+            Assert.assertEquals("entry" + i, entry.getName());
+            Assert.assertArrayEquals(data[i], ParallelZipOutputTest.readAll(in));
+        }
+        Assert.assertNull(in.getNextEntry());
+    }
+
+    private static byte[] createData(final int size) {
+        final Random random = new Random(size);
+        final byte[] data = new byte[size];
+        for (int i = 0; i < size; i++)
+            data[i] = (byte) ("<table:cell/> 0123456789".charAt(random.nextInt(24)));
+        return data;
+    }
+
+    private static long crc(final byte[] data) {
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        return crc.getValue();
+    }
+
+    private static byte[] readAll(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int n = in.read(buffer);
+        while (n != -1) {
+            out.write(buffer, 0, n);
+            n = in.read(buffer);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class PrecompressedEntryTest {
+    @Test
+    public final void testCreate() throws DataFormatException {
+        final String text = "application/vnd.oasis.opendocument.spreadsheet é";
+        final byte[] data = text.getBytes(ZipUTF8Writer.UTF_8);
+        final PrecompressedEntry entry = PrecompressedEntry.create("mimetype", text);
+        Assert.assertEquals("mimetype", entry.getName());
+        Assert.assertEquals(data.length, entry.getSize());
+        Assert.assertArrayEquals(data, entry.getData());
+
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        Assert.assertEquals(crc.getValue(), entry.getCrc());
+
+        final Inflater inflater = new Inflater(true);
+        inflater.setInput(entry.getDeflatedData());
+        final byte[] inflated = new byte[data.length];
+        Assert.assertEquals(data.length, inflater.inflate(inflated));
+        inflater.end();
+        Assert.assertArrayEquals(data, inflated);
+    }
+
+    @Test
+    public final void testWriteWithJavaUtilZip() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ZipUTF8Writer writer = ZipUTF8WriterImpl.builder().build(out);
+        writer.putNextEntry(new ZipEntry("a"));
+        writer.write("not closed");
+        writer.writeEntry(PrecompressedEntry.create("b", "text"));
+        writer.close();
+
+        final ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+        Assert.assertEquals("a", in.getNextEntry().getName());
+        Assert.assertEquals("b", in.getNextEntry().getName());
+        final byte[] buffer = new byte[10];
+        Assert.assertEquals(4, in.read(buffer));
+        Assert.assertEquals("text", new String(buffer, 0, 4, ZipUTF8Writer.UTF_8));
+        Assert.assertNull(in.getNextEntry());
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+
+public class SpooledSegmentTest {
+    private static String transfer(final SpooledSegment segment) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        final ZipUTF8Writer writer = PowerMock.createNiceMock(ZipUTF8Writer.class);
+        segment.transferTo(new ZipUTF8WriterAppender(writer, sb));
+        return sb.toString();
+    }
+
+    /**
+     * A writer that appends to a StringBuilder
+     */
+    private static class ZipUTF8WriterAppender implements ZipUTF8Writer {
+        private final ZipUTF8Writer mock;
+        private final StringBuilder sb;
+
+        ZipUTF8WriterAppender(final ZipUTF8Writer mock, final StringBuilder sb) {
+            this.mock = mock;
+            this.sb = sb;
+        }
+
+        @Override
+        public void closeEntry() throws IOException {
+            this.mock.closeEntry();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            this.mock.finish();
+        }
+
+        @Override
+        public void putNextEntry(final ZipEntry entry) throws IOException {
+            this.mock.putNextEntry(entry);
+        }
+
+        @Override
+        public void writeEntry(final PrecompressedEntry entry) throws IOException {
+            this.mock.writeEntry(entry);
+        }
+
+        @Override
+        public void setComment(final String comment) {
+            this.mock.setComment(comment);
+        }
+
+        @Override
+        public void write(final String str) {
+            this.sb.append(str);
+        }
+
+        @Override
+        public void write(final byte[] utf8Bytes, final int off, final int len) {
+            this.sb.append(new String(utf8Bytes, off, len, UTF_8));
+        }
+
+        @Override
+        public Appendable append(final CharSequence csq) {
+            return this.sb.append(csq);
+        }
+
+        @Override
+        public Appendable append(final CharSequence csq, final int start, final int end) {
+            return this.sb.append(csq, start, end);
+        }
+
+        @Override
+        public Appendable append(final char c) {
+            return this.sb.append(c);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.mock.close();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.mock.flush();
+        }
+    }
+
+    @Test
+    public final void testMemory() throws IOException {
+        final SpooledSegment segment = SpooledSegment.create(100);
+        segment.append("<a>").append("x<y", 1, 2).append('!');
+        segment.write("</a>");
+        Assert.assertFalse(segment.isSpilled());
+        Assert.assertEquals("<a><!</a>", SpooledSegmentTest.transfer(segment));
+        Assert.assertEquals("", SpooledSegmentTest.transfer(segment));
+    }
+
+    @Test
+    public final void testSpill() throws IOException {
+        final SpooledSegment segment = SpooledSegment.create(10);
+        final StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            final String s = "<é" + i + "/>";
+            segment.write(s);
+            expected.append(s);
+        }
+        Assert.assertTrue(segment.isSpilled());
+        segment.flush();
+        Assert.assertEquals(expected.toString(), SpooledSegmentTest.transfer(segment));
+        Assert.assertFalse(segment.isSpilled());
+    }
+
+    @Test
+    public final void testClose() throws IOException {
+        final SpooledSegment segment = SpooledSegment.create(10);
+        segment.write("0123456789ABCDEF");
+        Assert.assertTrue(segment.isSpilled());
+        segment.close();
+        Assert.assertFalse(segment.isSpilled());
+        Assert.assertEquals("", SpooledSegmentTest.transfer(segment));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public final void testNoEntry() throws IOException {
+        SpooledSegment.create(10).putNextEntry(new ZipEntry("e"));
+    }
+}
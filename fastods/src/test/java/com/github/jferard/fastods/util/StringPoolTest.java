@@ -0,0 +1,76 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StringPoolTest {
+    @Test
+    public final void testIntern() {
+        final StringPool pool = StringPool.create();
+        Assert.assertEquals(0.0, pool.getHitRate(), 0.0);
+        Assert.assertEquals(0, pool.intern("FR"));
+        Assert.assertEquals(1, pool.intern("DE"));
+        Assert.assertEquals(0, pool.intern(new String("FR")));
+        Assert.assertEquals(0, pool.intern("FR"));
+        Assert.assertEquals(2, pool.size());
+        Assert.assertEquals(2, pool.getHits());
+        Assert.assertEquals(2, pool.getMisses());
+        Assert.assertEquals(0.5, pool.getHitRate(), 0.0);
+        Assert.assertEquals("DE", pool.get(1));
+    }
+
+    @Test
+    public final void testGrow() {
+        final StringPool pool = StringPool.createSynchronized();
+        for (int i = 0; i < 1000; i++)
+            Assert.assertEquals(i, pool.intern("v" + i));
+        Assert.assertEquals(1000, pool.size());
+        Assert.assertEquals("v999", pool.get(999));
+        Assert.assertEquals("v0", pool.get(0));
+    }
+
+    @Test
+    public final void testEscapedAttribute() {
+        final StringPool pool = StringPool.create();
+        final int id = pool.intern("a&b<\"c\">");
+        final XMLUtil util = XMLUtil.create();
+        final String escaped = pool.getEscapedAttribute(util, id);
+        Assert.assertEquals("a&amp;b&lt;&quot;c&quot;&gt;", escaped);
+        Assert.assertSame(escaped, pool.getEscapedAttribute(util, id));
+    }
+
+    @Test
+    public final void testEscapedAttributeBytes() {
+        final StringPool pool = StringPool.createSynchronized();
+        for (int i = 0; i < 300; i++)
+            pool.intern("v" + i);
+        final int id = pool.intern("é&€");
+        final XMLUtil util = XMLUtil.create();
+        final byte[] bytes = pool.getEscapedAttributeBytes(util, id);
+        Assert.assertArrayEquals("é&amp;€".getBytes(ZipUTF8Writer.UTF_8), bytes);
+        Assert.assertSame(bytes, pool.getEscapedAttributeBytes(util, id));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class UTF8ChunkAppenderTest {
+    private static final String[] TEXTS = {"simple ascii text", "é à ç ñ ß", "€ 中文 ∑",
+            "😀 a smiley", "lone high \uD83D surrogate", "lone low \uDE00 surrogate",
+            "two high \uD83D😀 surrogates"};
+
+    @Test
+    public final void testSameAsStringBytes() throws IOException {
+        for (final int chunkSize : new int[]{4, 5, 7, 16, 1024}) {
+            for (final String text : TEXTS) {
+                final ByteChunkPool pool = ByteChunkPool.create(chunkSize, 8);
+                final UTF8ChunkAppender appender = UTF8ChunkAppender.create(pool);
+                appender.append(text);
+                appender.append(text, 1, text.length() - 1);
+                for (int i = 0; i < text.length(); i++)
+                    appender.append(text.charAt(i));
+
+                final String expected = text + text.substring(1, text.length() - 1) + text;
+                final byte[] expectedBytes = expected.getBytes(ZipUTF8Writer.UTF_8);
+                Assert.assertEquals(expectedBytes.length, appender.size());
+                Assert.assertArrayEquals(expectedBytes, this.writeTo(appender));
+                Assert.assertEquals(0, appender.size());
+            }
+        }
+    }
+
+    @Test
+    public final void testWriteBytes() throws IOException {
+        for (final int chunkSize : new int[]{4, 5, 7, 16, 1024}) {
+            for (final String text : TEXTS) {
+                final ByteChunkPool pool = ByteChunkPool.create(chunkSize, 8);
+                final UTF8ChunkAppender appender = UTF8ChunkAppender.create(pool);
+                final byte[] textBytes = text.getBytes(ZipUTF8Writer.UTF_8);
+                appender.append("<");
+                appender.write(textBytes, 0, textBytes.length);
+                appender.append(">");
+
+                final List<byte[]> chunks = this.chunks(appender);
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                for (final byte[] chunk : chunks) {
+                    Assert.assertFalse((chunk[0] & 0xC0) == 0x80); // no char split
+                    out.write(chunk);
+                }
+                Assert.assertArrayEquals(("<" + text + ">").getBytes(ZipUTF8Writer.UTF_8),
+                        out.toByteArray());
+            }
+        }
+    }
+
+    @Test
+    public final void testWriteBytesAfterHighSurrogate() throws IOException {
+        final UTF8ChunkAppender appender = UTF8ChunkAppender.create(ByteChunkPool.create());
+        appender.append("a\uD83D");
+        appender.write(new byte[]{'b'}, 0, 1);
+        Assert.assertArrayEquals(new byte[]{'a', '?', 'b'}, this.writeTo(appender));
+    }
+
+    @Test
+    public final void testPendingHighSurrogate() throws IOException {
+        final UTF8ChunkAppender appender = UTF8ChunkAppender.create(ByteChunkPool.create());
+        appender.append("a\uD83D");
+        Assert.assertArrayEquals(new byte[]{'a', '?'}, this.writeTo(appender));
+    }
+
+    @Test
+    public final void testNonString() throws IOException {
+        final UTF8ChunkAppender appender = UTF8ChunkAppender.create(ByteChunkPool.create());
+        appender.append(new StringBuilder("é€"));
+        appender.append(null);
+        Assert.assertArrayEquals("é€null".getBytes(ZipUTF8Writer.UTF_8), this.writeTo(appender));
+    }
+
+    @Test
+    public final void testChunksReleased() throws IOException {
+        final ByteChunkPool pool = ByteChunkPool.create(8, 8);
+        final UTF8ChunkAppender appender = UTF8ChunkAppender.create(pool);
+        appender.append("0123456789abcdef");
+        this.writeTo(appender);
+        Assert.assertEquals(4, pool.getAllocations());
+        Assert.assertEquals(4, pool.getPooledChunkCount());
+
+        appender.append("0123456789abcdef");
+        appender.release();
+        Assert.assertEquals(4, pool.getAllocations());
+        Assert.assertEquals(4, pool.getReuses());
+        Assert.assertEquals(4, pool.getPooledChunkCount());
+    }
+
+    private List<byte[]> chunks(final UTF8ChunkAppender appender) throws IOException {
+        final List<byte[]> chunks = new ArrayList<byte[]>();
+        final ZipUTF8Writer writer = PowerMock.createMock(ZipUTF8Writer.class);
+        writer.write(EasyMock.isA(byte[].class), EasyMock.anyInt(), EasyMock.anyInt());
+        EasyMock.expectLastCall().andAnswer(new IAnswer<Object>() {
+            @Override
+            public Object answer() {
+                final Object[] args = EasyMock.getCurrentArguments();
+                final int off = (Integer) args[1];
+                chunks.add(Arrays.copyOfRange((byte[]) args[0], off, off + (Integer) args[2]));
+                return null;
+            }
+        }).anyTimes();
+        PowerMock.replay(writer);
+        appender.writeTo(writer);
+        PowerMock.verify(writer);
+        return chunks;
+    }
+
+    private byte[] writeTo(final UTF8ChunkAppender appender) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ZipUTF8Writer writer = PowerMock.createMock(ZipUTF8Writer.class);
+        writer.write(EasyMock.isA(byte[].class), EasyMock.anyInt(), EasyMock.anyInt());
+        EasyMock.expectLastCall().andAnswer(new IAnswer<Object>() {
+            @Override
+            public Object answer() {
+                final Object[] args = EasyMock.getCurrentArguments();
+                out.write((byte[]) args[0], (Integer) args[1], (Integer) args[2]);
+                return null;
+            }
+        }).anyTimes();
+        PowerMock.replay(writer);
+        appender.writeTo(writer);
+        PowerMock.verify(writer);
+        return out.toByteArray();
+    }
+}
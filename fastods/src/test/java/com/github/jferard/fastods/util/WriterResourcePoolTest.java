@@ -0,0 +1,95 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.zip.Deflater;
+
+public class WriterResourcePoolTest {
+    @Test(expected = IllegalArgumentException.class)
+    public final void testNegative() {
+        WriterResourcePool.create(-1);
+    }
+
+    @Test
+    public final void testDeflaters() {
+        final WriterResourcePool pool = WriterResourcePool.create(1);
+        final Deflater deflater1 = pool.takeDeflater(Deflater.BEST_SPEED);
+        final Deflater deflater2 = pool.takeDeflater(Deflater.BEST_SPEED);
+        Assert.assertEquals(2, pool.getDeflaterAllocations());
+
+        deflater1.setInput(new byte[]{'a', 'b'});
+        pool.releaseDeflater(deflater1);
+        pool.releaseDeflater(deflater2); // ended: the pool is full
+        Assert.assertEquals(1, pool.getPooledDeflaterCount());
+
+        final Deflater deflater3 = pool.takeDeflater(Deflater.BEST_COMPRESSION);
+        Assert.assertSame(deflater1, deflater3);
+        Assert.assertTrue(deflater3.needsInput()); // reset
+        Assert.assertEquals(1, pool.getDeflaterReuses());
+        Assert.assertEquals(0, pool.getPooledDeflaterCount());
+        deflater3.end();
+    }
+
+    @Test
+    public final void testXMLUtils() {
+        final WriterResourcePool pool = WriterResourcePool.create(1);
+        final XMLUtil xmlUtil1 = pool.takeXMLUtil();
+        final XMLUtil xmlUtil2 = pool.takeXMLUtil();
+        pool.releaseXMLUtil(xmlUtil1);
+        pool.releaseXMLUtil(xmlUtil2); // dropped
+        Assert.assertEquals(1, pool.getPooledXMLUtilCount());
+        Assert.assertSame(xmlUtil1, pool.takeXMLUtil());
+        Assert.assertEquals(2, pool.getXMLUtilAllocations());
+        Assert.assertEquals(1, pool.getXMLUtilReuses());
+    }
+
+    @Test
+    public final void testDirectBuffers() {
+        final WriterResourcePool pool = WriterResourcePool.create(1);
+        final ByteBuffer buffer = pool.takeDirectBuffer();
+        Assert.assertTrue(buffer.isDirect());
+        Assert.assertEquals(WriterResourcePool.DIRECT_BUFFER_SIZE, buffer.capacity());
+
+        buffer.put((byte) 1);
+        pool.releaseDirectBuffer(buffer);
+        Assert.assertEquals(1, pool.getPooledDirectBufferCount());
+        final ByteBuffer buffer2 = pool.takeDirectBuffer();
+        Assert.assertSame(buffer, buffer2);
+        Assert.assertEquals(0, buffer2.position()); // cleared
+        Assert.assertEquals(1, pool.getDirectBufferAllocations());
+        Assert.assertEquals(1, pool.getDirectBufferReuses());
+    }
+
+    @Test
+    public final void testBuffers() {
+        final WriterResourcePool pool = WriterResourcePool.create();
+        Assert.assertEquals(WriterResourcePool.DEFAULT_BUFFER_SIZE,
+                pool.getBufferPool().getChunkSize());
+        Assert.assertEquals(ByteChunkPool.DEFAULT_CHUNK_SIZE, pool.getChunkPool().getChunkSize());
+    }
+}
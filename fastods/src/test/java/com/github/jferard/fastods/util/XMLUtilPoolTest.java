@@ -0,0 +1,57 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class XMLUtilPoolTest {
+    @Test
+    public final void testTakeRelease() {
+        final XMLUtilPool pool = XMLUtilPool.create(XMLUtil.create());
+        final XMLUtil util1 = pool.take();
+        final XMLUtil util2 = pool.take();
+        Assert.assertNotSame(util1, util2);
+        Assert.assertEquals(0, pool.size());
+
+        pool.release(util1);
+        Assert.assertEquals(1, pool.size());
+        Assert.assertSame(util1, pool.take());
+        pool.release(util1);
+        pool.release(util2);
+        Assert.assertEquals(2, pool.size());
+
+        pool.clear();
+        Assert.assertEquals(0, pool.size());
+    }
+
+    @Test
+    public final void testCopyOfTheEscaper() {
+        final FastOdsXMLEscaper escaper =
+                FastOdsXMLEscaper.create(FastOdsXMLEscaper.CachePolicy.NONE, 0);
+        final XMLUtilPool pool = XMLUtilPool.create(XMLUtil.create(escaper));
+        final XMLUtil util = pool.take();
+        Assert.assertEquals("&lt;a", util.escapeXMLAttribute("<a"));
+        Assert.assertEquals(0, escaper.getCacheMisses()); // not the escaper of the prototype
+    }
+}
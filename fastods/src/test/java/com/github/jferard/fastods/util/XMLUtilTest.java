@@ -0,0 +1,131 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
+import java.util.Random;
+
+public class XMLUtilTest {
+    private XMLUtil util;
+
+    @Before
+    public void setUp() {
+        this.util = XMLUtil.create();
+    }
+
+    @Test
+    public final void testCopy() {
+        final XMLEscaper escaper = PowerMock.createMock(XMLEscaper.class);
+        EasyMock.expect(escaper.escapeXMLAttribute("a")).andReturn("attr");
+        PowerMock.replayAll();
+        final XMLUtil copy = XMLUtil.create(escaper).copy(); // shared escaper
+        Assert.assertEquals("attr", copy.escapeXMLAttribute("a"));
+        PowerMock.verifyAll();
+
+        final XMLUtil copy2 = this.util.copy();
+        Assert.assertNotSame(this.util, copy2);
+        Assert.assertEquals("&lt;a", copy2.escapeXMLAttribute("<a"));
+    }
+
+    @Test
+    public final void testLong() throws IOException {
+        final long[] values = {0, 1, -1, 9, 10, 99, 100, 123456789012L, Long.MAX_VALUE,
+                Long.MIN_VALUE, Long.MIN_VALUE + 1, 1000000000000000000L};
+        for (final long value : values) {
+            final StringBuilder sb = new StringBuilder();
+            this.util.appendLong(sb, value);
+            Assert.assertEquals(Long.toString(value), sb.toString());
+        }
+    }
+
+    @Test
+    public final void testValues() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        this.util.appendEscapedXMLAttributeValue(sb, "a&\"b\"");
+        sb.append('|');
+        this.util.appendDateTime(sb, 0L);
+        sb.append('|');
+        this.util.appendTimeInterval(sb, 3723004L);
+        Assert.assertEquals("a&amp;&quot;b&quot;|" + this.util.formatDateTime(0L) + "|" +
+                this.util.formatTimeInterval(3723004L), sb.toString());
+    }
+
+    @Test
+    public final void testDouble() {
+        Assert.assertEquals("2.0", this.util.toString(2.0));
+        Assert.assertEquals("-2.0", this.util.toString(-2.0));
+        Assert.assertEquals("10.0", this.util.toString(10.0));
+        Assert.assertEquals("0.1", this.util.toString(0.1));
+        Assert.assertEquals("-12.75", this.util.toString(-12.75));
+        Assert.assertEquals("0.001", this.util.toString(1e-3));
+        Assert.assertEquals("123.456", this.util.toString(123.456));
+        Assert.assertEquals("9999999.5", this.util.toString(9999999.5));
+        Assert.assertEquals("0.30000000000000004", this.util.toString(0.1 + 0.2));
+        // constants and scientific notation
+        Assert.assertEquals("0.0", this.util.toString(0.0));
+        Assert.assertEquals("-0.0", this.util.toString(-0.0));
+        Assert.assertEquals("1.0E-5", this.util.toString(1e-5));
+        Assert.assertEquals("1.0E7", this.util.toString(1e7));
+        Assert.assertEquals("9.007199254740991E15", this.util.toString(9007199254740991.0));
+        Assert.assertEquals("1.0E22", this.util.toString(1e22));
+        Assert.assertEquals("1.0E-30", this.util.toString(1e-30));
+        Assert.assertEquals("-1.5E20", this.util.toString(-1.5e20));
+        Assert.assertEquals("1.23456785E7", this.util.toString(12345678.5));
+        Assert.assertEquals("8.8989E37", this.util.toString(8.8989e37));
+        Assert.assertEquals("1.0E23", this.util.toString(1e23)); // Java 8: 9.999999999999999E22
+        Assert.assertEquals("NaN", this.util.toString(Double.NaN));
+        Assert.assertEquals("-Infinity", this.util.toString(Double.NEGATIVE_INFINITY));
+    }
+
+    @Test
+    public final void testDoubleRoundTrip() {
+        final Random random = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            final double value;
+            if (i % 2 == 0) value = Double.longBitsToDouble(random.nextLong());
+            else value = (random.nextInt() / 1000.0) * Math.pow(10, random.nextInt(20) - 10);
+            if (Double.isNaN(value)) continue;
+
+            // before Java 19, Double.toString may give one more digit than necessary
+            final String expected = Double.toString(value);
+            final String actual = this.util.toString(value);
+            Assert.assertEquals(value, Double.parseDouble(actual), 0.0);
+            Assert.assertTrue(actual.length() <= expected.length());
+        }
+    }
+
+    @Test
+    public final void testAttributes() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        this.util.appendAttribute(sb, "a", 10L);
+        this.util.appendAttribute(sb, "b", 0.5);
+        Assert.assertEquals(" a=\"10\" b=\"0.5\"", sb.toString());
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2018 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+
+public class ZipUTF8DirectWriterTest {
+    private static final String[] TEXTS = {"simple ascii text", "é à ç ñ ß", "€ 中文 ∑",
+            "😀 a smiley", "lone high \uD83D surrogate", "lone low \uDE00 surrogate",
+            "two high \uD83D\uD83D\uDE00 surrogates",
+            "<table:table-cell office:value-type=\"string\" office:string-value=\"Ωmega &amp; co\"/>"};
+
+    @Test
+    public final void testSameOutput() throws IOException {
+        for (final int size : new int[]{1, 16, 17, 100, 8192}) {
+            Assert.assertArrayEquals(this.zip(ZipUTF8WriterImpl.builder().writerBuffer(size)),
+                    this.zip(ZipUTF8WriterImpl.builder().directEncoder().writerBuffer(size)));
+        }
+        Assert.assertArrayEquals(this.zip(ZipUTF8WriterImpl.builder().noWriterBuffer()),
+                this.zip(ZipUTF8WriterImpl.builder().directEncoder().noWriterBuffer()));
+    }
+
+    @Test
+    public final void testSplitSurrogatePair() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ZipUTF8Writer writer = ZipUTF8WriterImpl.builder().directEncoder().build(out);
+        final ZipEntry entry = new ZipEntry("a");
+        entry.setTime(0);
+        writer.putNextEntry(entry);
+        writer.append('\uD83D');
+        writer.append("\uDE00");
+        writer.closeEntry();
+        writer.close();
+
+        final ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
+        final ZipUTF8Writer expectedWriter = ZipUTF8WriterImpl.builder().build(expectedOut);
+        final ZipEntry expectedEntry = new ZipEntry("a");
+        expectedEntry.setTime(0);
+        expectedWriter.putNextEntry(expectedEntry);
+        expectedWriter.write("😀");
+        expectedWriter.closeEntry();
+        expectedWriter.close();
+
+        Assert.assertArrayEquals(expectedOut.toByteArray(), out.toByteArray());
+    }
+
+    private byte[] zip(final ZipUTF8WriterBuilder builder) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ZipUTF8Writer writer = builder.build(out);
+        writer.setComment("comment");
+        for (int i = 0; i < 3; i++) {
+            final ZipEntry entry = new ZipEntry("entry" + i);
+            entry.setTime(0);
+            writer.putNextEntry(entry);
+            for (int j = 0; j < 200; j++) {
+                for (final String text : TEXTS) {
+                    writer.write(text);
+                    final byte[] bytes = text.getBytes(ZipUTF8Writer.UTF_8);
+                    writer.write(bytes, 0, bytes.length);
+                    writer.append(text, 1, text.length() - 1);
+                    writer.append(text.charAt(j % text.length()));
+                }
+            }
+            writer.closeEntry();
+        }
+        writer.finish();
+        writer.close();
+        return out.toByteArray();
+    }
+}
@@ -90,6 +90,17 @@ public class ZipUTF8WriterBuilderTest {
         Assert.assertEquals(118, this.out.size());
     }
 
+    @Test
+    public final void testDirectEncoder() throws IOException {
+        final ZipUTF8Writer writer = this.builder.directEncoder().build(this.out);
+        Assert.assertTrue(writer instanceof ZipUTF8DirectWriter);
+        writer.putNextEntry(new ZipEntry("a"));
+        writer.append('c');
+        writer.closeEntry();
+        writer.close();
+        Assert.assertEquals(119, this.out.size());
+    }
+
     @Test
     public final void testExplicitDefault() throws IOException {
         final ZipUTF8Writer writer = this.builder.defaultWriterBuffer().defaultZipBuffer().build(this.out);